@@ -40,6 +40,7 @@ plugins {
 val javaVersion = JavaVersion.current()
 val kotlinTargetJdk = JvmTarget.fromTarget(javaVersion.majorVersion)
 val junit5Version = "5.11.3"
+val jmhVersion = "1.37"
 val holocoreLogLevel: String? by project
 
 subprojects {
@@ -65,6 +66,7 @@ sourceSets {
 		}
 	}
 	create("utility")
+	create("benchmark")
 }
 
 tasks.named("processResources").configure { dependsOn("compileJava") }
@@ -73,6 +75,10 @@ val utilityImplementation by configurations.getting {
 	extendsFrom(configurations.implementation.get())
 }
 
+val benchmarkImplementation by configurations.getting {
+	extendsFrom(configurations.implementation.get())
+}
+
 dependencies {
 	implementation(project(":pswgcommon"))
 	implementation(kotlin("stdlib"))
@@ -89,6 +95,11 @@ dependencies {
 	utilityImplementation(project(":"))
 	utilityImplementation(project(":pswgcommon"))
 	
+	benchmarkImplementation(project(":"))
+	benchmarkImplementation(project(":pswgcommon"))
+	benchmarkImplementation(group="org.openjdk.jmh", name="jmh-core", version=jmhVersion)
+	"benchmarkAnnotationProcessor"(group="org.openjdk.jmh", name="jmh-generator-annprocess", version=jmhVersion)
+	
 	testImplementation(group="org.junit.jupiter", name="junit-jupiter-api", version=junit5Version)
 	testRuntimeOnly(group="org.junit.jupiter", name="junit-jupiter-engine", version=junit5Version)
 	testRuntimeOnly(group="org.junit.platform", name="junit-platform-launcher", version="1.11.3")
@@ -160,6 +171,11 @@ tasks.create<JavaExec>("runClientdataConversion") {
 	mainClass.set("com.projectswg.utility.ClientdataConvertAll")
 }
 
+tasks.create<JavaExec>("runBenchmarks") {
+	classpath = sourceSets["benchmark"].runtimeClasspath
+	mainClass.set("org.openjdk.jmh.Main")
+}
+
 tasks.withType<Test>().configureEach {
 	useJUnitPlatform()
 
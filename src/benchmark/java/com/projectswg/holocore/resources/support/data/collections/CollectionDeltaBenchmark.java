@@ -0,0 +1,103 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.collections;
+
+import com.projectswg.common.encoding.StringType;
+import com.projectswg.holocore.resources.support.objects.swg.tangible.TangibleObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delta-heavy collection workload: each invocation performs {@code operations} inserts and removes against a list or
+ * set and then flushes the accumulated delta, as a busy inventory or skill mod list would within one second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollectionDeltaBenchmark {
+	
+	@Param({"1000"})
+	private int operations;
+	
+	private TangibleObject owner;
+	private SWGList<String> asciiList;
+	private SWGList<Integer> intList;
+	private SWGSet<String> stringSet;
+	private String [] values;
+	
+	@Setup
+	public void setup() {
+		owner = new TangibleObject(1);
+		asciiList = SWGList.Companion.createAsciiList(3, 6);
+		intList = SWGList.Companion.createIntList(3, 7);
+		stringSet = new SWGSet<>(3, 8, StringType.ASCII);
+		values = new String[operations];
+		for (int i = 0; i < operations; i++)
+			values[i] = "skill_mod_" + i;
+	}
+	
+	@Benchmark
+	public void asciiListInsertRemove() {
+		for (int i = 0; i < operations; i++) {
+			asciiList.add(values[i]);
+			if (i % 2 == 1)
+				asciiList.removeAt(0);
+		}
+		asciiList.sendDeltaMessage(owner);
+		asciiList.clear();
+		asciiList.clearDeltaQueue();
+	}
+	
+	@Benchmark
+	public void intListInsertRemove() {
+		for (int i = 0; i < operations; i++) {
+			intList.add(i);
+			if (i % 2 == 1)
+				intList.removeAt(0);
+		}
+		intList.sendDeltaMessage(owner);
+		intList.clear();
+		intList.clearDeltaQueue();
+	}
+	
+	@Benchmark
+	public void setInsertRemove() {
+		for (int i = 0; i < operations; i++) {
+			stringSet.add(values[i]);
+			if (i % 2 == 1)
+				stringSet.remove(values[i - 1]);
+		}
+		stringSet.sendDeltaMessage(owner);
+		stringSet.clear();
+		stringSet.clearDeltaQueue();
+	}
+	
+}
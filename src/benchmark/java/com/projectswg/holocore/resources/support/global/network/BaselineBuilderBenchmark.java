@@ -0,0 +1,116 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.global.network;
+
+import com.projectswg.common.network.packets.swg.zone.baselines.Baseline;
+import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject;
+import com.projectswg.holocore.resources.support.objects.swg.tangible.TangibleObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding the shared baselines (3 and 6) of a creature and a tangible, bypassing the per-object baseline
+ * cache so that every invocation goes through {@link BaselineBuilder}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaselineBuilderBenchmark {
+	
+	private BenchmarkCreature creature;
+	private BenchmarkTangible tangible;
+	
+	@Setup
+	public void setup() {
+		creature = new BenchmarkCreature(1);
+		creature.setTemplate("object/creature/player/shared_human_male.iff");
+		creature.setObjectName("Benchmark Creature");
+		creature.setLevel(90);
+		tangible = new BenchmarkTangible(2);
+		tangible.setTemplate("object/tangible/furniture/all/shared_frn_all_chair_kitchen_s1.iff");
+		tangible.setObjectName("Benchmark Chair");
+	}
+	
+	@Benchmark
+	public Baseline creatureBaseline3() {
+		return creature.build(3);
+	}
+	
+	@Benchmark
+	public Baseline creatureBaseline6() {
+		return creature.build(6);
+	}
+	
+	@Benchmark
+	public Baseline tangibleBaseline3() {
+		return tangible.build(3);
+	}
+	
+	@Benchmark
+	public Baseline tangibleBaseline6() {
+		return tangible.build(6);
+	}
+	
+	private static class BenchmarkCreature extends CreatureObject {
+		
+		public BenchmarkCreature(long objectId) {
+			super(objectId);
+		}
+		
+		public Baseline build(int num) {
+			BaselineBuilder bb = new BaselineBuilder(this, getBaselineType(), num);
+			if (num == 3)
+				createBaseline3(null, bb);
+			else
+				createBaseline6(null, bb);
+			return bb.buildAsBaselinePacket();
+		}
+		
+	}
+	
+	private static class BenchmarkTangible extends TangibleObject {
+		
+		public BenchmarkTangible(long objectId) {
+			super(objectId);
+		}
+		
+		public Baseline build(int num) {
+			BaselineBuilder bb = new BaselineBuilder(this, getBaselineType(), num);
+			if (num == 3)
+				createBaseline3(null, bb);
+			else
+				createBaseline6(null, bb);
+			return bb.buildAsBaselinePacket();
+		}
+		
+	}
+	
+}
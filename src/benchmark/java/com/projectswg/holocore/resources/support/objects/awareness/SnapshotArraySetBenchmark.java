@@ -0,0 +1,104 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.objects.awareness;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares awareness cell membership structures under a chunk-crossing workload: every operation removes one member
+ * and adds another, and the cell is iterated (as it would be by an awareness update) once every {@code mutationsPerUpdate}
+ * operations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotArraySetBenchmark {
+	
+	@Param({"100", "1000", "5000"})
+	private int members;
+	
+	@Param({"1", "50"})
+	private int mutationsPerUpdate;
+	
+	private Object [] pool;
+	private CopyOnWriteArrayList<Object> copyOnWrite;
+	private SnapshotArraySet<Object> snapshotSet;
+	private int mutations;
+	
+	@Setup
+	public void setup() {
+		pool = new Object[members * 2];
+		for (int i = 0; i < pool.length; i++)
+			pool[i] = new Object();
+		copyOnWrite = new CopyOnWriteArrayList<>();
+		snapshotSet = new SnapshotArraySet<>();
+		for (int i = 0; i < members; i++) {
+			copyOnWrite.add(pool[i]);
+			snapshotSet.add(pool[i]);
+		}
+		mutations = 0;
+	}
+	
+	@Benchmark
+	public void copyOnWriteArrayList(Blackhole blackhole) {
+		Object remove = nextMember();
+		Object add = nextMember();
+		if (copyOnWrite.remove(remove))
+			copyOnWrite.addIfAbsent(add);
+		else
+			copyOnWrite.addIfAbsent(remove);
+		if (++mutations % mutationsPerUpdate == 0) {
+			for (Object member : copyOnWrite)
+				blackhole.consume(member);
+		}
+	}
+	
+	@Benchmark
+	public void snapshotArraySet(Blackhole blackhole) {
+		Object remove = nextMember();
+		Object add = nextMember();
+		if (snapshotSet.remove(remove))
+			snapshotSet.add(add);
+		else
+			snapshotSet.add(remove);
+		if (++mutations % mutationsPerUpdate == 0)
+			snapshotSet.forEach(blackhole::consume);
+	}
+	
+	private Object nextMember() {
+		return pool[ThreadLocalRandom.current().nextInt(pool.length)];
+	}
+	
+}
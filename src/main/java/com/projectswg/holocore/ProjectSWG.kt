@@ -31,12 +31,18 @@ import com.projectswg.common.data.encodables.galaxy.Galaxy.GalaxyStatus
 import com.projectswg.common.data.swgiff.parsers.SWGParser
 import com.projectswg.holocore.intents.support.data.control.ServerStatusIntent
 import com.projectswg.holocore.resources.support.data.control.ServerStatus
+import com.projectswg.holocore.resources.support.data.server_info.SdbLoader
+import com.projectswg.holocore.resources.support.data.server_info.StandardLog
+import com.projectswg.holocore.resources.support.data.server_info.loader.ServerData
+import com.projectswg.holocore.resources.support.data.server_info.loader.terrain.TerrainHeightLoader
 import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase
 import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase.config
 import com.projectswg.holocore.services.gameplay.GameplayManager
 import com.projectswg.holocore.services.support.SupportManager
+import com.projectswg.holocore.utilities.AsyncLogWrapper
 import com.projectswg.holocore.utilities.HolocoreCoroutine
 import com.projectswg.holocore.utilities.ScheduledUtilities
+import com.projectswg.holocore.utilities.TickScheduler
 import me.joshlarson.jlcommon.argparse.Argument
 import me.joshlarson.jlcommon.argparse.ArgumentParser
 import me.joshlarson.jlcommon.argparse.ArgumentParserException
@@ -47,6 +53,7 @@ import me.joshlarson.jlcommon.control.Manager
 import me.joshlarson.jlcommon.control.SafeMain
 import me.joshlarson.jlcommon.control.ServiceBase
 import me.joshlarson.jlcommon.log.Log
+import me.joshlarson.jlcommon.log.LogWrapper
 import me.joshlarson.jlcommon.log.log_wrapper.AnsiColorLogWrapper
 import me.joshlarson.jlcommon.log.log_wrapper.ConsoleLogWrapper
 import me.joshlarson.jlcommon.log.log_wrapper.FileLogWrapper
@@ -58,6 +65,7 @@ import kotlin.math.max
 
 object ProjectSWG {
 	val galaxy = Galaxy()
+	private var logWrapper: AsyncLogWrapper? = null
 	
 	@JvmStatic
 	fun main(args: Array<String>) {
@@ -94,7 +102,10 @@ object ProjectSWG {
 		setupDatabase(arguments)
 		Thread.currentThread().priority = 10
 		initializeSWGParser()
+		setupSdbCache(arguments)
 		setupGalaxy(arguments)
+		setupTerrainHeightGrid()
+		preloadServerData()
 		IntentManager(false, Runtime.getRuntime().availableProcessors(), 8).use { intentManager ->
 			HolocoreCoroutine().use { coroutineManager ->
 				IntentManager.setInstance(intentManager)
@@ -118,6 +129,7 @@ object ProjectSWG {
 		shutdownDatabase()
 		shutdownStaticClasses()
 		printFinalPswgState()
+		shutdownLogging()
 		return 0
 	}
 
@@ -125,8 +137,14 @@ object ProjectSWG {
 		SWGParser.setBasePath("serverdata")
 	}
 
+	private fun setupSdbCache(arguments: Map<String, Any>) {
+		val directory = (arguments["sdb-cache"] ?: "sdb_cache") as String
+		SdbLoader.cacheDirectory = if (directory.equals("none", ignoreCase = true)) null else File(directory)
+	}
+
 	private fun shutdownStaticClasses() {
 		ScheduledUtilities.shutdown()
+		TickScheduler.shutdown()
 	}
 
 	private fun printFinalPswgState() {
@@ -174,6 +192,18 @@ object ProjectSWG {
 		ChatAvatar.setGalaxy(galaxy.name)
 	}
 
+	private fun setupTerrainHeightGrid() {
+		if (config.getBoolean(ProjectSWG::class.java, "terrainHeightGrid", false)) {
+			val resolution = config.getDouble(ProjectSWG::class.java, "terrainHeightGridResolution", 8.0)
+			TerrainHeightLoader.heightGridSettings = TerrainHeightLoader.HeightGridSettings(File("terrain_cache"), resolution, 8192.0)
+		}
+	}
+
+	private fun preloadServerData() {
+		if (config.getBoolean(ProjectSWG::class.java, "serverDataPreload", true))
+			ServerData.preload(Runtime.getRuntime().availableProcessors())
+	}
+
 	private fun setupDatabase(arguments: Map<String, Any>) {
 		val dbStr = (arguments["database"] ?: "mongodb://localhost") as String
 		val db = (arguments["dbName"] ?: "cu") as String
@@ -195,16 +225,28 @@ object ProjectSWG {
 				System.err.println("Invalid log level: " + arguments["log-level"])
 			}
 		}
+		StandardLog.setLevel(logLevel)
+		val wrappers = ArrayList<LogWrapper>()
 		if (arguments.containsKey("print-colors")) {
-			Log.addWrapper(AnsiColorLogWrapper(logLevel))
+			wrappers.add(AnsiColorLogWrapper(logLevel))
 		} else {
-			Log.addWrapper(ConsoleLogWrapper(logLevel))
+			wrappers.add(ConsoleLogWrapper(logLevel))
 		}
+		val logDirectory = File("log")
+		if ((arguments.containsKey("log-file") || arguments.containsKey("log-json")) && !logDirectory.isDirectory && !logDirectory.mkdir())
+			System.err.println("Failed to make log directory!")
 		if (arguments.containsKey("log-file")) {
-			val logDirectory = File("log")
-			if (!logDirectory.isDirectory && !logDirectory.mkdir()) Log.w("Failed to make log directory!")
-			Log.addWrapper(FileLogWrapper(File(logDirectory, "log.txt")))
+			wrappers.add(FileLogWrapper(File(logDirectory, "log.txt")))
 		}
+		val structuredOutput = if (arguments.containsKey("log-json")) File(logDirectory, "log.jsonl") else null
+		val wrapper = AsyncLogWrapper(logLevel, wrappers, structuredOutput)
+		logWrapper = wrapper
+		Log.addWrapper(wrapper)
+		Runtime.getRuntime().addShutdownHook(Thread(wrapper::close, "log-writer-shutdown"))
+	}
+
+	private fun shutdownLogging() {
+		logWrapper?.close()
 	}
 
 	private fun createArgumentOptions(): ArgumentParser {
@@ -226,6 +268,14 @@ object ProjectSWG {
 				.description("enable logging to file")
 				.build()
 		)
+		parser.addArgument(
+			Argument.builder("log-json")
+				.shortName('j')
+				.longName("log-json")
+				.isOptional(true)
+				.description("enable structured logging to file, as one JSON object per line")
+				.build()
+		)
 		parser.addArgument(
 			Argument.builder("log-level")
 				.shortName('l')
@@ -253,6 +303,15 @@ object ProjectSWG {
 				.description("sets the mongodb database (default: cu)")
 				.build()
 		)
+		parser.addArgument(
+			Argument.builder("sdb-cache")
+				.shortName('s')
+				.longName("sdb-cache")
+				.argCount('1')
+				.isOptional(true)
+				.description("sets the directory compiled sdb files are cached in, or 'none' to disable (default: sdb_cache)")
+				.build()
+		)
 		return parser
 	}
 
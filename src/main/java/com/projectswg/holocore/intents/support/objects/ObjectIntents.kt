@@ -36,5 +36,9 @@ data class MoveObjectIntent(val obj: SWGObject, val parent: SWGObject?, val newL
 	constructor(obj: SWGObject, newLocation: Location, speed: Double) : this(obj, null, newLocation, speed)
 }
 
+/** Moves many objects at once, in order, without an intent per object */
+data class MoveObjectsIntent(val moves: List<ObjectMove>) : Intent()
+data class ObjectMove(val obj: SWGObject, val parent: SWGObject?, val newLocation: Location, val speed: Double)
+
 data class ObjectCreatedIntent(val obj: SWGObject) : Intent()
 data class ObjectTeleportIntent(val obj: SWGObject, val oldParent: SWGObject?, val newParent: SWGObject?, val oldLocation: Location, val newLocation: Location) : Intent()
@@ -0,0 +1,109 @@
+/***********************************************************************************
+ * Copyright (c) 2026 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.collections
+
+/**
+ * Accumulates the encoded operations of a collection delta in a growable primitive byte array.  Each operation starts
+ * with [beginOperation] and is followed by its little-endian operands.  Not thread safe - the owning collection is
+ * responsible for locking.
+ */
+class DeltaByteQueue {
+	
+	private var data = EMPTY
+	
+	/** The number of bytes queued */
+	var size = 0
+		private set
+	/** The number of operations queued */
+	var count = 0
+		private set
+	
+	val isEmpty: Boolean
+		get() = count == 0
+	
+	fun beginOperation(operation: Int) {
+		count++
+		addByte(operation)
+	}
+	
+	fun addByte(b: Int) {
+		ensureCapacity(1)
+		data[size++] = b.toByte()
+	}
+	
+	fun addShort(s: Int) {
+		ensureCapacity(2)
+		data[size++] = s.toByte()
+		data[size++] = (s ushr 8).toByte()
+	}
+	
+	fun addBytes(bytes: ByteArray, offset: Int = 0, length: Int = bytes.size) {
+		ensureCapacity(length)
+		System.arraycopy(bytes, offset, data, size, length)
+		size += length
+	}
+	
+	/**
+	 * Encodes the queued operations as a collection delta - operation count, update count, then the operations
+	 */
+	fun encode(updateCount: Int): ByteArray {
+		val encoded = ByteArray(8 + size)
+		writeInt(encoded, 0, count)
+		writeInt(encoded, 4, updateCount)
+		System.arraycopy(data, 0, encoded, 8, size)
+		return encoded
+	}
+	
+	fun clear() {
+		size = 0
+		count = 0
+		if (data.size > MAX_RETAINED_SIZE)
+			data = EMPTY // don't pin a burst's worth of memory to every collection
+	}
+	
+	private fun ensureCapacity(bytes: Int) {
+		val required = size + bytes
+		if (required > data.size)
+			data = data.copyOf(maxOf(required, data.size * 2, INITIAL_SIZE))
+	}
+	
+	companion object {
+		
+		private const val INITIAL_SIZE = 32
+		private const val MAX_RETAINED_SIZE = 1024
+		private val EMPTY = ByteArray(0)
+		
+		private fun writeInt(array: ByteArray, offset: Int, i: Int) {
+			array[offset] = i.toByte()
+			array[offset+1] = (i ushr 8).toByte()
+			array[offset+2] = (i ushr 16).toByte()
+			array[offset+3] = (i ushr 24).toByte()
+		}
+		
+	}
+	
+}
@@ -42,8 +42,7 @@ class SWGList<T: Any>: AbstractMutableList<T>, Encodable {
 		private set
 	
 	private val list: MutableList<T> = ArrayList()
-	private val deltaQueue: MutableList<Byte> = ArrayList()
-	private var deltaQueueCount: Int = 0
+	private val deltaQueue = DeltaByteQueue()
 	private val lock = ReentrantLock()
 	private val encoder: (NetBuffer, T) -> Unit
 	private val decoder: (NetBuffer) -> T
@@ -192,48 +191,38 @@ class SWGList<T: Any>: AbstractMutableList<T>, Encodable {
 		}
 	
 	private fun addRemoveDelta(index: Int) {
-		deltaQueue.add(0)
-		deltaQueue.add(index.toByte())
-		deltaQueue.add(index.ushr(8).toByte())
-		deltaQueueCount++
+		deltaQueue.beginOperation(0)
+		deltaQueue.addShort(index)
 		updateCount++
 	}
 	
 	private fun addInsertDelta(index: Int, value: T) {
-		val encoded = NetBuffer.allocate(encodedLength(value))
-		encoder(encoded, value)
-		
-		deltaQueue.add(1)
-		deltaQueue.add(index.toByte())
-		deltaQueue.add(index.ushr(8).toByte())
-		deltaQueue.addAll(encoded.array().asList())
-		deltaQueueCount++
-		updateCount++
+		addValueDelta(1, index, value)
 	}
 	
 	private fun addSetDelta(index: Int, value: T) {
+		addValueDelta(2, index, value)
+	}
+	
+	private fun addValueDelta(operation: Int, index: Int, value: T) {
 		val encoded = NetBuffer.allocate(encodedLength(value))
 		encoder(encoded, value)
 		
-		deltaQueue.add(2)
-		deltaQueue.add(index.toByte())
-		deltaQueue.add(index.ushr(8).toByte())
-		deltaQueue.addAll(encoded.array().asList())
-		deltaQueueCount++
+		deltaQueue.beginOperation(operation)
+		deltaQueue.addShort(index)
+		deltaQueue.addBytes(encoded.array(), 0, encoded.position()) // encodedLength may over-estimate, e.g. for ASCII strings
 		updateCount++
 	}
 	
 	fun clearDeltaQueue() {
 		lock.withLock {
 			deltaQueue.clear()
-			deltaQueueCount = 0
 		}
 	}
 	
 	fun sendRefreshedListData(obj: SWGObject) {
 		lock.withLock {
 			deltaQueue.clear()
-			deltaQueueCount = 0
 			
 			updateCount += list.size
 			with(NetBuffer.allocate(11 + list.sumOf(encodedLength))) {
@@ -242,22 +231,15 @@ class SWGList<T: Any>: AbstractMutableList<T>, Encodable {
 				addByte(3)
 				addShort(list.size)
 				list.forEach { encoder(this, it) }
-				obj.sendDelta(page, update, array())
+				obj.sendIncrementalDelta(page, update, array())
 			}
 		}
 	}
 	
 	fun sendDeltaMessage(obj: SWGObject) {
 		lock.withLock {
-			with(NetBuffer.allocate(8 + deltaQueue.size)) {
-				addInt(deltaQueueCount)
-				addInt(updateCount)
-				addRawArray(deltaQueue.toByteArray())
-				obj.sendDelta(page, update, array())
-			}
-			
+			obj.sendIncrementalDelta(page, update, deltaQueue.encode(updateCount))
 			deltaQueue.clear()
-			deltaQueueCount = 0
 		}
 	}
 	
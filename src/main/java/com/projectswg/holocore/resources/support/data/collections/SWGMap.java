@@ -234,7 +234,7 @@ public class SWGMap<K, V> extends ConcurrentHashMap<K, V> implements Encodable {
 		if (deltas.isEmpty())
 			return;
 		
-		target.sendDelta(view, updateType, getDeltaData());
+		target.sendIncrementalDelta(view, updateType, getDeltaData());
 		// Clear the queue since the delta has been sent to observers through the builder
 		clearDeltaQueue();
 	}
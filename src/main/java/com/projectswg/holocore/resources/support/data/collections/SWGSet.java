@@ -49,10 +49,9 @@ public class SWGSet<E> extends CopyOnWriteArraySet<E> implements Encodable {
 	private final int updateType;
 	private final StringType strType;
 	private final AtomicInteger updateCount;
-	private final List<byte[]> deltas;
+	private final DeltaByteQueue deltas;
 	private final Set<ByteBuffer> data;
 	
-	private int deltaSize;
 	private int dataSize;
 	
 	/**
@@ -82,9 +81,8 @@ public class SWGSet<E> extends CopyOnWriteArraySet<E> implements Encodable {
 		this.strType = strType;
 		this.dataSize = 0;
 		this.updateCount = new AtomicInteger(0);
-		this.deltas = new LinkedList<>();
+		this.deltas = new DeltaByteQueue();
 		this.data = new HashSet<>();
-		this.deltaSize = 0;
 	}
 	
 	public void resetUpdateCount() {
@@ -131,7 +129,7 @@ public class SWGSet<E> extends CopyOnWriteArraySet<E> implements Encodable {
 		if (deltas.isEmpty())
 			return;
 		
-		target.sendDelta(view, updateType, getDeltaData());
+		target.sendIncrementalDelta(view, updateType, getDeltaData());
 		// Clear the queue since the delta has been sent to observers through the builder
 		clearDeltaQueue();
 	}
@@ -168,40 +166,26 @@ public class SWGSet<E> extends CopyOnWriteArraySet<E> implements Encodable {
 	private void clearAllObjectData() {
 		clearAllData();
 		synchronized (deltas) {
-			deltaSize = 1;
-			deltas.add(new byte[] {(byte) 2});
+			deltas.beginOperation(2);
 		}
 	}
 	
 	public void clearDeltaQueue() {
 		synchronized (deltas) {
 			deltas.clear();
-			deltaSize = 0;
 		}
 	}
 	
 	private byte[] getDeltaData() {
-		ByteBuffer buffer;
 		synchronized (deltas) {
-			buffer = ByteBuffer.allocate(8 + deltaSize).order(ByteOrder.LITTLE_ENDIAN);
-			
-			buffer.putInt(deltas.size());
-			buffer.putInt(updateCount.get());
-			for (byte[] data : deltas) {
-				buffer.put(data);
-			}
+			return deltas.encode(updateCount.get());
 		}
-		
-		return buffer.array();
 	}
 	
 	private void createDeltaData(byte[] delta, byte update) {
-		byte[] combinedUpdate = new byte[delta.length + 1];
-		combinedUpdate[0] = update;
-		System.arraycopy(delta, 0, combinedUpdate, 1, delta.length);
 		synchronized (deltas) {
-			deltaSize += delta.length + 1;
-			deltas.add(combinedUpdate);
+			deltas.beginOperation(update);
+			deltas.addBytes(delta, 0, delta.length);
 		}
 	}
 	
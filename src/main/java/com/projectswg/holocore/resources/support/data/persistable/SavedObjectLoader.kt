@@ -0,0 +1,162 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.persistable
+
+import com.projectswg.common.data.encodables.mongo.MongoData
+import com.projectswg.common.utilities.ThreadUtilities
+import com.projectswg.holocore.resources.support.data.server_info.database.PswgObjectDatabase
+import com.projectswg.holocore.resources.support.objects.swg.SWGObject
+import com.projectswg.holocore.resources.support.objects.swg.building.BuildingObject
+import com.projectswg.holocore.resources.support.objects.swg.player.PlayerObject
+import me.joshlarson.jlcommon.log.Log
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Loads the persisted objects from the database.  Documents are streamed from the database in batches, and each batch is
+ * turned into objects on a pool of [threads] worker threads while the next batch is being read.  Only a few batches are
+ * in flight at a time, and only the parent reference of each document is kept after its object is built, so the full
+ * set of documents is never held in memory.
+ *
+ * Once every object is built, containment is resolved top-down: an object is only moved into its parent after the
+ * parent has itself been placed.
+ */
+class SavedObjectLoader(private val database: PswgObjectDatabase, private val threads: Int, private val batchSize: Int) {
+	
+	private val loaded = ConcurrentHashMap<Long, LoadedObject>(64 * 1024)
+	private val built = AtomicInteger(0)
+	private val failed = AtomicInteger(0)
+	
+	/**
+	 * Builds and links every persisted object
+	 *
+	 * @param externalLookup the lookup for parents that were not persisted, such as buildouts
+	 * @return every loaded object, ordered such that each object comes after its parent
+	 */
+	fun load(externalLookup: (Long) -> SWGObject?): Map<Long, SWGObject> {
+		buildObjects()
+		if (failed.get() > 0)
+			Log.e("Failed to load %d server objects", failed.get())
+		return linkObjects(externalLookup)
+	}
+	
+	private fun buildObjects() {
+		val executor = Executors.newFixedThreadPool(threads, ThreadUtilities.newThreadFactory("saved-object-loader-%d"))
+		val inFlight = Semaphore(threads * 2)
+		var lastProgress = System.nanoTime()
+		try {
+			database.streamObjects(batchSize) { batch ->
+				inFlight.acquire()
+				executor.execute {
+					try {
+						batch.forEach(::buildObject)
+					} finally {
+						inFlight.release()
+					}
+				}
+				if (System.nanoTime() - lastProgress >= PROGRESS_INTERVAL) {
+					lastProgress = System.nanoTime()
+					Log.i("Loading server objects... %d built", built.get())
+				}
+			}
+		} finally {
+			executor.shutdown()
+			while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+				Log.i("Loading server objects... %d built", built.get())
+			}
+		}
+	}
+	
+	private fun buildObject(doc: MongoData) {
+		val obj: SWGObject
+		try {
+			obj = SWGObjectFactory.create(doc)
+		} catch (t: Throwable) {
+			Log.e("Failed to load object %d [%s]. %s: %s", doc.getLong("id", 0), doc.getString("template"), t.javaClass.name, t.message)
+			failed.incrementAndGet()
+			return
+		}
+		loaded[obj.objectId] = LoadedObject(obj, doc.getLong("parent", 0), doc.getInteger("parentCell", 0))
+		if (obj is PlayerObject) {
+			for (waypoint in obj.waypoints.values)
+				loaded.putIfAbsent(waypoint.objectId, LoadedObject(waypoint, 0, 0))
+		}
+		built.incrementAndGet()
+	}
+	
+	private fun linkObjects(externalLookup: (Long) -> SWGObject?): Map<Long, SWGObject> {
+		val ordered = LinkedHashMap<Long, SWGObject>(loaded.size)
+		val children = HashMap<Long, MutableList<LoadedObject>>()
+		val ready = ArrayDeque<LoadedObject>()
+		for (obj in loaded.values) {
+			if (obj.parentId != 0L && loaded.containsKey(obj.parentId))
+				children.computeIfAbsent(obj.parentId) { ArrayList() }.add(obj)
+			else
+				ready.add(obj)
+		}
+		
+		while (ready.isNotEmpty()) {
+			val next = ready.removeFirst()
+			linkObject(next, externalLookup)
+			ordered[next.obj.objectId] = next.obj
+			children.remove(next.obj.objectId)?.let { ready.addAll(it) }
+		}
+		
+		// Anything left is part of a containment cycle, which can't be placed
+		val unlinked = children.values.sumOf { it.size }
+		if (unlinked > 0) {
+			Log.e("Failed to link %d server objects with cyclic containment", unlinked)
+			children.values.forEach { list -> list.forEach { ordered[it.obj.objectId] = it.obj } }
+		}
+		loaded.clear()
+		return ordered
+	}
+	
+	private fun linkObject(loadedObject: LoadedObject, externalLookup: (Long) -> SWGObject?) {
+		if (loadedObject.parentId == 0L)
+			return
+		val parent = loaded[loadedObject.parentId]?.obj ?: externalLookup(loadedObject.parentId)
+		if (parent is BuildingObject) {
+			if (loadedObject.cellNumber != 0)
+				loadedObject.obj.moveToContainer(parent.getCellByNumber(loadedObject.cellNumber))
+		} else {
+			loadedObject.obj.moveToContainer(parent)
+		}
+	}
+	
+	private class LoadedObject(val obj: SWGObject, val parentId: Long, val cellNumber: Int)
+	
+	companion object {
+		
+		private val PROGRESS_INTERVAL = TimeUnit.SECONDS.toNanos(5)
+		
+	}
+	
+}
@@ -0,0 +1,442 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.server_info
+
+import com.projectswg.holocore.resources.support.data.server_info.SdbColumnArraySet.*
+import com.projectswg.holocore.resources.support.data.server_info.SdbLoader.SdbResultSet
+import me.joshlarson.jlcommon.log.Log
+import org.intellij.lang.annotations.Language
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.util.Spliterator
+import java.util.function.Consumer
+import java.util.function.Function
+import java.util.stream.Stream
+import java.util.stream.StreamSupport
+
+/**
+ * Compiles text SDBs into a binary columnar file the first time they are read, and memory maps that file on every
+ * later read.  Every distinct cell value is stored once in a string table and decoded once when the file is mapped;
+ * columns where every value is a valid integer or real number also store the parsed values, so reading a row allocates
+ * nothing.  A compiled file is recompiled whenever its source SDB has a different size or modification time.
+ *
+ * File layout, little endian:
+ * ```
+ * header   magic, version, source length, source modified time, column count, row count, string count
+ * strings  for each string: UTF-8 length, UTF-8 bytes
+ * columns  for each column: name string id, flags
+ * lines    for each row: line number in the source SDB
+ * data     for each column: string id of every row, then every parsed long (if FLAG_INT), then every parsed double (if FLAG_REAL)
+ * ```
+ */
+internal object SdbBinaryCache {
+	
+	private const val MAGIC = 0x43424453 // SDBC
+	private const val VERSION = 1
+	private const val HEADER_SIZE = 36
+	private const val FLAG_INT = 1
+	private const val FLAG_REAL = 2
+	
+	/**
+	 * Opens the compiled form of the source SDB, compiling it first if it is missing or out of date
+	 *
+	 * @return the result set, or null if the compiled file couldn't be written or read
+	 */
+	fun open(source: File, cacheDirectory: File): SdbResultSet? {
+		val cache = getCacheFile(source, cacheDirectory)
+		return try {
+			if (!isCurrent(source, cache))
+				compile(source, cache)
+			BinarySdbResultSet(BinarySdbTable.map(source, cache), -1)
+		} catch (e: IOException) {
+			Log.w("Failed to read compiled sdb for %s - falling back to text. %s: %s", source, e.javaClass.name, e.message)
+			null
+		}
+	}
+	
+	fun getCacheFile(source: File, cacheDirectory: File): File {
+		val relative = source.toPath().normalize().toString().replace(':', '_').trimStart('/', '\\')
+		return File(cacheDirectory, relative + "c")
+	}
+	
+	private fun isCurrent(source: File, cache: File): Boolean {
+		if (!cache.isFile || cache.length() < HEADER_SIZE)
+			return false
+		FileChannel.open(cache.toPath(), StandardOpenOption.READ).use { channel ->
+			val header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+			while (header.hasRemaining() && channel.read(header) >= 0) { }
+			header.flip()
+			return header.remaining() == HEADER_SIZE
+					&& header.getInt() == MAGIC
+					&& header.getInt() == VERSION
+					&& header.getLong() == source.length()
+					&& header.getLong() == source.lastModified()
+		}
+	}
+	
+	/**
+	 * Parses the text SDB with the regular text reader, so that the compiled file contains exactly the rows and cell values
+	 * the text reader would return, and writes the compiled file in its place
+	 */
+	private fun compile(source: File, cache: File) {
+		val sourceLength = source.length()
+		val sourceModified = source.lastModified()
+		val stringIds = HashMap<String, Int>()
+		val strings = ArrayList<String>()
+		val columnNames: List<String>
+		val cells: Array<IntList>
+		val lines = IntList()
+		
+		SdbLoader.loadText(source).use { set ->
+			columnNames = set.columns
+			if (columnNames.isEmpty())
+				throw IOException("sdb has no header")
+			cells = Array(columnNames.size) { IntList() }
+			while (set.next()) {
+				lines.add(set.line)
+				for (column in columnNames.indices)
+					cells[column].add(stringIds.computeIfAbsent(set.getText(column)) { strings.add(it); strings.size - 1 })
+			}
+		}
+		val columnNameIds = IntArray(columnNames.size) { stringIds.computeIfAbsent(columnNames[it]) { name -> strings.add(name); strings.size - 1 } }
+		
+		// Parse each distinct value once, exactly as the text reader's getInt / getReal would
+		val longs = LongArray(strings.size)
+		val doubles = DoubleArray(strings.size)
+		val validLong = BooleanArray(strings.size)
+		val validDouble = BooleanArray(strings.size)
+		for ((id, str) in strings.withIndex()) {
+			try {
+				longs[id] = str.toLong()
+				validLong[id] = true
+			} catch (e: NumberFormatException) { }
+			try {
+				doubles[id] = str.toDouble()
+				validDouble[id] = true
+			} catch (e: NumberFormatException) { }
+		}
+		val flags = IntArray(columnNames.size) { column ->
+			var flag = FLAG_INT or FLAG_REAL
+			for (i in 0 until cells[column].size) {
+				val id = cells[column][i]
+				if (!validLong[id]) flag = flag and FLAG_INT.inv()
+				if (!validDouble[id]) flag = flag and FLAG_REAL.inv()
+			}
+			flag
+		}
+		
+		val encodedStrings = strings.map { it.toByteArray(StandardCharsets.UTF_8) }
+		val rowCount = lines.size
+		var size = HEADER_SIZE.toLong() + encodedStrings.sumOf { 4L + it.size } + columnNames.size * 5L + rowCount * 4L
+		for (flag in flags) {
+			size += rowCount * 4L
+			if (flag and FLAG_INT != 0) size += rowCount * 8L
+			if (flag and FLAG_REAL != 0) size += rowCount * 8L
+		}
+		if (size > Int.MAX_VALUE)
+			throw IOException("sdb too large to compile")
+		
+		val data = ByteBuffer.allocate(size.toInt()).order(ByteOrder.LITTLE_ENDIAN)
+		data.putInt(MAGIC).putInt(VERSION).putLong(sourceLength).putLong(sourceModified)
+		data.putInt(columnNames.size).putInt(rowCount).putInt(strings.size)
+		for (str in encodedStrings)
+			data.putInt(str.size).put(str)
+		for (column in columnNames.indices)
+			data.putInt(columnNameIds[column]).put(flags[column].toByte())
+		for (i in 0 until rowCount)
+			data.putInt(lines[i])
+		for (column in columnNames.indices) {
+			val columnCells = cells[column]
+			for (i in 0 until rowCount)
+				data.putInt(columnCells[i])
+			if (flags[column] and FLAG_INT != 0) {
+				for (i in 0 until rowCount)
+					data.putLong(longs[columnCells[i]])
+			}
+			if (flags[column] and FLAG_REAL != 0) {
+				for (i in 0 until rowCount)
+					data.putDouble(doubles[columnCells[i]])
+			}
+		}
+		assert(!data.hasRemaining())
+		
+		val directory = cache.absoluteFile.parentFile
+		Files.createDirectories(directory.toPath())
+		val temp = Files.createTempFile(directory.toPath(), cache.name, ".tmp")
+		try {
+			Files.write(temp, data.array())
+			Files.move(temp, cache.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+		} finally {
+			Files.deleteIfExists(temp)
+		}
+	}
+	
+	private class BinarySdbTable(val file: File, private val buffer: ByteBuffer) {
+		
+		val columnCount: Int
+		val rowCount: Int
+		val columns: List<String>
+		val columnIndices: Map<String, Int>
+		private val strings: Array<String>
+		private val linesOffset: Int
+		private val textOffsets: IntArray
+		private val longOffsets: IntArray
+		private val doubleOffsets: IntArray
+		
+		init {
+			buffer.order(ByteOrder.LITTLE_ENDIAN)
+			buffer.position(4 + 4 + 8 + 8)
+			columnCount = buffer.getInt()
+			rowCount = buffer.getInt()
+			val stringCount = buffer.getInt()
+			strings = Array(stringCount) {
+				val length = buffer.getInt()
+				val str = String(ByteArray(length).also { bytes -> buffer.get(bytes) }, StandardCharsets.UTF_8)
+				str
+			}
+			val flags = IntArray(columnCount)
+			columns = List(columnCount) { column ->
+				val name = strings[buffer.getInt()]
+				flags[column] = buffer.get().toInt()
+				name
+			}
+			columnIndices = columns.withIndex().associate { it.value to it.index }
+			linesOffset = buffer.position()
+			
+			var offset = linesOffset + rowCount * 4
+			textOffsets = IntArray(columnCount)
+			longOffsets = IntArray(columnCount) { -1 }
+			doubleOffsets = IntArray(columnCount) { -1 }
+			for (column in 0 until columnCount) {
+				textOffsets[column] = offset
+				offset += rowCount * 4
+				if (flags[column] and FLAG_INT != 0) {
+					longOffsets[column] = offset
+					offset += rowCount * 8
+				}
+				if (flags[column] and FLAG_REAL != 0) {
+					doubleOffsets[column] = offset
+					offset += rowCount * 8
+				}
+			}
+			if (offset != buffer.limit())
+				throw IOException("compiled sdb is truncated")
+		}
+		
+		fun getLine(row: Int): Int = buffer.getInt(linesOffset + row * 4)
+		fun getText(row: Int, column: Int): String = strings[buffer.getInt(textOffsets[column] + row * 4)]
+		fun hasLong(column: Int): Boolean = longOffsets[column] != -1
+		fun getLong(row: Int, column: Int): Long = buffer.getLong(longOffsets[column] + row * 8)
+		fun hasDouble(column: Int): Boolean = doubleOffsets[column] != -1
+		fun getDouble(row: Int, column: Int): Double = buffer.getDouble(doubleOffsets[column] + row * 8)
+		
+		companion object {
+			
+			fun map(source: File, cache: File): BinarySdbTable {
+				FileChannel.open(cache.toPath(), StandardOpenOption.READ).use { channel ->
+					return BinarySdbTable(source, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()))
+				}
+			}
+			
+		}
+		
+	}
+	
+	private class BinarySdbResultSet(private val table: BinarySdbTable, var row: Int) : SdbResultSet {
+		
+		override val columns: List<String>
+			get() = table.columns
+		
+		override val file: File
+			get() = table.file
+		
+		override val line: Int
+			get() = if (row in 0 until table.rowCount) table.getLine(row) else 0
+		
+		override fun close() {
+			row = table.rowCount
+		}
+		
+		override fun next(): Boolean {
+			if (row >= table.rowCount)
+				return false
+			return ++row < table.rowCount
+		}
+		
+		override fun <T> stream(transform: Function<SdbResultSet, T>): Stream<T> {
+			return stream(transform, false)
+		}
+		
+		override fun <T> parallelStream(transform: Function<SdbResultSet, T>): Stream<T> {
+			return stream(transform, true)
+		}
+		
+		private fun <T> stream(transform: Function<SdbResultSet, T>, parallel: Boolean): Stream<T> {
+			val rows = BinarySdbSpliterator(table, transform, minOf(row + 1, table.rowCount), table.rowCount)
+			row = table.rowCount
+			return StreamSupport.stream(rows, parallel)
+		}
+		
+		override fun getTextArrayParser(@Language("RegExp") regex: String, defValue: String?): SdbTextColumnArraySet {
+			return SdbTextColumnArraySet(regex, defValue)
+		}
+		
+		override fun getIntegerArrayParser(@Language("RegExp") regex: String, defValue: Int): SdbIntegerColumnArraySet {
+			return SdbIntegerColumnArraySet(regex, defValue)
+		}
+		
+		override fun getLongArrayParser(@Language("RegExp") regex: String, defValue: Long): SdbLongColumnArraySet {
+			return SdbLongColumnArraySet(regex, defValue)
+		}
+		
+		override fun getRealArrayParser(@Language("RegExp") regex: String, defValue: Double): SdbRealColumnArraySet {
+			return SdbRealColumnArraySet(regex, defValue)
+		}
+		
+		override fun getBooleanArrayParser(@Language("RegExp") regex: String, defValue: Boolean): SdbBooleanColumnArraySet {
+			return SdbBooleanColumnArraySet(regex, defValue)
+		}
+		
+		override fun getText(index: Int): String {
+			return table.getText(row, index)
+		}
+		
+		override fun getText(columnName: String): String {
+			return getText(getColumnIndex(columnName))
+		}
+		
+		override fun getInt(index: Int): Long {
+			if (table.hasLong(index))
+				return table.getLong(row, index)
+			try {
+				return getText(index).toLong()
+			} catch (e: NumberFormatException) {
+				throw NumberFormatException("Failed to parse value in sdb: " + file + " on line " + line + " in column " + (index + 1))
+			}
+		}
+		
+		override fun getInt(columnName: String): Long {
+			return getInt(getColumnIndex(columnName))
+		}
+		
+		override fun getReal(index: Int): Double {
+			if (table.hasDouble(index))
+				return table.getDouble(row, index)
+			try {
+				return getText(index).toDouble()
+			} catch (e: NumberFormatException) {
+				throw NumberFormatException("Failed to parse value in sdb: " + file + " on line " + line + " in column " + (index + 1))
+			}
+		}
+		
+		override fun getReal(columnName: String): Double {
+			return getReal(getColumnIndex(columnName))
+		}
+		
+		override fun getBoolean(index: Int): Boolean {
+			return getText(index).equals("true", ignoreCase = true)
+		}
+		
+		override fun getBoolean(columnName: String): Boolean {
+			return getBoolean(getColumnIndex(columnName))
+		}
+		
+		private fun getColumnIndex(columnName: String): Int {
+			val index = table.columnIndices[columnName]
+			assert(index != null) { "column $columnName does not exist in sdb $file" }
+			return index!!
+		}
+		
+	}
+	
+	/**
+	 * Splits the remaining rows of a table in halves.  Each split owns its own cursor, so rows are transformed without any
+	 * shared or thread-local state.
+	 */
+	private class BinarySdbSpliterator<T>(private val table: BinarySdbTable, private val transform: Function<SdbResultSet, T>, private var origin: Int, private val fence: Int) : Spliterator<T> {
+		
+		private val cursor = BinarySdbResultSet(table, -1)
+		
+		override fun tryAdvance(action: Consumer<in T>): Boolean {
+			while (origin < fence) {
+				cursor.row = origin++
+				val value = try {
+					transform.apply(cursor)
+				} catch (t: Throwable) {
+					Log.e("Failed to load line %d on SDB %s due to %s: %s", cursor.line, table.file, t.javaClass.name, t.message)
+					continue
+				}
+				action.accept(value)
+				return true
+			}
+			return false
+		}
+		
+		override fun trySplit(): Spliterator<T>? {
+			val mid = (origin + fence) ushr 1
+			if (mid - origin < MIN_SPLIT_ROWS)
+				return null
+			val prefix = BinarySdbSpliterator(table, transform, origin, mid)
+			origin = mid
+			return prefix
+		}
+		
+		override fun estimateSize(): Long = (fence - origin).toLong()
+		
+		override fun characteristics(): Int = Spliterator.ORDERED
+		
+		companion object {
+			private const val MIN_SPLIT_ROWS = 64
+		}
+		
+	}
+	
+	/** A growable list of primitive ints, used while compiling */
+	private class IntList {
+		
+		private var data = IntArray(64)
+		var size = 0
+			private set
+		
+		fun add(value: Int) {
+			if (size == data.size)
+				data = data.copyOf(size * 2)
+			data[size++] = value
+		}
+		
+		operator fun get(index: Int): Int = data[index]
+		
+	}
+	
+}
@@ -30,7 +30,10 @@ import com.projectswg.holocore.resources.support.data.server_info.SdbColumnArray
 import me.joshlarson.jlcommon.log.Log
 import org.intellij.lang.annotations.Language
 import java.io.*
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
 import java.nio.charset.StandardCharsets
+import java.nio.file.StandardOpenOption
 import java.util.*
 import java.util.Spliterators.AbstractSpliterator
 import java.util.concurrent.atomic.AtomicLong
@@ -41,15 +44,28 @@ import java.util.stream.Stream
 import java.util.stream.StreamSupport
 
 object SdbLoader {
+	
+	/**
+	 * The directory that compiled copies of each sdb are kept in (see [SdbBinaryCache]), or null to always parse the text
+	 */
+	@Volatile
+	@JvmStatic
+	var cacheDirectory: File? = null
+	
 	@Throws(IOException::class)
 	fun load(file: File): SdbResultSet {
 		val ext = getExtension(file)
 		return when (ext) {
 			"msdb" -> MasterSdbResultSet.load(file)
-			"sdb"  -> SingleSdbResultSet.load(file)
+			"sdb"  -> cacheDirectory?.let { SdbBinaryCache.open(file, it) } ?: SingleSdbResultSet.load(file)
 			else   -> throw IllegalArgumentException("Invalid file! Expected either msdb or sdb")
 		}
 	}
+	
+	@Throws(IOException::class)
+	internal fun loadText(file: File): SdbResultSet {
+		return SingleSdbResultSet.load(file)
+	}
 
 	private fun getExtension(file: File): String {
 		val ext = file.name.lowercase()
@@ -224,6 +240,7 @@ object SdbLoader {
 		private var columnNames: Array<String>?
 		private var columnValues: Array<String>?
 		private var input: BufferedReader?
+		private var streamed = false
 
 		init {
 			this.columnNames = null
@@ -246,7 +263,11 @@ object SdbLoader {
 
 		fun <T> stream(transform: Function<SdbResultSet, T>, parallel: Boolean): Stream<T> {
 			val resultSet = ThreadLocal.withInitial { ParallelSdbResultSet(file, columnIndices, columnNames) }
-			return StreamSupport.stream(SdbSpliterator(file, input, lineNumber), parallel).map { e: Map.Entry<Long, String> ->
+			// Only the header has been read, so the rest of the file can be split by line and read without the shared reader
+			val spliterator = (if (lineNumber.get() == 2L && !streamed) MappedSdbSpliterator.create(file) else null) ?: SdbSpliterator(file, input, lineNumber)
+			if (spliterator is MappedSdbSpliterator)
+				streamed = true
+			return StreamSupport.stream(spliterator, parallel).map { e: Map.Entry<Long, String> ->
 				val set = resultSet.get()
 				set.load(e.value, e.key)
 				transform.apply(set)
@@ -254,6 +275,8 @@ object SdbLoader {
 		}
 
 		override fun next(): Boolean {
+			if (streamed)
+				return false
 			var line: String?
 			do {
 				lineNumber.incrementAndGet()
@@ -402,6 +425,7 @@ object SdbLoader {
 		}
 
 		fun load(line: String, lineNumber: Long) {
+			this.lineNumber.set(lineNumber)
 			var index = 0
 			val columnCount = columnValues.size
 			for (column in 0 until columnCount) {
@@ -505,17 +529,137 @@ object SdbLoader {
 			} catch (e: IOException) {
 				throw RuntimeException(e)
 			} catch (t: Throwable) {
-				if (t.cause == null) {
-					Log.e("Failed to load line %d on SDB %s due to %s: %s", lineNumber, file, t.javaClass.name, t.message)
-				} else {
-					Log.e("Failed to load line %d on SDB %s", lineNumber, file)
-					var temp: Throwable? = t
-					while (temp != null) {
-						Log.e("    %s: %s", temp.javaClass.name, temp.message)
-						temp = temp.cause!!
+				logLineFailure(file, lineNumber, t)
+				return true
+			}
+		}
+	}
+
+	/**
+	 * Splits a memory mapped SDB by line, so each worker decodes and parses its own range of lines without sharing a reader.
+	 * The line boundaries are found up front in a single scan over the raw bytes, which is far cheaper than the parsing.
+	 *
+	 * The binary cache is on by default, so SDBs are normally read through [SdbBinaryCache] instead.  This is the fallback
+	 * for servers started with `--sdb-cache none` and for files whose compiled copy can't be written or read.
+	 */
+	private class MappedSdbSpliterator private constructor(private val file: File, private val buffer: ByteBuffer, private val lines: LineIndex, private var origin: Int, private val fence: Int) : Spliterator<Map.Entry<Long, String>> {
+
+		override fun tryAdvance(action: Consumer<in Map.Entry<Long, String>>): Boolean {
+			if (origin >= fence)
+				return false
+			accept(origin++, action)
+			return true
+		}
+
+		override fun forEachRemaining(action: Consumer<in Map.Entry<Long, String>>) {
+			while (origin < fence)
+				accept(origin++, action)
+		}
+
+		override fun trySplit(): Spliterator<Map.Entry<Long, String>>? {
+			val mid = (origin + fence) ushr 1
+			if (mid - origin < MIN_SPLIT_LINES)
+				return null
+			val prefix = MappedSdbSpliterator(file, buffer, lines, origin, mid)
+			origin = mid
+			return prefix
+		}
+
+		override fun estimateSize(): Long = (fence - origin).toLong()
+
+		override fun characteristics(): Int = Spliterator.ORDERED or Spliterator.SIZED or Spliterator.SUBSIZED or Spliterator.NONNULL or Spliterator.IMMUTABLE or Spliterator.DISTINCT
+
+		private fun accept(index: Int, action: Consumer<in Map.Entry<Long, String>>) {
+			val lineNumber = lines.numbers[index].toLong()
+			try {
+				val start = lines.starts[index]
+				val length = lines.ends[index] - start
+				var scratch = SCRATCH.get()
+				if (scratch.size < length) {
+					scratch = ByteArray(Integer.highestOneBit(length) shl 1)
+					SCRATCH.set(scratch)
+				}
+				buffer.get(start, scratch, 0, length)
+				action.accept(java.util.Map.entry(lineNumber, String(scratch, 0, length, StandardCharsets.UTF_8)))
+			} catch (t: Throwable) {
+				logLineFailure(file, lineNumber, t)
+			}
+		}
+
+		/** The byte range and line number of every non-empty line after the two header lines */
+		private class LineIndex(val starts: IntArray, val ends: IntArray, val numbers: IntArray, val size: Int)
+
+		companion object {
+
+			private const val MIN_SPLIT_LINES = 64
+			private val SCRATCH = ThreadLocal.withInitial { ByteArray(1024) }
+
+			fun create(file: File): MappedSdbSpliterator? {
+				val buffer = try {
+					FileChannel.open(file.toPath(), StandardOpenOption.READ).use { channel ->
+						if (channel.size() > Int.MAX_VALUE)
+							return null
+						channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
 					}
+				} catch (e: IOException) {
+					Log.w("Failed to map sdb %s - reading it serially. %s: %s", file, e.javaClass.name, e.message)
+					return null
 				}
-				return true
+				val lines = indexLines(buffer)
+				return MappedSdbSpliterator(file, buffer, lines, 0, lines.size)
+			}
+
+			/**
+			 * Finds every line the same way BufferedReader.readLine would: lines end at '\n' with an optional preceding
+			 * '\r', and empty lines are skipped
+			 */
+			private fun indexLines(buffer: ByteBuffer): LineIndex {
+				val limit = buffer.limit()
+				var capacity = 1024
+				var starts = IntArray(capacity)
+				var ends = IntArray(capacity)
+				var numbers = IntArray(capacity)
+				var size = 0
+				var lineNumber = 0
+				var lineStart = 0
+				var position = 0
+				while (lineStart < limit) {
+					while (position < limit && buffer.get(position) != '\n'.code.toByte())
+						position++
+					lineNumber++
+					var lineEnd = position
+					if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r'.code.toByte())
+						lineEnd--
+					if (lineNumber > 2 && lineEnd > lineStart) {
+						if (size == capacity) {
+							capacity *= 2
+							starts = starts.copyOf(capacity)
+							ends = ends.copyOf(capacity)
+							numbers = numbers.copyOf(capacity)
+						}
+						starts[size] = lineStart
+						ends[size] = lineEnd
+						numbers[size] = lineNumber
+						size++
+					}
+					position++
+					lineStart = position
+				}
+				return LineIndex(starts, ends, numbers, size)
+			}
+
+		}
+	}
+
+	private fun logLineFailure(file: File, lineNumber: Long, t: Throwable) {
+		if (t.cause == null) {
+			Log.e("Failed to load line %d on SDB %s due to %s: %s", lineNumber, file, t.javaClass.name, t.message)
+		} else {
+			Log.e("Failed to load line %d on SDB %s", lineNumber, file)
+			var temp: Throwable? = t
+			while (temp != null) {
+				Log.e("    %s: %s", temp.javaClass.name, temp.message)
+				temp = temp.cause
 			}
 		}
 	}
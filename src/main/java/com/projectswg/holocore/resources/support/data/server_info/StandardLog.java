@@ -33,6 +33,20 @@ import org.jetbrains.annotations.NotNull;
 
 public class StandardLog {
 	
+	private static volatile Log.LogLevel level = Log.LogLevel.TRACE;
+	
+	/**
+	 * Sets the lowest level that player events are formatted and logged at.  Anything below it is discarded before the
+	 * message or the player description are built.
+	 */
+	public static void setLevel(@NotNull Log.LogLevel level) {
+		StandardLog.level = level;
+	}
+	
+	public static boolean isLoggable(@NotNull Log.LogLevel level) {
+		return level.compareTo(StandardLog.level) >= 0;
+	}
+	
 	public static long onStartLoad(String what) {
 		Log.i("Loading %s...", what);
 		return System.nanoTime();
@@ -43,26 +57,38 @@ public class StandardLog {
 	}
 	
 	public static void onPlayerTrace(@NotNull Object service, @NotNull CreatureObject player, @NotNull String event, Object ... args) {
+		if (!isLoggable(Log.LogLevel.TRACE))
+			return;
 		Log.t("[%s] %s %s", service.getClass().getSimpleName(), getInfo(player), String.format(event, args));
 	}
 	
 	public static void onPlayerTrace(@NotNull Object service, @NotNull Player player, @NotNull String event, Object ... args) {
+		if (!isLoggable(Log.LogLevel.TRACE))
+			return;
 		Log.t("[%s] %s %s", service.getClass().getSimpleName(), getInfo(player), String.format(event, args));
 	}
 	
 	public static void onPlayerEvent(@NotNull Object service, @NotNull CreatureObject player, @NotNull String event, Object ... args) {
+		if (!isLoggable(Log.LogLevel.DATA))
+			return;
 		Log.d("[%s] %s %s", service.getClass().getSimpleName(), getInfo(player), String.format(event, args));
 	}
 	
 	public static void onPlayerEvent(@NotNull Object service, @NotNull Player player, @NotNull String event, Object ... args) {
+		if (!isLoggable(Log.LogLevel.DATA))
+			return;
 		Log.d("[%s] %s %s", service.getClass().getSimpleName(), getInfo(player), String.format(event, args));
 	}
 	
 	public static void onPlayerError(@NotNull Object service, @NotNull CreatureObject player, @NotNull String event, Object ... args) {
+		if (!isLoggable(Log.LogLevel.ERROR))
+			return;
 		Log.e("[%s] %s %s", service.getClass().getSimpleName(), getInfo(player), String.format(event, args));
 	}
 	
 	public static void onPlayerError(@NotNull Object service, @NotNull Player player, @NotNull String event, Object ... args) {
+		if (!isLoggable(Log.LogLevel.ERROR))
+			return;
 		Log.e("[%s] %s %s", service.getClass().getSimpleName(), getInfo(player), String.format(event, args));
 	}
 	
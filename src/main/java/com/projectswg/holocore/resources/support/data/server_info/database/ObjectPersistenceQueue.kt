@@ -0,0 +1,273 @@
+/***********************************************************************************
+ * Copyright (c) 2026 /// Project SWG /// www.projectswg.com                       *
+ * *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ * *
+ * This file is part of Holocore.                                                  *
+ * *
+ * --------------------------------------------------------------------------------*
+ * *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ * *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ * *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http:></http:>//www.gnu.org/licenses/>.               *
+ */
+package com.projectswg.holocore.resources.support.data.server_info.database
+
+import com.projectswg.holocore.resources.support.objects.swg.SWGObject
+import me.joshlarson.jlcommon.log.Log
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Write-behind queue in front of a [PswgObjectDatabase].  Saves and deletes are queued per object id, so only the
+ * latest operation for an object is ever written, and are then flushed as bulk writes of at most [batchSize] objects.
+ *
+ * The queue is bounded: once [capacity] distinct objects are pending, [save] and [delete] block until the writer
+ * catches up.  They must therefore never be called from the thread that calls [flush].  Operations that fail to write
+ * are put back in the queue, unless a newer operation for the same object has been queued in the meantime.
+ *
+ * Deleting an object marks it as deleted, and every write re-checks that mark while holding [writeLock], so a save that
+ * was collected before the delete can never re-insert the object after its delete has been written.
+ */
+class ObjectPersistenceQueue(private val database: () -> PswgObjectDatabase, private val capacity: Int = DEFAULT_CAPACITY, private val batchSize: Int = DEFAULT_BATCH_SIZE) {
+	
+	private val lock = ReentrantLock()
+	private val notFull = lock.newCondition()
+	private val writeLock = ReentrantLock()
+	private val pending = LinkedHashMap<Long, Operation>()
+	private val peakSize = AtomicInteger()
+	private val saved = LongAdder()
+	private val deleted = LongAdder()
+	private val failed = LongAdder()
+	private val writes = LongAdder()
+	private val totalWriteTime = LongAdder()
+	private val maxWriteTime = AtomicLong()
+	
+	/** The number of objects with an operation waiting to be written */
+	val size: Int
+		get() = lock.withLock { pending.size }
+	
+	/**
+	 * Returns the current queue depth and the write counters since the queue was created.  The peak depth is reset on
+	 * every call, so it covers the time since the previous snapshot.
+	 */
+	val statistics: PersistenceStatistics
+		get() = PersistenceStatistics(size, peakSize.getAndSet(size), saved.sum(), deleted.sum(), failed.sum(), writes.sum(), totalWriteTime.sum(), maxWriteTime.get())
+	
+	fun save(obj: SWGObject) {
+		if (obj.isDeleted)
+			return
+		obj.markStored()
+		enqueue(obj.objectId, Operation(obj))
+	}
+	
+	/**
+	 * Queues the removal of [obj] from the database.  Objects that were never loaded or saved have nothing to remove, so
+	 * they are skipped without touching the queue.  Either way the object is marked as deleted, and no later save will
+	 * write it.
+	 */
+	fun delete(obj: SWGObject) {
+		obj.markDeleted()
+		if (obj.isStored)
+			enqueue(obj.objectId, Operation(null))
+	}
+	
+	/**
+	 * Writes the given objects immediately, on the calling thread, in batches.  Any save already queued for these objects
+	 * is superseded, and objects that have been deleted are skipped.
+	 *
+	 * @return the number of objects written
+	 */
+	fun saveNow(objects: Collection<SWGObject>): Int {
+		writeLock.withLock {
+			val saveList = ArrayList<SWGObject>(objects.size)
+			lock.withLock {
+				for (obj in objects) {
+					if (obj.isDeleted)
+						continue
+					val queued = pending[obj.objectId]
+					if (queued != null) {
+						if (queued.obj == null)
+							continue // about to be deleted
+						pending.remove(obj.objectId)
+					}
+					obj.markStored()
+					saveList.add(obj)
+				}
+				notFull.signalAll()
+			}
+			var written = 0
+			for (i in saveList.indices step batchSize) {
+				val batch = saveList.subList(i, minOf(i + batchSize, saveList.size))
+				if (writeSaves(batch))
+					written += batch.size
+				else
+					batch.forEach { requeue(it.objectId, Operation(it)) }
+			}
+			return written
+		}
+	}
+	
+	/**
+	 * Writes everything that is currently queued
+	 *
+	 * @return FALSE if any write failed (the failed operations are requeued), TRUE otherwise
+	 */
+	fun flush(): Boolean {
+		while (true) {
+			writeLock.withLock {
+				val batch = pollBatch()
+				if (batch.isEmpty())
+					return true
+				if (!writeBatch(batch))
+					return false
+			}
+		}
+	}
+	
+	/**
+	 * Flushes the queue for shutdown, retrying failed writes a few times before giving up on them
+	 *
+	 * @return TRUE if the queue was fully written, FALSE if operations were lost
+	 */
+	fun close(): Boolean {
+		for (attempt in 1..SHUTDOWN_ATTEMPTS) {
+			if (flush())
+				return true
+			Log.w("Failed to flush object persistence queue on shutdown (attempt %d/%d)", attempt, SHUTDOWN_ATTEMPTS)
+		}
+		Log.e("Lost %d queued object writes on shutdown", size)
+		return false
+	}
+	
+	private fun enqueue(id: Long, operation: Operation) {
+		lock.withLock {
+			while (pending.size >= capacity && !pending.containsKey(id)) {
+				if (!notFull.await(FULL_WARNING_SECONDS, TimeUnit.SECONDS))
+					Log.w("Object persistence queue has been full (%d objects) for over %d seconds", capacity, FULL_WARNING_SECONDS)
+			}
+			pending[id] = operation
+			peakSize.accumulateAndGet(pending.size) { a, b -> maxOf(a, b) }
+		}
+	}
+	
+	private fun requeue(id: Long, operation: Operation) {
+		if (operation.obj?.isDeleted == true)
+			return
+		lock.withLock {
+			pending.putIfAbsent(id, operation)
+		}
+	}
+	
+	private fun pollBatch(): List<Map.Entry<Long, Operation>> {
+		lock.withLock {
+			val batch = ArrayList<Map.Entry<Long, Operation>>(minOf(batchSize, pending.size))
+			val it = pending.entries.iterator()
+			while (it.hasNext() && batch.size < batchSize) {
+				val entry = it.next()
+				batch.add(java.util.AbstractMap.SimpleImmutableEntry(entry.key, entry.value))
+				it.remove()
+			}
+			if (batch.isNotEmpty())
+				notFull.signalAll()
+			return batch
+		}
+	}
+	
+	private fun writeBatch(batch: List<Map.Entry<Long, Operation>>): Boolean {
+		val saves = ArrayList<SWGObject>()
+		val deletes = ArrayList<Long>()
+		for ((id, operation) in batch) {
+			val obj = operation.obj
+			if (obj == null)
+				deletes.add(id)
+			else if (!obj.isDeleted)
+				saves.add(obj)
+		}
+		
+		var success = true
+		if (saves.isNotEmpty() && !writeSaves(saves)) {
+			saves.forEach { requeue(it.objectId, Operation(it)) }
+			success = false
+		}
+		if (deletes.isNotEmpty()) {
+			val startTime = System.nanoTime()
+			try {
+				database().removeObjects(deletes)
+				recordWrite(System.nanoTime() - startTime)
+				deleted.add(deletes.size.toLong())
+			} catch (t: Throwable) {
+				Log.w("Failed to delete %d objects. %s: %s", deletes.size, t.javaClass.name, t.message)
+				failed.add(deletes.size.toLong())
+				deletes.forEach { requeue(it, Operation(null)) }
+				success = false
+			}
+		}
+		return success
+	}
+	
+	/**
+	 * Writes the objects in a single bulk write, and marks each object as saved as of the moment before it was serialized
+	 */
+	private fun writeSaves(objects: List<SWGObject>): Boolean {
+		val modificationCounts = LongArray(objects.size) { objects[it].modificationCount }
+		val startTime = System.nanoTime()
+		try {
+			database().addObjects(objects)
+		} catch (t: Throwable) {
+			Log.w("Failed to persist %d objects. %s: %s", objects.size, t.javaClass.name, t.message)
+			failed.add(objects.size.toLong())
+			return false
+		}
+		recordWrite(System.nanoTime() - startTime)
+		saved.add(objects.size.toLong())
+		for (i in objects.indices)
+			objects[i].markSaved(modificationCounts[i])
+		return true
+	}
+	
+	private fun recordWrite(time: Long) {
+		writes.increment()
+		totalWriteTime.add(time)
+		maxWriteTime.accumulateAndGet(time) { a, b -> maxOf(a, b) }
+	}
+	
+	/** A pending save of [obj], or a pending delete when [obj] is null */
+	private class Operation(val obj: SWGObject?)
+	
+	companion object {
+		const val DEFAULT_CAPACITY = 10_000
+		const val DEFAULT_BATCH_SIZE = 250
+		private const val SHUTDOWN_ATTEMPTS = 3
+		private const val FULL_WARNING_SECONDS = 5L
+	}
+	
+}
+
+/**
+ * Snapshot of an [ObjectPersistenceQueue].  [queueDepth] and [peakQueueDepth] are object counts, the remaining counters
+ * are totals since the queue was created.  Times are in nanoseconds and cover single bulk writes.
+ */
+data class PersistenceStatistics(val queueDepth: Int, val peakQueueDepth: Int, val saved: Long, val deleted: Long, val failed: Long, val writes: Long, val totalWriteTime: Long, val maxWriteTime: Long) {
+	
+	val averageWriteTime: Long
+		get() = if (writes == 0L) 0 else totalWriteTime / writes
+	
+}
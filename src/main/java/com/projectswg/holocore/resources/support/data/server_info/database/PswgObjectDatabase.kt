@@ -56,15 +56,23 @@ package com.projectswg.holocore.resources.support.data.server_info.database
 
 import com.projectswg.common.data.encodables.mongo.MongoData
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject
+import java.util.function.Consumer
 
 interface PswgObjectDatabase {
 	
 	val objects: List<MongoData>
 	
+	/**
+	 * Reads every object document in batches of at most [batchSize], handing each batch to [consumer] on the calling
+	 * thread as soon as it has been read.  Unlike [objects], only one batch needs to be held in memory at a time.
+	 */
+	fun streamObjects(batchSize: Int, consumer: Consumer<List<MongoData>>)
+	
 	fun addObject(obj: SWGObject)
 	fun addObjects(objects: Collection<SWGObject>)
 	
 	fun removeObject(id: Long): Boolean
+	fun removeObjects(ids: Collection<Long>): Long
 	
 	fun getCharacterCount(account: String): Int
 	fun isCharacter(firstName: String): Boolean
@@ -76,9 +84,11 @@ interface PswgObjectDatabase {
 		fun createDefault(): PswgObjectDatabase {
 			return object : PswgObjectDatabase {
 				override val objects: List<MongoData> = ArrayList()
+				override fun streamObjects(batchSize: Int, consumer: Consumer<List<MongoData>>) {}
 				override fun addObject(obj: SWGObject) {}
 				override fun addObjects(objects: Collection<SWGObject>) {}
 				override fun removeObject(id: Long): Boolean = true
+				override fun removeObjects(ids: Collection<Long>): Long = ids.size.toLong()
 				override fun getCharacterCount(account: String): Int = 0
 				override fun isCharacter(firstName: String): Boolean  = false
 				override fun clearObjects(): Long = 0
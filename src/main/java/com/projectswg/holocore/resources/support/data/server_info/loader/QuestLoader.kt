@@ -29,13 +29,15 @@ package com.projectswg.holocore.resources.support.data.server_info.loader
 import com.projectswg.common.data.swgfile.ClientFactory
 import com.projectswg.holocore.resources.support.data.server_info.SdbLoader
 import com.projectswg.holocore.resources.support.data.server_info.SdbLoader.SdbResultSet
+import me.joshlarson.jlcommon.log.Log
 import java.io.File
 import java.io.IOException
 import java.util.*
+import java.util.concurrent.ConcurrentHashMap
 
 class QuestLoader : DataLoader() {
 	private val questListInfoMap: MutableMap<String, QuestListInfo> = Collections.synchronizedMap(HashMap())
-	private val questTaskInfosMap: MutableMap<String, List<QuestTaskInfo>> = Collections.synchronizedMap(HashMap())
+	private val questTaskInfosMap: MutableMap<String, List<QuestTaskInfo>> = ConcurrentHashMap()
 
 	val questListInfos: Collection<QuestListInfo>
 		get() = questListInfoMap.values
@@ -44,11 +46,15 @@ class QuestLoader : DataLoader() {
 		return questListInfoMap[questName]
 	}
 
+	/**
+	 * Returns the tasks of the specified quest.  Every quest in the quest list is preloaded by [load], so this only reads
+	 * from disk for quests that aren't in the list.
+	 */
 	fun getTaskListInfos(questName: String): List<QuestTaskInfo> {
-		if (questTaskInfosMap.containsKey(questName)) {
-			return questTaskInfosMap[questName]!!
-		}
+		return questTaskInfosMap[questName] ?: questTaskInfosMap.computeIfAbsent(questName) { loadTaskListInfos(it) }
+	}
 
+	private fun loadTaskListInfos(questName: String): List<QuestTaskInfo> {
 		val questTaskInfos: MutableList<QuestTaskInfo> = ArrayList()
 
 		var index = 0
@@ -68,14 +74,24 @@ class QuestLoader : DataLoader() {
 			throw RuntimeException("Failed to load quest task info for quest by name $questName", e)
 		}
 
-		questTaskInfosMap[questName] = questTaskInfos
-
-		return questTaskInfos
+		return Collections.unmodifiableList(questTaskInfos)
 	}
 
 	@Throws(IOException::class)
 	override fun load() {
 		loadQuestListInfos()
+		loadQuestTaskInfos()
+	}
+
+	private fun loadQuestTaskInfos() {
+		questListInfoMap.keys.parallelStream().forEach { questName ->
+			try {
+				questTaskInfosMap[questName] = loadTaskListInfos(questName)
+			} catch (e: RuntimeException) {
+				// Left to fail again, with the same error, if the quest is ever granted
+				Log.w("Failed to preload tasks for quest %s: %s", questName, e.cause?.message ?: e.message)
+			}
+		}
 	}
 
 	@Throws(IOException::class)
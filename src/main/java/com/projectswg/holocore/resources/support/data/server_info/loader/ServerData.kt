@@ -26,116 +26,219 @@
 
 package com.projectswg.holocore.resources.support.data.server_info.loader
 
+import com.projectswg.common.utilities.ThreadUtilities
 import com.projectswg.holocore.resources.gameplay.crafting.resource.raw.RawResourceLoader
 import com.projectswg.holocore.resources.support.data.server_info.loader.combat.FactionLoader
 import com.projectswg.holocore.resources.support.data.server_info.loader.conversation.ConversationLoader
 import com.projectswg.holocore.resources.support.data.server_info.loader.npc.*
 import com.projectswg.holocore.resources.support.data.server_info.loader.terrain.TerrainHeightLoader
+import com.projectswg.holocore.utilities.ObjectSizeEstimator
 import me.joshlarson.jlcommon.log.Log
 import java.io.IOException
-import java.lang.ref.Reference
-import java.lang.ref.SoftReference
-import java.lang.ref.WeakReference
+import java.util.*
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
 import kotlin.reflect.KProperty
+import kotlin.reflect.KProperty0
 
+/**
+ * Every server data loader.  Each loader is loaded once, either on first use or by [preload], and is then held for the
+ * lifetime of the server, so that a loader is never parsed again in the middle of gameplay.  A loader that reads another
+ * loader while loading must declare it as a dependency, so that [preload] can load everything in parallel in order.
+ */
 object ServerData {
 	
+	private val entries = LinkedHashMap<String, DataLoaderEntry<*>>()
+	@Volatile
+	private var preloaded = false
+	
 	/*
 	 * Combat
 	 */
-	val buffs				by SoftDataLoaderDelegate(::BuffLoader)
-	val factions			by SoftDataLoaderDelegate(::FactionLoader)
-	val movements			by SoftDataLoaderDelegate(::MovementLoader)
+	val buffs				by loader(::BuffLoader)
+	val factions			by loader(::FactionLoader)
+	val movements			by loader(::MovementLoader)
 
 	/*
 	 * Skill / Collection
 	 */
-	val skills				by SoftDataLoaderDelegate(::SkillLoader)
+	val skills				by loader(::SkillLoader)
 
 	/*
 	 * Player
 	 */
-	val playerLevels		by SoftDataLoaderDelegate(::PlayerLevelLoader)
-	val playerRoles			by SoftDataLoaderDelegate(::PlayerRoleLoader)
-	val playerStartClothing	by SoftDataLoaderDelegate(::StartClothingLoader)
-	val staticItems			by SoftDataLoaderDelegate(::StaticItemLoader)
-	val performances		by SoftDataLoaderDelegate(::PerformanceLoader)
-	val combatXpMultipliers	by SoftDataLoaderDelegate(::CombatXpMultiplierLoader)
+	val playerLevels		by loader(::PlayerLevelLoader)
+	val playerRoles			by loader(::PlayerRoleLoader)
+	val playerStartClothing	by loader(::StartClothingLoader)
+	val staticItems			by loader(::StaticItemLoader)
+	val performances		by loader(::PerformanceLoader)
+	val combatXpMultipliers	by loader(::CombatXpMultiplierLoader)
 
 	/*
 	 * NPC Info
 	 */
-	val npcs				by WeakDataLoaderDelegate(::NpcLoader)
-	val npcCombatProfiles	by WeakDataLoaderDelegate(::NpcCombatProfileLoader)
-	val npcPatrolRoutes		by WeakDataLoaderDelegate(::NpcPatrolRouteLoader)
-	val npcWeapons			by WeakDataLoaderDelegate(::NpcWeaponLoader)
-	val npcWeaponRanges		by WeakDataLoaderDelegate(::NpcWeaponRangeLoader)
-	val npcStats			by WeakDataLoaderDelegate(::NpcStatLoader)
-	val npcStaticSpawns		by WeakDataLoaderDelegate(::NpcStaticSpawnLoader)
-	val lootTables			by SoftDataLoaderDelegate(::LootTableLoader)
+	val npcs				by loader(::NpcLoader, ::factions)
+	val npcCombatProfiles	by loader(::NpcCombatProfileLoader)
+	val npcPatrolRoutes		by loader(::NpcPatrolRouteLoader)
+	val npcWeapons			by loader(::NpcWeaponLoader)
+	val npcWeaponRanges		by loader(::NpcWeaponRangeLoader)
+	val npcStats			by loader(::NpcStatLoader)
+	val npcStaticSpawns		by loader(::NpcStaticSpawnLoader)
+	val lootTables			by loader(::LootTableLoader)
 	
 	/*
 	 * Objects / Backend
 	 */
-	val buildingCells		by SoftDataLoaderDelegate(::BuildingCellLoader)
-	val objectData			by SoftDataLoaderDelegate(::ObjectDataLoader)
-	val slotDefinitions		by SoftDataLoaderDelegate(::SlotDefinitionLoader)
-	val slotDescriptors		by SoftDataLoaderDelegate(::SlotDescriptorLoader)
-	val slotArrangements	by SoftDataLoaderDelegate(::SlotArrangementLoader)
-	val planetMapCategories	by SoftDataLoaderDelegate(::PlanetMapCategoryLoader)
-	val zoneInsertions		by SoftDataLoaderDelegate(::TerrainZoneInsertionLoader)
-	val strings				by SoftDataLoaderDelegate(::StringLoader)
-	val terrains            by SoftDataLoaderDelegate(::TerrainHeightLoader)
+	val buildingCells		by loader(::BuildingCellLoader)
+	val objectData			by loader(::ObjectDataLoader)
+	val slotDefinitions		by loader(::SlotDefinitionLoader)
+	val slotDescriptors		by loader(::SlotDescriptorLoader)
+	val slotArrangements	by loader(::SlotArrangementLoader)
+	val planetMapCategories	by loader(::PlanetMapCategoryLoader)
+	val zoneInsertions		by loader(::TerrainZoneInsertionLoader)
+	val strings				by loader(::StringLoader)
+	val terrains            by loader(::TerrainHeightLoader)
 	
-	val elevators           by SoftDataLoaderDelegate(::ElevatorLoader)
-	val housing             by SoftDataLoaderDelegate(::StructureInfoLoader)
+	val elevators           by loader(::ElevatorLoader)
+	val housing             by loader(::StructureInfoLoader)
 	
-	val commands			by SoftDataLoaderDelegate(::CommandLoader)
-	val combatCommands		by SoftDataLoaderDelegate(::CombatCommandLoader)
-	val travelCosts			by SoftDataLoaderDelegate(::TravelCostLoader)
-	val vehicles			by SoftDataLoaderDelegate(::VehicleLoader)
-	val staticPvpZones		by SoftDataLoaderDelegate(::StaticPvpZoneLoader)
-	val dynamicSpawns		by SoftDataLoaderDelegate(::DynamicSpawnLoader)
-	val terrainLevels		by SoftDataLoaderDelegate(::TerrainLevelLoader)
-	val noSpawnZones		by SoftDataLoaderDelegate(::NoSpawnZoneLoader)
-	val conversationLoader	by SoftDataLoaderDelegate(::ConversationLoader)
-	val questLoader			by SoftDataLoaderDelegate(::QuestLoader)
-	val badges  			by SoftDataLoaderDelegate(::BadgeLoader)
-	val mappingTemplates	by SoftDataLoaderDelegate(::MappingTemplateLoader)
-	val speciesRestrictions	by SoftDataLoaderDelegate(::SpeciesRestrictionLoader)
-	val destroyMissions		by SoftDataLoaderDelegate(::DestroyMissionLoader)
-	val dynamicLairs		by SoftDataLoaderDelegate(::DynamicLairLoader)
-	val rawResources		by SoftDataLoaderDelegate(::RawResourceLoader)
-	val staticCities		by SoftDataLoaderDelegate(::StaticCityLoader)
-	val explorationBadges	by SoftDataLoaderDelegate(::ExplorationBadgeLoader)
-	val cloningFacilities	by SoftDataLoaderDelegate(::CloningFacilityLoader)
-	val defaultChatRooms	by SoftDataLoaderDelegate(::DefaultChatRoomLoader)
-	val planetChatRooms		by SoftDataLoaderDelegate(::PlanetChatRoomLoader)
-	val staticCityPoints	by SoftDataLoaderDelegate(::StaticCityPointLoader)
-	val npcEquipment		by SoftDataLoaderDelegate(::NpcEquipmentLoader)
-	val schematicGroups		by SoftDataLoaderDelegate(::SchematicGroupLoader)
-	val draftSchematics		by SoftDataLoaderDelegate(::DraftSchematicLoader)
+	val commands			by loader(::CommandLoader)
+	val combatCommands		by loader(::CombatCommandLoader)
+	val travelCosts			by loader(::TravelCostLoader)
+	val vehicles			by loader(::VehicleLoader)
+	val staticPvpZones		by loader(::StaticPvpZoneLoader)
+	val dynamicSpawns		by loader(::DynamicSpawnLoader)
+	val terrainLevels		by loader(::TerrainLevelLoader)
+	val noSpawnZones		by loader(::NoSpawnZoneLoader)
+	val conversationLoader	by loader(::ConversationLoader)
+	val questLoader			by loader(::QuestLoader)
+	val badges  			by loader(::BadgeLoader)
+	val mappingTemplates	by loader(::MappingTemplateLoader)
+	val speciesRestrictions	by loader(::SpeciesRestrictionLoader)
+	val destroyMissions		by loader(::DestroyMissionLoader)
+	val dynamicLairs		by loader(::DynamicLairLoader)
+	val rawResources		by loader(::RawResourceLoader)
+	val staticCities		by loader(::StaticCityLoader)
+	val explorationBadges	by loader(::ExplorationBadgeLoader)
+	val cloningFacilities	by loader(::CloningFacilityLoader)
+	val defaultChatRooms	by loader(::DefaultChatRoomLoader)
+	val planetChatRooms		by loader(::PlanetChatRoomLoader)
+	val staticCityPoints	by loader(::StaticCityPointLoader)
+	val npcEquipment		by loader(::NpcEquipmentLoader)
+	val schematicGroups		by loader(::SchematicGroupLoader)
+	val draftSchematics		by loader(::DraftSchematicLoader, ::objectData)
 
-	private class WeakDataLoaderDelegate<T: DataLoader>(loaderCreator: () -> T): DataLoaderDelegate<T>(::WeakReference, loaderCreator)
-	private class SoftDataLoaderDelegate<T: DataLoader>(loaderCreator: () -> T): DataLoaderDelegate<T>(::SoftReference, loaderCreator)
+	/**
+	 * Loads every loader that hasn't been loaded yet on [threads] threads, starting each loader once its dependencies are
+	 * loaded, and then estimates how much memory each loader retains
+	 *
+	 * @return TRUE if every loader loaded successfully, FALSE otherwise
+	 */
+	fun preload(threads: Int): Boolean {
+		val startTime = System.nanoTime()
+		val executor = Executors.newFixedThreadPool(threads, ThreadUtilities.newThreadFactory("server-data-preload-%d"))
+		var success = true
+		try {
+			val futures = HashMap<String, CompletableFuture<Void>>()
+			for (entry in entries.values)
+				schedule(entry, futures, HashSet(), executor)
+			for ((name, future) in futures) {
+				try {
+					future.join()
+				} catch (e: CompletionException) {
+					Log.e("Failed to preload server data '%s'. %s: %s", name, e.cause?.javaClass?.name, e.cause?.message)
+					success = false
+				}
+			}
+		} finally {
+			executor.shutdown()
+		}
+		preloaded = true
+		
+		// Loaders reference each other's data, so each one is measured without the objects owned by any other loader
+		val loaders = entries.values.mapNotNull { it.loadedOrNull() }.toCollection(Collections.newSetFromMap(IdentityHashMap()))
+		val estimator = ObjectSizeEstimator { it is DataLoader && it !in loaders }
+		for (entry in entries.values) {
+			val loader = entry.loadedOrNull() ?: continue
+			entry.retainedSize = estimator.estimate(loader)
+		}
+		
+		val statistics = getStatistics()
+		Log.i("Preloaded %d server data loaders in %.3fms, retaining ~%.1f MiB", statistics.size, (System.nanoTime() - startTime) / 1E6, statistics.sumOf { it.retainedSize.coerceAtLeast(0) } / 1048576.0)
+		for (stat in statistics.sortedByDescending { it.loadTime })
+			Log.d("    %-24s %10.3fms %10.1f KiB", stat.name, stat.loadTime / 1E6, stat.retainedSize / 1024.0)
+		return success
+	}
 	
-	private open class DataLoaderDelegate<T: DataLoader>(private val referenceCreator: (T) -> Reference<T>, private val loaderCreator: () -> T) {
+	/**
+	 * Returns the load time and estimated retained size of every loader, in declaration order.  Loaders that haven't
+	 * loaded yet have a load time of -1, and the retained size is -1 until measured by [preload].
+	 */
+	fun getStatistics(): List<DataLoaderStatistics> {
+		return entries.values.map { DataLoaderStatistics(it.name, it.loadTime, it.retainedSize) }
+	}
+	
+	private fun schedule(entry: DataLoaderEntry<*>, futures: MutableMap<String, CompletableFuture<Void>>, path: MutableSet<String>, executor: Executor): CompletableFuture<Void> {
+		futures[entry.name]?.let { return it }
+		check(path.add(entry.name)) { "cyclic server data dependency: $path -> ${entry.name}" }
+		val dependencies = entry.dependencies.map { name ->
+			val dependency = checkNotNull(entries[name]) { "unknown server data dependency '$name' of '${entry.name}'" }
+			schedule(dependency, futures, path, executor)
+		}
+		path.remove(entry.name)
+		val future = CompletableFuture.allOf(*dependencies.toTypedArray()).thenRunAsync({ entry.load() }, executor)
+		futures[entry.name] = future
+		return future
+	}
+	
+	private fun <T: DataLoader> loader(loaderCreator: () -> T, vararg dependencies: KProperty0<DataLoader>): DataLoaderProvider<T> {
+		return DataLoaderProvider(loaderCreator, dependencies.map { it.name })
+	}
+	
+	class DataLoaderStatistics(val name: String, val loadTime: Long, val retainedSize: Long)
+	
+	private class DataLoaderProvider<T: DataLoader>(private val loaderCreator: () -> T, private val dependencies: List<String>) {
+		
+		operator fun provideDelegate(thisRef: Any?, property: KProperty<*>): DataLoaderEntry<T> {
+			val entry = DataLoaderEntry(property.name, loaderCreator, dependencies)
+			entries[property.name] = entry
+			return entry
+		}
+		
+	}
+	
+	private class DataLoaderEntry<T: DataLoader>(val name: String, private val loaderCreator: () -> T, val dependencies: List<String>) {
 		
-		private var ref: Reference<T> = SoftReference(null)
+		@Volatile
+		private var loader: T? = null
+		@Volatile
+		var loadTime: Long = -1
+		@Volatile
+		var retainedSize: Long = -1
 		
 		operator fun getValue(thisRef: Any?, property: KProperty<*>): T {
-			var loader: T? = ref.get()
-			if (loader == null) {
-				loader = loaderCreator()
-				try {
-					loader.load()
-				} catch (e: IOException) {
-					Log.e("Failed to load DataLoader: ${loader::class}")
-					throw RuntimeException(e)
-				}
-				
-				ref = referenceCreator(loader)
+			return loader ?: load()
+		}
+		
+		fun loadedOrNull(): T? = loader
+		
+		@Synchronized
+		fun load(): T {
+			loader?.let { return it }
+			if (preloaded)
+				Log.w("Loading server data '%s' on demand after preload", name)
+			val startTime = System.nanoTime()
+			val loader = loaderCreator()
+			try {
+				loader.load()
+			} catch (e: IOException) {
+				Log.e("Failed to load DataLoader: ${loader::class}")
+				throw RuntimeException(e)
 			}
+			loadTime = System.nanoTime() - startTime
+			this.loader = loader
 			return loader
 		}
 		
@@ -0,0 +1,129 @@
+/***********************************************************************************
+ * Copyright (c) 2026 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.server_info.loader.terrain
+
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.util.stream.IntStream
+import kotlin.math.floor
+
+/**
+ * A precomputed grid of terrain heights, memory mapped from disk, that answers height queries with bilinear
+ * interpolation between the four surrounding samples.  The grid covers the square from -[extent] to +[extent] on both
+ * axes with a sample every [resolution] meters; queries outside of it return NaN.
+ *
+ * File layout, little endian: magic, version, checksum of the source terrain, resolution, extent, samples per axis,
+ * followed by every sample as a float, row by row along z.
+ */
+class TerrainHeightGrid private constructor(private val heights: ByteBuffer, val resolution: Double, val extent: Double, private val samples: Int) {
+	
+	fun getHeight(x: Double, z: Double): Double {
+		val gridX = (x + extent) / resolution
+		val gridZ = (z + extent) / resolution
+		if (!(gridX >= 0 && gridZ >= 0 && gridX <= samples - 1 && gridZ <= samples - 1))
+			return Double.NaN
+		val cellX = floor(gridX).toInt().coerceAtMost(samples - 2)
+		val cellZ = floor(gridZ).toInt().coerceAtMost(samples - 2)
+		val tx = gridX - cellX
+		val tz = gridZ - cellZ
+		val index = HEADER_SIZE + (cellZ * samples + cellX) * 4
+		val h00 = heights.getFloat(index)
+		val h10 = heights.getFloat(index + 4)
+		val h01 = heights.getFloat(index + samples * 4)
+		val h11 = heights.getFloat(index + samples * 4 + 4)
+		val near = h00 + (h10 - h00) * tx
+		val far = h01 + (h11 - h01) * tx
+		return near + (far - near) * tz
+	}
+	
+	companion object {
+		
+		private const val MAGIC = 0x44474854 // THGD
+		private const val VERSION = 1
+		private const val HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4
+		
+		/**
+		 * Maps a previously built grid, if it exists and was built from the same terrain with the same parameters
+		 */
+		fun load(file: File, checksum: Long, resolution: Double, extent: Double): TerrainHeightGrid? {
+			if (!file.isFile || file.length() < HEADER_SIZE)
+				return null
+			FileChannel.open(file.toPath(), StandardOpenOption.READ).use { channel ->
+				val buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN)
+				if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != checksum)
+					return null
+				if (buffer.getDouble(16) != resolution || buffer.getDouble(24) != extent)
+					return null
+				val samples = buffer.getInt(32)
+				if (samples < 2 || buffer.limit().toLong() != HEADER_SIZE + samples.toLong() * samples * 4)
+					return null
+				return TerrainHeightGrid(buffer, resolution, extent, samples)
+			}
+		}
+		
+		/**
+		 * Samples the terrain across the grid in parallel, writes the grid to disk and maps it
+		 */
+		fun build(file: File, checksum: Long, resolution: Double, extent: Double, heightFunction: (Double, Double) -> Float): TerrainHeightGrid {
+			val samples = (floor(2 * extent / resolution).toLong() + 1).coerceAtLeast(2)
+			val size = HEADER_SIZE + samples * samples * 4
+			if (size > Int.MAX_VALUE)
+				throw IOException("terrain height grid too large - increase the resolution")
+			val samplesPerAxis = samples.toInt()
+			
+			val buffer = ByteBuffer.allocate(size.toInt()).order(ByteOrder.LITTLE_ENDIAN)
+			buffer.putInt(MAGIC).putInt(VERSION).putLong(checksum).putDouble(resolution).putDouble(extent).putInt(samplesPerAxis)
+			IntStream.range(0, samplesPerAxis).parallel().forEach { row ->
+				val z = row * resolution - extent
+				var index = HEADER_SIZE + row * samplesPerAxis * 4
+				for (column in 0 until samplesPerAxis) {
+					buffer.putFloat(index, heightFunction(column * resolution - extent, z))
+					index += 4
+				}
+			}
+			
+			val directory = file.absoluteFile.parentFile
+			Files.createDirectories(directory.toPath())
+			val temp = Files.createTempFile(directory.toPath(), file.name, ".tmp")
+			try {
+				Files.write(temp, buffer.array())
+				Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+			} finally {
+				Files.deleteIfExists(temp)
+			}
+			return load(file, checksum, resolution, extent) ?: throw IOException("failed to read back terrain height grid $file")
+		}
+		
+	}
+	
+}
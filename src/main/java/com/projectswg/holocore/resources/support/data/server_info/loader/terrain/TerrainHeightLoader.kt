@@ -31,17 +31,26 @@ import com.projectswg.common.data.location.Location
 import com.projectswg.common.data.location.Terrain
 import com.projectswg.common.data.swgiff.parsers.SWGParser
 import com.projectswg.common.data.swgiff.parsers.terrain.TerrainTemplate
+import com.projectswg.common.utilities.ThreadUtilities
 import com.projectswg.holocore.resources.support.data.server_info.loader.DataLoader
+import me.joshlarson.jlcommon.log.Log
+import java.io.File
+import java.io.IOException
 import java.util.EnumMap
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.zip.CRC32
 
 class TerrainHeightLoader : DataLoader() {
 	
 	private val terrains = EnumMap<Terrain, TerrainTemplate>(Terrain::class.java)
+	private val heightGrids = ConcurrentHashMap<Terrain, TerrainHeightGrid>()
 	
 	override fun load() {
 		for (terrain in TERRAIN_LIST) {
 			terrains[terrain] = SWGParser.parse(terrain.file)
 		}
+		heightGridSettings?.let(::loadHeightGrids)
 	}
 	
 	fun getTerrain(terrain: Terrain): TerrainTemplate? {
@@ -52,11 +61,87 @@ class TerrainHeightLoader : DataLoader() {
 	fun getHeight(l: Location): Double = getHeight(l.terrain, l.x, l.z)
 	
 	fun getHeight(terrain: Terrain, x: Double, z: Double): Double {
+		val grid = heightGrids[terrain]
+		if (grid != null) {
+			val height = grid.getHeight(x, z)
+			if (!height.isNaN())
+				return height
+		}
 		return terrains[terrain]?.getHeight(x.toFloat(), z.toFloat())?.height?.toDouble() ?: 0.0
 	}
 	
+	/**
+	 * Maps the height grid of every terrain that has an up-to-date one on disk, and builds the rest in the background.
+	 * Until a terrain's grid is ready, its heights are calculated from the terrain layers.
+	 */
+	private fun loadHeightGrids(settings: HeightGridSettings) {
+		val missing = ArrayList<Pair<Terrain, Long>>()
+		for (terrain in TERRAIN_LIST) {
+			val checksum = getChecksum(terrain) ?: continue
+			try {
+				val grid = TerrainHeightGrid.load(getHeightGridFile(settings, terrain), checksum, settings.resolution, settings.extent)
+				if (grid != null)
+					heightGrids[terrain] = grid
+				else
+					missing.add(Pair(terrain, checksum))
+			} catch (e: IOException) {
+				Log.w("Failed to read terrain height grid for %s. %s: %s", terrain, e.javaClass.name, e.message)
+				missing.add(Pair(terrain, checksum))
+			}
+		}
+		if (missing.isEmpty())
+			return
+		
+		val executor = Executors.newSingleThreadExecutor(ThreadUtilities.newThreadFactory("terrain-height-grid-builder"))
+		for ((terrain, checksum) in missing) {
+			val template = terrains[terrain] ?: continue
+			executor.execute {
+				val startTime = System.nanoTime()
+				try {
+					heightGrids[terrain] = TerrainHeightGrid.build(getHeightGridFile(settings, terrain), checksum, settings.resolution, settings.extent) { x, z -> template.getHeight(x.toFloat(), z.toFloat()).height }
+					Log.i("Built terrain height grid for %s in %.1fs", terrain, (System.nanoTime() - startTime) / 1E9)
+				} catch (t: Throwable) {
+					Log.w("Failed to build terrain height grid for %s. %s: %s", terrain, t.javaClass.name, t.message)
+				}
+			}
+		}
+		executor.shutdown()
+	}
+	
+	private fun getHeightGridFile(settings: HeightGridSettings, terrain: Terrain): File {
+		return File(settings.directory, terrain.name.lowercase() + ".thg")
+	}
+	
+	/**
+	 * Returns the CRC32 of the terrain's .trn file, or null if it can't be read
+	 */
+	private fun getChecksum(terrain: Terrain): Long? {
+		return try {
+			val crc = CRC32()
+			crc.update(File("serverdata", terrain.file).readBytes())
+			crc.value
+		} catch (e: IOException) {
+			Log.w("Failed to read %s for its terrain height grid. %s: %s", terrain.file, e.javaClass.name, e.message)
+			null
+		}
+	}
+	
+	/**
+	 * @param directory the directory height grids are stored in
+	 * @param resolution the distance between height samples, in meters
+	 * @param extent the grid covers -extent to +extent on both axes
+	 */
+	class HeightGridSettings(val directory: File, val resolution: Double, val extent: Double)
+	
 	companion object {
 		
+		/**
+		 * Enables precomputed height grids for loaders created after this is set, or disables them when null
+		 */
+		@Volatile
+		@JvmStatic
+		var heightGridSettings: HeightGridSettings? = null
+		
 		private val TERRAIN_LIST = listOf(
 			Terrain.CORELLIA,
 			Terrain.DANTOOINE,
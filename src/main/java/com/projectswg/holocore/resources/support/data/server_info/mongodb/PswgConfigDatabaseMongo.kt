@@ -28,60 +28,95 @@
 package com.projectswg.holocore.resources.support.data.server_info.mongodb
 
 import com.mongodb.client.MongoCollection
-import com.mongodb.client.model.Filters
 import com.mongodb.client.model.IndexOptions
 import com.mongodb.client.model.Indexes
 import com.projectswg.holocore.resources.support.data.server_info.database.PswgConfigDatabase
+import com.projectswg.holocore.utilities.ScheduledUtilities
+import me.joshlarson.jlcommon.log.Log
 import org.bson.Document
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
 
-class PswgConfigDatabaseMongo(private val collection: MongoCollection<Document>) : PswgConfigDatabase {
+/**
+ * Serves configuration lookups from an in-memory snapshot of the config collection.  The whole collection is loaded
+ * once at startup and re-read every [refreshIntervalSeconds], so lookups never touch Mongo - changes made to the
+ * collection while the server is running take effect on the next refresh.
+ */
+class PswgConfigDatabaseMongo(private val collection: MongoCollection<Document>, refreshIntervalSeconds: Long = DEFAULT_REFRESH_INTERVAL) : PswgConfigDatabase {
+	
+	private val packageChains = ConcurrentHashMap<String, List<String>>()
+	@Volatile
+	private var snapshot: Map<String, Document> = emptyMap()
+	private val refreshTask: ScheduledFuture<*>?
 	
 	init {
 		collection.createIndex(Indexes.ascending("package"), IndexOptions().unique(true))
+		refresh()
+		refreshTask = if (refreshIntervalSeconds > 0) ScheduledUtilities.scheduleWithFixedDelay(::refresh, refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS) else null
 	}
 	
 	override fun getString(o: Any, key: String, def: String): String {
-		for (config in getConfigurations(o)) {
-			if (config.containsKey(key))
-				return config.getString(key)
-		}
-		return def
+		return getConfiguration(o, key)?.getString(key) ?: def
 	}
 	
 	override fun getBoolean(o: Any, key: String, def: Boolean): Boolean {
-		for (config in getConfigurations(o)) {
-			if (config.containsKey(key))
-				return config.getBoolean(key)!!
-		}
-		return def
+		return getConfiguration(o, key)?.getBoolean(key) ?: def
 	}
 	
 	override fun getInt(o: Any, key: String, def: Int): Int {
-		for (config in getConfigurations(o)) {
-			if (config.containsKey(key))
-				return config.getInteger(key)!!
-		}
-		return def
+		return getConfiguration(o, key)?.getInteger(key) ?: def
 	}
 	
 	override fun getDouble(o: Any, key: String, def: Double): Double {
-		for (config in getConfigurations(o)) {
-			if (config.containsKey(key))
-				return config.getDouble(key)!!
-		}
-		return def
+		return getConfiguration(o, key)?.getDouble(key) ?: def
 	}
 	
 	override fun getLong(o: Any, key: String, def: Long): Long {
-		for (config in getConfigurations(o)) {
+		return getConfiguration(o, key)?.getLong(key) ?: def
+	}
+	
+	/**
+	 * Re-reads the entire config collection and atomically replaces the snapshot.  On failure the previous snapshot is
+	 * kept.
+	 */
+	fun refresh() {
+		try {
+			val configs = HashMap<String, Document>()
+			for (doc in collection.find()) {
+				val packageKey = doc.getString("package") ?: continue
+				configs[packageKey] = doc
+			}
+			snapshot = configs
+		} catch (t: Throwable) {
+			Log.w("Failed to refresh configuration snapshot: %s", t.message)
+		}
+	}
+	
+	fun close() {
+		refreshTask?.cancel(false)
+	}
+	
+	/**
+	 * Returns the most specific configuration document containing the key, or null if no package level defines it
+	 */
+	private fun getConfiguration(o: Any, key: String): Document? {
+		val snapshot = this.snapshot
+		for (packageKey in getPackageChain(o)) {
+			val config = snapshot[packageKey] ?: continue
 			if (config.containsKey(key))
-				return config.getLong(key)!!
+				return config
 		}
-		return def
+		return null
+	}
+	
+	private fun getPackageChain(o: Any): List<String> {
+		val packageName = if (o is Class<*>) o.packageName else o.javaClass.packageName
+		return packageChains.computeIfAbsent(packageName, ::createPackageChain)
 	}
 	
-	private fun getConfigurations(o: Any): List<Document> {
-		var packageKey = if (o is Class<*>) o.packageName else o.javaClass.packageName
+	private fun createPackageChain(packageName: String): List<String> {
+		var packageKey = packageName
 		require(packageKey.startsWith("com.projectswg.holocore")) { "packageKey must be a part of holocore, was: $packageKey" }
 		
 		packageKey = packageKey.removePrefix("com.projectswg.holocore")
@@ -93,18 +128,20 @@ class PswgConfigDatabaseMongo(private val collection: MongoCollection<Document>)
 		if (packageKey.startsWith("resources.") || packageKey.startsWith("services."))
 			packageKey = packageKey.substringAfter('.')
 		
-		val configs = ArrayList<Document>()
+		val chain = ArrayList<String>()
 		
 		while (packageKey.isNotEmpty()) {
-			val doc = collection.find(Filters.eq("package", packageKey)).first()
-			if (doc != null)
-				configs.add(doc)
+			chain.add(packageKey)
 			
 			if (!packageKey.contains('.'))
 				break
 			packageKey = packageKey.substringBeforeLast('.')
 		}
-		return configs
+		return chain
+	}
+	
+	companion object {
+		const val DEFAULT_REFRESH_INTERVAL = 30L
 	}
 	
 }
@@ -88,6 +88,7 @@ object PswgDatabase {
 	}
 	
 	fun close() {
+		(configImpl as? PswgConfigDatabaseMongo)?.close()
 		mongoClient?.close()
 	}
 	
@@ -36,6 +36,7 @@ import com.projectswg.holocore.resources.support.objects.swg.SWGObject
 import org.bson.Document
 import java.time.Instant
 import java.util.concurrent.TimeUnit
+import java.util.function.Consumer
 import java.util.regex.Pattern
 import java.util.stream.Collectors.toList
 
@@ -44,6 +45,21 @@ class PswgObjectDatabaseMongo(private val collection: MongoCollection<Document>)
 	override val objects: List<MongoData>
 		get() = collection.find(Filters.exists("deletedAt", false)).map { MongoData(it) }.into(ArrayList()) ?: ArrayList()
 	
+	override fun streamObjects(batchSize: Int, consumer: Consumer<List<MongoData>>) {
+		collection.find(Filters.exists("deletedAt", false)).batchSize(batchSize).cursor().use { cursor ->
+			var batch = ArrayList<MongoData>(batchSize)
+			while (cursor.hasNext()) {
+				batch.add(MongoData(cursor.next()))
+				if (batch.size >= batchSize) {
+					consumer.accept(batch)
+					batch = ArrayList(batchSize)
+				}
+			}
+			if (batch.isNotEmpty())
+				consumer.accept(batch)
+		}
+	}
+	
 	init {
 		collection.createIndex(Indexes.ascending("id"), IndexOptions().unique(true))
 		collection.createIndex(Indexes.ascending("deletedAt"), IndexOptions().expireAfter(7, TimeUnit.DAYS))
@@ -72,6 +88,12 @@ class PswgObjectDatabaseMongo(private val collection: MongoCollection<Document>)
 		return collection.updateOne(Filters.eq("id", id), Updates.set("deletedAt", Instant.now())).modifiedCount > 0
 	}
 	
+	override fun removeObjects(ids: Collection<Long>): Long {
+		if (ids.isEmpty())
+			return 0
+		return collection.updateMany(Filters.`in`("id", ids), Updates.set("deletedAt", Instant.now())).modifiedCount
+	}
+	
 	override fun getCharacterCount(account: String): Int {
 		return collection.countDocuments(Filters.eq("account", account)).toInt()
 	}
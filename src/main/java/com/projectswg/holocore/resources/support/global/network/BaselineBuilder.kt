@@ -31,26 +31,23 @@ import com.projectswg.common.network.packets.swg.zone.baselines.Baseline
 import com.projectswg.common.network.packets.swg.zone.baselines.Baseline.BaselineType
 import com.projectswg.holocore.resources.support.global.player.Player
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject
-import me.joshlarson.jlcommon.log.Log
-import java.io.ByteArrayOutputStream
-import java.io.IOException
 import java.nio.charset.Charset
 import java.nio.charset.StandardCharsets
 
+/**
+ * Encodes a single baseline page.  Values are written little-endian straight into a growable byte array that is reused
+ * by every builder on the same thread, so the only allocation per baseline is the final, exactly-sized copy handed to
+ * the [Baseline] packet.
+ */
 class BaselineBuilder(private val obj: SWGObject, private val type: BaselineType, private val num: Int) {
 	private var opCount = 0
-	private val rawDataStream = ByteArrayOutputStream()
-	private val dataStream = LittleEndianDataOutputStream(rawDataStream)
+	private val scratch = Scratch.acquire()
+	private var data = scratch.array
+	private var position = 0
+	private var built: ByteArray? = null
 
 	fun sendTo(target: Player) {
-		val data = build()
-		val baseline = Baseline()
-		baseline.id = obj.objectId
-		baseline.type = type
-		baseline.num = num
-		baseline.setOperandCount(opCount)
-		baseline.baselineData = data
-		target.sendPacket(baseline)
+		target.sendPacket(buildAsBaselinePacket())
 	}
 
 	fun buildAsBaselinePacket(): Baseline {
@@ -63,16 +60,21 @@ class BaselineBuilder(private val obj: SWGObject, private val type: BaselineType
 		return baseline
 	}
 
+	/**
+	 * Returns the encoded page and releases the thread's scratch buffer.  Nothing may be added after the first call.
+	 */
 	fun build(): ByteArray {
-		return rawDataStream.toByteArray()
+		val built = this.built
+		if (built != null)
+			return built
+		val result = data.copyOf(position)
+		this.built = result
+		scratch.release(data)
+		return result
 	}
 
 	fun addObject(e: Encodable) {
-		try {
-			dataStream.write(e.encode())
-		} catch (ex: IOException) {
-			Log.e(ex)
-		}
+		addRaw(e.encode())
 	}
 
 	fun addBoolean(b: Boolean) {
@@ -80,76 +82,122 @@ class BaselineBuilder(private val obj: SWGObject, private val type: BaselineType
 	}
 
 	fun addAscii(str: String) {
-		addShort(str.length)
-		try {
-			dataStream.write(str.toByteArray(ASCII))
-		} catch (e: IOException) {
-			Log.e(e)
+		val length = str.length
+		addShort(length)
+		ensureCapacity(length)
+		for (i in 0 until length) {
+			val c = str[i]
+			if (c.code >= 0x80) {
+				// Multi-byte characters can't be written one per byte - let the charset handle the rest of the string
+				position -= i
+				addRaw(str.toByteArray(ASCII))
+				return
+			}
+			data[position++] = c.code.toByte()
 		}
 	}
 
 	fun addUnicode(str: String) {
-		addInt(str.length)
-		try {
-			dataStream.write(str.toByteArray(UNICODE))
-		} catch (e: IOException) {
-			Log.e(e)
+		val length = str.length
+		addInt(length)
+		ensureCapacity(length * 2)
+		for (i in 0 until length) {
+			val c = str[i]
+			if (Character.isSurrogate(c)) {
+				// Let the charset deal with surrogate pairs, including malformed ones
+				position -= i * 2
+				addRaw(str.toByteArray(UNICODE))
+				return
+			}
+			data[position++] = c.code.toByte()
+			data[position++] = (c.code ushr 8).toByte()
 		}
 	}
 
 	fun addByte(b: Int) {
-		try {
-			dataStream.writeByte(b)
-		} catch (e: IOException) {
-			Log.e(e)
-		}
+		ensureCapacity(1)
+		data[position++] = b.toByte()
 	}
 
 	fun addShort(s: Int) {
-		try {
-			dataStream.writeShort(s)
-		} catch (e: IOException) {
-			Log.e(e)
-		}
+		ensureCapacity(2)
+		data[position++] = s.toByte()
+		data[position++] = (s ushr 8).toByte()
 	}
 
 	fun addInt(i: Int) {
-		try {
-			dataStream.writeInt(i)
-		} catch (e: IOException) {
-			Log.e(e)
-		}
+		ensureCapacity(4)
+		data[position++] = i.toByte()
+		data[position++] = (i ushr 8).toByte()
+		data[position++] = (i ushr 16).toByte()
+		data[position++] = (i ushr 24).toByte()
 	}
 
 	fun addLong(l: Long) {
-		try {
-			dataStream.writeLong(l)
-		} catch (e: IOException) {
-			Log.e(e)
-		}
+		addInt(l.toInt())
+		addInt((l ushr 32).toInt())
 	}
 
 	fun addFloat(f: Float) {
-		try {
-			dataStream.writeFloat(f)
-		} catch (e: IOException) {
-			Log.e(e)
-		}
+		addInt(java.lang.Float.floatToRawIntBits(f))
 	}
 
 	fun addArray(array: ByteArray) {
 		addShort(array.size)
-		try {
-			dataStream.write(array)
-		} catch (e: IOException) {
-			Log.e(e)
-		}
+		addRaw(array)
 	}
 
 	fun incrementOperandCount(operands: Int): Int {
 		return operands.let { opCount += it; opCount }
 	}
 
+	private fun addRaw(array: ByteArray) {
+		ensureCapacity(array.size)
+		System.arraycopy(array, 0, data, position, array.size)
+		position += array.size
+	}
+
+	private fun ensureCapacity(bytes: Int) {
+		check(built == null) { "baseline has already been built" }
+		val required = position + bytes
+		if (required > data.size)
+			data = data.copyOf(maxOf(required, data.size * 2))
+	}
+
+	/**
+	 * Per-thread scratch array.  Building one baseline may (indirectly) start another on the same thread, in which case
+	 * the nested builder gets a private array rather than clobbering the outer one.
+	 */
+	private class Scratch(var array: ByteArray, private val shared: Boolean) {
+		
+		private var inUse = false
+		
+		fun release(array: ByteArray) {
+			if (!shared)
+				return
+			if (array.size <= MAX_RETAINED_SIZE)
+				this.array = array
+			inUse = false
+		}
+		
+		companion object {
+			
+			private const val INITIAL_SIZE = 1024
+			private const val MAX_RETAINED_SIZE = 64 * 1024
+			private val SCRATCH = ThreadLocal.withInitial { Scratch(ByteArray(INITIAL_SIZE), true) }
+			
+			fun acquire(): Scratch {
+				val scratch = SCRATCH.get()
+				if (scratch.inUse)
+					return Scratch(ByteArray(INITIAL_SIZE), false)
+				scratch.inUse = true
+				return scratch
+			}
+			
+		}
+		
+	}
+
 	companion object {
 		val ASCII: Charset = StandardCharsets.UTF_8
 		val UNICODE: Charset = StandardCharsets.UTF_16LE
@@ -36,16 +36,21 @@ import me.joshlarson.jlcommon.log.Log
 import java.lang.ref.SoftReference
 import java.nio.BufferOverflowException
 import java.nio.BufferUnderflowException
-
+import java.util.concurrent.atomic.AtomicIntegerArray
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * Base class for anything that is described to the client through baselines and deltas.
+ *
+ * The shared pages (3 and 6) are identical for every observer, so they are encoded once and cached against a per-page
+ * version number.  Every delta bumps the version of its page, which invalidates the cached encoding without needing a
+ * lock on the read path.  The private pages are only ever sent to the owner and are always built on demand.
+ */
 open class BaselineObject(val baselineType: BaselineType) {
 	@Transient
-	private val baselineData: MutableList<SoftReference<Baseline>?> = ArrayList(9)
-
-	init {
-		for (i in 0..8) {
-			baselineData.add(null)
-		}
-	}
+	private val baselineVersions = AtomicIntegerArray(9)
+	@Transient
+	private val baselineCache = AtomicReferenceArray<SoftReference<CachedBaseline>?>(9)
 
 	fun parseBaseline(baseline: Baseline) {
 		val buffer = NetBuffer.wrap(baseline.baselineData)
@@ -160,40 +165,59 @@ open class BaselineObject(val baselineType: BaselineType) {
 
 	fun sendDelta(type: Int, update: Int, value: Any) {
 		verifySwgObject()
-		synchronized(baselineData) {
-			baselineData.set(type - 1, null)
-		}
+		baselineVersions.incrementAndGet(type - 1)
+		(this as SWGObject).markDirty()
 		DeltaBuilder.send(this as SWGObject, this.baselineType, type, update, value)
 	}
 
 	fun sendDelta(type: Int, update: Int, value: Any, strType: StringType) {
 		verifySwgObject()
-		synchronized(baselineData) {
-			baselineData.set(type - 1, null)
-		}
+		baselineVersions.incrementAndGet(type - 1)
+		(this as SWGObject).markDirty()
 		DeltaBuilder.send(this as SWGObject, this.baselineType, type, update, value, strType)
 	}
 
+	/**
+	 * Sends a delta that only describes the change since the previous delta for this field, such as a collection update.
+	 * Unlike [sendDelta], these are never merged with other pending deltas.
+	 */
+	fun sendIncrementalDelta(type: Int, update: Int, data: ByteArray) {
+		verifySwgObject()
+		baselineVersions.incrementAndGet(type - 1)
+		(this as SWGObject).markDirty()
+		DeltaBuilder.sendIncremental(this as SWGObject, this.baselineType, type, update, data)
+	}
+
 	private fun createBaseline(num: Int, baselineCreator: (bb: BaselineBuilder) -> Unit): Baseline {
 		verifySwgObject()
-		synchronized(baselineData) {
-			var data = baselineData[num - 1]?.get()
-			if (data == null) {
-				val bb = BaselineBuilder(this as SWGObject, baselineType, num)
-				baselineCreator(bb)
-				data = bb.buildAsBaselinePacket()
-				setBaseline(num, data)
-			}
-			return data
+		if (num != 3 && num != 6)
+			return buildBaseline(num, baselineCreator)
+
+		// Read the version before building, so a delta that races with the build leaves the cache stale rather than wrong
+		val version = baselineVersions[num - 1]
+		val cached = baselineCache[num - 1]?.get()
+		if (cached != null && cached.version == version)
+			return cached.baseline
+		val baseline = buildBaseline(num, baselineCreator)
+		baselineCache[num - 1] = SoftReference(CachedBaseline(version, baseline))
+		return baseline
+	}
+
+	private fun buildBaseline(num: Int, baselineCreator: (bb: BaselineBuilder) -> Unit): Baseline {
+		val bb = BaselineBuilder(this as SWGObject, baselineType, num)
+		try {
+			baselineCreator(bb)
+		} catch (t: Throwable) {
+			bb.build() // hands the thread's scratch buffer back
+			throw t
 		}
+		return bb.buildAsBaselinePacket()
 	}
 
 	private fun verifySwgObject() {
 		check(this is SWGObject) { "This object is not an SWGObject!" }
 	}
 
-	private fun setBaseline(num: Int, baseline: Baseline) {
-		baselineData[num - 1] = SoftReference(baseline)
-	}
+	private class CachedBaseline(val version: Int, val baseline: Baseline)
 
 }
@@ -32,26 +32,35 @@ import com.projectswg.common.network.packets.swg.zone.baselines.Baseline.Baselin
 import com.projectswg.common.network.packets.swg.zone.deltas.DeltasMessage
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject
 
+/**
+ * Encodes a delta once and fans the resulting message out to every observer's [DeltaQueue].  Deltas that carry the full
+ * value of a field are mergeable - a later update to the same field within the same flush window replaces the earlier
+ * one.  Incremental deltas (collection updates) are always delivered in full.
+ */
 object DeltaBuilder {
 	fun send(obj: SWGObject, type: BaselineType, num: Int, updateType: Int, change: Any) {
-		send(obj, type, num, updateType, (if (change is ByteArray) change else Encoder.encode(change)))
+		send(obj, type, num, updateType, (if (change is ByteArray) change else Encoder.encode(change)), true)
 	}
 
 	fun send(obj: SWGObject, type: BaselineType, num: Int, updateType: Int, change: Any, strType: StringType) {
-		send(obj, type, num, updateType, (if (change is ByteArray) change else Encoder.encode(change, strType)))
+		send(obj, type, num, updateType, (if (change is ByteArray) change else Encoder.encode(change, strType)), true)
 	}
 
-	private fun send(obj: SWGObject, type: BaselineType, num: Int, updateType: Int, data: ByteArray) {
+	fun sendIncremental(obj: SWGObject, type: BaselineType, num: Int, updateType: Int, data: ByteArray) {
+		send(obj, type, num, updateType, data, false)
+	}
+
+	private fun send(obj: SWGObject, type: BaselineType, num: Int, updateType: Int, data: ByteArray, mergeable: Boolean) {
 		val delta = DeltasMessage(obj.objectId, type, num, updateType, data)
 		if (num == 3 || num == 6) { // Shared Objects
 			for (observer in obj.observerCreatures) {
-				observer.addDelta(delta)
+				observer.addDelta(delta, num, updateType, mergeable)
 			}
 		} else {
 			val owner = obj.owner
 			if (owner != null) {
 				val observerSelf = owner.creatureObject
-				observerSelf?.addDelta(delta)
+				observerSelf?.addDelta(delta, num, updateType, mergeable)
 			}
 		}
 	}
@@ -26,51 +26,58 @@
  ***********************************************************************************/
 package com.projectswg.holocore.resources.support.global.network
 
-import java.io.DataOutputStream
-import java.io.IOException
-import java.io.OutputStream
+import com.projectswg.common.network.packets.swg.zone.deltas.DeltasMessage
+import java.util.function.Consumer
 
-class LittleEndianDataOutputStream(out: OutputStream) : OutputStream() {
-	// phew, what a mouthful
-	private val stream = DataOutputStream(out)
-
-	@Throws(IOException::class)
-	override fun write(b: ByteArray) {
-		stream.write(b)
-	}
-
-	@Throws(IOException::class)
-	override fun write(b: Int) {
-		stream.writeByte(b)
+/**
+ * The deltas waiting to be sent to a single observer, in the order they were produced.  A mergeable delta replaces any
+ * pending delta for the same object, page and field in place (last write wins), so a value that changes several times
+ * within one flush window is only sent once.
+ */
+class DeltaQueue {
+	
+	private val deltas = ArrayList<DeltasMessage>()
+	private val mergeIndex = HashMap<DeltaKey, Int>()
+	@Volatile
+	private var count = 0
+	
+	val isEmpty: Boolean
+		get() = count == 0
+	
+	@Synchronized
+	fun add(delta: DeltasMessage, num: Int, update: Int, mergeable: Boolean) {
+		if (mergeable) {
+			val key = DeltaKey(delta.objectId, num, update)
+			val existing = mergeIndex.putIfAbsent(key, deltas.size)
+			if (existing != null) {
+				deltas[existing] = delta
+				return
+			}
+		}
+		deltas.add(delta)
+		count = deltas.size
 	}
-
-	@Throws(IOException::class)
-	fun writeByte(b: Int) {
-		stream.writeByte(b)
+	
+	@Synchronized
+	fun clear() {
+		deltas.clear()
+		mergeIndex.clear()
+		count = 0
 	}
-
-	@Throws(IOException::class)
-	fun writeShort(s: Int) {
-		stream.writeShort(java.lang.Short.reverseBytes(s.toShort()).toInt())
-	}
-
-	@Throws(IOException::class)
-	fun writeInt(i: Int) {
-		stream.writeInt(Integer.reverseBytes(i))
-	}
-
-	@Throws(IOException::class)
-	fun writeLong(l: Long) {
-		stream.writeLong(java.lang.Long.reverseBytes(l))
-	}
-
-	@Throws(IOException::class)
-	fun writeFloat(f: Float) {
-		stream.writeInt(Integer.reverseBytes(java.lang.Float.floatToRawIntBits(f)))
-	}
-
-	@Throws(IOException::class)
-	fun writeDouble(d: Double) {
-		stream.writeLong(java.lang.Long.reverseBytes(java.lang.Double.doubleToRawLongBits(d)))
+	
+	/**
+	 * Removes every pending delta, passing each to the consumer in order
+	 */
+	@Synchronized
+	fun drain(consumer: Consumer<DeltasMessage>) {
+		try {
+			for (delta in deltas)
+				consumer.accept(delta)
+		} finally {
+			clear()
+		}
 	}
+	
+	private data class DeltaKey(val objectId: Long, val num: Int, val update: Int)
+	
 }
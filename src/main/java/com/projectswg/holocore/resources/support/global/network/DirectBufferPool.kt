@@ -0,0 +1,160 @@
+/***********************************************************************************
+ * Copyright (c) 2026 /// Project SWG /// www.projectswg.com                       *
+ * *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ * *
+ * This file is part of Holocore.                                                  *
+ * *
+ * --------------------------------------------------------------------------------*
+ * *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ * *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ * *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http:></http:>//www.gnu.org/licenses/>.               *
+ */
+package com.projectswg.holocore.resources.support.global.network
+
+import me.joshlarson.jlcommon.log.Log
+import java.nio.ByteBuffer
+import java.util.*
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Pool of direct byte buffers, split into power-of-two size classes between [minBufferSize] and [maxBufferSize].
+ * Requests larger than the largest size class are served by an unpooled direct buffer that is simply dropped on release.
+ *
+ * Idle buffers are bounded both per size class, by [maxPooledPerClass], and in total, by [maxPooledBytes].  Buffers
+ * released beyond either limit are left to the GC.
+ *
+ * Every buffer handed out is tracked until it is released, so leaks can be detected with [outstandingBuffers] and
+ * releasing a buffer twice (or releasing a buffer that didn't come from this pool) is reported rather than corrupting
+ * the pool.  The tracking is striped by identity hash so that connections acquiring and releasing buffers on different
+ * threads rarely contend for the same lock.
+ */
+class DirectBufferPool @JvmOverloads constructor(private val minBufferSize: Int = 4 * 1024, private val maxBufferSize: Int = 256 * 1024, private val maxPooledPerClass: Int = 64, private val maxPooledBytes: Long = 32L * 1024 * 1024) {
+	
+	private val sizeClasses: Array<SizeClass>
+	private val outstanding = Array(OUTSTANDING_STRIPES) { Collections.newSetFromMap(IdentityHashMap<ByteBuffer, Boolean>()) }
+	private val outstandingCount = AtomicInteger(0)
+	private val pooledBytes = AtomicLong(0)
+	private val allocations = AtomicLong(0)
+	
+	init {
+		require(minBufferSize > 0 && Integer.bitCount(minBufferSize) == 1) { "minBufferSize must be a power of two" }
+		require(maxBufferSize >= minBufferSize && Integer.bitCount(maxBufferSize) == 1) { "maxBufferSize must be a power of two" }
+		val classCount = Integer.numberOfTrailingZeros(maxBufferSize) - Integer.numberOfTrailingZeros(minBufferSize) + 1
+		sizeClasses = Array(classCount) { SizeClass(minBufferSize shl it) }
+	}
+	
+	/** The number of buffers that have been acquired but not yet released */
+	val outstandingBuffers: Int
+		get() = outstandingCount.get()
+	
+	/** The total capacity of the idle buffers currently held by the pool */
+	val idleBytes: Long
+		get() = pooledBytes.get()
+	
+	/** The total number of direct buffers that have been allocated by this pool, since pooled buffers are reused */
+	val totalAllocations: Long
+		get() = allocations.get()
+	
+	/** The size of the largest buffer that can be pooled */
+	val largestPooledSize: Int
+		get() = maxBufferSize
+	
+	/**
+	 * Acquires a cleared direct buffer with a capacity of at least the requested size
+	 */
+	fun acquire(size: Int): ByteBuffer {
+		val sizeClass = getSizeClass(size)
+		val buffer = if (sizeClass == null) {
+			allocations.incrementAndGet()
+			ByteBuffer.allocateDirect(size)
+		} else {
+			sizeClass.poll() ?: run {
+				allocations.incrementAndGet()
+				ByteBuffer.allocateDirect(sizeClass.bufferSize)
+			}
+		}
+		buffer.clear()
+		val stripe = getStripe(buffer)
+		synchronized(stripe) { stripe.add(buffer) }
+		outstandingCount.incrementAndGet()
+		return buffer
+	}
+	
+	/**
+	 * Returns the buffer to the pool.  The buffer must not be used after it has been released.
+	 */
+	fun release(buffer: ByteBuffer) {
+		val stripe = getStripe(buffer)
+		val removed = synchronized(stripe) { stripe.remove(buffer) }
+		if (!removed) {
+			Log.w("Attempted to release a buffer that is not owned by this pool: %s", buffer)
+			return
+		}
+		outstandingCount.decrementAndGet()
+		val sizeClass = getSizeClass(buffer.capacity()) ?: return
+		if (sizeClass.bufferSize == buffer.capacity())
+			sizeClass.offer(buffer)
+	}
+	
+	private fun getStripe(buffer: ByteBuffer): MutableSet<ByteBuffer> {
+		return outstanding[System.identityHashCode(buffer) and (OUTSTANDING_STRIPES - 1)]
+	}
+	
+	private fun getSizeClass(size: Int): SizeClass? {
+		if (size > maxBufferSize)
+			return null
+		if (size <= minBufferSize)
+			return sizeClasses[0]
+		val rounded = Integer.highestOneBit(size - 1) shl 1
+		return sizeClasses[Integer.numberOfTrailingZeros(rounded) - Integer.numberOfTrailingZeros(minBufferSize)]
+	}
+	
+	private inner class SizeClass(val bufferSize: Int) {
+		
+		private val buffers = ConcurrentLinkedQueue<ByteBuffer>()
+		private val pooled = AtomicInteger(0)
+		
+		fun poll(): ByteBuffer? {
+			val buffer = buffers.poll() ?: return null
+			pooled.decrementAndGet()
+			pooledBytes.addAndGet(-bufferSize.toLong())
+			return buffer
+		}
+		
+		fun offer(buffer: ByteBuffer) {
+			if (pooled.incrementAndGet() > maxPooledPerClass) {
+				pooled.decrementAndGet()
+				return // Let the GC reclaim it
+			}
+			if (pooledBytes.addAndGet(bufferSize.toLong()) > maxPooledBytes) {
+				pooledBytes.addAndGet(-bufferSize.toLong())
+				pooled.decrementAndGet()
+				return
+			}
+			buffers.offer(buffer)
+		}
+		
+	}
+	
+	companion object {
+		private const val OUTSTANDING_STRIPES = 16 // power of two
+	}
+	
+}
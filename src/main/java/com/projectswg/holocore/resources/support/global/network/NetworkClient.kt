@@ -44,7 +44,11 @@ import com.projectswg.holocore.intents.support.global.network.InboundPacketInten
 import com.projectswg.holocore.resources.support.data.server_info.StandardLog
 import com.projectswg.holocore.resources.support.global.player.AccessLevel
 import com.projectswg.holocore.resources.support.global.player.Player
+import com.projectswg.holocore.utilities.TickScheduler
+import com.projectswg.holocore.utilities.TickTask
+import me.joshlarson.jlcommon.control.Intent
 import me.joshlarson.jlcommon.control.IntentChain
+import me.joshlarson.jlcommon.control.IntentManager
 import me.joshlarson.jlcommon.log.Log
 import me.joshlarson.websocket.common.WebSocketHandler
 import me.joshlarson.websocket.common.parser.http.HttpRequest
@@ -58,21 +62,41 @@ import java.net.InetSocketAddress
 import java.net.SocketAddress
 import java.nio.ByteBuffer
 import java.util.*
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicLong
 import java.util.concurrent.atomic.AtomicReference
 import java.util.concurrent.locks.ReentrantLock
 import kotlin.concurrent.withLock
 
-class NetworkClient(private val remoteAddress: SocketAddress, write: (ByteBuffer) -> Unit, private val closeChannel: () -> Unit): TCPServerChannel, WebSocketServerCallback {
+/**
+ * A single client connection.  Outbound WebSocket frames are not written to the socket individually - they are appended
+ * to a per-connection batch that is written with a single gathering write either when [flush] is called (once per flush
+ * window by the network service) or as soon as the batch reaches [maxBatchSize] bytes.
+ *
+ * Inbound packets are handed to the [PacketRouter].  When a [dispatcher] is supplied they are routed on it directly, one
+ * packet at a time and in arrival order, without going through the intent queue; otherwise each packet is broadcast as an
+ * [InboundPacketIntent] on this connection's intent chain.  In both cases no packet is routed before the
+ * [ConnectionOpenedIntent] has been handled, and the [ConnectionClosedIntent] follows the last routed packet.
+ */
+class NetworkClient @JvmOverloads constructor(private val remoteAddress: SocketAddress, private val write: (Array<ByteBuffer>) -> Unit, private val closeChannel: () -> Unit, private val maxBatchSize: Int = DEFAULT_MAX_BATCH_SIZE, private val dispatcher: Executor? = null): TCPServerChannel, WebSocketServerCallback {
 	
 	private val inboundBuffer = ByteBuffer.allocate(INBOUND_BUFFER_SIZE)
 	private val intentChain   = IntentChain()
 	private val connected     = AtomicBoolean(true)
 	private val upgraded      = AtomicBoolean(false)
 	private val status        = AtomicReference(SessionStatus.DISCONNECTED)
-	private val wsProtocol    = WebSocketServerProtocol(this, { data -> write(ByteBuffer.wrap(data)) }, closeChannel)
+	private val wsProtocol    = WebSocketServerProtocol(this, { data -> queueOutbound(data) }, closeChannel)
 	private val writeLock     = ReentrantLock()
+	private val batchLock     = ReentrantLock()
+	private val outboundBatch = ArrayList<ByteBuffer>()
+	private var outboundBatchSize = 0
+	private val inboundTasks  = ConcurrentLinkedQueue<Runnable>()
+	private val inboundScheduled = AtomicBoolean(false)
+	private val inboundHeld   = AtomicBoolean(false)
+	@Volatile private var inboundHoldTimeout: TickTask? = null
 	
 	val player                = Player(SESSION_ID.getAndIncrement(), remoteAddress as InetSocketAddress?) { this.addToOutbound(it) }
 	
@@ -88,6 +112,21 @@ class NetworkClient(private val remoteAddress: SocketAddress, write: (ByteBuffer
 			serverDisconnectReason = reason
 			if (upgraded.get())
 				wsProtocol.sendClose(WebSocketCloseReason.NORMAL.statusCode.toInt(), reason.name)
+			flush()
+		}
+	}
+	
+	/**
+	 * Writes all outbound frames that have been queued since the last flush
+	 */
+	fun flush() {
+		batchLock.withLock {
+			if (outboundBatch.isEmpty())
+				return
+			val batch = outboundBatch.toTypedArray()
+			outboundBatch.clear()
+			outboundBatchSize = 0
+			write(batch)
 		}
 	}
 	
@@ -169,13 +208,21 @@ class NetworkClient(private val remoteAddress: SocketAddress, write: (ByteBuffer
 	
 	override fun onOpened() {
 		status.set(SessionStatus.CONNECTING)
-		intentChain.broadcastAfter(ConnectionOpenedIntent(player))
+		val opened = ConnectionOpenedIntent(player)
+		if (dispatcher != null)
+			dispatchInOrder(dispatcher) { holdInboundUntilHandled(dispatcher, opened) } // packets may only be routed once the session exists
+		else
+			intentChain.broadcastAfter(opened)
 	}
 	
 	override fun onClosed() {
 		if (upgraded.get())
 			StandardLog.onPlayerTrace(this, player, "disconnected clientReason=$clientDisconnectReason serverReason=$serverDisconnectReason")
-		intentChain.broadcastAfter(ConnectionClosedIntent(player, ConnectionStoppedReason.OTHER_SIDE_TERMINATED))
+		val closed = ConnectionClosedIntent(player, ConnectionStoppedReason.OTHER_SIDE_TERMINATED)
+		if (dispatcher != null)
+			dispatchInOrder(dispatcher) { intentChain.broadcastAfter(closed) } // only after every packet received has been routed
+		else
+			intentChain.broadcastAfter(closed)
 	}
 	
 	override fun toString(): String {
@@ -207,7 +254,60 @@ class NetworkClient(private val remoteAddress: SocketAddress, write: (ByteBuffer
 			return
 		p.socketAddress = remoteAddress
 		processPacket(p)
-		intentChain.broadcastAfter(InboundPacketIntent(player, p))
+		if (dispatcher != null)
+			dispatchInOrder(dispatcher) { PacketRouter.dispatch(player, p) }
+		else
+			intentChain.broadcastAfter(InboundPacketIntent(player, p))
+	}
+	
+	/**
+	 * Broadcasts [intent] and stops draining this connection's inbound tasks until it has been handled.  The drain is
+	 * resumed by a follow-up intent that is broadcast once [intent] completes, or by a timeout if it never does.  Only
+	 * used for the connection handshake, which completes within a few intent cycles.
+	 */
+	private fun holdInboundUntilHandled(dispatcher: Executor, intent: Intent) {
+		inboundHeld.set(true)
+		inboundHoldTimeout = HOLD_TIMEOUTS.execute(OPENED_INTENT_TIMEOUT) {
+			if (inboundHeld.get()) {
+				StandardLog.onPlayerError(this, player, "timed out waiting for ${intent.javaClass.simpleName} - routing packets anyway")
+				releaseInbound(dispatcher)
+			}
+		}
+		attach(IntentManager.getInstance())
+		intentChain.broadcastAfter(intent)
+		InboundReleaseIntent(this, dispatcher).broadcastAfterIntent(intent)
+	}
+	
+	private fun releaseInbound(dispatcher: Executor) {
+		if (!inboundHeld.compareAndSet(true, false))
+			return
+		inboundHoldTimeout?.cancel()
+		inboundHoldTimeout = null
+		if (inboundTasks.isNotEmpty() && inboundScheduled.compareAndSet(false, true))
+			dispatcher.execute { drainInbound(dispatcher) }
+	}
+	
+	private fun dispatchInOrder(dispatcher: Executor, task: Runnable) {
+		inboundTasks.add(task)
+		if (!inboundHeld.get() && inboundScheduled.compareAndSet(false, true))
+			dispatcher.execute { drainInbound(dispatcher) }
+	}
+	
+	private fun drainInbound(dispatcher: Executor) {
+		// Bounded so that a single busy connection can't starve the others sharing the dispatcher
+		for (i in 0 until MAX_INBOUND_DRAIN) {
+			if (inboundHeld.get())
+				break
+			val task = inboundTasks.poll() ?: break
+			try {
+				task.run()
+			} catch (t: Throwable) {
+				Log.e(t)
+			}
+		}
+		inboundScheduled.set(false)
+		if (!inboundHeld.get() && inboundTasks.isNotEmpty() && inboundScheduled.compareAndSet(false, true))
+			dispatcher.execute { drainInbound(dispatcher) }
 	}
 	
 	private fun addToOutbound(p: SWGPacket) {
@@ -222,6 +322,15 @@ class NetworkClient(private val remoteAddress: SocketAddress, write: (ByteBuffer
 		}
 	}
 	
+	private fun queueOutbound(data: ByteArray) {
+		batchLock.withLock {
+			outboundBatch.add(ByteBuffer.wrap(data))
+			outboundBatchSize += data.size
+			if (outboundBatchSize >= maxBatchSize)
+				flush()
+		}
+	}
+	
 	private fun onConnected() {
 		StandardLog.onPlayerTrace(this, player, "connected")
 		status.set(SessionStatus.CONNECTED)
@@ -261,6 +370,22 @@ class NetworkClient(private val remoteAddress: SocketAddress, write: (ByteBuffer
 	companion object {
 		private val SESSION_ID = AtomicLong(1)
 		private const val INBOUND_BUFFER_SIZE = 4096
+		private const val MAX_INBOUND_DRAIN = 64
+		private val OPENED_INTENT_TIMEOUT = TimeUnit.SECONDS.toMillis(5)
+		private val HOLD_TIMEOUTS = TickScheduler.group("network-client")
+		private var intentManager: IntentManager? = null
+		const val DEFAULT_MAX_BATCH_SIZE = 64 * 1024
+		
+		@Synchronized
+		private fun attach(intentManager: IntentManager?) {
+			if (intentManager == null || intentManager === this.intentManager)
+				return
+			this.intentManager = intentManager
+			intentManager.registerForIntent(InboundReleaseIntent::class.java, "NetworkClient") { it.client.releaseInbound(it.dispatcher) }
+		}
 	}
 	
+	/** Broadcast after an intent that holds up a connection's inbound tasks, to resume them once it has been handled */
+	private class InboundReleaseIntent(val client: NetworkClient, val dispatcher: Executor) : Intent()
+	
 }
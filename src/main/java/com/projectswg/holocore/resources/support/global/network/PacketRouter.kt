@@ -0,0 +1,170 @@
+/***********************************************************************************
+ * Copyright (c) 2026 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.global.network
+
+import com.projectswg.common.network.packets.PacketType
+import com.projectswg.common.network.packets.SWGPacket
+import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent
+import com.projectswg.holocore.resources.support.global.player.Player
+import me.joshlarson.jlcommon.control.IntentManager
+import me.joshlarson.jlcommon.log.Log
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+import java.util.function.BiConsumer
+import java.util.function.Consumer
+
+/**
+ * Delivers inbound packets only to the services that subscribed to them, instead of fanning every packet out to every
+ * service as an intent.  Subscriptions are either by packet class, which also receives its subclasses (so subscribing
+ * to [SWGPacket] receives everything), or by [PacketType].
+ *
+ * Packets arrive either directly from a [NetworkClient] (see [dispatch]) or as an [InboundPacketIntent] broadcast by
+ * anything else - the router registers itself as the single consumer of that intent on the current [IntentManager].
+ * Subscriptions are tied to that intent manager and are discarded when a new one is installed.
+ */
+object PacketRouter {
+	
+	private val subscriptions = CopyOnWriteArrayList<Subscription>()
+	@Volatile
+	private var routes = ConcurrentHashMap<Class<*>, Array<Subscription>>()
+	private val statistics = ConcurrentHashMap<Class<*>, PacketCounter>()
+	private var intentManager: IntentManager? = null
+	
+	/**
+	 * Subscribes [handler] to every packet that is an instance of one of [packets].  Handlers are invoked on the thread
+	 * that dispatches the packet, and packets from a single player are never dispatched concurrently.
+	 */
+	@JvmStatic
+	fun subscribe(owner: Any, handler: Consumer<InboundPacketIntent>, vararg packets: Class<out SWGPacket>) {
+		require(packets.isNotEmpty()) { "no packets specified" }
+		subscribe(Subscription(owner, handler, packets.toList(), emptySet()))
+	}
+	
+	/**
+	 * Subscribes [handler] to every packet that is an instance of [packet], already cast to that type
+	 */
+	@JvmStatic
+	fun <T : SWGPacket> subscribe(owner: Any, packet: Class<T>, handler: BiConsumer<Player, T>) {
+		subscribe(Subscription(owner, { handler.accept(it.player, packet.cast(it.packet)) }, listOf(packet), emptySet()))
+	}
+	
+	/**
+	 * Subscribes [handler] to every packet whose [SWGPacket.getPacketType] is one of [packets]
+	 */
+	@JvmStatic
+	fun subscribe(owner: Any, handler: Consumer<InboundPacketIntent>, vararg packets: PacketType) {
+		require(packets.isNotEmpty()) { "no packets specified" }
+		subscribe(Subscription(owner, handler, emptyList(), EnumSet.copyOf(packets.toList())))
+	}
+	
+	@JvmStatic
+	fun unsubscribe(owner: Any) {
+		if (subscriptions.removeIf { it.owner === owner })
+			routes = ConcurrentHashMap()
+	}
+	
+	/**
+	 * Returns the counters for every packet type dispatched so far, busiest first
+	 */
+	@JvmStatic
+	fun getStatistics(): List<PacketStatistics> {
+		return statistics.entries
+			.map { (packet, counter) -> PacketStatistics(packet.simpleName, counter.count.sum(), counter.totalTime.sum(), counter.maxTime.get()) }
+			.sortedByDescending { it.totalTime }
+	}
+	
+	fun dispatch(player: Player, packet: SWGPacket) {
+		dispatch(InboundPacketIntent(player, packet))
+	}
+	
+	fun dispatch(intent: InboundPacketIntent) {
+		val packet = intent.packet
+		val packetClass = packet.javaClass
+		// Every instance of a packet class has the same packet type, so the class alone identifies the route
+		val route = routes.computeIfAbsent(packetClass) { subscriptions.filter { it.accepts(packet) }.toTypedArray() }
+		val start = System.nanoTime()
+		for (subscription in route) {
+			try {
+				subscription.handler.accept(intent)
+			} catch (t: Throwable) {
+				Log.e("Failed to handle %s in %s", packetClass.simpleName, subscription.owner.javaClass.simpleName)
+				Log.e(t)
+			}
+		}
+		statistics.computeIfAbsent(packetClass) { PacketCounter() }.record(System.nanoTime() - start)
+	}
+	
+	private fun subscribe(subscription: Subscription) {
+		attach(IntentManager.getInstance())
+		subscriptions.add(subscription)
+		routes = ConcurrentHashMap()
+	}
+	
+	@Synchronized
+	private fun attach(intentManager: IntentManager?) {
+		if (intentManager == null || intentManager === this.intentManager)
+			return
+		this.intentManager = intentManager
+		subscriptions.clear()
+		routes = ConcurrentHashMap()
+		intentManager.registerForIntent(InboundPacketIntent::class.java, "PacketRouter") { dispatch(it) }
+	}
+	
+	private class Subscription(val owner: Any, val handler: Consumer<InboundPacketIntent>, val packetClasses: List<Class<out SWGPacket>>, val packetTypes: Set<PacketType>) {
+		
+		fun accepts(packet: SWGPacket): Boolean = packetClasses.any { it.isInstance(packet) } || packet.packetType in packetTypes
+		
+	}
+	
+	private class PacketCounter {
+		
+		val count = LongAdder()
+		val totalTime = LongAdder()
+		val maxTime = AtomicLong()
+		
+		fun record(time: Long) {
+			count.increment()
+			totalTime.add(time)
+			maxTime.accumulateAndGet(time) { a, b -> maxOf(a, b) }
+		}
+		
+	}
+	
+}
+
+/**
+ * Dispatch counters for a single packet type.  Times are in nanoseconds and cover every subscriber of the packet.
+ */
+data class PacketStatistics(val packet: String, val count: Long, val totalTime: Long, val maxTime: Long) {
+	
+	val averageTime: Long
+		get() = if (count == 0L) 0 else totalTime / count
+	
+}
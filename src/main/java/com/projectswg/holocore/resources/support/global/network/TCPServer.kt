@@ -36,16 +36,21 @@ import java.net.InetSocketAddress
 import java.net.SocketAddress
 import java.nio.ByteBuffer
 import java.nio.channels.CancelledKeyException
+import java.nio.channels.ClosedSelectorException
 import java.nio.channels.SelectionKey
 import java.nio.channels.Selector
 import java.nio.channels.ServerSocketChannel
 import java.nio.channels.SocketChannel
 import java.util.*
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
 import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.concurrent.locks.Lock
 import java.util.concurrent.locks.ReentrantLock
 import kotlin.concurrent.withLock
+import kotlin.math.max
+import kotlin.math.min
 
 class TCPServer<T: TCPServerChannel> {
 	
@@ -55,11 +60,12 @@ class TCPServer<T: TCPServerChannel> {
 	fun bind(address: InetSocketAddress,
 			 workerThreadCount: Int = Runtime.getRuntime().availableProcessors(),
 			 backlog: Int = 50,
-			 sessionCreator: (remoteAddress: SocketAddress, writer: (ByteBuffer) -> Unit, closer: () -> Unit) -> T) {
+			 maxOutboundBytes: Long = DEFAULT_MAX_OUTBOUND_BYTES,
+			 sessionCreator: (remoteAddress: SocketAddress, writer: (Array<ByteBuffer>) -> Unit, closer: () -> Unit) -> T) {
 		implementationLock.withLock {
 			if (implementation != null)
 				throw IOException("already bound to socket")
-			implementation = TCPServerImpl(address, workerThreadCount, backlog, sessionCreator)
+			implementation = TCPServerImpl(address, workerThreadCount, backlog, maxOutboundBytes, sessionCreator)
 		}
 	}
 	
@@ -78,6 +84,10 @@ class TCPServer<T: TCPServerChannel> {
 		}
 	}
 	
+	companion object {
+		const val DEFAULT_MAX_OUTBOUND_BYTES = 4L * 1024 * 1024
+	}
+	
 }
 
 interface TCPServerChannel {
@@ -89,11 +99,16 @@ interface TCPServerChannel {
 	
 }
 
-private class TCPServerConnectionHandle<T: TCPServerChannel>(val channel: SocketChannel, val lock: Lock, server: TCPServerImpl<T>, selector: Selector, sessionCreator: (remoteAddress: SocketAddress, writer: (ByteBuffer) -> Unit, closer: () -> Unit) -> T, val outboundData: LinkedList<ByteBuffer> = LinkedList()) {
+private class TCPServerConnectionHandle<T: TCPServerChannel>(val channel: SocketChannel, val lock: Lock, server: TCPServerImpl<T>, val shard: TCPServerImpl<T>.SelectorShard, sessionCreator: (remoteAddress: SocketAddress, writer: (Array<ByteBuffer>) -> Unit, closer: () -> Unit) -> T, val outboundData: LinkedList<ByteBuffer> = LinkedList()) {
 	
-	val session = sessionCreator(channel.remoteAddress as SocketAddress, { buffer -> server.write(this, buffer) }, { close() } )
-	val key: SelectionKey = channel.register(selector, SelectionKey.OP_READ, this)
+	val session = sessionCreator(channel.remoteAddress as SocketAddress, { buffers -> server.write(this, buffers) }, { shard.requestClose(this) } )
+	val key: SelectionKey = channel.register(shard.selector, SelectionKey.OP_READ, this)
 	val open = AtomicBoolean(true)
+	/** Guards [outboundData], [outboundBytes] and all writes to [channel].  Never acquire [lock] while holding this lock */
+	val writeLock: Lock = ReentrantLock(false)
+	/** The number of bytes remaining in [outboundData] */
+	var outboundBytes = 0L
+	private val bufferPool = server.bufferPool
 	
 	fun close() {
 		if (!open.getAndSet(false))
@@ -102,44 +117,56 @@ private class TCPServerConnectionHandle<T: TCPServerChannel>(val channel: Socket
 		lock.withLock {
 			runSafeIgnoreException { channel.close() }
 			runSafe { session.onClosed() }
-			outboundData.clear()
+			writeLock.withLock {
+				outboundData.forEach(bufferPool::release)
+				outboundData.clear()
+				outboundBytes = 0
+			}
 		}
 	}
 	
 }
 
-private class TCPServerImpl<T: TCPServerChannel>(address: InetSocketAddress, workerThreadCount: Int, backlog: Int, private val sessionCreator: (remoteAddress: SocketAddress, writer: (ByteBuffer) -> Unit, closer: () -> Unit) -> T) {
+/**
+ * Multi-reactor TCP server.  Each worker thread owns a [SelectorShard] with its own selector, and every connection is
+ * assigned to a single shard (round-robin) when it is accepted.  All reads, write-readiness handling and closes for a
+ * connection happen on its shard's thread, so the shards never contend with each other.
+ */
+private class TCPServerImpl<T: TCPServerChannel>(address: InetSocketAddress, workerThreadCount: Int, backlog: Int, private val maxOutboundBytes: Long, private val sessionCreator: (remoteAddress: SocketAddress, writer: (Array<ByteBuffer>) -> Unit, closer: () -> Unit) -> T) {
 	
 	// Data Variables
 	private val channels: MutableMap<SocketChannel, TCPServerConnectionHandle<T>> = ConcurrentHashMap()
 	private val sessions: MutableMap<T, TCPServerConnectionHandle<T>> = ConcurrentHashMap()
+	val bufferPool = DirectBufferPool()
 	// Logical Variables - Networking and Threading
 	private val channel = ServerSocketChannel.open()
-	private val selector = Selector.open()
-	private val workerPool = ThreadPool(workerThreadCount, "tcp-server-$address-%d")
+	private val shards = Array(max(1, workerThreadCount)) { SelectorShard() }
+	private val nextShard = AtomicInteger(0)
+	private val workerPool = ThreadPool(shards.size, "tcp-server-$address-%d")
 	// Locking/Synchronization Variables
 	private val running = AtomicBoolean(true)
-	private val selectorLock = ReentrantLock(false)
-	private val outboundLock = ReentrantLock(false)
 	
 	init {
 		channel.bind(address, backlog)
 		channel.configureBlocking(false)
-		channel.register(selector, SelectionKey.OP_ACCEPT)
+		channel.register(shards[0].selector, SelectionKey.OP_ACCEPT)
 		workerPool.start()
-		for (i in 0 until workerThreadCount) {
-			workerPool.execute(::selectorWorker)
+		for (shard in shards) {
+			workerPool.execute(shard::run)
 		}
 	}
 	
 	fun close(session: T) {
-		sessions[session]?.close()
+		val handle = sessions.remove(session) ?: return
+		channels.remove(handle.channel)
+		handle.close()
 	}
 	
 	fun close() {
 		if (!running.getAndSet(false))
 			return
-		selector.close()
+		for (shard in shards)
+			runSafe { shard.selector.close() }
 		channels.values.forEach(TCPServerConnectionHandle<T>::close)
 		channel.close()
 		
@@ -149,203 +176,257 @@ private class TCPServerImpl<T: TCPServerChannel>(address: InetSocketAddress, wor
 		// Data clean-up (GC should do it, but just in case)
 		channels.clear()
 		sessions.clear()
+		
+		val leaked = bufferPool.outstandingBuffers
+		if (leaked > 0)
+			Log.w("TCP server closed with %d outbound buffers still outstanding", leaked)
 	}
 	
-	fun write(handle: TCPServerConnectionHandle<T>, buffer: ByteBuffer) {
-		handle.lock.withLock {
+	/**
+	 * Copies the buffers into pooled direct buffers and writes them to the channel using a single gathering write.
+	 * Anything that can't be written immediately is queued, in order, until the channel is write-ready.  If the queue
+	 * would grow beyond [maxOutboundBytes], the client isn't keeping up and is disconnected.
+	 */
+	fun write(handle: TCPServerConnectionHandle<T>, buffers: Array<ByteBuffer>) {
+		var failed = false
+		handle.writeLock.withLock {
+			if (!handle.open.get())
+				return
+			val direct = copyToDirect(buffers)
+			if (direct.isEmpty())
+				return
+			var index = 0
+			var queuedBuffers = false
 			if (handle.outboundData.isEmpty()) {
 				try {
-					handle.channel.write(buffer)
+					handle.channel.write(direct)
 				} catch (t: Throwable) {
-					handle.close()
+					failed = true
 				}
-				if (!buffer.hasRemaining())
+				while (index < direct.size && !direct[index].hasRemaining())
+					bufferPool.release(direct[index++])
+				if (index >= direct.size)
 					return
 			}
-			handle.outboundData.addLast(buffer)
-			try {
-				handle.key.interestOpsOr(SelectionKey.OP_WRITE)
-			} catch (t: Throwable) {
-				handle.close()
+			if (!failed) {
+				var queued = 0L
+				for (i in index until direct.size)
+					queued += direct[i].remaining()
+				if (handle.outboundBytes + queued > maxOutboundBytes) {
+					Log.w("Closing %s - outbound queue exceeded %d bytes", handle.session, maxOutboundBytes)
+					failed = true
+				} else {
+					for (i in index until direct.size)
+						handle.outboundData.addLast(direct[i])
+					handle.outboundBytes += queued
+					queuedBuffers = true
+					try {
+						handle.key.interestOpsOr(SelectionKey.OP_WRITE)
+					} catch (t: Throwable) {
+						failed = true
+					}
+				}
+			}
+			if (failed && !queuedBuffers) {
+				for (i in index until direct.size)
+					bufferPool.release(direct[i])
 			}
 		}
+		if (failed)
+			handle.shard.requestClose(handle)
 	}
 	
-	private fun selectorWorker() {
-		val acceptedChannels = ArrayList<SocketChannel>(32)
-		val closedSessions = ArrayList<TCPServerConnectionHandle<T>>(32)
-		val readReadySessions = ArrayList<TCPServerConnectionHandle<T>>(32)
-		val writeReadyChannels = ArrayList<TCPServerConnectionHandle<T>>(32)
-		while (running.get()) {
-			acceptedChannels.clear()
-			closedSessions.clear()
-			readReadySessions.clear()
-			writeReadyChannels.clear()
-			
-			// Does the select and gathers the necessary information to process
-			selectorWorkerCriticalSection(acceptedChannels, closedSessions, readReadySessions, writeReadyChannels)
-			
-			// Does the potentially exception-throwing/blocking work
-			var wakeup = false
-			if (acceptedChannels.isNotEmpty()) {
-				handleAcceptedChannels(acceptedChannels)
-				wakeup = true
-			}
-			if (readReadySessions.isNotEmpty()) {
-				handleReadReadySessions(readReadySessions)
-				wakeup = true
+	/**
+	 * Packs the buffers into as few pooled direct buffers as possible, so the kernel can read straight from them
+	 * rather than the JDK copying each heap buffer into a temporary direct buffer on every write
+	 */
+	private fun copyToDirect(buffers: Array<ByteBuffer>): Array<ByteBuffer> {
+		var remaining = 0L
+		for (buffer in buffers)
+			remaining += buffer.remaining()
+		val direct = ArrayList<ByteBuffer>(1 + (remaining / bufferPool.largestPooledSize).toInt())
+		var current: ByteBuffer? = null
+		for (buffer in buffers) {
+			while (buffer.hasRemaining()) {
+				if (current == null || !current.hasRemaining()) {
+					current?.flip()
+					current = bufferPool.acquire(min(remaining, bufferPool.largestPooledSize.toLong()).toInt())
+					direct.add(current)
+				}
+				val length = min(buffer.remaining(), current.remaining())
+				val limit = buffer.limit()
+				buffer.limit(buffer.position() + length)
+				current.put(buffer)
+				buffer.limit(limit)
+				remaining -= length
 			}
-			if (writeReadyChannels.isNotEmpty()) {
-				handleWriteReadyChannels(writeReadyChannels)
-				wakeup = true
+		}
+		current?.flip()
+		return direct.toTypedArray()
+	}
+	
+	/**
+	 * Flushes as much of the queued outbound data as the channel will accept
+	 *
+	 * @return FALSE if the channel failed and should be closed, TRUE otherwise
+	 */
+	private fun flushOutbound(handle: TCPServerConnectionHandle<T>): Boolean {
+		handle.writeLock.withLock {
+			val outbound = handle.outboundData
+			try {
+				if (outbound.isNotEmpty())
+					handle.outboundBytes -= handle.channel.write(outbound.toTypedArray())
+				while (outbound.isNotEmpty() && !outbound.peekFirst().hasRemaining())
+					bufferPool.release(outbound.pollFirst())
+				// Stay subscribed to write availability only while there's data left, otherwise the selector spins
+				if (outbound.isEmpty())
+					handle.key.interestOpsAnd(SelectionKey.OP_WRITE.inv())
+			} catch (t: Throwable) {
+				return false
 			}
-			if (closedSessions.isNotEmpty())
-				handleClosedSessions(closedSessions)
-			if (wakeup)
-				selector.wakeup()
+			return true
 		}
 	}
 	
-	private fun selectorWorkerCriticalSection(acceptedChannels: MutableList<SocketChannel>, closedSessions: MutableList<TCPServerConnectionHandle<T>>, readReadySessions: MutableList<TCPServerConnectionHandle<T>>, writeReadySessions: MutableList<TCPServerConnectionHandle<T>>) {
-		selectorLock.withLock {
-			if (!selector.isOpen)
-				return
-			selector.selectedKeys().clear()
-			selector.select()
-			
-			if (!selector.isOpen)
-				return
-			for (key in selector.selectedKeys()) {
-				key ?: continue
+	private fun assignToShard(accepted: SocketChannel) {
+		shards[Math.floorMod(nextShard.getAndIncrement(), shards.size)].assign(accepted)
+	}
+	
+	private fun closeHandle(handle: TCPServerConnectionHandle<T>) {
+		if (channels.remove(handle.channel) != null)
+			sessions.remove(handle.session)
+		try {
+			handle.close()
+		} catch (t: Throwable) {
+			Log.e(t)
+		}
+	}
+	
+	inner class SelectorShard {
+		
+		val selector: Selector = Selector.open()
+		private val pendingChannels: Queue<SocketChannel> = ConcurrentLinkedQueue()
+		private val pendingCloses: Queue<TCPServerConnectionHandle<T>> = ConcurrentLinkedQueue()
+		
+		/**
+		 * Hands a newly accepted channel to this shard.  Registration has to happen on the shard's own thread, since
+		 * registering with a selector blocks while another thread is selecting on it.
+		 */
+		fun assign(accepted: SocketChannel) {
+			pendingChannels.add(accepted)
+			runSafeIgnoreException { selector.wakeup() }
+		}
+		
+		/**
+		 * Closes the handle on this shard's thread.  Writers may be holding session-level locks, so closing the handle
+		 * directly from a failed write could deadlock against a reader that holds the handle lock.
+		 */
+		fun requestClose(handle: TCPServerConnectionHandle<T>) {
+			pendingCloses.add(handle)
+			runSafeIgnoreException { selector.wakeup() }
+		}
+		
+		fun run() {
+			while (running.get()) {
+				try {
+					selector.select()
+				} catch (e: ClosedSelectorException) {
+					break
+				} catch (e: IOException) {
+					Log.w(e)
+					continue
+				}
+				if (!selector.isOpen)
+					break
+				handleSelectedKeys()
+				registerPendingChannels()
+				while (true) {
+					closeHandle(pendingCloses.poll() ?: break)
+				}
+			}
+		}
+		
+		private fun handleSelectedKeys() {
+			val selectedKeys = selector.selectedKeys().iterator()
+			while (selectedKeys.hasNext()) {
+				val key = selectedKeys.next()
+				selectedKeys.remove()
 				
+				@Suppress("UNCHECKED_CAST")
+				val handle = key.attachment() as TCPServerConnectionHandle<T>?
 				try {
 					if (!key.isValid) {
-						handleInvalidKey(key, closedSessions)
+						if (handle != null)
+							closeHandle(handle)
 						continue
 					}
 					if (key.isAcceptable) {
-						do {
-							val accepted = channel.accept()
-							if (accepted != null) {
-								accepted.configureBlocking(false)
-								acceptedChannels.add(accepted)
-							}
-						} while (accepted != null)
-					}
-					if (key.isReadable) {
-						@Suppress("UNCHECKED_CAST")
-						val handle = key.attachment() as TCPServerConnectionHandle<T>
-						
-						if (handle.lock.tryLock()) {
-							try {
-								if ((key.channel() as SocketChannel).read(handle.session.getChannelBuffer()) == -1) {
-									handleInvalidKey(key, closedSessions)
-									continue
-								}
-								readReadySessions.add(handle)
-								handle.key.interestOps(0)
-							} catch (t: Throwable) {
-								handleInvalidKey(key, closedSessions)
-								readReadySessions.remove(handle)
-								continue
-							} finally {
-								handle.lock.unlock()
-							}
+						while (true) {
+							val accepted = channel.accept() ?: break
+							accepted.configureBlocking(false)
+							assignToShard(accepted)
 						}
 					}
-					if (key.isWritable) {
-						@Suppress("UNCHECKED_CAST")
-						writeReadySessions.add(key.attachment() as TCPServerConnectionHandle<T>)
+					if (handle == null)
+						continue
+					if (key.isReadable && !handleRead(handle)) {
+						closeHandle(handle)
+						continue
 					}
+					if (key.isValid && key.isWritable && !flushOutbound(handle))
+						closeHandle(handle)
 				} catch (e: CancelledKeyException) {
-					handleInvalidKey(key, closedSessions)
+					if (handle != null)
+						closeHandle(handle)
+				} catch (t: Throwable) {
+					Log.e(t)
 				}
 			}
 		}
-	}
-	
-	@Suppress("NOTHING_TO_INLINE")
-	private inline fun handleInvalidKey(key: SelectionKey, closedSessions: MutableList<TCPServerConnectionHandle<T>>) {
-		val handle = channels.remove(key.channel())
-		if (handle != null) {
-			sessions.remove(handle.session)
-			closedSessions.add(handle)
+		
+		/**
+		 * Reads from the channel and passes the data to the session
+		 *
+		 * @return FALSE if the channel reached end-of-stream or failed and should be closed, TRUE otherwise
+		 */
+		private fun handleRead(handle: TCPServerConnectionHandle<T>): Boolean {
+			handle.lock.withLock {
+				try {
+					if (handle.channel.read(handle.session.getChannelBuffer()) == -1)
+						return false
+				} catch (t: Throwable) {
+					return false
+				}
+				try {
+					handle.session.onRead()
+				} catch (t: Throwable) {
+					Log.e(t)
+				}
+				return true
+			}
 		}
-	}
-	
-	private fun handleAcceptedChannels(acceptedChannels: List<SocketChannel>) {
-		for (channel in acceptedChannels) {
-			runSafe {
+		
+		private fun registerPendingChannels() {
+			while (true) {
+				val accepted = pendingChannels.poll() ?: break
 				val lock = ReentrantLock(false)
 				
 				lock.lock()
 				try {
-					val handle = TCPServerConnectionHandle(channel, lock, this, selector, sessionCreator)
+					val handle = TCPServerConnectionHandle(accepted, lock, this@TCPServerImpl, this, sessionCreator)
 					val session = handle.session
-					channels[channel] = handle
+					channels[accepted] = handle
 					sessions[session] = handle
 					session.onOpened()
 				} catch (t: Throwable) {
 					Log.e(t)
+					runSafeIgnoreException { accepted.close() }
 				} finally {
 					lock.unlock()
 				}
 			}
 		}
-	}
-	
-	private fun handleClosedSessions(closedSessions: List<TCPServerConnectionHandle<T>>) {
-		for (handle in closedSessions) {
-			handle.lock.lock()
-			try {
-				handle.close()
-			} catch (t: Throwable) {
-				Log.e(t)
-			} finally {
-				handle.lock.unlock()
-			}
-		}
-	}
-	
-	private fun handleReadReadySessions(readReadySessions: List<TCPServerConnectionHandle<T>>) {
-		for (handle in readReadySessions) {
-			handle.lock.lock()
-			try {
-				handle.session.onRead()
-			} catch (t: Throwable) {
-				Log.e(t)
-			} finally {
-				try {
-					handle.key.interestOpsOr(SelectionKey.OP_READ)
-				} catch (t: Throwable) {
-					handle.close()
-				}
-				handle.lock.unlock()
-			}
-		}
-	}
-	
-	private fun handleWriteReadyChannels(writeReadySessions: List<TCPServerConnectionHandle<T>>) {
-		outboundLock.withLock {
-			for (handle in writeReadySessions) {
-				val outbound = handle.outboundData
-				runSafeIgnoreException { // any socket-based issues will be picked up by the next select()
-					while (outbound.isNotEmpty()) {
-						val buffer = outbound.peekFirst() ?: break
-						try {
-							handle.channel.write(buffer)
-						} catch (t: Throwable) {
-							handle.close()
-						}
-						if (buffer.hasRemaining()) {
-							handle.key.interestOpsOr(SelectionKey.OP_WRITE) // re-subscribe to next write availability
-							break
-						}
-						outbound.pollFirst()
-					}
-				}
-			}
-		}
+		
 	}
 	
 }
@@ -28,6 +28,7 @@ package com.projectswg.holocore.resources.support.npc.ai
 
 import com.projectswg.common.data.location.Location
 import com.projectswg.holocore.intents.support.objects.MoveObjectIntent
+import com.projectswg.holocore.intents.support.objects.ObjectMove
 import com.projectswg.holocore.resources.support.data.server_info.loader.DataLoader.Companion.terrains
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject
 import com.projectswg.holocore.resources.support.objects.swg.building.BuildingObject
@@ -46,6 +47,15 @@ class NavigationPoint private constructor(val parent: SWGObject?, val location:
 		else obj.broadcast(MoveObjectIntent(obj, parent, location, speed))
 	}
 
+	/**
+	 * Returns this point as a move for a batched [com.projectswg.holocore.intents.support.objects.MoveObjectsIntent], or
+	 * null if this point doesn't move the object
+	 */
+	fun toMove(obj: SWGObject): ObjectMove? {
+		if (isNoOperation) return null
+		return ObjectMove(obj, parent, location, speed)
+	}
+
 	val isNoOperation: Boolean
 		get() = speed == 0.0
 
@@ -0,0 +1,229 @@
+/***********************************************************************************
+ * Copyright (c) 2025 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is an emulation project for Star Wars Galaxies founded on            *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create one or more emulators which will provide servers for      *
+ * players to continue playing a game similar to the one they used to play.        *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.objects.awareness
+
+import com.projectswg.common.data.location.Location
+import com.projectswg.common.network.packets.SWGPacket
+import com.projectswg.holocore.resources.support.objects.swg.SWGObject
+import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject
+import com.projectswg.holocore.utilities.HolocoreCoroutine
+import com.projectswg.holocore.utilities.cancelAndWait
+import com.projectswg.holocore.utilities.launchWithFixedRate
+import kotlinx.coroutines.CoroutineScope
+import me.joshlarson.jlcommon.log.Log
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Thins out the movement updates sent to observers that are far away from the moving object.  Observers within
+ * [nearRange] receive every update, observers within [midRange] at most one update every [midInterval] milliseconds, and
+ * everyone further away at most one every [farInterval] milliseconds.  Withheld updates are coalesced rather than
+ * dropped: only the newest transform is kept and it is delivered once the observer's interval has passed, so distant
+ * observers still see where the object came to rest.
+ */
+class MovementInterest @JvmOverloads constructor(
+	private val nearRange: Double = DEFAULT_NEAR_RANGE,
+	private val midRange: Double = DEFAULT_MID_RANGE,
+	private val midInterval: Long = DEFAULT_MID_INTERVAL,
+	private val farInterval: Long = DEFAULT_FAR_INTERVAL
+) {
+	
+	private val tracked = ConcurrentHashMap<SWGObject, TrackedObject>()
+	private val counters = Array(Tier.entries.size) { TierCounter() }
+	@Volatile
+	private var updateSize = 0
+	private var coroutineScope: CoroutineScope? = null
+	
+	fun start() {
+		coroutineScope = HolocoreCoroutine.childScope().also { scope ->
+			scope.launchWithFixedRate(FLUSH_RATE) { flush(System.currentTimeMillis()) }
+			scope.launchWithFixedRate(STATISTICS_RATE) { logStatistics() }
+		}
+	}
+	
+	fun stop() {
+		coroutineScope?.cancelAndWait()
+		coroutineScope = null
+	}
+	
+	/**
+	 * Sends [update] - the newest transform of [obj] - to each observer whose tier allows it right now, and holds it for
+	 * the others until their next interval.
+	 */
+	@JvmOverloads
+	fun sendUpdate(obj: SWGObject, update: SWGPacket, now: Long = System.currentTimeMillis()) {
+		val observers = obj.observerCreatures
+		if (observers.isEmpty())
+			return
+		if (updateSize == 0)
+			updateSize = update.encode().capacity()
+		
+		val location = obj.worldLocation
+		val trackedObject = tracked.computeIfAbsent(obj) { TrackedObject() }
+		synchronized(trackedObject) {
+			trackedObject.latest = update
+			trackedObject.lastUpdate = now
+			for (observer in observers) {
+				val tier = getTier(observer, location)
+				counters[tier.ordinal].updates.increment()
+				if (tier == Tier.NEAR || now - trackedObject.lastSent.getOrDefault(observer, 0L) >= getInterval(tier)) {
+					send(trackedObject, observer, update, tier, now)
+				} else {
+					trackedObject.pending.add(observer)
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Sends [update] to every observer immediately, superseding anything still held back for [obj] (e.g. a teleport)
+	 */
+	fun sendUpdateToAll(obj: SWGObject, update: SWGPacket) {
+		discard(obj)
+		obj.sendObservers(update)
+	}
+	
+	/**
+	 * Drops anything still held back for [obj], so a stale world transform can't be delivered after the object has moved
+	 * somewhere that is updated through a different message (e.g. into a container)
+	 */
+	fun discard(obj: SWGObject) {
+		val trackedObject = tracked.remove(obj) ?: return
+		synchronized(trackedObject) {
+			trackedObject.pending.clear()
+			trackedObject.latest = null
+		}
+	}
+	
+	/**
+	 * Delivers the coalesced updates whose interval has passed, and forgets objects that have stopped moving
+	 */
+	fun flush(now: Long) {
+		val iterator = tracked.entries.iterator()
+		while (iterator.hasNext()) {
+			val (obj, trackedObject) = iterator.next()
+			synchronized(trackedObject) {
+				val update = trackedObject.latest
+				if (update != null && trackedObject.pending.isNotEmpty()) {
+					val location = obj.worldLocation
+					val observers = obj.observerCreatures
+					val pending = trackedObject.pending.iterator()
+					while (pending.hasNext()) {
+						val observer = pending.next()
+						if (observer !in observers) {
+							pending.remove()
+							continue
+						}
+						val tier = getTier(observer, location)
+						if (tier == Tier.NEAR || now - trackedObject.lastSent.getOrDefault(observer, 0L) >= getInterval(tier)) {
+							pending.remove()
+							send(trackedObject, observer, update, tier, now)
+						}
+					}
+				}
+				// Anything older than the longest interval no longer holds back an update
+				trackedObject.lastSent.values.removeIf { now - it >= farInterval }
+				if (trackedObject.pending.isEmpty() && now - trackedObject.lastUpdate >= farInterval)
+					iterator.remove()
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of updates that each tier would have received at full rate, alongside the number actually sent
+	 */
+	fun getStatistics(): List<MovementTierStatistics> {
+		val updateSize = updateSize.toLong()
+		return Tier.entries.map {
+			val updates = counters[it.ordinal].updates.sum()
+			val sent = counters[it.ordinal].sent.sum()
+			MovementTierStatistics(it.name, updates, sent, (updates - sent) * updateSize)
+		}
+	}
+	
+	private fun send(trackedObject: TrackedObject, observer: CreatureObject, update: SWGPacket, tier: Tier, now: Long) {
+		observer.sendSelf(update)
+		trackedObject.lastSent[observer] = now
+		counters[tier.ordinal].sent.increment()
+	}
+	
+	private fun getTier(observer: CreatureObject, location: Location): Tier {
+		val distance = observer.worldLocation.flatDistanceTo(location)
+		return when {
+			distance <= nearRange -> Tier.NEAR
+			distance <= midRange -> Tier.MID
+			else -> Tier.FAR
+		}
+	}
+	
+	private fun getInterval(tier: Tier): Long {
+		return when (tier) {
+			Tier.NEAR -> 0
+			Tier.MID -> midInterval
+			Tier.FAR -> farInterval
+		}
+	}
+	
+	private fun logStatistics() {
+		for (statistics in getStatistics()) {
+			if (statistics.updates > 0)
+				Log.d("Movement updates [%s]: %d/%d sent, %d KiB saved", statistics.tier, statistics.sent, statistics.updates, statistics.savedBytes / 1024)
+		}
+	}
+	
+	private class TrackedObject {
+		val lastSent = HashMap<CreatureObject, Long>()
+		val pending = HashSet<CreatureObject>()
+		var latest: SWGPacket? = null
+		var lastUpdate = 0L
+	}
+	
+	private class TierCounter {
+		val updates = LongAdder()
+		val sent = LongAdder()
+	}
+	
+	private enum class Tier {
+		NEAR,
+		MID,
+		FAR
+	}
+	
+	companion object {
+		const val DEFAULT_NEAR_RANGE = 64.0
+		const val DEFAULT_MID_RANGE = 192.0
+		const val DEFAULT_MID_INTERVAL = 250L
+		const val DEFAULT_FAR_INTERVAL = 1000L
+		private const val FLUSH_RATE = 100L
+		private const val STATISTICS_RATE = 60_000L
+	}
+	
+}
+
+/**
+ * Movement update counters for one distance tier.  [savedBytes] is estimated from the size of a single update.
+ */
+data class MovementTierStatistics(val tier: String, val updates: Long, val sent: Long, val savedBytes: Long)
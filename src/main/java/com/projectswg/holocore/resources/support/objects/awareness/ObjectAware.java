@@ -41,10 +41,12 @@ public class ObjectAware {
 	
 	private final EnumMap<AwarenessType, Collection<SWGObject>> awareness;
 	private final AtomicReference<TerrainMapChunk> chunk;
+	private volatile long version;
 	
 	public ObjectAware() {
 		this.awareness = new EnumMap<>(AwarenessType.class);
 		this.chunk = new AtomicReference<>(null);
+		this.version = 0;
 		for (AwarenessType type : AwarenessType.getValues()) {
 			awareness.put(type, List.of());
 		}
@@ -52,6 +54,17 @@ public class ObjectAware {
 	
 	public synchronized void setAware(@NotNull AwarenessType type, @NotNull Collection<SWGObject> objects) {
 		awareness.put(type, objects);
+		version++;
+	}
+	
+	/**
+	 * Returns a counter that is incremented every time any awareness type is modified.  If two calls return the same
+	 * value, the awareness did not change in between.
+	 *
+	 * @return the current awareness version
+	 */
+	public long getVersion() {
+		return version;
 	}
 	
 	@NotNull
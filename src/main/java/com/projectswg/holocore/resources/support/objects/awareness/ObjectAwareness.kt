@@ -28,18 +28,39 @@ package com.projectswg.holocore.resources.support.objects.awareness
 import com.projectswg.common.data.location.Terrain
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject
 import com.projectswg.holocore.utilities.HolocoreCoroutine
+import com.projectswg.holocore.utilities.PerformanceAnalyzer
 import com.projectswg.holocore.utilities.cancelAndWait
 import com.projectswg.holocore.utilities.launchWithFixedRate
 import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.launch
+import me.joshlarson.jlcommon.log.Log
+import kotlin.math.max
+import kotlin.math.min
 
-class ObjectAwareness(private val updateRateMilliseconds: Long = 100L) {
-	private val terrains: Array<TerrainMap> = Array(Terrain.entries.size) { TerrainMap() }
+/**
+ * Maintains awareness for every terrain
+ *
+ * @param updateRateMilliseconds the period between awareness updates
+ * @param terrainMapFactory creates the spatial index for each terrain, allowing the cell size to be tuned per terrain
+ * @param parallelUpdate if TRUE, the range tests of every active cell across all terrains run in parallel each tick, and
+ *                       the results are then flushed by one coroutine per terrain.  Otherwise one coroutine per terrain
+ *                       both tests and flushes its cells serially.
+ */
+class ObjectAwareness @JvmOverloads constructor(private val updateRateMilliseconds: Long = 100L, terrainMapFactory: (Terrain) -> TerrainMap = { TerrainMap() }, private val parallelUpdate: Boolean = false) {
+	private val terrains: Array<TerrainMap> = Array(Terrain.entries.size) { terrainMapFactory(Terrain.entries[it]) }
+	private val parallelism = Runtime.getRuntime().availableProcessors()
+	private val updateAnalyzer = PerformanceAnalyzer.getAnalyzer("awareness-update", (10_000 / updateRateMilliseconds).toInt().coerceAtLeast(1))
 	private var coroutineScope: CoroutineScope? = null
 
 	fun startThreadPool() {
 		coroutineScope = HolocoreCoroutine.childScope().let { scope ->
-			for (terrain in terrains) {
-				scope.launchWithFixedRate(updateRateMilliseconds) { terrain.updateChunks() }
+			if (parallelUpdate) {
+				scope.launchWithFixedRate(updateRateMilliseconds) { updateChunksParallel() }
+			} else {
+				for (terrain in terrains) {
+					scope.launchWithFixedRate(updateRateMilliseconds) { terrain.updateChunks() }
+				}
 			}
 			return@let scope
 		}
@@ -82,4 +103,62 @@ class ObjectAwareness(private val updateRateMilliseconds: Long = 100L) {
 	fun updateChunks() {
 		for (terrain in terrains) terrain.updateChunks()
 	}
+	
+	/**
+	 * Updates every active cell on every terrain in two phases.  The range tests only read shared state, so they are split
+	 * into roughly equal batches across the coroutine dispatcher.  Flushing the results adds and removes observers on
+	 * objects that may sit in any neighboring cell, so each terrain's cells are flushed serially by a single coroutine,
+	 * exactly as in the serial update.
+	 */
+	private suspend fun updateChunksParallel() {
+		val startTime = System.nanoTime()
+		val claimed = ArrayList<TerrainMap>(terrains.size)
+		val activeByTerrain = ArrayList<List<TerrainMapChunk>>(terrains.size)
+		val active = ArrayList<TerrainMapChunk>()
+		try {
+			for (terrain in terrains) {
+				if (terrain.beginUpdate()) {
+					claimed.add(terrain)
+					val terrainActive = ArrayList<TerrainMapChunk>()
+					terrain.collectActiveChunks(terrainActive)
+					activeByTerrain.add(terrainActive)
+					active.addAll(terrainActive)
+				}
+			}
+			val batchSize = max(1, (active.size + parallelism * 4 - 1) / (parallelism * 4))
+			coroutineScope {
+				for (batchStart in active.indices step batchSize) {
+					val batchEnd = min(active.size, batchStart + batchSize)
+					launch {
+						for (i in batchStart until batchEnd) {
+							try {
+								active[i].computeAwareness()
+							} catch (t: Throwable) {
+								Log.w(t)
+							}
+						}
+					}
+				}
+			}
+			coroutineScope {
+				for (terrainActive in activeByTerrain) {
+					if (terrainActive.isEmpty())
+						continue
+					launch {
+						for (chunk in terrainActive) {
+							try {
+								chunk.flushAwareness()
+							} catch (t: Throwable) {
+								Log.w(t)
+							}
+						}
+					}
+				}
+			}
+		} finally {
+			for (terrain in claimed)
+				terrain.endUpdate()
+		}
+		updateAnalyzer.recordTime(System.nanoTime() - startTime)
+	}
 }
@@ -0,0 +1,146 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.objects.awareness;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Identity set optimized for frequent mutation and periodic iteration.  Adding and removing are O(1) - removed elements
+ * are replaced by the last element in the backing array.  Iteration is performed over an immutable snapshot that is only
+ * rebuilt the first time it is requested after a mutation, so any number of mutations between two iterations costs at
+ * most a single array copy.
+ *
+ * @param <T> the element type
+ */
+public class SnapshotArraySet<T> {
+	
+	private static final Object [] EMPTY = new Object[0];
+	
+	private final Map<T, Integer> indices;
+	private Object [] elements;
+	private volatile int size;
+	private volatile Object [] snapshot;
+	
+	public SnapshotArraySet() {
+		this.indices = new IdentityHashMap<>();
+		this.elements = new Object[8];
+		this.size = 0;
+		this.snapshot = EMPTY;
+	}
+	
+	public synchronized boolean add(@NotNull T element) {
+		int index = size;
+		if (indices.putIfAbsent(element, index) != null)
+			return false;
+		if (index >= elements.length)
+			elements = Arrays.copyOf(elements, elements.length * 2);
+		elements[index] = element;
+		size = index + 1;
+		snapshot = null;
+		return true;
+	}
+	
+	public synchronized boolean remove(@NotNull T element) {
+		Integer index = indices.remove(element);
+		if (index == null)
+			return false;
+		removeAt(index);
+		return true;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public synchronized boolean removeIf(@NotNull Predicate<? super T> filter) {
+		boolean removed = false;
+		for (int i = size - 1; i >= 0; i--) {
+			T element = (T) elements[i];
+			if (filter.test(element)) {
+				indices.remove(element);
+				removeAt(i);
+				removed = true;
+			}
+		}
+		return removed;
+	}
+	
+	public synchronized boolean contains(@NotNull T element) {
+		return indices.containsKey(element);
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Iterates over a snapshot of this set.  Mutations performed during the iteration are not visible to it.
+	 *
+	 * @param action the action to perform on each element
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(@NotNull Consumer<? super T> action) {
+		for (Object element : snapshot()) {
+			action.accept((T) element);
+		}
+	}
+	
+	private Object [] snapshot() {
+		Object [] snapshot = this.snapshot;
+		if (snapshot != null)
+			return snapshot;
+		synchronized (this) {
+			snapshot = this.snapshot;
+			if (snapshot == null) {
+				snapshot = (size == 0) ? EMPTY : Arrays.copyOf(elements, size);
+				this.snapshot = snapshot;
+			}
+			return snapshot;
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void removeAt(int index) {
+		int last = size - 1;
+		if (index != last) {
+			T moved = (T) elements[last];
+			elements[index] = moved;
+			indices.put(moved, index);
+		}
+		elements[last] = null;
+		size = last;
+		snapshot = null;
+	}
+	
+}
@@ -26,40 +26,100 @@
  ***********************************************************************************/
 package com.projectswg.holocore.resources.support.objects.awareness;
 
+import com.projectswg.common.network.packets.swg.zone.baselines.Baseline.BaselineType;
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject;
+import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Uniform spatial hash over a single terrain.  Each object is stored only in the cell that contains it (or its super
+ * parent), and each cell pre-computes the set of cells that intersect the awareness radius of anything inside of it.
+ * Awareness queries therefore only visit the cells that can actually contain something within range.
+ */
 public class TerrainMap {
 	
-	private static final int CHUNK_COUNT_ACROSS = 16;
+	public static final int DEFAULT_CELL_SIZE = 256;
+	public static final int DEFAULT_STRUCTURE_RANGE = 1024;
+	
 	private static final int MAP_WIDTH = 16384;
-	private static final int INDEX_FACTOR = (int) (Math.log(MAP_WIDTH / (double) CHUNK_COUNT_ACROSS) / Math.log(2) + 1e-12);
+	private static final int MAP_OFFSET = MAP_WIDTH / 2;
 	
 	private final TerrainMapChunk [] chunks;
-	private final ReentrantLock updateLock;
+	private final int cellSize;
+	private final int cellCountAcross;
+	private final AtomicBoolean updating;
 	
 	public TerrainMap() {
-		this.chunks = new TerrainMapChunk[CHUNK_COUNT_ACROSS*CHUNK_COUNT_ACROSS];
-		this.updateLock = new ReentrantLock(false);
-		for (int z = 0; z < CHUNK_COUNT_ACROSS; z++) {
-			for (int x = 0; x < CHUNK_COUNT_ACROSS; x++) {
-				chunks[z*CHUNK_COUNT_ACROSS+x] = new TerrainMapChunk();
+		this(DEFAULT_CELL_SIZE, DEFAULT_STRUCTURE_RANGE);
+	}
+	
+	/**
+	 * Creates a new terrain map
+	 *
+	 * @param cellSize the width of each grid cell, in meters
+	 * @param structureRange the distance at which players are made aware of buildings and static objects
+	 */
+	public TerrainMap(int cellSize, int structureRange) {
+		if (cellSize <= 0 || cellSize > MAP_WIDTH)
+			throw new IllegalArgumentException("invalid cell size: " + cellSize);
+		if (structureRange < 0)
+			throw new IllegalArgumentException("invalid structure range: " + structureRange);
+		this.cellSize = cellSize;
+		this.cellCountAcross = (MAP_WIDTH + cellSize - 1) / cellSize;
+		this.chunks = new TerrainMapChunk[cellCountAcross*cellCountAcross];
+		this.updating = new AtomicBoolean(false);
+		for (int z = 0; z < cellCountAcross; z++) {
+			for (int x = 0; x < cellCountAcross; x++) {
+				chunks[z*cellCountAcross+x] = new TerrainMapChunk();
 			}
 		}
-		connectChunkNeighbors();
+		connectChunkNeighbors(structureRange);
+	}
+	
+	public int getCellSize() {
+		return cellSize;
 	}
 	
 	public void updateChunks() {
-		if (!updateLock.tryLock())
+		if (!beginUpdate())
 			return;
 		try {
 			for (TerrainMapChunk chunk : chunks) {
 				chunk.update();
 			}
 		} finally {
-			updateLock.unlock();
+			endUpdate();
+		}
+	}
+	
+	/**
+	 * Attempts to claim exclusive access to update this terrain.  Unlike a lock, the claim is not owned by the calling
+	 * thread, so the update itself may be distributed across any number of threads before {@link #endUpdate()}.
+	 *
+	 * @return TRUE if the update was claimed, FALSE if another update is still in progress
+	 */
+	boolean beginUpdate() {
+		return updating.compareAndSet(false, true);
+	}
+	
+	void endUpdate() {
+		updating.set(false);
+	}
+	
+	/**
+	 * Collects every cell that contains a player or NPC, and therefore has work to do on the next update.  The returned
+	 * cells may compute their awareness concurrently, but must be flushed one at a time.
+	 *
+	 * @param active the collection to add the active cells to
+	 */
+	void collectActiveChunks(Collection<TerrainMapChunk> active) {
+		for (TerrainMapChunk chunk : chunks) {
+			if (chunk.isActive())
+				active.add(chunk);
 		}
 	}
 	
@@ -108,12 +168,9 @@ public class TerrainMap {
 	}
 	
 	private void moveInWorld(SWGObject obj) {
-		int chunkCount = CHUNK_COUNT_ACROSS;
-		int indX = (obj.getTruncX()+8192) >> INDEX_FACTOR;
-		int indZ = (obj.getTruncZ()+8192) >> INDEX_FACTOR;
-		indX = (indX < 0) ? 0 : (indX >= chunkCount ? chunkCount-1 : indX);
-		indZ = (indZ < 0) ? 0 : (indZ >= chunkCount ? chunkCount-1 : indZ);
-		TerrainMapChunk chunk = chunks[indZ*CHUNK_COUNT_ACROSS+indX];
+		int indX = getCellIndex(obj.getTruncX());
+		int indZ = getCellIndex(obj.getTruncZ());
+		TerrainMapChunk chunk = chunks[indZ*cellCountAcross+indX];
 		TerrainMapChunk current = obj.getAwareness().setTerrainMapChunk(chunk);
 		
 		if (current != chunk) {
@@ -128,23 +185,50 @@ public class TerrainMap {
 		}
 	}
 	
-	private void connectChunkNeighbors() {
-		for (int z = 0; z < CHUNK_COUNT_ACROSS; z++) {
-			for (int x = 0; x < CHUNK_COUNT_ACROSS; x++) {
-				TerrainMapChunk chunk = chunks[z*CHUNK_COUNT_ACROSS+x];
-				for (int tmpZ = cappedZero(z-1); tmpZ <= z+1 && tmpZ < CHUNK_COUNT_ACROSS; tmpZ++) {
-					for (int tmpX = cappedZero(x-1); tmpX <= x+1 && tmpX < CHUNK_COUNT_ACROSS; tmpX++) {
-						if (x == tmpX && z == tmpZ)
-							continue;
-						chunk.link(chunks[tmpZ*CHUNK_COUNT_ACROSS+tmpX]);
-					}
-				}
+	private int getCellIndex(int position) {
+		int index = Math.floorDiv(position + MAP_OFFSET, cellSize);
+		return (index < 0) ? 0 : (index >= cellCountAcross ? cellCountAcross-1 : index);
+	}
+	
+	private void connectChunkNeighbors(int structureRange) {
+		for (int z = 0; z < cellCountAcross; z++) {
+			for (int x = 0; x < cellCountAcross; x++) {
+				TerrainMapChunk chunk = chunks[z*cellCountAcross+x];
+				chunk.link(
+						getChunksWithinRange(x, z, CreatureObject.AWARENESS_RANGE_OBJECT + CreatureObject.AWARENESS_RANGE_HYSTERESIS),
+						getChunksWithinRange(x, z, structureRange),
+						getChunksWithinRange(x, z, CreatureObject.AWARENESS_RANGE_NPC));
+			}
+		}
+	}
+	
+	/**
+	 * Returns every cell that could contain an object within the specified range of any point within the cell at
+	 * (x, z).  Cells are included based on the minimum distance between the two cell rectangles.
+	 */
+	private TerrainMapChunk [] getChunksWithinRange(int x, int z, double range) {
+		int cellRange = (int) Math.ceil(range / cellSize);
+		double rangeSquared = range * range;
+		List<TerrainMapChunk> neighbors = new ArrayList<>();
+		for (int tmpZ = Math.max(z-cellRange, 0); tmpZ <= z+cellRange && tmpZ < cellCountAcross; tmpZ++) {
+			for (int tmpX = Math.max(x-cellRange, 0); tmpX <= x+cellRange && tmpX < cellCountAcross; tmpX++) {
+				double gapX = Math.max(0, Math.abs(tmpX - x) - 1) * (double) cellSize;
+				double gapZ = Math.max(0, Math.abs(tmpZ - z) - 1) * (double) cellSize;
+				if (gapX*gapX + gapZ*gapZ <= rangeSquared)
+					neighbors.add(chunks[tmpZ*cellCountAcross+tmpX]);
 			}
 		}
+		return neighbors.toArray(new TerrainMapChunk[0]);
 	}
 	
-	private static int cappedZero(int x) {
-		return Math.max(x, 0);
+	/**
+	 * Returns TRUE for objects that players are aware of regardless of distance - buildings, static objects and the cells
+	 * inside of buildings.  Cells are included so that a building's contents are created alongside the building itself,
+	 * rather than only once the player comes within normal object range.
+	 */
+	static boolean isStructure(SWGObject obj) {
+		BaselineType type = obj.getBaselineType();
+		return type == BaselineType.SCLT || type == BaselineType.BUIO;
 	}
 	
 }
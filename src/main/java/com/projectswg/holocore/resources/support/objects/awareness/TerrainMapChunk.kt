@@ -31,73 +31,146 @@ import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureOb
 import com.projectswg.holocore.resources.support.objects.swg.custom.AIObject
 import com.projectswg.holocore.resources.support.objects.swg.tangible.OptionFlag
 import java.util.*
-import java.util.concurrent.CopyOnWriteArrayList
 
 internal class TerrainMapChunk {
 	
-	private val objects: CopyOnWriteArrayList<SWGObject> = CopyOnWriteArrayList()
-	private val npcObjects: CopyOnWriteArrayList<SWGObject> = CopyOnWriteArrayList()
-	private val creatures: CopyOnWriteArrayList<CreatureAware> = CopyOnWriteArrayList()
-	private val npcs: CopyOnWriteArrayList<CreatureAware> = CopyOnWriteArrayList()
-	private var neighbors: Array<TerrainMapChunk?> = arrayOf(this)
+	private val objects = SnapshotArraySet<SWGObject>()
+	private val structures = SnapshotArraySet<SWGObject>()
+	private val npcObjects = SnapshotArraySet<SWGObject>()
+	private val creatures = SnapshotArraySet<CreatureAware>()
+	private val npcs = SnapshotArraySet<CreatureAware>()
+	private var objectNeighbors: Array<TerrainMapChunk> = arrayOf(this)
+	private var structureNeighbors: Array<TerrainMapChunk> = arrayOf(this)
+	private var npcNeighbors: Array<TerrainMapChunk> = arrayOf(this)
 	
-	fun link(neighbor: TerrainMapChunk) {
-		assert(this !== neighbor)
-		val length = neighbors.size
-		neighbors = neighbors.copyOf(length + 1)
-		neighbors[length] = neighbor
+	/**
+	 * Sets the cells that are searched when a creature within this cell is tested for awareness
+	 *
+	 * @param objectNeighbors the cells within range of a player's object awareness
+	 * @param structureNeighbors the cells within range of a player's building/static object awareness
+	 * @param npcNeighbors the cells within range of an NPC's target awareness
+	 */
+	fun link(objectNeighbors: Array<TerrainMapChunk>, structureNeighbors: Array<TerrainMapChunk>, npcNeighbors: Array<TerrainMapChunk>) {
+		assert(objectNeighbors.contains(this) && structureNeighbors.contains(this) && npcNeighbors.contains(this))
+		this.objectNeighbors = objectNeighbors
+		this.structureNeighbors = structureNeighbors
+		this.npcNeighbors = npcNeighbors
 	}
 	
 	fun addObject(obj: SWGObject) {
-		for (neighbor in neighbors)
-			neighbor!!.objects.addIfAbsent(obj)
+		if (TerrainMap.isStructure(obj))
+			structures.add(obj)
+		else
+			objects.add(obj)
 		
 		if (obj is AIObject && !obj.hasOptionFlags(OptionFlag.INVULNERABLE)) {
-			for (neighbor in neighbors)
-				neighbor!!.npcObjects.addIfAbsent(obj)
-			npcs.add(CreatureAware(obj))
+			npcObjects.add(obj)
+			npcs.add(CreatureAware(obj, 0.0))
 		} else if (obj is CreatureObject && obj.isPlayer) {
-			for (neighbor in neighbors)
-				neighbor!!.npcObjects.addIfAbsent(obj)
-			creatures.add(CreatureAware(obj))
+			npcObjects.add(obj)
+			creatures.add(CreatureAware(obj, CreatureObject.AWARENESS_RANGE_HYSTERESIS))
 		}
 	}
 	
 	fun removeObject(obj: SWGObject) {
-		for (neighbor in neighbors) {
-			neighbor!!.objects.remove(obj)
-			neighbor.npcObjects.remove(obj)
-		}
+		objects.remove(obj)
+		structures.remove(obj)
+		npcObjects.remove(obj)
 		
 		if (obj is CreatureObject) {
-			creatures.removeIf { it.creature == obj }
-			npcs.removeIf { it.creature == obj }
+			creatures.removeIf { it.creature === obj }
+			npcs.removeIf { it.creature === obj }
 		}
 	}
 	
+	val isActive: Boolean
+		get() = !creatures.isEmpty() || !npcs.isEmpty()
+	
 	fun update() {
-		if (creatures.isEmpty())
-			return
-		
-		creatures.forEach { it.test(objects) }
-		npcs.forEach { it.test(npcObjects) }
+		computeAwareness()
+		flushAwareness()
+	}
+	
+	/**
+	 * Tests which objects are within range of each creature in this cell, without publishing the result.  This only reads
+	 * shared state, so any number of cells may compute their awareness concurrently.
+	 */
+	fun computeAwareness() {
+		creatures.forEach { creature ->
+			creature.test { test ->
+				for (neighbor in structureNeighbors)
+					neighbor.structures.forEach { test(it) }
+				for (neighbor in objectNeighbors)
+					neighbor.objects.forEach { test(it) }
+			}
+		}
+		npcs.forEach { npc ->
+			npc.test { test ->
+				for (neighbor in npcNeighbors)
+					neighbor.npcObjects.forEach { test(it) }
+			}
+		}
+	}
+	
+	/**
+	 * Publishes the awareness computed by [computeAwareness] and sends the resulting creates and destroys.  This modifies
+	 * the observers of the objects that entered or left awareness, which may live in any neighboring cell, so cells of
+	 * the same terrain must be flushed one at a time.
+	 */
+	fun flushAwareness() {
+		creatures.forEach { it.flush() }
+		npcs.forEach { it.flush() }
 	}
 	
-	private class CreatureAware(val creature: CreatureObject) {
+	/**
+	 * Tracks the awareness of a single creature.  The creature's awareness is only replaced when the set of objects in
+	 * range actually changes, which allows the flush to skip the full create/destroy diff on the majority of ticks.
+	 * Objects that are already known are retained until they move {@code hysteresis} meters beyond the normal range, to
+	 * prevent objects that sit on the edge of the range from constantly being created and destroyed.
+	 */
+	private class CreatureAware(val creature: CreatureObject, private val hysteresis: Double) {
 		
 		private val aware = DoubleBufferedAwareness()
+		private val current = HashSet<SWGObject>()
+		private var initialized = false
+		private var tested = false
+		private var changed = false
 		
-		fun test(tests: List<SWGObject>) {
+		fun test(candidates: ((SWGObject) -> Unit) -> Unit) {
 			val buffer = aware.buffer
 			buffer.clear()
-			for (test in tests) {
-				if (creature.isWithinAwarenessRange(test)) {
+			var entered = false
+			candidates { test ->
+				val wasAware = current.contains(test)
+				if (isWithinRange(test, wasAware)) {
 					buffer.add(test)
+					if (!wasAware)
+						entered = true
 				}
 			}
-			creature.setAware(AwarenessType.OBJECT, aware.readOnlyBuffer)
+			// Each candidate is unique, so the membership is unchanged if nothing entered and nothing was dropped
+			changed = entered || buffer.size != current.size || !initialized
+			tested = true
+		}
+		
+		fun flush() {
+			if (!tested)
+				return // joined the cell after the test - picked up on the next update
+			tested = false
+			if (changed) {
+				initialized = true
+				current.clear()
+				current.addAll(aware.buffer)
+				creature.setAware(AwarenessType.OBJECT, aware.readOnlyBuffer)
+				aware.flipBuffer()
+			}
 			creature.flushAwareness()
-			aware.flipBuffer()
+		}
+		
+		private fun isWithinRange(test: SWGObject, wasAware: Boolean): Boolean {
+			if (wasAware && hysteresis > 0)
+				return creature.isWithinAwarenessRange(test, hysteresis)
+			return creature.isWithinAwarenessRange(test)
 		}
 		
 	}
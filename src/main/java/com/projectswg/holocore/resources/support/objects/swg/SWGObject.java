@@ -68,6 +68,7 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -84,6 +85,7 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 	private final Map<ObjectDataAttribute, Object>	dataAttributes	= new EnumMap<>(ObjectDataAttribute.class);
 	private final Map<ServerAttribute, Object>		serverAttributes= new EnumMap<>(ServerAttribute.class);
 	private final AtomicInteger						updateCounter	= new AtomicInteger(1);
+	private final AtomicLong						modificationCount	= new AtomicLong(1);
 	private final Set<SWGObject>					containedObjectsView	= Collections.unmodifiableSet(containedObjects);
 	private final Collection<SWGObject>				slottedObjectsView		= Collections.unmodifiableCollection(slots.values());
 	
@@ -110,6 +112,9 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 	private boolean		generated		= true;
 	private boolean		persisted		= false;
 	private boolean 	noTrade			= false;
+	private volatile long savedModificationCount = 0;
+	private volatile boolean stored = false;
+	private volatile boolean deleted = false;
 	
 	public SWGObject() {
 		this(0, null);
@@ -215,6 +220,7 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 	public boolean systemMove(SWGObject newParent) {
 		SWGObject oldParent = parent;
 		if (oldParent != newParent) {
+			markDirty();
 			if (oldParent != null)
 				oldParent.removeObject(this);
 			if (newParent != null)
@@ -234,6 +240,7 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 		SWGObject oldParent = parent;
 		Location oldLocation = getLocation();
 		if (oldParent != newParent) {
+			markDirty();
 			if (oldParent != null)
 				oldParent.removeObject(this);
 			setLocation(newLocation);
@@ -260,6 +267,7 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 		SWGObject oldParent = parent;
 		int oldArrangement = this.slotArrangement;
 		if (oldParent != newParent) {
+			markDirty();
 			if (oldParent != null)
 				oldParent.removeObject(this);
 			newParent.addSlottedObject(this, List.of(slot), arrangementId);
@@ -522,6 +530,7 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 			throw new IllegalArgumentException("Attempted to set different terrain from parent!");
 		this.location.setLocation(location);
 		updateChildrenTerrain();
+		markDirty();
 	}
 	
 	public void setTerrain(@NotNull Terrain terrain) {
@@ -530,6 +539,7 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 		if (location.getTerrain() != terrain) {
 			location.setTerrain(terrain);
 			updateChildrenTerrain();
+			markDirty();
 		}
 	}
 	
@@ -538,18 +548,22 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 			throw new IllegalArgumentException("Attempted to set different terrain from parent!");
 		location.setPosition(terrain, x, y, z);
 		updateChildrenTerrain();
+		markDirty();
 	}
 	
 	public void setPosition(double x, double y, double z) {
 		location.setPosition(x, y, z);
+		markDirty();
 	}
 	
 	public void setOrientation(double oX, double oY, double oZ, double oW) {
 		location.setOrientation(oX, oY, oZ, oW);
+		markDirty();
 	}
 	
 	public void setHeading(double heading) {
 		location.setHeading(heading);
+		markDirty();
 	}
 	
 	public void setInstance(InstanceType instanceType, int instanceNumber) {
@@ -671,19 +685,23 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 	
 	public void setStf(String stfFile, String stfKey) {
 		this.stringId = new StringId(stfFile, stfKey);
+		markDirty();
 	}
 	
 	public void setStringId(StringId stringId) {
 		this.stringId = stringId;
+		markDirty();
 	}
 	
 	public void setDetailStf(StringId detailStringId) {
 		this.detailStringId = detailStringId;
+		markDirty();
 	}
 	
 	public void setTemplate(String template) {
 		this.template = template;
 		this.crc = CRC.getCrc(template);
+		markDirty();
 	}
 	
 	public void setObjectName(String name) {
@@ -693,10 +711,12 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 	
 	public void setVolume(int volume) {
 		this.volume = volume;
+		markDirty();
 	}
 	
 	public void setComplexity(float complexity) {
 		this.complexity = complexity;
+		markDirty();
 	}
 	
 	public void setBuildoutAreaId(int areaId) {
@@ -876,6 +896,7 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 
 	public void setServerAttribute(ServerAttribute key, Object value) {
 		serverAttributes.put(key, value);
+		markDirty();
 	}
 	
 	public Object getDataAttribute(ObjectDataAttribute key) {
@@ -920,6 +941,7 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 	
 	public void setNoTrade(boolean noTrade) {
 		this.noTrade = noTrade;
+		markDirty();
 	}
 	
 	public AttributeList getAttributeList(CreatureObject viewer) {
@@ -956,6 +978,60 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 		return updateCounter.getAndIncrement();
 	}
 	
+	/**
+	 * Flags this object as needing to be persisted.  Called automatically for deltas, container transfers, location
+	 * changes and by every setter of persisted state that doesn't send a delta.  Anything that mutates persisted state
+	 * some other way, such as through a mutable value returned by a getter, must call this directly.
+	 */
+	public void markDirty() {
+		modificationCount.incrementAndGet();
+	}
+	
+	/**
+	 * Returns a counter that is incremented every time this object is marked dirty.  Persistence captures this before
+	 * saving and passes it back to {@link #markSaved(long)} once the write succeeds.
+	 */
+	public long getModificationCount() {
+		return modificationCount.get();
+	}
+	
+	/**
+	 * Records that the state as of the given modification count has been persisted
+	 */
+	public void markSaved(long modificationCount) {
+		if (modificationCount > savedModificationCount)
+			savedModificationCount = modificationCount;
+	}
+	
+	public boolean isDirty() {
+		return modificationCount.get() != savedModificationCount;
+	}
+	
+	/**
+	 * Records that this object has been loaded from, or handed off to be written to, the object database
+	 */
+	public void markStored() {
+		stored = true;
+	}
+	
+	/**
+	 * Returns TRUE if this object may have a database entry, meaning it has to be removed from the database when destroyed
+	 */
+	public boolean isStored() {
+		return stored;
+	}
+	
+	/**
+	 * Records that this object has been destroyed and its database entry removed, so it must never be written again
+	 */
+	public void markDeleted() {
+		deleted = true;
+	}
+	
+	public boolean isDeleted() {
+		return deleted;
+	}
+	
 	public void setGenerated(boolean generated) {
 		this.generated = generated;
 	}
@@ -974,6 +1050,7 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 	
 	public void setContainerPermissions(ContainerPermissions permissions) {
 		this.permissions = permissions;
+		markDirty();
 	}
 	
 	public boolean isGenerated() {
@@ -986,6 +1063,7 @@ public abstract class SWGObject extends BaselineObject implements Comparable<SWG
 	
 	public void setPersisted(boolean persisted) {
 		this.persisted = persisted;
+		markDirty();
 	}
 	
 	/**
@@ -42,6 +42,10 @@ class BuildingObject(objectId: Long) : TangibleObject(objectId, BaselineType.BUI
 	private val idToCell = HashMap<Int, CellObject>()
 	private val portals = ArrayList<Portal>()
 	var playerStructureInfo: PlayerStructureInfo? = null
+		set(value) {
+			field = value
+			markDirty()
+		}
 
 	fun getCellByName(cellName: String): CellObject? {
 		return nameToCell[cellName]
@@ -41,6 +41,7 @@ import com.projectswg.holocore.resources.gameplay.player.group.GroupInviterData;
 import com.projectswg.holocore.resources.support.data.collections.SWGSet;
 import com.projectswg.holocore.resources.support.data.location.InstanceLocation;
 import com.projectswg.holocore.resources.support.global.network.BaselineBuilder;
+import com.projectswg.holocore.resources.support.global.network.DeltaQueue;
 import com.projectswg.holocore.resources.support.global.player.Player;
 import com.projectswg.holocore.resources.support.global.player.PlayerState;
 import com.projectswg.holocore.resources.support.objects.awareness.AwarenessType;
@@ -60,6 +61,15 @@ import java.util.concurrent.atomic.AtomicReference;
 
 public class CreatureObject extends TangibleObject {
 	
+	/** Maximum distance at which a player is aware of another creature */
+	public static final double AWARENESS_RANGE_CREATURE = 200;
+	/** Maximum distance at which a player is aware of any non-structure object */
+	public static final double AWARENESS_RANGE_OBJECT = 400;
+	/** Maximum distance at which an NPC is aware of a potential target */
+	public static final double AWARENESS_RANGE_NPC = 50;
+	/** Additional distance an object may move beyond the awareness range before a player loses awareness of it */
+	public static final double AWARENESS_RANGE_HYSTERESIS = 16;
+	
 	private final CreatureObjectAwareness		awareness	= new CreatureObjectAwareness(this);
 	private final CreatureObjectShared			creo3		= new CreatureObjectShared(this);
 	private final CreatureObjectClientServerNP	creo4 		= new CreatureObjectClientServerNP(this);
@@ -67,7 +77,7 @@ public class CreatureObject extends TangibleObject {
 	private final Map<CreatureObject, Integer> hateMap = new HashMap<>();
 	private final List<CreatureObject>			sentDuels		= new ArrayList<>();
 	private final Set<Container>				containersOpen	= ConcurrentHashMap.newKeySet();
-	private final List<DeltasMessage>			pendingDeltas	= new ArrayList<>();
+	private final DeltaQueue					pendingDeltas	= new DeltaQueue();
 	private final AtomicReference<Player>		owner			= new AtomicReference<>(null);
 	
 	private Race	race					= Race.HUMAN_MALE;
@@ -205,6 +215,17 @@ public class CreatureObject extends TangibleObject {
 	}
 	
 	public boolean isWithinAwarenessRange(SWGObject target) {
+		return isWithinAwarenessRange(target, 0);
+	}
+	
+	/**
+	 * Determines whether or not the target is within this player's awareness range, extended by the specified amount
+	 *
+	 * @param target the object to test
+	 * @param extraRange the additional distance beyond the normal range that is still considered within range
+	 * @return TRUE if this player should be aware of the target, FALSE otherwise
+	 */
+	public boolean isWithinAwarenessRange(SWGObject target, double extraRange) {
 		assert isPlayer();
 
 		Player owner = getOwnerShallow();
@@ -224,8 +245,8 @@ public class CreatureObject extends TangibleObject {
 		return switch (target.getBaselineType()) {
 			case WAYP -> false;
 			case SCLT, BUIO -> true;
-			case CREO -> flatDistanceTo(target) <= 200;
-			default -> flatDistanceTo(target) <= 400;
+			case CREO -> flatDistanceTo(target) <= AWARENESS_RANGE_CREATURE + extraRange;
+			default -> flatDistanceTo(target) <= AWARENESS_RANGE_OBJECT + extraRange;
 		};
 	}
 
@@ -289,33 +310,28 @@ public class CreatureObject extends TangibleObject {
 		awareness.setTeleportDestination(parent, location);
 	}
 
-	public void addDelta(DeltasMessage delta) {
-		synchronized (pendingDeltas) {
-			pendingDeltas.add(delta);
-		}
+	public void addDelta(DeltasMessage delta, int num, int update, boolean mergeable) {
+		pendingDeltas.add(delta, num, update, mergeable);
 	}
 
 	public void clearDeltas() {
 		if (pendingDeltas.isEmpty())
 			return;
-		synchronized (pendingDeltas) {
-			pendingDeltas.clear();
-		}
+		pendingDeltas.clear();
 	}
 
 	public void sendAndFlushAllDeltas() {
 		if (pendingDeltas.isEmpty())
 			return;
-		synchronized (pendingDeltas) {
-			Player owner = getOwner();
-			if (owner != null) {
-				for (DeltasMessage delta : pendingDeltas) {
-					if (awareness.isAware(delta.getObjectId()))
-						owner.sendPacket(delta);
-				}
-			}
+		Player owner = getOwner();
+		if (owner == null) {
 			pendingDeltas.clear();
+			return;
 		}
+		pendingDeltas.drain(delta -> {
+			if (awareness.isAware(delta.getObjectId()))
+				owner.sendPacket(delta);
+		});
 	}
 
 	public boolean addSkill(String skill) {
@@ -402,6 +418,7 @@ public class CreatureObject extends TangibleObject {
 	
 	public void setRace(Race race) {
 		this.race = race;
+		markDirty();
 	}
 
 
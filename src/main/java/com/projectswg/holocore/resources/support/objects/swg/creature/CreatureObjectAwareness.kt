@@ -48,6 +48,7 @@ class CreatureObjectAwareness(private val creature: CreatureObject) {
 	private val awareIds = HashSet<Long>()
 	private val finalTeleportPacket = AtomicReference<SWGPacket>(null)
 	private val flushAwarenessData = FlushAwarenessData(creature)
+	private var flushedAwarenessVersion = -1L
 	
 	@Synchronized
 	fun setTeleportDestination(parent: SWGObject?, location: Location) {
@@ -99,6 +100,13 @@ class CreatureObjectAwareness(private val creature: CreatureObject) {
 	}
 	
 	private inline fun handleFlush(createHandler: (Collection<SWGObject>) -> Unit, intermediateCallback: () -> Unit, destroyHandler: (Collection<SWGObject>) -> Unit) {
+		val awarenessVersion = creature.awareness.version
+		if (awarenessVersion == flushedAwarenessVersion) {
+			// Nothing has entered or exited awareness since the last flush - only the teleport needs to be processed
+			intermediateCallback()
+			return
+		}
+		flushedAwarenessVersion = awarenessVersion
 		val newAware = creature.aware
 		handleFlushCreate(newAware, createHandler)
 		intermediateCallback()
@@ -147,6 +155,7 @@ class CreatureObjectAwareness(private val creature: CreatureObject) {
 		}
 		aware.clear()
 		awareIds.clear()
+		flushedAwarenessVersion = -1
 	}
 	
 	@Synchronized fun isAware(objectId: Long) = awareIds.contains(objectId)
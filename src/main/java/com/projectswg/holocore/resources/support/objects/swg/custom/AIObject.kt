@@ -168,7 +168,7 @@ class AIObject(objectId: Long) : CreatureObject(objectId) {
 	
 	override fun isWithinAwarenessRange(target: SWGObject): Boolean {
 		assert(target is CreatureObject)
-		return isAttackable(target as CreatureObject) && flatDistanceTo(target) <= 50
+		return isAttackable(target as CreatureObject) && flatDistanceTo(target) <= CreatureObject.AWARENESS_RANGE_NPC
 	}
 	
 	fun addDefaultWeapon(weapon: WeaponObject) {
@@ -56,7 +56,15 @@ class PlayerObject(objectId: Long) : IntangibleObject(objectId, BaselineType.PLA
 	private val factionPoints: MutableMap<String, Int> = ConcurrentHashMap()
 
 	var biography = ""
+		set(value) {
+			field = value
+			markDirty()
+		}
 	var account = ""
+		set(value) {
+			field = value
+			markDirty()
+		}
 	val badges = Badges()
 	var lotsAvailable = 10
 	var lotsUsed = 0
@@ -72,6 +80,7 @@ class PlayerObject(objectId: Long) : IntangibleObject(objectId, BaselineType.PLA
 		val delta = cappedValue - oldValue
 		if (delta != 0) {
 			factionPoints[faction] = value
+			markDirty()
 		}
 		return delta
 	}
@@ -103,10 +112,12 @@ class PlayerObject(objectId: Long) : IntangibleObject(objectId, BaselineType.PLA
 
 	fun addMail(m: Mail) {
 		mails[m.id] = m
+		markDirty()
 	}
 
 	fun removeMail(id: Int) {
-		mails.remove(id)
+		if (mails.remove(id) != null)
+			markDirty()
 	}
 
 	fun removeMail(m: Mail) {
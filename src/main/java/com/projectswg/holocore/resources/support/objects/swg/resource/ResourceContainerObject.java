@@ -118,6 +118,7 @@ public class ResourceContainerObject extends TangibleObject {
 	
 	public void setStats(GalacticResourceStats stats) {
 		this.stats = stats;
+		markDirty();
 	}
 	
 	@Override
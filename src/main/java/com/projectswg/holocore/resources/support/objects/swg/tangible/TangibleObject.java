@@ -106,6 +106,7 @@ public class TangibleObject extends SWGObject {
 	public void setRequiredSkill(String requiredSkill) {
 		if (!requiredSkill.isBlank()) {
 			this.requiredSkill = requiredSkill;
+			markDirty();
 		}
 	}
 	
@@ -115,6 +116,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setLightsaberColorCrystalElementalType(DamageType lightsaberColorCrystalElementalType) {
 		this.lightsaberColorCrystalElementalType = lightsaberColorCrystalElementalType;
+		markDirty();
 	}
 	
 	public int getLightsaberColorCrystalDamagePercent() {
@@ -123,6 +125,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setLightsaberColorCrystalDamagePercent(int lightsaberColorCrystalDamagePercent) {
 		this.lightsaberColorCrystalDamagePercent = lightsaberColorCrystalDamagePercent;
+		markDirty();
 	}
 	
 	public int getMaxHitPoints() {
@@ -147,6 +150,7 @@ public class TangibleObject extends SWGObject {
 
 	public void setPvpFlags(Collection<PvpFlag> pvpFlags) {
 		this.pvpFlags.addAll(pvpFlags);
+		markDirty();
 		
 		new UpdateFactionFlagsIntent(this).broadcast();
 	}
@@ -157,6 +161,7 @@ public class TangibleObject extends SWGObject {
 
 	public void clearPvpFlags(Collection<PvpFlag> pvpFlags) {
 		this.pvpFlags.removeAll(pvpFlags);
+		markDirty();
 
 		new UpdateFactionFlagsIntent(this).broadcast();
 	}
@@ -171,6 +176,7 @@ public class TangibleObject extends SWGObject {
 
 	public void setPvpStatus(PvpStatus pvpStatus) {
 		this.pvpStatus = pvpStatus;
+		markDirty();
 	}
 	
 	@Nullable
@@ -187,6 +193,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setFaction(Faction faction) {
 		this.faction = faction;
+		markDirty();
 	}
 	
 	public Set<PvpFlag> getPvpFlags() {
@@ -231,6 +238,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setComponents(int components) {
 		this.components = components;
+		markDirty();
 	}
 	
 	public void setInCombat(boolean inCombat) {
@@ -244,14 +252,17 @@ public class TangibleObject extends SWGObject {
 	
 	public void setVisibleGmOnly(boolean visibleGmOnly) {
 		this.visibleGmOnly = visibleGmOnly;
+		markDirty();
 	}
 	
 	public void setObjectEffects(byte [] objectEffects) {
 		this.objectEffects = objectEffects;
+		markDirty();
 	}
 
 	public void setOptionFlags(int optionsBitmask) {
 		this.optionFlags = optionsBitmask;
+		markDirty();
 	}
 
 	public void setOptionFlags(OptionFlag ... options) {
@@ -374,6 +385,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setRequiredCombatLevel(int requiredCombatLevel) {
 		this.requiredCombatLevel = requiredCombatLevel;
+		markDirty();
 	}
 	
 	public Faction getRequiredFaction() {
@@ -392,6 +404,7 @@ public class TangibleObject extends SWGObject {
 		} else {
 			skillMods.put(skillModName, value);
 		}
+		markDirty();
 	}
 	
 	public int getSkillModValue(String skillMod) {
@@ -404,6 +417,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setArmorCategory(ArmorCategory armorCategory) {
 		this.armorCategory = armorCategory;
+		markDirty();
 	}
 	
 	public Protection getProtection() {
@@ -412,6 +426,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setProtection(Protection protection) {
 		this.protection = protection;
+		markDirty();
 	}
 	
 	public LightsaberPowerCrystalQuality getLightsaberPowerCrystalQuality() {
@@ -420,6 +435,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setLightsaberPowerCrystalQuality(LightsaberPowerCrystalQuality lightsaberPowerCrystalQuality) {
 		this.lightsaberPowerCrystalQuality = lightsaberPowerCrystalQuality;
+		markDirty();
 	}
 	
 	public int getLightsaberPowerCrystalMinDmg() {
@@ -428,6 +444,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setLightsaberPowerCrystalMinDmg(int lightsaberPowerCrystalMinDmg) {
 		this.lightsaberPowerCrystalMinDmg = lightsaberPowerCrystalMinDmg;
+		markDirty();
 	}
 	
 	public int getLightsaberPowerCrystalMaxDmg() {
@@ -436,6 +453,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setLightsaberPowerCrystalMaxDmg(int lightsaberPowerCrystalMaxDmg) {
 		this.lightsaberPowerCrystalMaxDmg = lightsaberPowerCrystalMaxDmg;
+		markDirty();
 	}
 	
 	public TicketInformation getTicketInformation() {
@@ -444,6 +462,7 @@ public class TangibleObject extends SWGObject {
 	
 	public void setTicketInformation(TicketInformation ticketInformation) {
 		this.ticketInformation = ticketInformation;
+		markDirty();
 	}
 	
 	public Map<String, Integer> getSkillMods() {
@@ -75,6 +75,7 @@ public class WeaponObject extends TangibleObject {
 	
 	public void setForcePowerCost(int forcePowerCost) {
 		this.forcePowerCost = forcePowerCost;
+		markDirty();
 	}
 	
 	public float getAttackSpeed() {
@@ -83,6 +84,7 @@ public class WeaponObject extends TangibleObject {
 	
 	public void setAttackSpeed(float attackSpeed) {
 		this.attackSpeed = attackSpeed;
+		markDirty();
 	}
 	
 	public float getMaxRange() {
@@ -91,6 +93,7 @@ public class WeaponObject extends TangibleObject {
 	
 	public void setMaxRange(float maxRange) {
 		this.maxRange = maxRange;
+		markDirty();
 	}
 
 	public int getAccuracy() {
@@ -99,6 +102,7 @@ public class WeaponObject extends TangibleObject {
 
 	public void setAccuracy(int accuracy) {
 		this.accuracy = accuracy;
+		markDirty();
 	}
 
 	public float getMinRange() {
@@ -115,6 +119,7 @@ public class WeaponObject extends TangibleObject {
 
 	public void setDamageType(DamageType damageType) {
 		this.damageType = damageType;
+		markDirty();
 	}
 
 	public DamageType getElementalType() {
@@ -123,6 +128,7 @@ public class WeaponObject extends TangibleObject {
 
 	public void setElementalType(DamageType elementalType) {
 		this.elementalType = elementalType;
+		markDirty();
 	}
 
 	public int getElementalValue() {
@@ -131,6 +137,7 @@ public class WeaponObject extends TangibleObject {
 
 	public void setElementalValue(int elementalValue) {
 		this.elementalValue = elementalValue;
+		markDirty();
 	}
 	
 	public WeaponType getType() {
@@ -139,6 +146,7 @@ public class WeaponObject extends TangibleObject {
 	
 	public void setType(WeaponType type) {
 		this.type = type;
+		markDirty();
 	}
 
 	public int getMinDamage() {
@@ -147,6 +155,7 @@ public class WeaponObject extends TangibleObject {
 
 	public void setMinDamage(int minDamage) {
 		this.minDamage = minDamage;
+		markDirty();
 	}
 
 	public int getMaxDamage() {
@@ -155,6 +164,7 @@ public class WeaponObject extends TangibleObject {
 
 	public void setMaxDamage(int maxDamage) {
 		this.maxDamage = maxDamage;
+		markDirty();
 	}
 	
 	public float getWoundChance() {
@@ -163,6 +173,7 @@ public class WeaponObject extends TangibleObject {
 	
 	public void setWoundChance(float woundChance) {
 		this.woundChance = woundChance;
+		markDirty();
 	}
 	
 	public String getProcEffect() {
@@ -171,6 +182,7 @@ public class WeaponObject extends TangibleObject {
 	
 	public void setProcEffect(String procEffect) {
 		this.procEffect = procEffect;
+		markDirty();
 	}
 	
 	public int getSpecialAttackCost() {
@@ -179,6 +191,7 @@ public class WeaponObject extends TangibleObject {
 	
 	public void setSpecialAttackCost(int specialAttackCost) {
 		this.specialAttackCost = specialAttackCost;
+		markDirty();
 	}
 
 	public int getSplashDamagePercent() {
@@ -187,6 +200,7 @@ public class WeaponObject extends TangibleObject {
 
 	public void setSplashDamagePercent(int splashDamagePercent) {
 		this.splashDamagePercent = splashDamagePercent;
+		markDirty();
 	}
 
 	public int getSplashDamageRadius() {
@@ -195,6 +209,7 @@ public class WeaponObject extends TangibleObject {
 
 	public void setSplashDamageRadius(int splashDamageRadius) {
 		this.splashDamageRadius = splashDamageRadius;
+		markDirty();
 	}
 
 	@Override
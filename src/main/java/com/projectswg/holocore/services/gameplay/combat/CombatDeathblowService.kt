@@ -33,21 +33,16 @@ import com.projectswg.holocore.intents.support.global.chat.SystemMessageIntent
 import com.projectswg.holocore.resources.support.data.server_info.StandardLog
 import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject
 import com.projectswg.holocore.resources.support.objects.swg.custom.AIObject
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool
+import com.projectswg.holocore.utilities.TickScheduler
+import com.projectswg.holocore.utilities.TickTask
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import java.time.Duration
 import java.util.concurrent.ConcurrentHashMap
-import java.util.concurrent.Future
 
 class CombatDeathblowService : Service() {
-	private val incapacitatedCreatures = ConcurrentHashMap<CreatureObject, Future<*>?>()
-	private val executor = ScheduledThreadPool(1, 3, "combat-deathblow-service")
-
-	override fun start(): Boolean {
-		executor.start()
-		return true
-	}
+	private val incapacitatedCreatures = ConcurrentHashMap<CreatureObject, TickTask?>()
+	private val executor = TickScheduler.group("combat-deathblow-service")
 
 	override fun stop(): Boolean {
 		executor.stop()
@@ -76,7 +71,7 @@ class CombatDeathblowService : Service() {
 		val incapacitationTimer = incapacitatedCreatures.remove(corpse)
 
 		if (incapacitationTimer != null) {
-			if (incapacitationTimer.cancel(true)) {    // Interrupt the incap timer and kill the creature immediately
+			if (incapacitationTimer.cancel()) {    // Cancel the incap timer and kill the creature immediately
 				killCreature(killer, corpse)
 			}
 		} else {
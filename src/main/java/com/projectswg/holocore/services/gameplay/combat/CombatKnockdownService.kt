@@ -5,18 +5,13 @@ import com.projectswg.common.data.encodables.tangible.Posture
 import com.projectswg.holocore.intents.gameplay.combat.KnockdownIntent
 import com.projectswg.holocore.intents.support.global.chat.SystemMessageIntent
 import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool
+import com.projectswg.holocore.utilities.TickScheduler
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 
 class CombatKnockdownService : Service() {
 
-	private val executor: ScheduledThreadPool = ScheduledThreadPool(1, 3, "combat-knockdown-service")
-
-	override fun start(): Boolean {
-		executor.start()
-		return true
-	}
+	private val executor = TickScheduler.group("combat-knockdown-service")
 
 	override fun stop(): Boolean {
 		executor.stop()
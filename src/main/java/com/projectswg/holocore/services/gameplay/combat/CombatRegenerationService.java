@@ -34,7 +34,8 @@ import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureSt
 import com.projectswg.holocore.resources.support.objects.swg.custom.AIObject;
 import com.projectswg.holocore.resources.support.objects.swg.tangible.TangibleObject;
 import com.projectswg.holocore.services.support.global.zone.CharacterLookupService.PlayerLookup;
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool;
+import com.projectswg.holocore.utilities.TickGroup;
+import com.projectswg.holocore.utilities.TickScheduler;
 import me.joshlarson.jlcommon.control.IntentHandler;
 import me.joshlarson.jlcommon.control.Service;
 
@@ -43,17 +44,16 @@ import java.util.concurrent.CopyOnWriteArraySet;
 
 public class CombatRegenerationService extends Service {
 	
-	private final ScheduledThreadPool executor;
+	private final TickGroup executor;
 	private final Set<CreatureObject> npcRegen;
 	
 	public CombatRegenerationService() {
-		this.executor = new ScheduledThreadPool(1, 3, "combat-regeneration-service");
+		this.executor = TickScheduler.group("combat-regeneration-service");
 		this.npcRegen = new CopyOnWriteArraySet<>();
 	}
 	
 	@Override
 	public boolean start() {
-		executor.start();
 		executor.executeWithFixedRate(1000, 1000, this::periodicRegeneration);
 		return true;
 	}
@@ -30,7 +30,7 @@ import com.projectswg.holocore.intents.gameplay.combat.EnterCombatIntent
 import com.projectswg.holocore.intents.gameplay.combat.ExitCombatIntent
 import com.projectswg.holocore.resources.support.objects.swg.tangible.TangibleObject
 import com.projectswg.holocore.services.support.objects.ObjectStorageService.ObjectLookup
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool
+import com.projectswg.holocore.utilities.TickScheduler
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import java.util.concurrent.ConcurrentHashMap
@@ -38,10 +38,9 @@ import java.util.concurrent.ConcurrentHashMap
 class CombatStatusService : Service() {
 	
 	private val inCombat: MutableSet<TangibleObject> = ConcurrentHashMap.newKeySet()
-	private val executor: ScheduledThreadPool = ScheduledThreadPool(1, 3, "combat-status-service")
+	private val executor = TickScheduler.group("combat-status-service")
 
 	override fun start(): Boolean {
-		executor.start()
 		executor.executeWithFixedRate(1000, 1000) { this.periodicCombatStatusChecks() }
 		return true
 	}
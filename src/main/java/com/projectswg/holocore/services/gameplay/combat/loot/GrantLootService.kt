@@ -40,6 +40,7 @@ import com.projectswg.holocore.intents.support.objects.DestroyObjectIntent
 import com.projectswg.holocore.intents.support.objects.OpenContainerIntent
 import com.projectswg.holocore.resources.gameplay.combat.loot.LootType
 import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase.config
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
 import com.projectswg.holocore.resources.support.objects.permissions.ContainerResult
 import com.projectswg.holocore.resources.support.objects.permissions.ReadWritePermissions
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject
@@ -119,7 +120,11 @@ class GrantLootService : Service() {
 		}
 	}
 
-	@IntentHandler
+	override fun initialize(): Boolean {
+		PacketRouter.subscribe(this, ::handleInboundPacketIntent, GroupRequestLotteryItems::class.java)
+		return super.initialize()
+	}
+
 	private fun handleInboundPacketIntent(ipi: InboundPacketIntent) {
 		val request = ipi.packet as? GroupRequestLotteryItems ?: return
 		val player = ipi.player
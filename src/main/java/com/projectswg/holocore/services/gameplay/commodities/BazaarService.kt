@@ -42,13 +42,13 @@ import com.projectswg.holocore.resources.support.data.server_info.database.PswgB
 import com.projectswg.holocore.resources.support.data.server_info.database.PswgBazaarInstantSalesDatabase
 import com.projectswg.holocore.resources.support.data.server_info.loader.ServerData
 import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
 import com.projectswg.holocore.resources.support.global.player.Player
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject
 import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject
 import com.projectswg.holocore.resources.support.objects.swg.intangible.IntangibleObject
 import com.projectswg.holocore.resources.support.objects.swg.tangible.TangibleObject
 import com.projectswg.holocore.services.support.objects.ObjectStorageService.ObjectLookup
-import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import java.time.LocalDateTime
 import java.time.temporal.ChronoUnit.SECONDS
@@ -57,7 +57,11 @@ class BazaarService : Service() {
 
 	private val cancelLiveAuctionUseCase = CancelLiveAuctionUseCase(PswgDatabase.bazaarInstantSales, PswgDatabase.bazaarAvailableItems)
 
-	@IntentHandler
+	override fun initialize(): Boolean {
+		PacketRouter.subscribe(this, ::handleInboundPacket, CancelLiveAuctionMessage::class.java, RetrieveAuctionItemMessage::class.java, BidAuctionMessage::class.java, CommoditiesItemTypeListRequest::class.java, AuctionQueryHeadersMessage::class.java, IsVendorOwnerMessage::class.java, CreateImmediateAuctionMessage::class.java, GetAuctionDetails::class.java)
+		return super.initialize()
+	}
+
 	private fun handleInboundPacket(inboundPacketIntent: InboundPacketIntent) {
 		val packet = inboundPacketIntent.packet
 		val player = inboundPacketIntent.player
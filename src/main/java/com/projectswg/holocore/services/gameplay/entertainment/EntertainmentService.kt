@@ -40,20 +40,20 @@ import com.projectswg.holocore.resources.support.data.server_info.loader.DataLoa
 import com.projectswg.holocore.resources.support.global.player.Player
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent
 import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject
+import com.projectswg.holocore.utilities.TickScheduler
+import com.projectswg.holocore.utilities.TickTask
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import me.joshlarson.jlcommon.log.Log
-import java.util.concurrent.Executors
-import java.util.concurrent.Future
 import java.util.concurrent.TimeUnit
 import java.util.function.Consumer
 
 class EntertainmentService : Service() {
 	private val performerMap = mutableMapOf<Long, Performance>()
-	private val executorService = Executors.newSingleThreadScheduledExecutor()
+	private val executorService = TickScheduler.group("entertainment-service")
 
 	override fun terminate(): Boolean {
-		executorService.shutdownNow()
+		executorService.stop()
 		return super.terminate()
 	}
 
@@ -214,9 +214,8 @@ class EntertainmentService : Service() {
 		Log.d("Scheduled %s to receive XP every %d seconds", performer, XP_CYCLE_RATE)
 		synchronized(performerMap) {
 			val performerId = performer.objectId
-			val future = executorService.scheduleAtFixedRate(
-				EntertainerExperience(performer), XP_CYCLE_RATE.toLong(), XP_CYCLE_RATE.toLong(), TimeUnit.SECONDS
-			)
+			val xpCycleRate = TimeUnit.SECONDS.toMillis(XP_CYCLE_RATE.toLong())
+			val future = executorService.executeWithFixedRate("experience", xpCycleRate, xpCycleRate, EntertainerExperience(performer))
 
 			// If they went LD but came back before disappearing
 			val performance = performerMap[performerId]
@@ -236,7 +235,7 @@ class EntertainmentService : Service() {
 				Log.e("Couldn't cancel experience task for %s because they weren't found in performerMap", performer)
 				return
 			}
-			performance.future.cancel(false)
+			performance.future.cancel()
 		}
 	}
 
@@ -299,7 +298,7 @@ class EntertainmentService : Service() {
 		actor.performanceListenTarget = 0
 	}
 
-	private inner class Performance(val performer: CreatureObject, var future: Future<*>, var performanceName: String) {
+	private inner class Performance(val performer: CreatureObject, var future: TickTask, var performanceName: String) {
 		private val audience = mutableSetOf<CreatureObject>()
 
 		fun addSpectator(spectator: CreatureObject): Boolean {
@@ -47,7 +47,9 @@ import com.projectswg.holocore.resources.support.objects.swg.SWGObject;
 import com.projectswg.holocore.resources.support.objects.swg.cell.CellObject;
 import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject;
 import com.projectswg.holocore.resources.support.objects.swg.tangible.TangibleObject;
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool;
+import com.projectswg.holocore.utilities.TickGroup;
+import com.projectswg.holocore.utilities.TickScheduler;
+import com.projectswg.holocore.utilities.TickTask;
 import me.joshlarson.jlcommon.control.IntentHandler;
 import me.joshlarson.jlcommon.control.Service;
 import me.joshlarson.jlcommon.log.Log;
@@ -55,17 +57,16 @@ import me.joshlarson.jlcommon.log.Log;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Future;
 
 public class FactionFlagService extends Service {
 
-	private final Map<TangibleObject, Future<?>> statusChangers;
-	private final ScheduledThreadPool executor;
+	private final Map<TangibleObject, TickTask> statusChangers;
+	private final TickGroup executor;
 	private final Map<String, PvpZone> pvpZones;
 
 	public FactionFlagService() {
 		statusChangers = new ConcurrentHashMap<>();
-		executor = new ScheduledThreadPool(1, "faction-flag-service");
+		executor = TickScheduler.group("faction-flag-service");
 		pvpZones = new ConcurrentHashMap<>();
 	}
 
@@ -94,12 +95,6 @@ public class FactionFlagService extends Service {
 		return super.terminate();
 	}
 
-	@Override
-	public boolean start() {
-		executor.start();
-		return true;
-	}
-
 	@Override
 	public boolean stop() {
 		executor.stop();
@@ -223,10 +218,10 @@ public class FactionFlagService extends Service {
 			return;
 
 		// Let's clear PvP flags in case they were in the middle of going covert/overt
-		Future<?> future = statusChangers.remove(target);
+		TickTask statusChanger = statusChangers.remove(target);
 
-		if (future != null) {
-			if (future.cancel(false)) {
+		if (statusChanger != null) {
+			if (statusChanger.cancel()) {
 				target.clearPvpFlags(PvpFlag.GOING_COVERT, PvpFlag.GOING_OVERT);
 			} else if (target.getPvpStatus() != newStatus) {
 				// Their new status does not equal the one we want - apply the new one
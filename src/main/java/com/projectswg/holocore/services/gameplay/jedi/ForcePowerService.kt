@@ -28,18 +28,17 @@ package com.projectswg.holocore.services.gameplay.jedi
 
 import com.projectswg.holocore.intents.gameplay.player.experience.SkillModIntent
 import com.projectswg.holocore.services.support.global.zone.CharacterLookupService
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool
+import com.projectswg.holocore.utilities.TickScheduler
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import java.util.concurrent.TimeUnit
 import kotlin.math.min
 
 class ForcePowerService : Service() {
-	private val executor: ScheduledThreadPool = ScheduledThreadPool(1, "force-power-service")
+	private val executor = TickScheduler.group("force-power-service")
 	private val replenishDelay = TimeUnit.MILLISECONDS.convert(10, TimeUnit.SECONDS)
 
 	override fun start(): Boolean {
-		executor.start()
 		executor.executeWithFixedRate(replenishDelay, replenishDelay) { this.periodicForceReplenish() }
 		return super.start()
 	}
@@ -41,6 +41,7 @@ import com.projectswg.holocore.intents.support.global.network.InboundPacketInten
 import com.projectswg.holocore.intents.support.objects.DestroyObjectIntent
 import com.projectswg.holocore.intents.support.objects.ObjectCreatedIntent
 import com.projectswg.holocore.resources.support.data.server_info.StandardLog
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
 import com.projectswg.holocore.resources.support.global.player.Player
 import com.projectswg.holocore.resources.support.objects.ObjectCreator
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject
@@ -70,7 +71,11 @@ class DestroyMissionService : Service() {
 		}
 	}
 
-	@IntentHandler
+	override fun initialize(): Boolean {
+		PacketRouter.subscribe(this, ::handleInboundPacket, MissionListRequest::class.java, MissionAcceptRequest::class.java, MissionAbort::class.java)
+		return super.initialize()
+	}
+
 	private fun handleInboundPacket(inboundPacketIntent: InboundPacketIntent) {
 		val packet = inboundPacketIntent.packet
 		val player = inboundPacketIntent.player
@@ -26,15 +26,14 @@
 package com.projectswg.holocore.services.gameplay.player.character
 
 import com.projectswg.holocore.services.support.global.zone.CharacterLookupService.PlayerLookup
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool
+import com.projectswg.holocore.utilities.TickScheduler
 import me.joshlarson.jlcommon.control.Service
 
 class PlayerPlayTimeService : Service() {
 	
-	private val timerCheckThread = ScheduledThreadPool(1, "player-play-time-updater")
+	private val timerCheckThread = TickScheduler.group("player-play-time-updater")
 	
 	override fun start(): Boolean {
-		timerCheckThread.start()
 		timerCheckThread.executeWithFixedRate(1000L, 1000L, ::updatePlayerPlayTime)
 		return super.start()
 	}
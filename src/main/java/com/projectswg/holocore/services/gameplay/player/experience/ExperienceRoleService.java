@@ -33,6 +33,7 @@ import com.projectswg.holocore.intents.gameplay.player.experience.GrantSkillInte
 import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent;
 import com.projectswg.holocore.resources.support.data.server_info.loader.DataLoader;
 import com.projectswg.holocore.resources.support.data.server_info.loader.PlayerRoleLoader.RoleInfo;
+import com.projectswg.holocore.resources.support.global.network.PacketRouter;
 import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject;
 import com.projectswg.holocore.resources.support.objects.swg.player.PlayerObject;
 import me.joshlarson.jlcommon.control.IntentHandler;
@@ -47,7 +48,12 @@ public class ExperienceRoleService extends Service {
 		
 	}
 	
-	@IntentHandler
+	@Override
+	public boolean initialize() {
+		PacketRouter.subscribe(this, this::handleInboundPacketIntent, ChangeRoleIconChoice.class);
+		return super.initialize();
+	}
+	
 	private void handleInboundPacketIntent(InboundPacketIntent gpi) {
 		SWGPacket packet = gpi.getPacket();
 		if (packet instanceof ChangeRoleIconChoice iconChoice) {
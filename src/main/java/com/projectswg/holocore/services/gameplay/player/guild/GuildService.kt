@@ -32,6 +32,7 @@ import com.projectswg.common.network.packets.swg.zone.guild.GuildResponseMessage
 import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent
 import com.projectswg.holocore.intents.support.global.zone.PlayerEventIntent
 import com.projectswg.holocore.intents.support.objects.ObjectCreatedIntent
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent
 import com.projectswg.holocore.resources.support.objects.ObjectCreator
 import com.projectswg.holocore.resources.support.objects.awareness.AwarenessType
@@ -50,6 +51,7 @@ class GuildService : Service() {
 	private var guildObject: GuildObject? = null
 	
 	override fun initialize(): Boolean {
+		PacketRouter.subscribe(this, ::handleInboundPacketIntent, GuildRequestMessage::class.java)
 		if (guildObject == null) {
 			// A guild object doesn't already exist. Let's create one.
 			val guildObject = ObjectCreator.createObjectFromTemplate("object/guild/shared_guild_object.iff") as GuildObject
@@ -75,7 +77,6 @@ class GuildService : Service() {
 		}
 	}
 
-	@IntentHandler
 	private fun handleInboundPacketIntent(intent: InboundPacketIntent) {
 		val packet = intent.packet
 		if (packet is GuildRequestMessage) {
@@ -43,6 +43,7 @@ import com.projectswg.holocore.intents.gameplay.combat.CreatureKilledIntent
 import com.projectswg.holocore.intents.gameplay.player.experience.ExperienceIntent
 import com.projectswg.holocore.intents.gameplay.player.quest.*
 import com.projectswg.holocore.intents.support.global.chat.SystemMessageIntent
+import com.projectswg.holocore.intents.support.global.zone.PlayerEventIntent
 import com.projectswg.holocore.intents.support.global.zone.PlayerTransformedIntent
 import com.projectswg.holocore.intents.support.objects.DestroyObjectIntent
 import com.projectswg.holocore.intents.support.objects.ObjectCreatedIntent
@@ -52,6 +53,7 @@ import com.projectswg.holocore.resources.support.data.server_info.loader.QuestLo
 import com.projectswg.holocore.resources.support.data.server_info.loader.QuestLoader.QuestTaskInfo
 import com.projectswg.holocore.resources.support.data.server_info.loader.ServerData
 import com.projectswg.holocore.resources.support.global.player.Player
+import com.projectswg.holocore.resources.support.global.player.PlayerEvent
 import com.projectswg.holocore.resources.support.global.zone.sui.SuiButtons
 import com.projectswg.holocore.resources.support.global.zone.sui.SuiMessageBox
 import com.projectswg.holocore.resources.support.objects.ObjectCreator
@@ -63,15 +65,17 @@ import com.projectswg.holocore.resources.support.objects.swg.player.PlayerObject
 import com.projectswg.holocore.resources.support.objects.swg.waypoint.WaypointObject
 import com.projectswg.holocore.resources.support.random.Die
 import com.projectswg.holocore.resources.support.random.RandomDie
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool
+import com.projectswg.holocore.utilities.TickScheduler
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ThreadLocalRandom
 
 class QuestService(private val destroyMultiAndLootDie: Die = RandomDie(), private val retrieveItemDie: Die = RandomDie()) : Service() {
-	private val executor = ScheduledThreadPool(1, "quest-service-%d")
+	private val executor = TickScheduler.group("quest-service")
 	private val questLoader = ServerData.questLoader
 	private val retrievedItemRepository: RetrievedItemRepository = MemoryRetrievedItemRepository()
+	private val triggerIndexes: MutableMap<PlayerObject, QuestTriggerIndex> = ConcurrentHashMap()
 
 	override fun initialize(): Boolean {
 		val what = "quest retrieve_item tasks"
@@ -85,7 +89,6 @@ class QuestService(private val destroyMultiAndLootDie: Die = RandomDie(), privat
 			quantity += retrieveItemTasks.size
 		}
 		StandardLog.onEndLoad(quantity, what, startTime)
-		executor.start()
 		return true
 	}
 
@@ -94,6 +97,14 @@ class QuestService(private val destroyMultiAndLootDie: Die = RandomDie(), privat
 		return executor.awaitTermination(1000)
 	}
 
+	@IntentHandler
+	private fun handlePlayerEventIntent(intent: PlayerEventIntent) {
+		when (intent.event) {
+			PlayerEvent.PE_LOGGED_OUT, PlayerEvent.PE_DESTROYED -> triggerIndexes.remove(intent.player.playerObject ?: return)
+			else                                                -> {}
+		}
+	}
+
 	@IntentHandler
 	private fun handleGrantQuestIntent(intent: GrantQuestIntent) {
 		val player = intent.player
@@ -175,16 +186,14 @@ class QuestService(private val destroyMultiAndLootDie: Die = RandomDie(), privat
 		val killer = intent.killer
 		val owner = killer.owner ?: return
 		val playerObject = killer.playerObject
-		val incompleteQuests = playerObject.quests.entries.filter { !it.value.isComplete }.map { it.key }.mapNotNull { questLoader.getQuestListInfo(it.string) }
-		for (incompleteQuest in incompleteQuests) {
-			val questName = incompleteQuest.questName
-			val activeTaskListInfos = getActiveTaskInfos(questName, playerObject)
-			for (activeTaskListInfo in activeTaskListInfos) {
-				val type = activeTaskListInfo.type
-				when (type) {
-					"quest.task.ground.destroy_multi"          -> handleKillDestroyMulti(activeTaskListInfo, incompleteQuest, owner, corpse)
-					"quest.task.ground.destroy_multi_and_loot" -> handleKillDestroyMultiAndLoot(activeTaskListInfo, incompleteQuest, owner, corpse)
-				}
+		val spawner = corpse.spawner
+		val triggers = getTriggerIndex(playerObject).getKillTriggers(spawner?.stfName, spawner?.socialGroup)
+		for (trigger in triggers) {
+			if (!isTriggerActive(playerObject, trigger))
+				continue
+			when (trigger.task.type) {
+				"quest.task.ground.destroy_multi"          -> handleKillDestroyMulti(trigger.task, trigger.questListInfo, owner, corpse)
+				"quest.task.ground.destroy_multi_and_loot" -> handleKillDestroyMultiAndLoot(trigger.task, trigger.questListInfo, owner, corpse)
 			}
 		}
 	}
@@ -244,29 +253,47 @@ class QuestService(private val destroyMultiAndLootDie: Die = RandomDie(), privat
 	}
 
 	private fun handlePlayerChangeLocation(player: Player, newLocation: Location) {
-		val playerObject = player.playerObject
+		val playerObject = player.playerObject ?: return
+		val triggers = getTriggerIndex(playerObject).getLocationTriggers(newLocation)
+		for (trigger in triggers) {
+			if (!isTriggerActive(playerObject, trigger))
+				continue
+			val gotoLocation = trigger.task.gotoLocationInfo ?: continue
+			StandardLog.onPlayerTrace(this, player, "arrived at location for task %d of quest %s", trigger.task.index, trigger.questListInfo.questName)
+			completeTask(trigger.questListInfo, player, trigger.task)
+			player.sendPacket(PlayMusicMessage(0, "sound/ui_objective_reached.snd", 1, false))
+			playerObject.waypoints.values.find { it.name == gotoLocation.waypointName }?.let {    // if you bothered with renaming the waypoint, you get to keep it
+				playerObject.removeWaypoint(it.objectId)
+				DestroyObjectIntent(it).broadcast()
+			}
+		}
+	}
+
+	private fun getTriggerIndex(playerObject: PlayerObject): QuestTriggerIndex {
+		return triggerIndexes.computeIfAbsent(playerObject) { buildTriggerIndex(it) }
+	}
+
+	private fun buildTriggerIndex(playerObject: PlayerObject): QuestTriggerIndex {
+		val index = QuestTriggerIndex()
 		val incompleteQuests = playerObject.quests.entries.filter { !it.value.isComplete }.map { it.key }.mapNotNull { questLoader.getQuestListInfo(it.string) }
 		for (incompleteQuest in incompleteQuests) {
-			val questName = incompleteQuest.questName
-			val activeTaskListInfos = getActiveTaskInfos(questName, playerObject)
-			for (activeTaskListInfo in activeTaskListInfos) {
-				val gotoLocation = activeTaskListInfo.gotoLocationInfo
-				if (gotoLocation != null) {
-					val terrain = Terrain.getTerrainFromName(gotoLocation.planetName)
-					val radius = gotoLocation.radius
-
-					if (newLocation.isWithinDistance(terrain, gotoLocation.locationX, gotoLocation.locationY, gotoLocation.locationZ, radius)) {
-						StandardLog.onPlayerTrace(this, player, "arrived at location for task %d of quest %s", activeTaskListInfo.index, questName)
-						completeTask(incompleteQuest, player, activeTaskListInfo)
-						player.sendPacket(PlayMusicMessage(0, "sound/ui_objective_reached.snd", 1, false))
-						playerObject.waypoints.values.find { it.name == gotoLocation.waypointName }?.let {    // if you bothered with renaming the waypoint, you get to keep it
-							playerObject.removeWaypoint(it.objectId)
-							DestroyObjectIntent(it).broadcast()
-						}
-					}
-				}
+			for (activeTaskListInfo in getActiveTaskInfos(incompleteQuest.questName, playerObject)) {
+				index.addTask(incompleteQuest, activeTaskListInfo)
 			}
 		}
+		return index
+	}
+
+	/**
+	 * Must be called after any change to the player's active quest tasks, so the next location or kill rebuilds the index
+	 */
+	private fun invalidateTriggerIndex(playerObject: PlayerObject) {
+		triggerIndexes.remove(playerObject)
+	}
+
+	private fun isTriggerActive(playerObject: PlayerObject, trigger: QuestTriggerIndex.QuestTrigger): Boolean {
+		// An earlier trigger for the same event may have already completed or cleared this task
+		return playerObject.getQuestActiveTasks(trigger.questListInfo.questName).contains(trigger.task.index)
 	}
 
 	private fun handleKillDestroyMultiAndLoot(activeTaskListInfo: QuestTaskInfo, questListInfo: QuestLoader.QuestListInfo, owner: Player, corpse: AIObject) {
@@ -434,6 +461,7 @@ class QuestService(private val destroyMultiAndLootDie: Die = RandomDie(), privat
 		StandardLog.onPlayerTrace(this, player, "activating task %d of quest %s", currentTask.index, questName)
 		val playerObject = player.getPlayerObject()
 		playerObject.addActiveQuestTask(questName, currentTask.index)
+		invalidateTriggerIndex(playerObject)
 		if (currentTask.isVisible) {
 			player.sendPacket(PlayMusicMessage(0, "sound/ui_journal_updated.snd", 1, false))
 
@@ -499,6 +527,7 @@ class QuestService(private val destroyMultiAndLootDie: Die = RandomDie(), privat
 
 	private fun removeQuest(playerObject: PlayerObject, questName: String) {
 		playerObject.removeQuest(questName)
+		invalidateTriggerIndex(playerObject)
 		retrievedItemRepository.clearPreviousAttempts(questName, playerObject)
 	}
 
@@ -518,6 +547,7 @@ class QuestService(private val destroyMultiAndLootDie: Die = RandomDie(), privat
 		val playerObject = player.getPlayerObject()
 		playerObject.removeActiveQuestTask(questName, currentTask.index)
 		playerObject.addCompleteQuestTask(questName, currentTask.index)
+		invalidateTriggerIndex(playerObject)
 		val grantQuestOnComplete = currentTask.grantQuestOnComplete
 		if (!grantQuestOnComplete.isNullOrBlank()) {
 			GrantQuestIntent(player, grantQuestOnComplete).broadcast()
@@ -545,6 +575,7 @@ class QuestService(private val destroyMultiAndLootDie: Die = RandomDie(), privat
 		val questName = questListInfo.questName
 		val playerObject = player.getPlayerObject()
 		playerObject.completeQuest(questName)
+		invalidateTriggerIndex(playerObject)
 		player.sendPacket(QuestCompletedMessage(player.creatureObject.objectId, CRC(questName)))
 		retrievedItemRepository.clearPreviousAttempts(questName, playerObject)
 		StandardLog.onPlayerTrace(this, player, "completed quest %s", questName)
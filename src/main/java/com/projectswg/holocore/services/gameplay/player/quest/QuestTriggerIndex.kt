@@ -0,0 +1,128 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is an emulation project for Star Wars Galaxies founded on            *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create one or more emulators which will provide servers for      *
+ * players to continue playing a game similar to the one they used to play.        *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.services.gameplay.player.quest
+
+import com.projectswg.common.data.location.Location
+import com.projectswg.common.data.location.Terrain
+import com.projectswg.holocore.resources.support.data.server_info.loader.QuestLoader.QuestListInfo
+import com.projectswg.holocore.resources.support.data.server_info.loader.QuestLoader.QuestTaskInfo
+import java.util.*
+import kotlin.math.floor
+
+/**
+ * The go_to_location and destroy_multi tasks that are currently active for a single player.  Location triggers are
+ * bucketed into a coarse grid per terrain, and kill triggers are keyed by their target template and social group, so
+ * that a movement or a kill only ever looks at the triggers that could possibly match it.
+ */
+internal class QuestTriggerIndex {
+
+	private val locationTriggers = HashMap<CellKey, MutableList<LocationTrigger>>()
+	private val wideLocationTriggers = EnumMap<Terrain, MutableList<LocationTrigger>>(Terrain::class.java)
+	private val killTriggersByTemplate = HashMap<String, MutableList<QuestTrigger>>()
+	private val killTriggersBySocialGroup = HashMap<String, MutableList<QuestTrigger>>()
+
+	val isEmpty: Boolean
+		get() = locationTriggers.isEmpty() && wideLocationTriggers.isEmpty() && killTriggersByTemplate.isEmpty() && killTriggersBySocialGroup.isEmpty()
+
+	fun addTask(questListInfo: QuestListInfo, task: QuestTaskInfo) {
+		when (task.type) {
+			"quest.task.ground.go_to_location"                                          -> addLocationTrigger(questListInfo, task)
+			"quest.task.ground.destroy_multi", "quest.task.ground.destroy_multi_and_loot" -> addKillTrigger(questListInfo, task)
+		}
+	}
+
+	/**
+	 * Returns every go_to_location trigger whose region contains the specified location
+	 */
+	fun getLocationTriggers(location: Location): List<QuestTrigger> {
+		val terrain = location.terrain ?: return emptyList()
+		val candidates = locationTriggers[CellKey(terrain, toCell(location.x), toCell(location.z))]
+		val wideCandidates = wideLocationTriggers[terrain]
+		if (candidates == null && wideCandidates == null)
+			return emptyList()
+		return ((candidates ?: emptyList()) + (wideCandidates ?: emptyList())).filter { location.isWithinDistance(terrain, it.x, it.y, it.z, it.radius) }.map { it.trigger }
+	}
+
+	/**
+	 * Returns every destroy_multi or destroy_multi_and_loot trigger that targets an NPC with the specified template or
+	 * social group
+	 */
+	fun getKillTriggers(stfName: String?, socialGroup: String?): List<QuestTrigger> {
+		val byTemplate = if (stfName == null) null else killTriggersByTemplate[stfName]
+		val bySocialGroup = if (socialGroup == null) null else killTriggersBySocialGroup[socialGroup.lowercase(Locale.US)]
+		if (byTemplate == null)
+			return bySocialGroup ?: emptyList()
+		if (bySocialGroup == null)
+			return byTemplate
+		val triggers = LinkedHashSet(byTemplate)
+		triggers.addAll(bySocialGroup)
+		return ArrayList(triggers)
+	}
+
+	private fun addLocationTrigger(questListInfo: QuestListInfo, task: QuestTaskInfo) {
+		val gotoLocation = task.gotoLocationInfo ?: return
+		val terrain = Terrain.getTerrainFromName(gotoLocation.planetName) ?: return
+		val trigger = LocationTrigger(QuestTrigger(questListInfo, task), gotoLocation.locationX, gotoLocation.locationY, gotoLocation.locationZ, gotoLocation.radius)
+		val cellsX = toCell(trigger.x - trigger.radius)..toCell(trigger.x + trigger.radius)
+		val cellsZ = toCell(trigger.z - trigger.radius)..toCell(trigger.z + trigger.radius)
+		if (cellsX.count() > MAX_CELLS_PER_AXIS || cellsZ.count() > MAX_CELLS_PER_AXIS) {
+			// A handful of quests cover most of a planet, which isn't worth spreading across thousands of cells
+			wideLocationTriggers.computeIfAbsent(terrain) { ArrayList() }.add(trigger)
+			return
+		}
+		for (cellX in cellsX) {
+			for (cellZ in cellsZ) {
+				locationTriggers.computeIfAbsent(CellKey(terrain, cellX, cellZ)) { ArrayList() }.add(trigger)
+			}
+		}
+	}
+
+	private fun addKillTrigger(questListInfo: QuestListInfo, task: QuestTaskInfo) {
+		val trigger = QuestTrigger(questListInfo, task)
+		val targetServerTemplate = task.targetServerTemplate
+		val socialGroup = task.socialGroup
+		if (targetServerTemplate != null)
+			killTriggersByTemplate.computeIfAbsent(targetServerTemplate) { ArrayList() }.add(trigger)
+		if (socialGroup != null)
+			killTriggersBySocialGroup.computeIfAbsent(socialGroup.lowercase(Locale.US)) { ArrayList() }.add(trigger)
+	}
+
+	class QuestTrigger(val questListInfo: QuestListInfo, val task: QuestTaskInfo)
+
+	private class LocationTrigger(val trigger: QuestTrigger, val x: Double, val y: Double, val z: Double, val radius: Double)
+
+	private data class CellKey(val terrain: Terrain, val cellX: Int, val cellZ: Int)
+
+	companion object {
+
+		private const val CELL_SIZE = 128.0
+		private const val MAX_CELLS_PER_AXIS = 8
+
+		private fun toCell(coordinate: Double): Int = floor(coordinate / CELL_SIZE).toInt()
+
+	}
+
+}
@@ -44,22 +44,17 @@ import com.projectswg.holocore.resources.support.objects.swg.building.BuildingOb
 import com.projectswg.holocore.resources.support.objects.swg.building.PlayerStructureInfo
 import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject
 import com.projectswg.holocore.resources.support.objects.swg.tangible.TangibleObject
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool
+import com.projectswg.holocore.utilities.TickScheduler
 import me.joshlarson.jlcommon.control.IntentChain
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 
 class StructureService : Service() {
 	
-	private val constructionThread = ScheduledThreadPool(1, "structure-construction-service")
+	private val constructionThread = TickScheduler.group("structure-construction-service")
 	private val constructionIntentChain = IntentChain()
 	private val constructionDelaySec = config.getLong(this, "constructionDelaySec", 10)
 	
-	override fun start(): Boolean {
-		constructionThread.start()
-		return super.start()
-	}
-	
 	override fun stop(): Boolean {
 		constructionThread.stop()
 		return super.stop() && constructionThread.awaitTermination(1000)
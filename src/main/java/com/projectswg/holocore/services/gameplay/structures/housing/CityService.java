@@ -33,6 +33,7 @@ import com.projectswg.holocore.intents.support.global.zone.PlayerEventIntent;
 import com.projectswg.holocore.intents.support.objects.ObjectCreatedIntent;
 import com.projectswg.holocore.resources.support.data.server_info.loader.ServerData;
 import com.projectswg.holocore.resources.support.data.server_info.loader.StaticCityLoader.City;
+import com.projectswg.holocore.resources.support.global.network.PacketRouter;
 import com.projectswg.holocore.resources.support.global.player.Player;
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent;
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject;
@@ -45,7 +46,12 @@ import java.util.Collection;
 
 public class CityService extends Service {
 
-	@IntentHandler
+	@Override
+	public boolean initialize() {
+		PacketRouter.subscribe(this, this::handleInboundPacketIntent, DataTransform.class);
+		return super.initialize();
+	}
+
 	private void handleInboundPacketIntent(InboundPacketIntent gpi) {
 		SWGPacket p = gpi.getPacket();
 		if (p instanceof DataTransform) {
@@ -34,6 +34,7 @@ import com.projectswg.holocore.intents.support.global.chat.SystemMessageIntent
 import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent
 import com.projectswg.holocore.intents.support.global.zone.PlayerEventIntent
 import com.projectswg.holocore.resources.gameplay.crafting.trade.TradeSession
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
 import com.projectswg.holocore.resources.support.global.player.Player
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent
 import com.projectswg.holocore.resources.support.global.zone.sui.SuiMessageBox
@@ -63,7 +64,11 @@ class TradeService : Service() {
 		}
 	}
 
-	@IntentHandler
+	override fun initialize(): Boolean {
+		PacketRouter.subscribe(this, ::handleInboundPacketIntent, SecureTrade::class.java, AbortTradeMessage::class.java, DenyTradeMessage::class.java, AcceptTransactionMessage::class.java, UnAcceptTransactionMessage::class.java, AddItemMessage::class.java, GiveMoneyMessage::class.java, VerifyTradeMessage::class.java)
+		return super.initialize()
+	}
+
 	private fun handleInboundPacketIntent(gpi: InboundPacketIntent) {
 		when (val packet = gpi.packet) {
 			is SecureTrade                -> handleSecureTrade(packet, gpi.player)
@@ -36,6 +36,7 @@ import com.projectswg.holocore.intents.support.objects.ObjectCreatedIntent;
 import com.projectswg.holocore.resources.gameplay.world.map.MappingTemplate;
 import com.projectswg.holocore.resources.support.data.server_info.loader.*;
 import com.projectswg.holocore.resources.support.data.server_info.loader.PlanetMapCategoryLoader.PlanetMapCategoryInfo;
+import com.projectswg.holocore.resources.support.global.network.PacketRouter;
 import com.projectswg.holocore.resources.support.global.player.Player;
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject;
 import me.joshlarson.jlcommon.control.IntentHandler;
@@ -69,11 +70,11 @@ public class MapService extends Service {
 
 	@Override
 	public boolean initialize() {
+		PacketRouter.subscribe(this, this::handleInboundPacketIntent, GetMapLocationsMessage.class);
 		loadStaticCityPoints();
 		return true;
 	}
 
-	@IntentHandler
 	private void handleInboundPacketIntent(InboundPacketIntent gpi) {
 		SWGPacket packet = gpi.getPacket();
 		if (packet instanceof GetMapLocationsMessage)
@@ -43,6 +43,7 @@ import com.projectswg.holocore.resources.gameplay.world.travel.TravelGroup.Shutt
 import com.projectswg.holocore.resources.gameplay.world.travel.TravelHelper
 import com.projectswg.holocore.resources.gameplay.world.travel.TravelPoint
 import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase.config
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
 import com.projectswg.holocore.resources.support.global.player.Player
 import com.projectswg.holocore.resources.support.global.zone.sui.SuiButtons
 import com.projectswg.holocore.resources.support.global.zone.sui.SuiListBox
@@ -79,7 +80,11 @@ class TravelService : Service() {
 		traveler.sendSelf(EnterTicketPurchaseModeMessage(traveler.terrain.getName(), travel.getNearestTravelPoint(traveler)!!.name))
 	}
 
-	@IntentHandler
+	override fun initialize(): Boolean {
+		PacketRouter.subscribe(this, ::handleInboundPacketIntent, PlanetTravelPointListRequest::class.java)
+		return super.initialize()
+	}
+
 	private fun handleInboundPacketIntent(ipi: InboundPacketIntent) {
 		val p = ipi.packet
 
@@ -30,45 +30,39 @@ import com.projectswg.common.data.WeatherType
 import com.projectswg.common.data.location.Terrain
 import com.projectswg.common.network.packets.swg.zone.ServerTimeMessage
 import com.projectswg.common.network.packets.swg.zone.ServerWeatherMessage
-import com.projectswg.common.utilities.ThreadUtilities
 import com.projectswg.holocore.ProjectSWG
 import com.projectswg.holocore.intents.support.global.zone.NotifyPlayersPacketIntent
 import com.projectswg.holocore.intents.support.global.zone.PlayerEventIntent
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent
+import com.projectswg.holocore.utilities.TickScheduler
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import java.time.Duration
 import java.time.temporal.ChronoUnit
-import java.util.concurrent.Executors
-import java.util.concurrent.TimeUnit
 import kotlin.random.Random
 
 class EnvironmentService : Service() {
 	private val cycleDuration = Duration.of(10, ChronoUnit.MINUTES)
 	private val terrains = Terrain.entries.toTypedArray()
 	private val weatherForTerrain = mutableMapOf<Terrain, WeatherType>()
-	private val executor = Executors.newScheduledThreadPool(2, ThreadUtilities.newThreadFactory("environment-service"))
+	private val executor = TickScheduler.group("environment-service")
 
 	override fun initialize(): Boolean {
 		for (terrain in terrains) {
 			weatherForTerrain[terrain] = randomWeather()
-			executor.scheduleAtFixedRate({ maybeUpdateWeather(terrain) }, 0, cycleDuration.toSeconds(), TimeUnit.SECONDS)
+			executor.executeWithFixedRate("weather", 0, cycleDuration.toMillis()) { maybeUpdateWeather(terrain) }
 		}
 		return super.initialize()
 	}
 
 	override fun start(): Boolean {
-		executor.scheduleAtFixedRate({ updateTime() }, 30, 30, TimeUnit.SECONDS)
+		executor.executeWithFixedRate("time", 30_000, 30_000) { updateTime() }
 		return super.start()
 	}
 
 	override fun terminate(): Boolean {
-		var success = true
-		try {
-			executor.shutdownNow()
-			success = executor.awaitTermination(3000, TimeUnit.MILLISECONDS)
-		} catch (ignored: InterruptedException) {
-		}
+		executor.stop()
+		val success = executor.awaitTermination(3000)
 		return super.terminate() && success
 	}
 
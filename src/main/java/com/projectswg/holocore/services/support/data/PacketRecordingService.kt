@@ -26,10 +26,12 @@
  ***********************************************************************************/
 package com.projectswg.holocore.services.support.data
 
+import com.projectswg.common.network.packets.SWGPacket
 import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent
 import com.projectswg.holocore.intents.support.global.network.OutboundPacketIntent
 import com.projectswg.holocore.resources.support.data.server_info.BasicLogStream
 import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase.config
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import java.io.File
@@ -37,7 +39,11 @@ import java.io.File
 class PacketRecordingService : Service() {
 	private val packetLogger: BasicLogStream = BasicLogStream(File("log/packets.txt"))
 
-	@IntentHandler
+	override fun initialize(): Boolean {
+		PacketRouter.subscribe(this, ::handleInboundPacketIntent, SWGPacket::class.java)
+		return super.initialize()
+	}
+
 	private fun handleInboundPacketIntent(ipi: InboundPacketIntent) {
 		if (!packetDebug) return
 		printPacketStream(true, ipi.player.networkId, ipi.packet.toString())
@@ -34,7 +34,8 @@ import com.projectswg.holocore.intents.support.data.control.ShutdownServerIntent
 import com.projectswg.holocore.intents.support.global.chat.SystemMessageIntent
 import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent
 import com.projectswg.holocore.resources.support.data.control.ServerStatus
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
+import com.projectswg.holocore.utilities.TickScheduler
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import me.joshlarson.jlcommon.log.Log
@@ -43,13 +44,13 @@ import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicLong
 
 class ServerStatusService : Service() {
-	private val executor: ScheduledThreadPool = ScheduledThreadPool(1, Thread.MAX_PRIORITY, "shutdown-service")
+	private val executor = TickScheduler.group("shutdown-service")
 	private val shutdownTime: AtomicLong = AtomicLong(0)
 	private val operational: AtomicBoolean = AtomicBoolean(true)
 	private val displayedShutdown: AtomicBoolean = AtomicBoolean(false)
 
 	override fun initialize(): Boolean {
-		executor.start()
+		PacketRouter.subscribe(this, ::handleInboundPacketIntent, AdminShutdownServer::class.java)
 		return true
 	}
 
@@ -79,7 +80,6 @@ class ServerStatusService : Service() {
 		initiateShutdownSequence(ssi.time, ssi.timeUnit)
 	}
 
-	@IntentHandler
 	private fun handleInboundPacketIntent(ipi: InboundPacketIntent) {
 		if (ipi.packet is AdminShutdownServer)
 			initiateShutdownSequence(ipi.packet.shutdownTime.toLong(), TimeUnit.SECONDS)
@@ -32,10 +32,10 @@ import com.projectswg.common.network.packets.swg.zone.chat.ChatInstantMessageToC
 import com.projectswg.common.network.packets.swg.zone.chat.ChatInstantMessageToClient;
 import com.projectswg.common.network.packets.swg.zone.chat.ChatOnSendInstantMessage;
 import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent;
+import com.projectswg.holocore.resources.support.global.network.PacketRouter;
 import com.projectswg.holocore.resources.support.global.player.Player;
 import com.projectswg.holocore.resources.support.global.player.PlayerState;
 import com.projectswg.holocore.services.support.global.zone.CharacterLookupService.PlayerLookup;
-import me.joshlarson.jlcommon.control.IntentHandler;
 import me.joshlarson.jlcommon.control.Service;
 
 import java.util.Locale;
@@ -46,7 +46,12 @@ public class ChatInstantMessageService extends Service {
 		
 	}
 	
-	@IntentHandler
+	@Override
+	public boolean initialize() {
+		PacketRouter.subscribe(this, this::handleInboundPacketIntent, ChatInstantMessageToCharacter.class);
+		return super.initialize();
+	}
+	
 	private void handleInboundPacketIntent(InboundPacketIntent gpi) {
 		SWGPacket packet = gpi.getPacket();
 		if (packet instanceof ChatInstantMessageToCharacter)
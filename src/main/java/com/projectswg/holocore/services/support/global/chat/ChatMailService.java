@@ -28,6 +28,7 @@ package com.projectswg.holocore.services.support.global.chat;
 
 import com.projectswg.common.data.encodables.chat.ChatResult;
 import com.projectswg.common.data.encodables.player.Mail;
+import com.projectswg.common.network.packets.PacketType;
 import com.projectswg.common.network.packets.SWGPacket;
 import com.projectswg.common.network.packets.swg.zone.chat.*;
 import com.projectswg.holocore.ProjectSWG;
@@ -35,6 +36,7 @@ import com.projectswg.holocore.intents.support.global.chat.PersistentMessageInte
 import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent;
 import com.projectswg.holocore.intents.support.global.zone.PlayerEventIntent;
 import com.projectswg.holocore.intents.support.objects.ObjectCreatedIntent;
+import com.projectswg.holocore.resources.support.global.network.PacketRouter;
 import com.projectswg.holocore.resources.support.global.player.Player;
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent;
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject;
@@ -73,7 +75,12 @@ public class ChatMailService extends Service {
 		}
 	}
 	
-	@IntentHandler
+	@Override
+	public boolean initialize() {
+		PacketRouter.subscribe(this, this::handleInboundPacketIntent, PacketType.CHAT_PERSISTENT_MESSAGE_TO_SERVER, PacketType.CHAT_REQUEST_PERSISTENT_MESSAGE, PacketType.CHAT_DELETE_PERSISTENT_MESSAGE);
+		return super.initialize();
+	}
+	
 	private void handleInboundPacketIntent(InboundPacketIntent gpi) {
 		SWGPacket p = gpi.getPacket();
 		switch (p.getPacketType()) {
@@ -161,6 +168,7 @@ public class ChatMailService extends Service {
 			return;
 		
 		mail.setStatus(Mail.READ);
+		ghost.markDirty();
 		sendPersistentMessage(player, mail, MailFlagType.FULL_MESSAGE);
 	}
 	
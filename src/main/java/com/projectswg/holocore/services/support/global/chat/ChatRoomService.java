@@ -31,6 +31,7 @@ import com.projectswg.common.data.encodables.chat.ChatAvatar;
 import com.projectswg.common.data.encodables.chat.ChatResult;
 import com.projectswg.common.data.encodables.chat.ChatRoom;
 import com.projectswg.common.data.encodables.oob.OutOfBandPackage;
+import com.projectswg.common.network.packets.PacketType;
 import com.projectswg.common.network.packets.SWGPacket;
 import com.projectswg.common.network.packets.swg.zone.chat.*;
 import com.projectswg.common.network.packets.swg.zone.insertion.ChatRoomList;
@@ -41,6 +42,7 @@ import com.projectswg.holocore.intents.support.global.network.InboundPacketInten
 import com.projectswg.holocore.intents.support.global.zone.PlayerEventIntent;
 import com.projectswg.holocore.intents.support.global.zone.DeleteCharacterIntent;
 import com.projectswg.holocore.resources.support.global.chat.ChatRoomHandler;
+import com.projectswg.holocore.resources.support.global.network.PacketRouter;
 import com.projectswg.holocore.resources.support.global.player.AccessLevel;
 import com.projectswg.holocore.resources.support.global.player.Player;
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent;
@@ -62,6 +64,7 @@ public class ChatRoomService extends Service {
 	
 	@Override
 	public boolean initialize() {
+		PacketRouter.subscribe(this, this::handleInboundPacketIntent, PacketType.CHAT_QUERY_ROOM, PacketType.CHAT_ENTER_ROOM_BY_ID, PacketType.CHAT_REMOVE_AVATAR_FROM_ROOM, PacketType.CHAT_SEND_TO_ROOM, PacketType.CHAT_REQUEST_ROOM_LIST, PacketType.CHAT_CREATE_ROOM, PacketType.CHAT_DESTROY_ROOM, PacketType.CHAT_INVITE_AVATAR_TO_ROOM, PacketType.CHAT_UNINVITE_FROM_ROOM, PacketType.CHAT_KICK_AVATAR_FROM_ROOM, PacketType.CHAT_BAN_AVATAR_FROM_ROOM, PacketType.CHAT_UNBAN_AVATAR_FROM_ROOM, PacketType.CHAT_ADD_MODERATOR_TO_ROOM, PacketType.CHAT_REMOVE_MODERATOR_FROM_ROOM);
 		return super.initialize() && chatRoomHandler.initialize();
 	}
 
@@ -77,7 +80,6 @@ public class ChatRoomService extends Service {
 		return chatRoomHandler.terminate() && super.terminate();
 	}
 	
-	@IntentHandler
 	private void handleInboundPacketIntent(InboundPacketIntent gpi) {
 		SWGPacket packet = gpi.getPacket();
 		Player player = gpi.getPlayer();
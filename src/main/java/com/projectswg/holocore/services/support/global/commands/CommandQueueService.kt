@@ -45,6 +45,7 @@ import com.projectswg.holocore.resources.support.global.commands.CombatCommand
 import com.projectswg.holocore.resources.support.global.commands.Command
 import com.projectswg.holocore.resources.support.global.commands.Locomotion
 import com.projectswg.holocore.resources.support.global.commands.State
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
 import com.projectswg.holocore.resources.support.global.player.AccessLevel
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject
@@ -72,6 +73,7 @@ class CommandQueueService @JvmOverloads constructor(private val delayBetweenChec
 	private val coroutineScope = HolocoreCoroutine.childScope()
 
 	override fun initialize(): Boolean {
+		PacketRouter.subscribe(this, ::handleInboundPacketIntent, CommandQueueEnqueue::class.java, IntendedTarget::class.java)
 		coroutineScope.launchWithFixedRate(delayBetweenCheckingCommandQueue) { executeQueuedCommands() }
 		return true
 	}
@@ -89,7 +91,6 @@ class CommandQueueService @JvmOverloads constructor(private val delayBetweenChec
 		return super.stop() && combatCommandHandler.stop()
 	}
 
-	@IntentHandler
 	private fun handleInboundPacketIntent(gpi: InboundPacketIntent) {
 		val p = gpi.packet
 		if (p is CommandQueueEnqueue) {
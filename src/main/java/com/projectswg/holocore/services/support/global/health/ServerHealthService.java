@@ -1,8 +1,14 @@
 package com.projectswg.holocore.services.support.global.health;
 
 import com.projectswg.holocore.resources.support.data.server_info.BasicLogStream;
+import com.projectswg.holocore.resources.support.data.server_info.database.PersistenceStatistics;
 import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase;
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool;
+import com.projectswg.holocore.resources.support.global.network.PacketRouter;
+import com.projectswg.holocore.resources.support.global.network.PacketStatistics;
+import com.projectswg.holocore.services.support.objects.ObjectStorageService.PersistenceMonitor;
+import com.projectswg.holocore.utilities.TickGroup;
+import com.projectswg.holocore.utilities.TickScheduler;
+import com.projectswg.holocore.utilities.TickTaskStatistics;
 import me.joshlarson.jlcommon.control.IntentManager;
 import me.joshlarson.jlcommon.control.Service;
 import me.joshlarson.jlcommon.log.Log;
@@ -20,25 +26,37 @@ public class ServerHealthService extends Service {
 	
 	private static final String [] BINARY_SUFFIXES = new String[]{"B", "kB", "MB", "GB", "TB"};
 	
-	private final ScheduledThreadPool executor;
+	private final TickGroup executor;
 	private final BasicLogStream performanceOutput;
+	private final BasicLogStream packetOutput;
+	private final BasicLogStream schedulerOutput;
+	private final BasicLogStream persistenceOutput;
 	private final AtomicLong previousGcCollection;
 	private final AtomicLong previousGcTime;
 	private final AtomicBoolean completedInitialIntents;
 	
 	public ServerHealthService() {
-		this.executor = new ScheduledThreadPool(1, 3, "server-health-service");
+		this.executor = TickScheduler.group("server-health-service");
 		this.previousGcCollection = new AtomicLong(0);
 		this.previousGcTime = new AtomicLong(0);
 		this.completedInitialIntents = new AtomicBoolean(true);
 		
 		if (PswgDatabase.INSTANCE.getConfig().getBoolean(this, "performanceLog", false)) {
 			this.performanceOutput = new BasicLogStream(new File("log/performance.txt"));
-			executor.start();
 			performanceOutput.log("%s\t%s\t%s\t%s\t%s\t%s", "cpu", "memory-used", "memory-max", "gc-collectionRate", "gc-time", "intents");
-			executor.executeWithFixedRate(0, 1000, this::updatePerformanceLog);
+			executor.executeWithFixedRate("performance", 0, 1000, this::updatePerformanceLog);
+			this.packetOutput = new BasicLogStream(new File("log/packet_performance.txt"));
+			executor.executeWithFixedRate("packets", 60000, 60000, this::updatePacketLog);
+			this.schedulerOutput = new BasicLogStream(new File("log/scheduler_performance.txt"));
+			executor.executeWithFixedRate("scheduler", 60000, 60000, this::updateSchedulerLog);
+			this.persistenceOutput = new BasicLogStream(new File("log/persistence_performance.txt"));
+			persistenceOutput.log("%s\t%s\t%s\t%s\t%s\t%s\t%s\t%s", "queue-depth", "queue-peak", "saved", "deleted", "failed", "writes", "average-us", "max-us");
+			executor.executeWithFixedRate("persistence", 10000, 10000, this::updatePersistenceLog);
 		} else {
 			this.performanceOutput = null;
+			this.packetOutput = null;
+			this.schedulerOutput = null;
+			this.persistenceOutput = null;
 		}
 	}
 	
@@ -50,11 +68,8 @@ public class ServerHealthService extends Service {
 	
 	@Override
 	public boolean terminate() {
-		if (executor.isRunning()) {
-			executor.stop();
-			return executor.awaitTermination(1000);
-		}
-		return true;
+		executor.stop();
+		return executor.awaitTermination(1000);
 	}
 	
 	private void updatePerformanceLog() {
@@ -85,6 +100,27 @@ public class ServerHealthService extends Service {
 		performanceOutput.log("%.2f\t%.2f%s\t%.2f%s\t%d\t%d\t%d", cpu, getBinarySize(heapUsed), getBinarySuffix(heapUsed), getBinarySize(heapTotal), getBinarySuffix(heapTotal), gcCollectionRate, gcTime, intents);
 	}
 	
+	private void updatePacketLog() {
+		packetOutput.log("%s\t%s\t%s\t%s", "packet", "count", "average-us", "max-us");
+		for (PacketStatistics statistics : PacketRouter.getStatistics()) {
+			packetOutput.log("%s\t%d\t%.1f\t%.1f", statistics.getPacket(), statistics.getCount(), statistics.getAverageTime() / 1000.0, statistics.getMaxTime() / 1000.0);
+		}
+	}
+	
+	private void updateSchedulerLog() {
+		schedulerOutput.log("%s\t%s\t%s\t%s\t%s\t%s", "task", "count", "average-us", "max-us", "overruns", "skipped");
+		for (TickTaskStatistics statistics : TickScheduler.getStatistics()) {
+			schedulerOutput.log("%s\t%d\t%.1f\t%.1f\t%d\t%d", statistics.getTask(), statistics.getCount(), statistics.getAverageTime() / 1000.0, statistics.getMaxTime() / 1000.0, statistics.getOverruns(), statistics.getSkipped());
+		}
+	}
+	
+	private void updatePersistenceLog() {
+		PersistenceStatistics statistics = PersistenceMonitor.getStatistics();
+		if (statistics == null)
+			return;
+		persistenceOutput.log("%d\t%d\t%d\t%d\t%d\t%d\t%.1f\t%.1f", statistics.getQueueDepth(), statistics.getPeakQueueDepth(), statistics.getSaved(), statistics.getDeleted(), statistics.getFailed(), statistics.getWrites(), statistics.getAverageWriteTime() / 1000.0, statistics.getMaxWriteTime() / 1000.0);
+	}
+	
 	private static double getBinarySize(long count) {
 		double countDecimal = count;
 		for (String ignored : BINARY_SUFFIXES) {
@@ -28,6 +28,7 @@ package com.projectswg.holocore.services.support.global.network
 
 import com.projectswg.common.network.NetBuffer
 import com.projectswg.common.network.packets.swg.holo.HoloConnectionStopped.ConnectionStoppedReason
+import com.projectswg.common.utilities.ThreadUtilities
 import com.projectswg.holocore.ProjectSWG
 import com.projectswg.holocore.ProjectSWG.CoreException
 import com.projectswg.holocore.intents.support.global.network.CloseConnectionIntent
@@ -37,6 +38,9 @@ import com.projectswg.holocore.resources.support.global.network.NetworkClient
 import com.projectswg.holocore.resources.support.global.network.TCPServer
 import com.projectswg.holocore.resources.support.global.network.UDPServer
 import com.projectswg.holocore.resources.support.global.network.UDPServer.UDPPacket
+import com.projectswg.holocore.utilities.HolocoreCoroutine
+import com.projectswg.holocore.utilities.cancelAndWait
+import com.projectswg.holocore.utilities.launchWithFixedRate
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import me.joshlarson.jlcommon.log.Log
@@ -44,17 +48,30 @@ import java.io.IOException
 import java.net.InetAddress
 import java.net.InetSocketAddress
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 
 class NetworkClientService : Service() {
 	
 	private var tcpServer: TCPServer<NetworkClient> = TCPServer()
 	private val clients: MutableMap<Long, NetworkClient> = ConcurrentHashMap()
+	private val coroutineScope = HolocoreCoroutine.childScope()
 	private var udpServer: UDPServer
+	private var packetDispatcher: ExecutorService? = null
 	@Volatile
 	private var operational: Boolean = false
 	
 	private val bindPort: Int
 		get() = PswgDatabase.config.getInt(this, "bindPort", 44463)
+	private val flushRate: Long
+		get() = PswgDatabase.config.getInt(this, "flushRate", 10).toLong()
+	private val maxBatchSize: Int
+		get() = PswgDatabase.config.getInt(this, "maxBatchSize", NetworkClient.DEFAULT_MAX_BATCH_SIZE)
+	private val maxOutboundBytes: Long
+		get() = PswgDatabase.config.getInt(this, "maxOutboundBytes", TCPServer.DEFAULT_MAX_OUTBOUND_BYTES.toInt()).toLong()
+	private val directPacketDispatch: Boolean
+		get() = PswgDatabase.config.getBoolean(this, "directPacketDispatch", true)
 	
 	init {
 		this.operational = true
@@ -70,11 +87,19 @@ class NetworkClientService : Service() {
 	}
 	
 	override fun start(): Boolean {
-		tcpServer.bind(InetSocketAddress(bindPort), workerThreadCount = Runtime.getRuntime().availableProcessors(), backlog = 50) { remoteAddress, writer, closer ->
-			val client = NetworkClient(remoteAddress, writer, closer)
+		val maxBatchSize = maxBatchSize
+		val packetDispatcher = if (directPacketDispatch) Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), ThreadUtilities.newThreadFactory("packet-dispatch-%d")) else null
+		this.packetDispatcher = packetDispatcher
+		tcpServer.bind(InetSocketAddress(bindPort), workerThreadCount = Runtime.getRuntime().availableProcessors(), backlog = 50, maxOutboundBytes = maxOutboundBytes) { remoteAddress, writer, closer ->
+			val client = NetworkClient(remoteAddress, writer, closer, maxBatchSize, packetDispatcher)
 			clients[client.id] = client
 			client
 		}
+		// Bounds the latency of batched outbound data
+		coroutineScope.launchWithFixedRate(flushRate) {
+			for (client in clients.values)
+				client.flush()
+		}
 		return true
 	}
 	
@@ -83,13 +108,18 @@ class NetworkClientService : Service() {
 	}
 	
 	override fun stop(): Boolean {
+		coroutineScope.cancelAndWait()
+		for (client in clients.values)
+			client.flush()
 		try {
 			tcpServer.close()
 		} catch (e: IOException) {
 			Log.w("Failed to close TCP server")
 			return false
 		}
-		return true
+		val packetDispatcher = packetDispatcher ?: return true
+		packetDispatcher.shutdown()
+		return packetDispatcher.awaitTermination(1, TimeUnit.SECONDS)
 	}
 	
 	override fun terminate(): Boolean {
@@ -132,6 +162,7 @@ class NetworkClientService : Service() {
 	@IntentHandler
 	private fun handleConnectionClosedIntent(cci: ConnectionClosedIntent) {
 		disconnect(cci.player.networkId)
+		clients.remove(cci.player.networkId)
 	}
 
 }
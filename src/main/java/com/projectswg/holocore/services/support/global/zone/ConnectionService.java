@@ -26,7 +26,6 @@
 package com.projectswg.holocore.services.support.global.zone;
 
 import com.projectswg.common.network.packets.swg.zone.HeartBeat;
-import com.projectswg.common.utilities.ThreadUtilities;
 import com.projectswg.holocore.ProjectSWG;
 import com.projectswg.holocore.intents.support.global.network.CloseConnectionIntent;
 import com.projectswg.holocore.intents.support.global.network.ForceLogoutIntent;
@@ -34,35 +33,35 @@ import com.projectswg.holocore.intents.support.global.network.InboundPacketInten
 import com.projectswg.holocore.intents.support.global.zone.PlayerEventIntent;
 import com.projectswg.holocore.resources.support.data.server_info.StandardLog;
 import com.projectswg.holocore.resources.support.global.network.DisconnectReason;
+import com.projectswg.holocore.resources.support.global.network.PacketRouter;
 import com.projectswg.holocore.resources.support.global.player.Player;
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent;
 import com.projectswg.holocore.resources.support.global.player.PlayerFlags;
 import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject;
 import com.projectswg.holocore.resources.support.objects.swg.player.PlayerObject;
+import com.projectswg.holocore.utilities.TickGroup;
+import com.projectswg.holocore.utilities.TickScheduler;
 import me.joshlarson.jlcommon.control.IntentChain;
 import me.joshlarson.jlcommon.control.IntentHandler;
 import me.joshlarson.jlcommon.control.Service;
-import me.joshlarson.jlcommon.log.Log;
 
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class ConnectionService extends Service {
 	
 	private static final double DISAPPEAR_THRESHOLD = TimeUnit.MINUTES.toMillis(3); // Time after the LD
 	
-	private final ScheduledExecutorService updateService;
+	private final TickGroup updateService;
 	private final Runnable disappearRunnable;
 	private final Set <DisappearPlayer> disappearPlayers;
 	private final Set <Player> zonedInPlayers;
 	
 	public ConnectionService() {
-		updateService = Executors.newSingleThreadScheduledExecutor(ThreadUtilities.newThreadFactory("conn-update-service"));
+		updateService = TickScheduler.group("conn-update-service");
 		zonedInPlayers = ConcurrentHashMap.newKeySet();
 		disappearPlayers = ConcurrentHashMap.newKeySet();
 		disappearRunnable = () -> {
@@ -81,13 +80,8 @@ public class ConnectionService extends Service {
 	
 	@Override
 	public boolean terminate() {
-		updateService.shutdownNow();
-		boolean success = false;
-		try {
-			success = updateService.awaitTermination(5, TimeUnit.SECONDS);
-		} catch (InterruptedException e) {
-			Log.e(e);
-		}
+		updateService.stop();
+		boolean success = updateService.awaitTermination(5000);
 		return super.terminate() && success;
 	}
 	
@@ -106,7 +100,12 @@ public class ConnectionService extends Service {
 		}
 	}
 	
-	@IntentHandler
+	@Override
+	public boolean initialize() {
+		PacketRouter.subscribe(this, this::handleInboundPacketIntent, SWGPacket.class);
+		return super.initialize();
+	}
+	
 	private void handleInboundPacketIntent(InboundPacketIntent gpi) {
 		Player p = gpi.getPlayer();
 		p.updateLastPacketTimestamp();
@@ -168,7 +167,7 @@ public class ConnectionService extends Service {
 	
 	private void addToDisappear(Player p) {
 		disappearPlayers.add(new DisappearPlayer(System.nanoTime(), p));
-		updateService.schedule(disappearRunnable, (long) DISAPPEAR_THRESHOLD + 100, TimeUnit.MILLISECONDS);
+		updateService.execute((long) DISAPPEAR_THRESHOLD + 100, disappearRunnable);
 	}
 	
 	private void removeFromDisappear(Player player) {
@@ -52,6 +52,7 @@ import com.projectswg.holocore.resources.support.data.server_info.database.PswgU
 import com.projectswg.holocore.resources.support.data.server_info.database.UserMetadata;
 import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase;
 import com.projectswg.holocore.resources.support.global.network.DisconnectReason;
+import com.projectswg.holocore.resources.support.global.network.PacketRouter;
 import com.projectswg.holocore.resources.support.global.player.Player;
 import com.projectswg.holocore.resources.support.global.player.Player.PlayerServer;
 import com.projectswg.holocore.resources.support.global.player.PlayerState;
@@ -107,7 +108,12 @@ public class LoginService extends Service {
 		}
 	}
 	
-	@IntentHandler
+	@Override
+	public boolean initialize() {
+		PacketRouter.subscribe(this, this::handleInboundPacketIntent, HoloLoginRequestPacket.class, LoginClientId.class, DeleteCharacterRequest.class, LagRequest.class);
+		return super.initialize();
+	}
+	
 	private void handleInboundPacketIntent(InboundPacketIntent gpi) {
 		SWGPacket p = gpi.getPacket();
 		switch (p) {
@@ -34,6 +34,7 @@ import com.projectswg.common.network.packets.swg.zone.server_ui.SuiEventNotifica
 import com.projectswg.common.network.packets.swg.zone.server_ui.SuiForceClosePage
 import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent
 import com.projectswg.holocore.intents.support.global.zone.SuiWindowIntent
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
 import com.projectswg.holocore.resources.support.global.player.Player
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
@@ -43,7 +44,11 @@ import java.util.concurrent.ConcurrentHashMap
 class SuiService : Service() {
 	private val windows: MutableMap<Long, MutableList<SuiBaseWindow>> = ConcurrentHashMap()
 
-	@IntentHandler
+	override fun initialize(): Boolean {
+		PacketRouter.subscribe(this, ::handleInboundPacketIntent, SuiEventNotification::class.java)
+		return super.initialize()
+	}
+
 	private fun handleInboundPacketIntent(gpi: InboundPacketIntent) {
 		val packet = gpi.packet
 		if (packet is SuiEventNotification)
@@ -30,6 +30,8 @@ import com.projectswg.holocore.intents.gameplay.combat.CreatureKilledIntent
 import com.projectswg.holocore.intents.support.npc.ai.CompileNpcMovementIntent
 import com.projectswg.holocore.intents.support.npc.ai.StartNpcMovementIntent
 import com.projectswg.holocore.intents.support.npc.ai.StopNpcMovementIntent
+import com.projectswg.holocore.intents.support.objects.MoveObjectsIntent
+import com.projectswg.holocore.intents.support.objects.ObjectMove
 import com.projectswg.holocore.resources.support.npc.ai.NavigationOffset
 import com.projectswg.holocore.resources.support.npc.ai.NavigationPoint
 import com.projectswg.holocore.resources.support.npc.ai.NavigationRouteType
@@ -40,19 +42,31 @@ import com.projectswg.holocore.utilities.launchWithFixedRate
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import java.util.concurrent.ConcurrentHashMap
-import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicInteger
 import kotlin.math.cos
 import kotlin.math.sin
 
+/**
+ * Steps every NPC route once per second.  Routes are spread across the slots of a timing wheel, and each slot is
+ * processed in turn, so the moves are evenly distributed over the second rather than all landing at once.  The moves of
+ * a slot are handed to awareness as a single [MoveObjectsIntent].
+ *
+ * Looping patrols are grouped by spawner.  Every member of a group shares a slot, and the whole group waits in place
+ * while none of its members can be seen, so patrol formations never drift apart.
+ */
 class AIMovementService : Service() {
 	
 	private val routes = ConcurrentHashMap<AIObject, NavigationRoute>()
+	private val patrolGroups = ConcurrentHashMap<Any, PatrolGroup>()
+	private val wheel = Array(WHEEL_SLOTS) { ConcurrentHashMap.newKeySet<AIObject>() }
+	private val nextSlot = AtomicInteger(0)
 	private val coroutineScope = HolocoreCoroutine.childScope()
 	
 	override fun start(): Boolean {
-		coroutineScope.launchWithFixedRate(1, TimeUnit.SECONDS) {
-			routes.values.forEach { it.execute() } // TODO: put each route in its own coroutine
+		var tick = 0
+		coroutineScope.launchWithFixedRate(1000L / WHEEL_SLOTS) {
+			executeSlot(tick)
+			tick = (tick + 1) % WHEEL_SLOTS
 		}
 		return true
 	}
@@ -68,9 +82,9 @@ class AIMovementService : Service() {
 		
 		val route = NavigationPoint.from(obj.parent, obj.location, snmi.parent, snmi.destination, snmi.speed)
 		if (route.isEmpty())
-			routes.remove(obj)
+			removeRoute(obj)
 		else
-			routes[obj] = NavigationRoute(obj, route, NavigationRouteType.TERMINATE)
+			setRoute(obj, route, NavigationRouteType.TERMINATE)
 	}
 	
 	@IntentHandler
@@ -84,23 +98,92 @@ class AIMovementService : Service() {
 		}
 		
 		if (route.isEmpty())
-			routes.remove(obj)
+			removeRoute(obj)
 		else
-			routes[obj] = NavigationRoute(obj, route, snmi.type)
+			setRoute(obj, route, snmi.type)
 	}
 	
 	@IntentHandler
 	private fun handleStopNpcMovementIntent(snmi: StopNpcMovementIntent) {
-		routes.remove(snmi.obj)
+		removeRoute(snmi.obj)
 	}
 	
 	@IntentHandler
 	private fun handleCreatureKilledIntent(cki: CreatureKilledIntent) {
 		val corpse = cki.corpse
 		if (corpse is AIObject)
-			routes.remove(corpse)
+			removeRoute(corpse)
 	}
 	
+	private fun executeSlot(slot: Int) {
+		val moves = collectMoves(slot)
+		if (moves.isNotEmpty())
+			MoveObjectsIntent(moves).broadcast()
+	}
+	
+	/**
+	 * Steps every route in the slot and returns the resulting moves.  Whether a patrol group is observed is decided once
+	 * per slot, so all members of a group either move or wait together.
+	 */
+	internal fun collectMoves(slot: Int): List<ObjectMove> {
+		val moves = ArrayList<ObjectMove>()
+		val observed = HashMap<PatrolGroup, Boolean>()
+		for (obj in wheel[slot]) {
+			val route = routes[obj] ?: continue
+			val group = route.group
+			// Nobody can see this patrol, so it waits where it is until someone can
+			if (group != null && !observed.getOrPut(group) { group.isObserved() })
+				continue
+			route.execute(moves)
+		}
+		return moves
+	}
+	
+	/**
+	 * Replaces the object's route.  Looping routes take their patrol group's slot, anything else keeps the object's
+	 * previous slot if it already had a route.
+	 */
+	internal fun setRoute(obj: AIObject, route: List<NavigationPoint>, type: NavigationRouteType) {
+		routes.compute(obj) { _, previous ->
+			val group = if (type == NavigationRouteType.LOOP) joinPatrolGroup(obj) else null
+			if (previous != null) {
+				wheel[previous.slot].remove(obj)
+				if (previous.group != null && previous.group !== group)
+					leavePatrolGroup(obj, previous.group)
+			}
+			val slot = group?.slot ?: previous?.slot ?: nextSlot()
+			wheel[slot].add(obj)
+			NavigationRoute(obj, route, type, slot, group)
+		}
+	}
+	
+	internal fun removeRoute(obj: AIObject) {
+		routes.computeIfPresent(obj) { _, route ->
+			wheel[route.slot].remove(obj)
+			if (route.group != null)
+				leavePatrolGroup(obj, route.group)
+			null
+		}
+	}
+	
+	internal fun getSlot(obj: AIObject): Int? = routes[obj]?.slot
+	
+	private fun joinPatrolGroup(obj: AIObject): PatrolGroup {
+		val key: Any = obj.spawner ?: obj
+		return patrolGroups.compute(key) { _, group ->
+			(group ?: PatrolGroup(key, nextSlot())).also { it.members.add(obj) }
+		}!!
+	}
+	
+	private fun leavePatrolGroup(obj: AIObject, group: PatrolGroup) {
+		patrolGroups.computeIfPresent(group.key) { _, current ->
+			current.members.remove(obj)
+			if (current.members.isEmpty()) null else current
+		}
+	}
+	
+	private fun nextSlot(): Int = Math.floorMod(nextSlot.getAndIncrement(), WHEEL_SLOTS)
+	
 	private fun appendRoutePoint(waypoints: MutableList<NavigationPoint>, waypoint: NavigationPoint, speed: Double) {
 		val prev = if (waypoints.isEmpty()) null else waypoints[waypoints.size - 1]
 		if (waypoint.isNoOperation) {
@@ -116,11 +199,22 @@ class AIMovementService : Service() {
 		}
 	}
 	
-	private class NavigationRoute(private val obj: AIObject, private val route: List<NavigationPoint>, private val type: NavigationRouteType) {
+	/**
+	 * The NPCs of a single spawner that are patrolling together
+	 */
+	private class PatrolGroup(val key: Any, val slot: Int) {
+		
+		val members: MutableSet<AIObject> = ConcurrentHashMap.newKeySet()
+		
+		fun isObserved(): Boolean = members.any { it.observerCreatures.isNotEmpty() }
+		
+	}
+	
+	private class NavigationRoute(private val obj: AIObject, private val route: List<NavigationPoint>, private val type: NavigationRouteType, val slot: Int, val group: PatrolGroup?) {
 		
 		private val index = AtomicInteger(0)
 		
-		fun execute() {
+		fun execute(moves: MutableList<ObjectMove>) {
 			var index = this.index.getAndIncrement()
 			if (index >= route.size) {
 				when (type) {
@@ -136,12 +230,14 @@ class AIMovementService : Service() {
 			}
 			assert(index < route.size && index >= 0)
 			
-			route[index].move(obj)
+			route[index].toMove(obj)?.let(moves::add)
 		}
 	}
 	
 	companion object {
 		
+		private const val WHEEL_SLOTS = 20
+		
 		internal fun offsetLocation(point: NavigationPoint, heading: Double, offset: NavigationOffset?): NavigationPoint {
 			return if (offset == null) point else NavigationPoint.at(point.parent, offsetLocation(point.location, heading, offset), point.speed)
 		}
@@ -37,6 +37,7 @@ import com.projectswg.holocore.intents.support.objects.ObjectCreatedIntent
 import com.projectswg.holocore.resources.support.data.server_info.StandardLog
 import com.projectswg.holocore.resources.support.data.server_info.loader.ServerData
 import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase
+import com.projectswg.holocore.resources.support.global.network.PacketRouter
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent
 import com.projectswg.holocore.resources.support.npc.spawn.NPCCreator
 import com.projectswg.holocore.resources.support.npc.spawn.SpawnInfo
@@ -50,7 +51,7 @@ import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureOb
 import com.projectswg.holocore.resources.support.objects.swg.custom.AIObject
 import com.projectswg.holocore.services.support.objects.ObjectStorageService.BuildingLookup
 import com.projectswg.holocore.services.support.objects.ObjectStorageService.ObjectLookup
-import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool
+import com.projectswg.holocore.utilities.TickScheduler
 import me.joshlarson.jlcommon.control.IntentHandler
 import me.joshlarson.jlcommon.control.Service
 import me.joshlarson.jlcommon.log.Log
@@ -59,11 +60,11 @@ import java.util.stream.Collectors
 
 class SpawnerService : Service() {
 	
-	private val executor: ScheduledThreadPool = ScheduledThreadPool(1, "spawner-service")
+	private val executor = TickScheduler.group("spawner-service")
 	private val adminsWithRoutes: MutableSet<CreatureObject> = ConcurrentHashMap.newKeySet()
 	
 	override fun initialize(): Boolean {
-		executor.start()
+		PacketRouter.subscribe(this, ::handleInboundPacketIntent, IntendedTarget::class.java)
 		if (PswgDatabase.config.getBoolean(this, "spawnEggsEnabled", true))
 			loadSpawners()
 		
@@ -76,7 +77,6 @@ class SpawnerService : Service() {
 		return true
 	}
 	
-	@IntentHandler
 	private fun handleInboundPacketIntent(ipi: InboundPacketIntent) {
 		val player = ipi.player.creatureObject
 		val packet = ipi.packet
@@ -26,23 +26,23 @@
  ***********************************************************************************/
 package com.projectswg.holocore.services.support.objects;
 
-import com.projectswg.common.data.encodables.mongo.MongoData;
 import com.projectswg.common.network.packets.SWGPacket;
 import com.projectswg.common.network.packets.swg.zone.object_controller.LookAtTarget;
 import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent;
 import com.projectswg.holocore.intents.support.objects.DestroyObjectIntent;
 import com.projectswg.holocore.intents.support.objects.ObjectCreatedIntent;
-import com.projectswg.holocore.resources.support.data.persistable.SWGObjectFactory;
+import com.projectswg.holocore.resources.support.data.persistable.SavedObjectLoader;
 import com.projectswg.holocore.resources.support.data.server_info.StandardLog;
 import com.projectswg.holocore.resources.support.data.server_info.loader.BuildoutLoader;
+import com.projectswg.holocore.resources.support.data.server_info.database.ObjectPersistenceQueue;
+import com.projectswg.holocore.resources.support.data.server_info.database.PersistenceStatistics;
 import com.projectswg.holocore.resources.support.data.server_info.loader.DataLoader;
 import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase;
+import com.projectswg.holocore.resources.support.global.network.PacketRouter;
 import com.projectswg.holocore.resources.support.objects.ObjectCreator;
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject;
 import com.projectswg.holocore.resources.support.objects.swg.building.BuildingObject;
 import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject;
-import com.projectswg.holocore.resources.support.objects.swg.player.PlayerObject;
-import com.projectswg.holocore.resources.support.objects.swg.waypoint.WaypointObject;
 import me.joshlarson.jlcommon.concurrency.ScheduledThreadPool;
 import me.joshlarson.jlcommon.control.IntentHandler;
 import me.joshlarson.jlcommon.control.Service;
@@ -55,18 +55,34 @@ import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * Owns the lookup of every object in the galaxy and persists player-owned objects.  Persistence is incremental: every
+ * {@code persistenceInterval} seconds only the objects that have been marked dirty since their last successful write are
+ * saved, in bulk writes of at most {@code persistenceBatchSize} objects that are spread out across the interval.  Every
+ * persisted object is saved on shutdown.  A periodic full save, paced the same way, can be enabled as a safety net by
+ * setting {@code persistenceFullSaveInterval} to a number of minutes - it is off by default.
+ * <p>
+ * All writes go through an {@link ObjectPersistenceQueue}: object creations and deletions are queued, coalesced per
+ * object and flushed in the background every {@code persistenceQueueFlushDelay} milliseconds, and the queue is drained
+ * before shutdown completes.
+ */
 public class ObjectStorageService extends Service {
 	
 	private final ScheduledThreadPool persistenceThread;
 	private final Set<SWGObject> persistedObjects;
+	private final Set<SWGObject> scheduledSaves;
 	private final Map<Long, SWGObject> objectMap;
 	private final Map<Long, SWGObject> buildouts;
 	private final Map<String, BuildingObject> buildingLookup;
+	private ObjectPersistenceQueue persistenceQueue;
+	private int persistenceBatchSize;
 	
 	public ObjectStorageService() {
 		this.persistenceThread = new ScheduledThreadPool(1, 3, "object-storage-service");
 		this.persistedObjects = new CopyOnWriteArraySet<>();
+		this.scheduledSaves = ConcurrentHashMap.newKeySet();
 		this.objectMap = new ConcurrentHashMap<>(256*1024, 0.8f, Runtime.getRuntime().availableProcessors());
 		this.buildouts = new HashMap<>(128*1024, 1f);
 		this.buildingLookup = new HashMap<>();
@@ -74,9 +90,15 @@ public class ObjectStorageService extends Service {
 	
 	@Override
 	public boolean initialize() {
+		PacketRouter.subscribe(this, this::processGalacticPacketIntent, LookAtTarget.class);
 		ObjectLookup.setObjectAuthority(this::getObjectById);
 		BuildingLookup.setBuildingAuthority(buildingLookup::get);
 		
+		int capacity = Math.max(1, PswgDatabase.INSTANCE.getConfig().getInt(this, "persistenceQueueCapacity", ObjectPersistenceQueue.DEFAULT_CAPACITY));
+		int batchSize = Math.max(1, PswgDatabase.INSTANCE.getConfig().getInt(this, "persistenceBatchSize", ObjectPersistenceQueue.DEFAULT_BATCH_SIZE));
+		persistenceQueue = new ObjectPersistenceQueue(PswgDatabase.INSTANCE::getObjects, capacity, batchSize);
+		persistenceBatchSize = batchSize;
+		PersistenceMonitor.setStatisticsAuthority(persistenceQueue::getStatistics);
 		return initializeClientObjects() && initializeSavedObjects();
 	}
 	
@@ -84,8 +106,14 @@ public class ObjectStorageService extends Service {
 	public boolean start() {
 		buildouts.values().forEach(obj -> new ObjectCreatedIntent(obj).broadcast());
 		
+		long interval = TimeUnit.SECONDS.toMillis(PswgDatabase.INSTANCE.getConfig().getInt(this, "persistenceInterval", 15));
+		long fullSaveInterval = TimeUnit.MINUTES.toMillis(PswgDatabase.INSTANCE.getConfig().getInt(this, "persistenceFullSaveInterval", 0));
+		long flushDelay = Math.max(1, PswgDatabase.INSTANCE.getConfig().getInt(this, "persistenceQueueFlushDelay", 250));
 		persistenceThread.start();
-		persistenceThread.executeWithFixedDelay(TimeUnit.MINUTES.toMillis(5), TimeUnit.MINUTES.toMillis(5), this::saveObjects);
+		persistenceThread.executeWithFixedDelay(flushDelay, flushDelay, persistenceQueue::flush);
+		persistenceThread.executeWithFixedDelay(interval, interval, () -> saveObjects(false, interval));
+		if (fullSaveInterval > 0)
+			persistenceThread.executeWithFixedDelay(fullSaveInterval, fullSaveInterval, () -> saveObjects(true, fullSaveInterval));
 		return true;
 	}
 	
@@ -98,50 +126,29 @@ public class ObjectStorageService extends Service {
 	@Override
 	public boolean terminate() {
 		ObjectLookup.setObjectAuthority(null);
-		saveObjects();
-		return true;
+		PersistenceMonitor.setStatisticsAuthority(null);
+		scheduledSaves.clear(); // the persistence thread is stopped, so these batches will never run
+		saveObjects(true, 0);
+		return persistenceQueue.close();
 	}
 	
 	private boolean initializeSavedObjects() {
 		long startTime = StandardLog.onStartLoad("server objects");
-		List<MongoData> objectDocuments = PswgDatabase.INSTANCE.getObjects().getObjects();
-		Map<Long, SWGObject> objects = new HashMap<>();
-		for (MongoData doc : objectDocuments) {
-			SWGObject obj = SWGObjectFactory.INSTANCE.create(doc);
-			objects.put(obj.getObjectId(), obj);
-			if (obj instanceof PlayerObject) {
-				for (WaypointObject waypoint : ((PlayerObject) obj).getWaypoints().values()) {
-					objects.put(waypoint.getObjectId(), waypoint);
-				}
-			}
-		}
-		for (MongoData doc : objectDocuments) {
-			long id = doc.getLong("id", 0);
-			long parentId = doc.getLong("parent", 0);
-			int cellNumber = doc.getInteger("parentCell", 0);
-			assert id != 0;
-			
-			SWGObject obj = objects.get(id);
-			if (parentId != 0) {
-				SWGObject parent = objects.get(parentId);
-				if (parent == null)
-					parent = objectMap.get(parentId);
-				
-				if (parent instanceof BuildingObject) {
-					if (cellNumber != 0)
-						obj.moveToContainer(((BuildingObject) parent).getCellByNumber(cellNumber));
-				} else {
-					obj.moveToContainer(parent);
-				}
-			}
-			objects.put(obj.getObjectId(), obj);
+		int threads = PswgDatabase.INSTANCE.getConfig().getInt(this, "objectLoadThreads", 0);
+		if (threads <= 0)
+			threads = Runtime.getRuntime().availableProcessors(); // 0 = one per processor
+		int batchSize = Math.max(1, PswgDatabase.INSTANCE.getConfig().getInt(this, "objectLoadBatchSize", 1000));
+		SavedObjectLoader loader = new SavedObjectLoader(PswgDatabase.INSTANCE.getObjects(), threads, batchSize);
+		Map<Long, SWGObject> objects = loader.load(objectMap::get);
+		for (SWGObject obj : objects.values()) {
 			if (obj.isPersisted())
 				persistedObjects.add(obj);
+			obj.markSaved(obj.getModificationCount()); // Loading isn't a modification
+			obj.markStored();
+			ObjectCreator.updateMaxObjectId(obj.getObjectId());
 		}
-		
-		objects.values().forEach(obj -> ObjectCreator.updateMaxObjectId(obj.getObjectId()));
-		objects.values().forEach(obj -> new ObjectCreatedIntent(obj).broadcast());
 		this.objectMap.putAll(objects);
+		objects.values().forEach(obj -> new ObjectCreatedIntent(obj).broadcast());
 		// TODO: Clear unreferenced objects from database
 		StandardLog.onEndLoad(objects.size(), "server objects", startTime);
 		return true;
@@ -157,18 +164,54 @@ public class ObjectStorageService extends Service {
 		return true;
 	}
 	
-	private void saveObjects() {
+	/**
+	 * Saves either every persisted object, or only those that are dirty, in batches.  The first batch is written
+	 * immediately and the rest are scheduled evenly across {@code spreadMillis}, so a large save doesn't hit the database
+	 * all at once.  Objects that are still waiting in a scheduled batch are left to that batch, and a batch only writes
+	 * the objects that are still in the object map by the time it runs.
+	 * @param all TRUE to save every persisted object, FALSE to only save dirty objects
+	 * @param spreadMillis the time to spread the batches across, or 0 to write everything on the calling thread
+	 */
+	private void saveObjects(boolean all, long spreadMillis) {
 		List<SWGObject> saveList = new ArrayList<>();
-		persistedObjects.forEach(obj -> saveChildren(saveList, obj));
-		PswgDatabase.INSTANCE.getObjects().addObjects(saveList);
+		persistedObjects.forEach(obj -> saveChildren(saveList, obj, all));
+		if (saveList.isEmpty())
+			return;
+		
+		int batches = (saveList.size() + persistenceBatchSize - 1) / persistenceBatchSize;
+		if (spreadMillis <= 0 || batches <= 1) {
+			long startTime = System.nanoTime();
+			int saved = persistenceQueue.saveNow(saveList);
+			Log.d("Persisted %d/%d %s objects in %.3fms", saved, saveList.size(), all ? "total" : "dirty", (System.nanoTime() - startTime) / 1E6);
+			return;
+		}
+		
+		long spacing = spreadMillis / batches;
+		Log.d("Persisting %d %s objects in %d batches over %dms", saveList.size(), all ? "total" : "dirty", batches, spacing * batches);
+		for (int i = 0; i < batches; i++) {
+			List<SWGObject> batch = new ArrayList<>(saveList.subList(i * persistenceBatchSize, Math.min((i + 1) * persistenceBatchSize, saveList.size())));
+			if (i == 0) {
+				persistenceQueue.saveNow(batch);
+			} else {
+				scheduledSaves.addAll(batch);
+				persistenceThread.execute(i * spacing, () -> saveScheduledBatch(batch));
+			}
+		}
+	}
+	
+	private void saveScheduledBatch(List<SWGObject> batch) {
+		batch.forEach(scheduledSaves::remove);
+		batch.removeIf(obj -> objectMap.get(obj.getObjectId()) != obj);
+		persistenceQueue.saveNow(batch);
 	}
 	
-	private void saveChildren(Collection<SWGObject> saveList, @Nullable SWGObject obj) {
+	private void saveChildren(Collection<SWGObject> saveList, @Nullable SWGObject obj, boolean all) {
 		if (obj == null)
 			return;
-		saveList.add(obj);
+		if ((all || obj.isDirty()) && !scheduledSaves.contains(obj))
+			saveList.add(obj);
 		
-		obj.getChildObjects().forEach(child -> saveChildren(saveList, child));
+		obj.getChildObjects().forEach(child -> saveChildren(saveList, child, all));
 	}
 	
 	@IntentHandler
@@ -180,8 +223,8 @@ public class ObjectStorageService extends Service {
 		if (obj.isPersisted()) {
 			if (persistedObjects.add(obj)) {
 				List<SWGObject> saveList = new ArrayList<>();
-				saveChildren(saveList, obj);
-				PswgDatabase.INSTANCE.getObjects().addObjects(saveList);
+				saveChildren(saveList, obj, true);
+				saveList.forEach(persistenceQueue::save);
 			}
 		}
 	}
@@ -192,7 +235,6 @@ public class ObjectStorageService extends Service {
 		destroyObject(obj);
 	}
 	
-	@IntentHandler
 	private void processGalacticPacketIntent(InboundPacketIntent gpi) {
 		SWGPacket packet = gpi.getPacket();
 		if (packet instanceof LookAtTarget lookAtTarget) {
@@ -219,7 +261,7 @@ public class ObjectStorageService extends Service {
 		}
 		if (object.isPersisted())
 			persistedObjects.remove(object);
-		PswgDatabase.INSTANCE.getObjects().removeObject(object.getObjectId());
+		persistenceQueue.delete(object);
 		objectMap.remove(object.getObjectId());
 	}
 	
@@ -252,6 +294,25 @@ public class ObjectStorageService extends Service {
 		
 	}
 	
+	public static class PersistenceMonitor {
+		
+		private static final AtomicReference<Supplier<PersistenceStatistics>> AUTHORITY = new AtomicReference<>(null);
+		
+		static void setStatisticsAuthority(Supplier<PersistenceStatistics> authority) {
+			AUTHORITY.set(authority);
+		}
+		
+		/**
+		 * Returns the persistence queue depth and write counters, or null if the object storage service isn't running
+		 */
+		@Nullable
+		public static PersistenceStatistics getStatistics() {
+			Supplier<PersistenceStatistics> authority = AUTHORITY.get();
+			return authority == null ? null : authority.get();
+		}
+		
+	}
+	
 	public static class BuildingLookup {
 		
 		private static final AtomicReference<Function<String, BuildingObject>> AUTHORITY = new AtomicReference<>(null);
@@ -39,11 +39,15 @@ import com.projectswg.holocore.intents.support.global.zone.PlayerTransformedInte
 import com.projectswg.holocore.intents.support.global.zone.RequestZoneInIntent;
 import com.projectswg.holocore.intents.support.objects.*;
 import com.projectswg.holocore.resources.support.data.server_info.StandardLog;
+import com.projectswg.holocore.resources.support.data.server_info.database.PswgConfigDatabase;
+import com.projectswg.holocore.resources.support.data.server_info.mongodb.PswgDatabase;
 import com.projectswg.holocore.resources.support.global.network.DisconnectReason;
 import com.projectswg.holocore.resources.support.global.player.Player;
 import com.projectswg.holocore.resources.support.global.player.PlayerEvent;
 import com.projectswg.holocore.resources.support.global.player.PlayerState;
+import com.projectswg.holocore.resources.support.objects.awareness.MovementInterest;
 import com.projectswg.holocore.resources.support.objects.awareness.ObjectAwareness;
+import com.projectswg.holocore.resources.support.objects.awareness.TerrainMap;
 import com.projectswg.holocore.resources.support.objects.swg.SWGObject;
 import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureObject;
 import me.joshlarson.jlcommon.control.Intent;
@@ -59,24 +63,34 @@ public class AwarenessService extends Service {
 	private static final Location GONE_LOCATION = Location.builder().setTerrain(Terrain.GONE).setPosition(0, 0, 0).build();
 	
 	private final ObjectAwareness awareness;
+	private final MovementInterest movementInterest;
 	
 	public AwarenessService() {
-		this.awareness = new ObjectAwareness();
+		this(100L);
 	}
 	
 	public AwarenessService(long updateRateMilliseconds) {
-		this.awareness = new ObjectAwareness(updateRateMilliseconds);
+		PswgConfigDatabase config = PswgDatabase.INSTANCE.getConfig();
+		boolean parallelUpdate = config.getBoolean(this, "awarenessParallelUpdate", false);
+		this.awareness = new ObjectAwareness(updateRateMilliseconds, AwarenessService::createTerrainMap, parallelUpdate);
+		this.movementInterest = new MovementInterest(
+				config.getDouble(this, "movementNearRange", MovementInterest.DEFAULT_NEAR_RANGE),
+				config.getDouble(this, "movementMidRange", MovementInterest.DEFAULT_MID_RANGE),
+				config.getInt(this, "movementMidInterval", (int) MovementInterest.DEFAULT_MID_INTERVAL),
+				config.getInt(this, "movementFarInterval", (int) MovementInterest.DEFAULT_FAR_INTERVAL));
 	}
 	
 	@Override
 	public boolean start() {
 		awareness.startThreadPool();
+		movementInterest.start();
 		return super.start();
 	}
 	
 	@Override
 	public boolean stop() {
 		awareness.stopThreadPool();
+		movementInterest.stop();
 		return super.stop();
 	}
 	
@@ -137,7 +151,7 @@ public class AwarenessService extends Service {
 			obj.sendSelf(new DataTransform(obj.getObjectId(), obj.getNextUpdateCount(), newWorldLocation, 0));
 		}
 		awareness.updateObject(obj);
-		sendObjectUpdates(obj, oti.getOldParent(), oti.getNewParent(), oldLocation, newLocation, 0);
+		sendObjectUpdates(obj, oti.getOldParent(), oti.getNewParent(), oldLocation, newLocation, 0, false);
 		if (obj instanceof CreatureObject)
 			((CreatureObject) obj).setTeleportDestination(newParent, newLocation);
 	}
@@ -147,6 +161,13 @@ public class AwarenessService extends Service {
 		moveObjectWithTransform(moi.getObj(), moi.getParent(), moi.getNewLocation(), moi.getSpeed());
 	}
 	
+	@IntentHandler
+	private void handleMoveObjectsIntent(MoveObjectsIntent moi) {
+		for (ObjectMove move : moi.getMoves()) {
+			moveObjectWithTransform(move.getObj(), move.getParent(), move.getNewLocation(), move.getSpeed());
+		}
+	}
+	
 	@IntentHandler
 	private void handleContainerTransferIntent(ContainerTransferIntent cti) {
 		@NotNull SWGObject obj = cti.getObj();
@@ -154,7 +175,7 @@ public class AwarenessService extends Service {
 		@Nullable SWGObject newContainer = cti.getContainer();
 		
 		awareness.updateObject(cti.getObj());
-		sendObjectUpdates(obj, oldContainer, newContainer, obj.getLocation(), obj.getLocation(), 0);
+		sendObjectUpdates(obj, oldContainer, newContainer, obj.getLocation(), obj.getLocation(), 0, false);
 	}
 	
 	@IntentHandler
@@ -186,7 +207,7 @@ public class AwarenessService extends Service {
 		creature.clearDeltas();
 		startZone(player, creature, firstZone);
 		awareness.updateObject(creature);
-		sendObjectUpdates(creature, oldParent, parent, oldLocation, loc, 0);
+		sendObjectUpdates(creature, oldParent, parent, oldLocation, loc, 0, false);
 	}
 	
 	private void startZone(Player player, CreatureObject creature, boolean firstZone) {
@@ -213,7 +234,16 @@ public class AwarenessService extends Service {
 		
 		obj.systemMove(parent, requestedLocation);
 		awareness.updateObject(obj);
-		sendObjectUpdates(obj, oldParent, parent, oldLocation, requestedLocation, speed);
+		sendObjectUpdates(obj, oldParent, parent, oldLocation, requestedLocation, speed, true);
+	}
+	
+	private static TerrainMap createTerrainMap(Terrain terrain) {
+		PswgConfigDatabase config = PswgDatabase.INSTANCE.getConfig();
+		int cellSize = config.getInt(AwarenessService.class, "awarenessCellSize", TerrainMap.DEFAULT_CELL_SIZE);
+		int structureRange = config.getInt(AwarenessService.class, "awarenessStructureRange", TerrainMap.DEFAULT_STRUCTURE_RANGE);
+		cellSize = config.getInt(AwarenessService.class, "awarenessCellSize_" + terrain.getName(), cellSize);
+		structureRange = config.getInt(AwarenessService.class, "awarenessStructureRange_" + terrain.getName(), structureRange);
+		return new TerrainMap(cellSize, structureRange);
 	}
 	
 	private static boolean isPlayerZoneInRequired(@NotNull SWGObject obj, @NotNull Location oldLocation, @NotNull Location newLocation) {
@@ -224,12 +254,16 @@ public class AwarenessService extends Service {
 		return !oldLocation.getTerrain().getFile().equals(newLocation.getTerrain().getFile());
 	}
 	
-	private void sendObjectUpdates(@NotNull SWGObject obj, @Nullable SWGObject oldParent, @Nullable SWGObject newParent, @NotNull Location oldLocation, @NotNull Location newLocation, double speed) {
-		onObjectMoved(obj, oldParent, newParent, oldLocation, newLocation, speed);
+	/**
+	 * @param tiered TRUE if this is routine movement whose updates may be thinned out for distant observers, FALSE if every
+	 *               observer must see it immediately (e.g. teleports and container transfers)
+	 */
+	private void sendObjectUpdates(@NotNull SWGObject obj, @Nullable SWGObject oldParent, @Nullable SWGObject newParent, @NotNull Location oldLocation, @NotNull Location newLocation, double speed, boolean tiered) {
+		onObjectMoved(obj, oldParent, newParent, oldLocation, newLocation, speed, tiered);
 		obj.onObjectMoved();
 	}
 	
-	private static void onObjectMoved(@NotNull SWGObject obj, @Nullable SWGObject oldParent, @Nullable SWGObject newParent, @NotNull Location oldLocation, @NotNull Location newLocation, double speed) {
+	private void onObjectMoved(@NotNull SWGObject obj, @Nullable SWGObject oldParent, @Nullable SWGObject newParent, @NotNull Location oldLocation, @NotNull Location newLocation, double speed, boolean tiered) {
 		if (obj instanceof CreatureObject && ((CreatureObject) obj).isLoggedInPlayer())
 			new PlayerTransformedIntent((CreatureObject) obj, oldParent, newParent, oldLocation, newLocation).broadcast();
 		else if (obj.getObserverCreatures().isEmpty())
@@ -238,11 +272,13 @@ public class AwarenessService extends Service {
 		if (newParent != null) {
 			onObjectMovedInParent(obj, oldParent, newParent, oldLocation, newLocation, speed);
 		} else {
-			onObjectMovedInWorld(obj, oldParent, oldLocation, newLocation, speed);
+			onObjectMovedInWorld(obj, oldParent, oldLocation, newLocation, speed, tiered);
 		}
 	}
 	
-	private static void onObjectMovedInParent(@NotNull SWGObject obj, @Nullable SWGObject oldParent, @NotNull SWGObject newParent, @NotNull Location oldLocation, @NotNull Location newLocation, double speed) {
+	private void onObjectMovedInParent(@NotNull SWGObject obj, @Nullable SWGObject oldParent, @NotNull SWGObject newParent, @NotNull Location oldLocation, @NotNull Location newLocation, double speed) {
+		// A world transform still held for a distant observer would place the object back outside its new parent
+		movementInterest.discard(obj);
 		if (oldParent != newParent)
 			obj.sendObservers(new UpdateContainmentMessage(obj.getObjectId(), newParent.getObjectId(), obj.getSlotArrangement()));
 		
@@ -255,14 +291,20 @@ public class AwarenessService extends Service {
 		}
 	}
 	
-	private static void onObjectMovedInWorld(@NotNull SWGObject obj, @Nullable SWGObject oldParent, @NotNull Location oldLocation, @NotNull Location newLocation, double speed) {
+	private void onObjectMovedInWorld(@NotNull SWGObject obj, @Nullable SWGObject oldParent, @NotNull Location oldLocation, @NotNull Location newLocation, double speed, boolean tiered) {
 		int counter = obj.getNextUpdateCount();
 		
 		if (oldParent != null)
 			obj.sendObservers(new UpdateContainmentMessage(obj.getObjectId(), 0, obj.getSlotArrangement()));
 		
-		if (!oldLocation.equals(newLocation))
-			obj.sendObservers(new UpdateTransformMessage(obj.getObjectId(), counter, newLocation, (byte) speed));
+		if (oldLocation.equals(newLocation))
+			return;
+		UpdateTransformMessage update = new UpdateTransformMessage(obj.getObjectId(), counter, newLocation, (byte) speed);
+		// Leaving a container is always sent in full, as observers need the containment and transform together
+		if (tiered && oldParent == null)
+			movementInterest.sendUpdate(obj, update);
+		else
+			movementInterest.sendUpdateToAll(obj, update);
 	}
 	
 }
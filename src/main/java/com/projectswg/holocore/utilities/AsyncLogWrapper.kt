@@ -0,0 +1,235 @@
+/***********************************************************************************
+ * Copyright (c) 2026 /// Project SWG /// www.projectswg.com                       *
+ * *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ * *
+ * This file is part of Holocore.                                                  *
+ * *
+ * --------------------------------------------------------------------------------*
+ * *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ * *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ * *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http:></http:>//www.gnu.org/licenses/>.               *
+ */
+package com.projectswg.holocore.utilities
+
+import me.joshlarson.jlcommon.log.Log
+import me.joshlarson.jlcommon.log.LogWrapper
+import java.io.BufferedWriter
+import java.io.File
+import java.io.FileWriter
+import java.io.IOException
+import java.time.Instant
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Hands every log line to a bounded ring buffer and delivers it to the wrapped [LogWrapper]s from a single writer
+ * thread, so the thread that logged never waits on the console or the disk.  Lines below WARN may only fill the buffer
+ * up to the last [capacity] / 8 slots; past that they are dropped and counted instead of blocking, and the writer reports
+ * the number of dropped lines once it catches up.  WARN and above may use the reserved slots and are never dropped - if
+ * even those are full, the logging thread waits for the writer.
+ *
+ * If a [structuredOutput] is given, every line is also written there as a JSON object per line.
+ */
+class AsyncLogWrapper @JvmOverloads constructor(
+	private val level: Log.LogLevel,
+	private val delegates: List<LogWrapper>,
+	private val structuredOutput: File? = null,
+	capacity: Int = 16384
+) : LogWrapper {
+
+	private val buffer = ArrayBlockingQueue<LogRecord>(capacity)
+	private val reserved = maxOf(1, capacity / 8)
+	private val dropped = AtomicLong(0)
+	private val running = AtomicBoolean(true)
+	private val writer = Thread(this::runWriter, "log-writer")
+	private val structuredWriter = structuredOutput?.let { openStructuredOutput(it) }
+
+	init {
+		writer.isDaemon = true
+		writer.start()
+	}
+
+	override fun onLog(level: Log.LogLevel, str: String) {
+		if (level < this.level)
+			return
+		val record = LogRecord(level, str, System.currentTimeMillis(), Thread.currentThread().name)
+		if (!running.get()) {
+			// Shutting down - there's no writer left to hand this to
+			synchronized(writer) {
+				deliver(record)
+			}
+			return
+		}
+		if (level >= Log.LogLevel.WARN) {
+			enqueueImportant(record)
+		} else if (buffer.remainingCapacity() <= reserved || !buffer.offer(record)) {
+			dropped.incrementAndGet()
+		}
+		if (!running.get()) {
+			// Raced with close() - make sure the line isn't left behind in the buffer
+			synchronized(writer) {
+				drain(ArrayList())
+			}
+		}
+	}
+
+	private fun enqueueImportant(record: LogRecord) {
+		try {
+			while (!buffer.offer(record, 100, TimeUnit.MILLISECONDS)) {
+				if (!running.get()) {
+					synchronized(writer) {
+						drain(ArrayList())
+						deliver(record)
+					}
+					return
+				}
+			}
+		} catch (e: InterruptedException) {
+			Thread.currentThread().interrupt()
+			synchronized(writer) {
+				deliver(record)
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting new lines into the buffer, waits for everything already buffered to be written and closes the
+	 * structured output.  Lines logged afterwards are written directly by the calling thread.
+	 */
+	fun close() {
+		if (!running.getAndSet(false))
+			return
+		try {
+			writer.join(TimeUnit.SECONDS.toMillis(5))
+		} catch (e: InterruptedException) {
+			Thread.currentThread().interrupt()
+		}
+		synchronized(writer) {
+			drain(ArrayList())
+			try {
+				structuredWriter?.close()
+			} catch (e: IOException) {
+				System.err.println("Failed to close structured log: " + e.message)
+			}
+		}
+	}
+
+	private fun runWriter() {
+		val batch = ArrayList<LogRecord>(256)
+		while (running.get() || buffer.isNotEmpty()) {
+			try {
+				val first = buffer.poll(100, TimeUnit.MILLISECONDS) ?: continue
+				synchronized(writer) {
+					batch.add(first)
+					drain(batch)
+				}
+			} catch (e: InterruptedException) {
+				break
+			}
+		}
+	}
+
+	private fun drain(batch: MutableList<LogRecord>) {
+		buffer.drainTo(batch)
+		for (record in batch)
+			deliver(record)
+		batch.clear()
+
+		val droppedCount = dropped.getAndSet(0)
+		if (droppedCount > 0)
+			deliver(LogRecord(Log.LogLevel.WARN, "Log buffer overflowed - dropped $droppedCount lines", System.currentTimeMillis(), writer.name))
+		flushStructuredOutput()
+	}
+
+	private fun deliver(record: LogRecord) {
+		for (delegate in delegates) {
+			try {
+				delegate.onLog(record.level, record.str)
+			} catch (t: Throwable) {
+				System.err.println("Failed to write log line: " + t.message)
+			}
+		}
+		writeStructured(record)
+	}
+
+	private fun writeStructured(record: LogRecord) {
+		val structuredWriter = this.structuredWriter ?: return
+		val message = record.str.substringAfter(": ")
+		val json = StringBuilder(message.length + 96)
+		json.append("{\"time\":\"").append(Instant.ofEpochMilli(record.time)).append('"')
+		json.append(",\"level\":\"").append(record.level.name).append('"')
+		json.append(",\"thread\":")
+		appendJsonString(json, record.thread)
+		if (message.startsWith('[') && message.indexOf(']') > 1) {
+			// StandardLog prefixes every player event with the logging service
+			json.append(",\"service\":")
+			appendJsonString(json, message.substring(1, message.indexOf(']')))
+		}
+		json.append(",\"message\":")
+		appendJsonString(json, message)
+		json.append('}')
+		try {
+			structuredWriter.write(json.toString())
+			structuredWriter.newLine()
+		} catch (e: IOException) {
+			System.err.println("Failed to write structured log: " + e.message)
+		}
+	}
+
+	private fun flushStructuredOutput() {
+		try {
+			structuredWriter?.flush()
+		} catch (e: IOException) {
+			System.err.println("Failed to flush structured log: " + e.message)
+		}
+	}
+
+	private class LogRecord(val level: Log.LogLevel, val str: String, val time: Long, val thread: String)
+
+	companion object {
+
+		private fun openStructuredOutput(file: File): BufferedWriter? {
+			return try {
+				BufferedWriter(FileWriter(file, true))
+			} catch (e: IOException) {
+				System.err.println("Failed to open structured log " + file + ": " + e.message)
+				null
+			}
+		}
+
+		private fun appendJsonString(json: StringBuilder, str: String) {
+			json.append('"')
+			for (c in str) {
+				when {
+					c == '"'  -> json.append("\\\"")
+					c == '\\' -> json.append("\\\\")
+					c == '\n' -> json.append("\\n")
+					c == '\r' -> json.append("\\r")
+					c == '\t' -> json.append("\\t")
+					c < ' '   -> json.append(String.format("\\u%04x", c.code))
+					else      -> json.append(c)
+				}
+			}
+			json.append('"')
+		}
+
+	}
+
+}
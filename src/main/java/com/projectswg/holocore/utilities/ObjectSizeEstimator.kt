@@ -0,0 +1,166 @@
+/***********************************************************************************
+ * Copyright (c) 2025 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is an emulation project for Star Wars Galaxies founded on            *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create one or more emulators which will provide servers for      *
+ * players to continue playing a game similar to the one they used to play.        *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.utilities
+
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import java.util.*
+
+/**
+ * Estimates the heap retained by an object graph by walking it, assuming a 64-bit JVM with compressed references: 12
+ * byte object headers, 4 byte references and 8 byte alignment.  The internals of JDK and Kotlin classes can't be read
+ * reflectively, so strings, collections and maps are measured through their public API from the typical layout of the
+ * common implementations.  The result is an estimate for comparing data sets, not an exact measurement.
+ *
+ * Enum constants and classes are never counted, and [boundary] can exclude further objects, such as those owned by
+ * something else.  An estimator remembers what it has already counted, so shared objects are only counted once across
+ * every call to [estimate].
+ */
+class ObjectSizeEstimator @JvmOverloads constructor(private val boundary: (Any) -> Boolean = { false }) {
+	
+	private val visited: MutableSet<Any> = Collections.newSetFromMap(IdentityHashMap())
+	private val pending = ArrayDeque<Any>()
+	private val layouts = HashMap<Class<*>, ClassLayout>()
+	
+	fun estimate(root: Any): Long {
+		var total = 0L
+		if (visited.add(root))
+			pending.add(root)
+		while (pending.isNotEmpty())
+			total += sizeOf(pending.removeLast())
+		return total
+	}
+	
+	private fun push(obj: Any?) {
+		if (obj == null || obj is Enum<*> || obj is Class<*> || boundary(obj))
+			return
+		if (visited.add(obj))
+			pending.add(obj)
+	}
+	
+	private fun sizeOf(obj: Any): Long {
+		val type = obj.javaClass
+		return when {
+			type.isArray -> arraySize(obj)
+			obj is String -> align(HEADER + 12) + align(ARRAY_HEADER + obj.length.toLong())
+			obj is Map<*, *> -> {
+				for ((key, value) in obj) {
+					push(key)
+					push(value)
+				}
+				hashTableSize(obj.size)
+			}
+			obj is Set<*> -> {
+				obj.forEach(::push)
+				align(HEADER + REFERENCE) + hashTableSize(obj.size)
+			}
+			obj is Collection<*> -> {
+				obj.forEach(::push)
+				align(HEADER + 8 + REFERENCE) + align(ARRAY_HEADER + obj.size * REFERENCE)
+			}
+			isPlatformClass(type) -> align(HEADER + 8) // boxed primitives, and anything else opaque
+			else -> {
+				val layout = layouts.computeIfAbsent(type, ::ClassLayout)
+				for (field in layout.references)
+					push(field.get(obj))
+				layout.shallowSize
+			}
+		}
+	}
+	
+	private fun arraySize(array: Any): Long {
+		return when (array) {
+			is BooleanArray -> align(ARRAY_HEADER + array.size)
+			is ByteArray -> align(ARRAY_HEADER + array.size)
+			is CharArray -> align(ARRAY_HEADER + array.size * 2L)
+			is ShortArray -> align(ARRAY_HEADER + array.size * 2L)
+			is IntArray -> align(ARRAY_HEADER + array.size * 4L)
+			is FloatArray -> align(ARRAY_HEADER + array.size * 4L)
+			is LongArray -> align(ARRAY_HEADER + array.size * 8L)
+			is DoubleArray -> align(ARRAY_HEADER + array.size * 8L)
+			else -> {
+				val elements = array as Array<*>
+				elements.forEach(::push)
+				align(ARRAY_HEADER + elements.size * REFERENCE)
+			}
+		}
+	}
+	
+	/** The map object, its bucket array at the default load factor, and one node per entry */
+	private fun hashTableSize(size: Int): Long {
+		var buckets = 16L
+		while (buckets * 3 / 4 < size)
+			buckets *= 2
+		return align(HEADER + 36) + align(ARRAY_HEADER + buckets * REFERENCE) + size * align(HEADER + 4 + 3 * REFERENCE)
+	}
+	
+	private class ClassLayout(type: Class<*>) {
+		
+		val references: List<Field>
+		val shallowSize: Long
+		
+		init {
+			val references = ArrayList<Field>()
+			var size = HEADER
+			var current: Class<*>? = type
+			while (current != null && current != Any::class.java) {
+				for (field in current.declaredFields) {
+					if (Modifier.isStatic(field.modifiers))
+						continue
+					size += when (field.type) {
+						java.lang.Long.TYPE, java.lang.Double.TYPE -> 8
+						java.lang.Integer.TYPE, java.lang.Float.TYPE -> 4
+						java.lang.Short.TYPE, java.lang.Character.TYPE -> 2
+						java.lang.Byte.TYPE, java.lang.Boolean.TYPE -> 1
+						else -> REFERENCE
+					}
+					if (!field.type.isPrimitive && field.trySetAccessible())
+						references.add(field)
+				}
+				current = current.superclass
+			}
+			this.references = references
+			this.shallowSize = align(size)
+		}
+		
+	}
+	
+	companion object {
+		
+		private const val HEADER = 12L
+		private const val ARRAY_HEADER = 16L
+		private const val REFERENCE = 4L
+		
+		private fun align(size: Long): Long = (size + 7) and 7L.inv()
+		
+		private fun isPlatformClass(type: Class<*>): Boolean {
+			val name = type.name
+			return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.") || name.startsWith("sun.") || name.startsWith("kotlin.")
+		}
+		
+	}
+	
+}
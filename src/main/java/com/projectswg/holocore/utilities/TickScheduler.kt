@@ -0,0 +1,447 @@
+/***********************************************************************************
+ * Copyright (c) 2025 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is an emulation project for Star Wars Galaxies founded on            *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create one or more emulators which will provide servers for      *
+ * players to continue playing a game similar to the one they used to play.        *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.utilities
+
+import com.projectswg.common.utilities.ThreadUtilities
+import me.joshlarson.jlcommon.log.Log
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+import java.util.concurrent.locks.LockSupport
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+import kotlin.math.max
+
+/**
+ * A single hierarchical timing wheel that every service schedules its delayed and periodic work on, instead of each
+ * service owning a mostly idle thread pool.  One timer thread advances the wheel every [TICK_MILLIS] milliseconds and
+ * hands expired tasks to a small shared worker pool.
+ *
+ * Services schedule through a [TickGroup], which runs its tasks one at a time in the order they expired - the same
+ * guarantee the single-threaded pool it replaces gave them.  Periodic tasks have their first run spread across their
+ * period so that services using the same period don't all wake up on the same tick.
+ */
+object TickScheduler {
+
+	internal const val TICK_MILLIS = 10L
+	private const val WHEEL_BITS = 6
+	private const val WHEEL_SIZE = 1 shl WHEEL_BITS
+	private const val WHEEL_MASK = WHEEL_SIZE - 1L
+	private const val LEVELS = 4
+	private const val MAX_DELAY_TICKS = (1L shl (WHEEL_BITS * LEVELS)) - 1
+	private const val PHASE_RATIO = 0.6180339887498949
+
+	private val lock = ReentrantLock()
+	private val wakeup = lock.newCondition()
+	private val wheel = Array(LEVELS) { Array(WHEEL_SIZE) { ArrayList<TickTask>() } }
+	private val statistics = ConcurrentHashMap<String, TickTaskCounter>()
+	private val phaseCounter = AtomicLong(0)
+	private var startTime = 0L
+	private var currentTick = 0L
+	private var taskCount = 0
+	private var timerThread: Thread? = null
+	private var workers: ExecutorService? = null
+
+	/**
+	 * Creates a new group of tasks.  The name is used as the prefix for the statistics of every task in the group.
+	 */
+	@JvmStatic
+	fun group(name: String): TickGroup = TickGroup(name)
+
+	/**
+	 * Returns the execution time statistics of every named task that has been scheduled since startup
+	 */
+	@JvmStatic
+	fun getStatistics(): List<TickTaskStatistics> {
+		return statistics.values.map { it.toStatistics() }.sortedByDescending { it.totalTime }
+	}
+
+	/**
+	 * Stops the timer thread and the worker pool and drops every scheduled task.  The scheduler starts up again the
+	 * next time a task is scheduled.
+	 */
+	@JvmStatic
+	fun shutdown() {
+		lock.lock()
+		val timerThread = this.timerThread
+		val workers = this.workers
+		try {
+			this.timerThread = null
+			this.workers = null
+			for (level in wheel) {
+				for (slot in level)
+					slot.clear()
+			}
+			taskCount = 0
+		} finally {
+			lock.unlock()
+		}
+		timerThread?.interrupt()
+		workers?.shutdownNow()
+	}
+
+	internal fun getCounter(name: String): TickTaskCounter = statistics.computeIfAbsent(name) { TickTaskCounter(it) }
+
+	internal fun nextPhase(periodMillis: Long): Long {
+		val fraction = (phaseCounter.getAndIncrement() * PHASE_RATIO) % 1.0
+		return (fraction * periodMillis).toLong()
+	}
+
+	internal fun add(task: TickTask, delayMillis: Long) {
+		lock.withLock {
+			startIfNecessary()
+			if (taskCount == 0)
+				currentTick = getElapsedTicks()    // The timer doesn't advance while idle
+			task.deadline = currentTick + max(1, toTicks(delayMillis))    // The current slot has already been expired
+			insert(task)
+			taskCount++
+			wakeup.signal()
+		}
+	}
+
+	internal fun execute(runnable: Runnable) {
+		val workers = lock.withLock { workers } ?: return
+		try {
+			workers.execute(runnable)
+		} catch (e: Exception) {
+			// Rejected during shutdown
+		}
+	}
+
+	private fun startIfNecessary() {
+		if (timerThread != null)
+			return
+		val processors = Runtime.getRuntime().availableProcessors()
+		workers = Executors.newFixedThreadPool(max(2, processors / 2), ThreadUtilities.newThreadFactory("tick-worker-%d"))
+		startTime = System.nanoTime()
+		currentTick = 0
+		val timerThread = Thread(this::runTimer, "tick-scheduler")
+		timerThread.isDaemon = true
+		timerThread.priority = Thread.MAX_PRIORITY
+		this.timerThread = timerThread
+		timerThread.start()
+	}
+
+	private fun runTimer() {
+		val expired = ArrayList<TickTask>()
+		val thread = Thread.currentThread()
+		try {
+			while (!thread.isInterrupted) {
+				lock.withLock {
+					if (timerThread !== thread)
+						return
+					while (taskCount == 0)
+						wakeup.await()
+					val now = getElapsedTicks()
+					while (currentTick < now && taskCount > 0) {
+						currentTick++
+						advance(expired)
+					}
+					if (taskCount == 0)
+						currentTick = now
+				}
+				for (task in expired)
+					task.group.submit(task)
+				expired.clear()
+				val nextTick = startTime + (currentTick + 1) * TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS)
+				LockSupport.parkNanos(nextTick - System.nanoTime())
+			}
+		} catch (e: InterruptedException) {
+			// Shutting down
+		}
+	}
+
+	/**
+	 * Moves the wheel to [currentTick]: cascades any higher level slot that is now due into the lower levels, then
+	 * expires everything in the current level 0 slot.
+	 */
+	private fun advance(expired: MutableList<TickTask>) {
+		var level = 1
+		while (level < LEVELS && (currentTick and ((1L shl (WHEEL_BITS * level)) - 1)) == 0L)
+			level++
+		for (cascade in level - 1 downTo 1) {
+			val slot = wheel[cascade][((currentTick shr (WHEEL_BITS * cascade)) and WHEEL_MASK).toInt()]
+			if (slot.isEmpty())
+				continue
+			val tasks = ArrayList(slot)
+			slot.clear()
+			for (task in tasks)
+				reinsert(task)
+		}
+
+		val slot = wheel[0][(currentTick and WHEEL_MASK).toInt()]
+		if (slot.isEmpty())
+			return
+		val tasks = ArrayList(slot)
+		slot.clear()
+		for (task in tasks) {
+			if (task.isCancelled) {
+				taskCount--
+			} else if (task.deadline > currentTick) {
+				insert(task)
+			} else {
+				expired.add(task)
+				if (task.periodTicks > 0) {
+					task.deadline += task.periodTicks
+					if (task.deadline <= currentTick)
+						task.deadline = currentTick + task.periodTicks    // Fell a whole period behind - don't replay every missed run
+					insert(task)
+				} else {
+					taskCount--
+				}
+			}
+		}
+	}
+
+	private fun reinsert(task: TickTask) {
+		if (task.isCancelled)
+			taskCount--
+		else
+			insert(task)
+	}
+
+	private fun insert(task: TickTask) {
+		val delay = task.deadline - currentTick
+		if (delay <= 0) {
+			wheel[0][(currentTick and WHEEL_MASK).toInt()].add(task)
+			return
+		}
+		for (level in 0 until LEVELS) {
+			if (delay < (1L shl (WHEEL_BITS * (level + 1)))) {
+				wheel[level][((task.deadline shr (WHEEL_BITS * level)) and WHEEL_MASK).toInt()].add(task)
+				return
+			}
+		}
+		// Further out than the wheel reaches - park it in the last slot that can be reached and cascade it from there
+		val parked = currentTick + MAX_DELAY_TICKS
+		wheel[LEVELS - 1][((parked shr (WHEEL_BITS * (LEVELS - 1))) and WHEEL_MASK).toInt()].add(task)
+	}
+
+	private fun getElapsedTicks(): Long = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) / TICK_MILLIS
+
+	private fun toTicks(millis: Long): Long = (max(0, millis) + TICK_MILLIS - 1) / TICK_MILLIS
+
+}
+
+/**
+ * A set of tasks, usually belonging to a single service, that run one at a time on the [TickScheduler]'s workers
+ */
+class TickGroup internal constructor(val name: String) {
+
+	private val tasks: MutableSet<TickTask> = ConcurrentHashMap.newKeySet()
+	private val queue = ConcurrentLinkedQueue<TickTask>()
+	private val draining = AtomicBoolean(false)
+	private val idleMonitor = Object()
+
+	/**
+	 * Runs the task once, after the specified delay
+	 */
+	fun execute(delayMillis: Long, runnable: Runnable): TickTask {
+		return schedule(TickTask(this, "delayed", runnable, 0, TickScheduler.getCounter("$name/delayed")), delayMillis)
+	}
+
+	/**
+	 * Runs the task every [periodMillis] milliseconds.  The first run happens after [initialDelayMillis] plus a phase
+	 * offset of less than one period, which keeps tasks with the same period from all running on the same tick.  If a
+	 * run is still queued or executing when the next one is due, the next one is skipped.
+	 */
+	fun executeWithFixedRate(initialDelayMillis: Long, periodMillis: Long, runnable: Runnable): TickTask {
+		return executeWithFixedRate("periodic", initialDelayMillis, periodMillis, runnable)
+	}
+
+	/**
+	 * Same as [executeWithFixedRate], with the task's statistics recorded under the specified name
+	 */
+	fun executeWithFixedRate(taskName: String, initialDelayMillis: Long, periodMillis: Long, runnable: Runnable): TickTask {
+		require(periodMillis > 0) { "period must be positive" }
+		val periodTicks = max(1, periodMillis / TickScheduler.TICK_MILLIS)
+		val task = TickTask(this, taskName, runnable, periodTicks, TickScheduler.getCounter("$name/$taskName"))
+		return schedule(task, initialDelayMillis + TickScheduler.nextPhase(periodMillis))
+	}
+
+	/**
+	 * Cancels every task in this group.  Tasks that are already executing are allowed to finish.
+	 */
+	fun stop() {
+		for (task in tasks)
+			task.cancel()
+		queue.clear()
+	}
+
+	/**
+	 * Waits up to the specified time for any executing task in this group to finish
+	 *
+	 * @return true if the group is idle, false if the timeout expired first
+	 */
+	fun awaitTermination(timeoutMillis: Long): Boolean {
+		val end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)
+		synchronized(idleMonitor) {
+			while (draining.get()) {
+				val remaining = TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime())
+				if (remaining <= 0)
+					return false
+				try {
+					idleMonitor.wait(remaining)
+				} catch (e: InterruptedException) {
+					Thread.currentThread().interrupt()
+					return false
+				}
+			}
+		}
+		return true
+	}
+
+	internal fun remove(task: TickTask) {
+		tasks.remove(task)
+	}
+
+	internal fun submit(task: TickTask) {
+		if (task.isCancelled)
+			return
+		if (!task.queued.compareAndSet(false, true)) {
+			task.counter.skipped.increment()
+			return
+		}
+		queue.add(task)
+		if (draining.compareAndSet(false, true))
+			TickScheduler.execute(this::drain)
+	}
+
+	private fun schedule(task: TickTask, delayMillis: Long): TickTask {
+		tasks.add(task)
+		TickScheduler.add(task, delayMillis)
+		return task
+	}
+
+	private fun drain() {
+		while (true) {
+			val task = queue.poll()
+			if (task == null) {
+				synchronized(idleMonitor) {
+					draining.set(false)
+					idleMonitor.notifyAll()
+				}
+				// Another task may have been queued between the poll and releasing the drain
+				if (queue.isEmpty() || !draining.compareAndSet(false, true))
+					return
+				continue
+			}
+			task.run()
+		}
+	}
+
+}
+
+/**
+ * A task scheduled on a [TickGroup]
+ */
+class TickTask internal constructor(internal val group: TickGroup, val name: String, private val runnable: Runnable, internal val periodTicks: Long, internal val counter: TickTaskCounter) {
+
+	internal var deadline = 0L
+	internal val queued = AtomicBoolean(false)
+	@Volatile
+	var isCancelled = false
+		private set
+	@Volatile
+	var isDone = false
+		private set
+
+	/**
+	 * Prevents any further runs of this task.  A run that is already executing is allowed to finish.
+	 *
+	 * @return false if the task was already cancelled or has already run
+	 */
+	fun cancel(): Boolean {
+		if (isCancelled || isDone)
+			return false
+		isCancelled = true
+		group.remove(this)
+		return true
+	}
+
+	internal fun run() {
+		try {
+			if (isCancelled)
+				return
+			val start = System.nanoTime()
+			try {
+				runnable.run()
+			} catch (t: Throwable) {
+				Log.e("Uncaught exception in scheduled task %s/%s", group.name, name)
+				Log.e(t)
+			}
+			val time = System.nanoTime() - start
+			counter.record(time)
+			if (periodTicks > 0) {
+				val periodNanos = TimeUnit.MILLISECONDS.toNanos(periodTicks * TickScheduler.TICK_MILLIS)
+				if (time > periodNanos)
+					counter.onOverrun(time, periodNanos)
+			} else {
+				isDone = true
+				group.remove(this)
+			}
+		} finally {
+			queued.set(false)
+		}
+	}
+
+}
+
+class TickTaskCounter internal constructor(private val name: String) {
+
+	private val count = LongAdder()
+	private val totalTime = LongAdder()
+	private val maxTime = AtomicLong(0)
+	private val overruns = AtomicLong(0)
+	internal val skipped = LongAdder()
+
+	internal fun record(time: Long) {
+		count.increment()
+		totalTime.add(time)
+		maxTime.accumulateAndGet(time) { a, b -> maxOf(a, b) }
+	}
+
+	internal fun onOverrun(time: Long, period: Long) {
+		val overrun = overruns.incrementAndGet()
+		if (overrun == 1L || overrun % 100 == 0L)
+			Log.w("Scheduled task %s took %.3fms, longer than its %dms period [overruns: %d]", name, time / 1E6, TimeUnit.NANOSECONDS.toMillis(period), overrun)
+	}
+
+	internal fun toStatistics(): TickTaskStatistics = TickTaskStatistics(name, count.sum(), totalTime.sum(), maxTime.get(), overruns.get(), skipped.sum())
+
+}
+
+data class TickTaskStatistics(val task: String, val count: Long, val totalTime: Long, val maxTime: Long, val overruns: Long, val skipped: Long) {
+
+	val averageTime: Double
+		get() = if (count == 0L) 0.0 else totalTime.toDouble() / count
+
+}
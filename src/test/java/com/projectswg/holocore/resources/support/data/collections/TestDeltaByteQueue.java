@@ -1,5 +1,5 @@
 /***********************************************************************************
- * Copyright (c) 2018 /// Project SWG /// www.projectswg.com                       *
+ * Copyright (c) 2026 /// Project SWG /// www.projectswg.com                       *
  *                                                                                 *
  * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
  * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
@@ -24,39 +24,58 @@
  * You should have received a copy of the GNU Affero General Public License        *
  * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
  ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.collections;
 
-package com.projectswg.holocore.resources.support.global.network;
-
-import com.projectswg.holocore.test.runners.TestRunnerNoIntents;
-import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
-public class TestLittleEndianDataOutputStream extends TestRunnerNoIntents {
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDeltaByteQueue {
+	
+	@Test
+	public void testEncode() {
+		DeltaByteQueue queue = new DeltaByteQueue();
+		assertTrue(queue.isEmpty());
+		queue.beginOperation(1);
+		queue.addShort(0x0102);
+		queue.addBytes(new byte[]{7, 8, 9}, 1, 2);
+		queue.beginOperation(0);
+		queue.addShort(5);
+		assertEquals(2, queue.getCount());
+		assertEquals(8, queue.getSize());
+		
+		ByteBuffer expected = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+		expected.putInt(2);
+		expected.putInt(42);
+		expected.put((byte) 1).putShort((short) 0x0102).put((byte) 8).put((byte) 9);
+		expected.put((byte) 0).putShort((short) 5);
+		assertArrayEquals(expected.array(), queue.encode(42));
+	}
 	
 	@Test
-	public void test() throws IOException {
-		ByteBuffer bb = ByteBuffer.allocate(27).order(ByteOrder.LITTLE_ENDIAN);
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		LittleEndianDataOutputStream le = new LittleEndianDataOutputStream(baos);
-		bb.put((byte) 15);			// 0
-		bb.putShort((short) 1024);	// 1
-		bb.putInt(1024);			// 3
-		bb.putLong(1024);			// 7
-		bb.putFloat(1.25f);			// 11
-		bb.putDouble(1.75);			// 15
-		le.write(15);
-		le.writeShort(1024);
-		le.writeInt(1024);
-		le.writeLong(1024);
-		le.writeFloat(1.25f);
-		le.writeDouble(1.75);
-		assertArrayEquals(bb.array(), baos.toByteArray());
-		le.close();
+	public void testGrowthAndClear() {
+		DeltaByteQueue queue = new DeltaByteQueue();
+		for (int i = 0; i < 1000; i++) {
+			queue.beginOperation(0);
+			queue.addShort(i);
+		}
+		assertEquals(1000, queue.getCount());
+		assertEquals(3000, queue.getSize());
+		byte[] encoded = queue.encode(0);
+		ByteBuffer buffer = ByteBuffer.wrap(encoded).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.position(8);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(0, buffer.get());
+			assertEquals(i, buffer.getShort());
+		}
+		
+		queue.clear();
+		assertTrue(queue.isEmpty());
+		assertEquals(0, queue.getSize());
+		assertArrayEquals(new byte[8], queue.encode(0));
 	}
 	
 }
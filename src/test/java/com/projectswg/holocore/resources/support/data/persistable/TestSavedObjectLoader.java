@@ -0,0 +1,135 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.persistable;
+
+import com.projectswg.common.data.encodables.mongo.MongoData;
+import com.projectswg.holocore.resources.support.data.server_info.database.PswgObjectDatabase;
+import com.projectswg.holocore.resources.support.objects.ObjectCreator;
+import com.projectswg.holocore.resources.support.objects.swg.SWGObject;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSavedObjectLoader {
+	
+	private static final String CONTAINER = "object/tangible/inventory/shared_character_inventory.iff";
+	
+	@Test
+	public void testContainmentResolvedOutOfOrder() {
+		SWGObject outer = ObjectCreator.createObjectFromTemplate(1, CONTAINER);
+		SWGObject middle = ObjectCreator.createObjectFromTemplate(2, CONTAINER);
+		SWGObject inner = ObjectCreator.createObjectFromTemplate(3, CONTAINER);
+		middle.moveToContainer(outer);
+		inner.moveToContainer(middle);
+		
+		// Children are streamed before their parents, one per batch, so they're built in an arbitrary order
+		List<MongoData> documents = List.of(SWGObjectFactory.INSTANCE.save(inner), SWGObjectFactory.INSTANCE.save(middle), SWGObjectFactory.INSTANCE.save(outer));
+		SavedObjectLoader loader = new SavedObjectLoader(streaming(documents), 2, 1);
+		Map<Long, SWGObject> loaded = loader.load(id -> null);
+		
+		assertEquals(List.of(1L, 2L, 3L), new ArrayList<>(loaded.keySet()));
+		assertNull(loaded.get(1L).getParent());
+		assertSame(loaded.get(1L), loaded.get(2L).getParent());
+		assertSame(loaded.get(2L), loaded.get(3L).getParent());
+	}
+	
+	@Test
+	public void testExternalParent() {
+		SWGObject buildout = ObjectCreator.createObjectFromTemplate(10, CONTAINER);
+		SWGObject item = ObjectCreator.createObjectFromTemplate(11, CONTAINER);
+		item.moveToContainer(buildout);
+		MongoData document = SWGObjectFactory.INSTANCE.save(item);
+		item.moveToContainer(null);
+		
+		SavedObjectLoader loader = new SavedObjectLoader(streaming(List.of(document)), 1, 10);
+		Map<Long, SWGObject> loaded = loader.load(id -> id == 10 ? buildout : null);
+		
+		assertEquals(1, loaded.size());
+		assertSame(buildout, loaded.get(11L).getParent());
+	}
+	
+	private static PswgObjectDatabase streaming(List<MongoData> documents) {
+		return new PswgObjectDatabase() {
+			
+			@NotNull
+			@Override
+			public List<MongoData> getObjects() {
+				return documents;
+			}
+			
+			@Override
+			public void streamObjects(int batchSize, @NotNull Consumer<List<MongoData>> consumer) {
+				for (int i = 0; i < documents.size(); i += batchSize)
+					consumer.accept(documents.subList(i, Math.min(i + batchSize, documents.size())));
+			}
+			
+			@Override
+			public void addObject(@NotNull SWGObject obj) {
+				
+			}
+			
+			@Override
+			public void addObjects(@NotNull Collection<? extends SWGObject> objects) {
+				
+			}
+			
+			@Override
+			public boolean removeObject(long id) {
+				return false;
+			}
+			
+			@Override
+			public long removeObjects(@NotNull Collection<Long> ids) {
+				return 0;
+			}
+			
+			@Override
+			public int getCharacterCount(@NotNull String account) {
+				return 0;
+			}
+			
+			@Override
+			public boolean isCharacter(@NotNull String firstName) {
+				return false;
+			}
+			
+			@Override
+			public long clearObjects() {
+				return 0;
+			}
+			
+		};
+	}
+	
+}
@@ -0,0 +1,102 @@
+/***********************************************************************************
+ * Copyright (c) 2025 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is an emulation project for Star Wars Galaxies founded on            *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create one or more emulators which will provide servers for      *
+ * players to continue playing a game similar to the one they used to play.        *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.server_info
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+import java.util.function.Function
+import java.util.stream.Collectors
+
+class SdbBinaryCacheTest {
+	
+	@TempDir
+	lateinit var directory: File
+	
+	@Test
+	fun matchesText() {
+		val source = writeSdb("name\tcount\tratio\tenabled\ncolumn types\n\nalpha\t1\t0.5\ttrue\nbeta\t-2\t3\tFALSE\n\ngamma\t007\t1e3\tno\n")
+		val cache = File(directory, "cache")
+		
+		SdbLoader.loadText(source).use { text ->
+			SdbBinaryCache.open(source, cache)!!.use { binary ->
+				assertEquals(text.columns, binary.columns)
+				while (text.next()) {
+					assertTrue(binary.next())
+					assertEquals(text.line, binary.line)
+					for (column in text.columns.indices) {
+						assertEquals(text.getText(column), binary.getText(column))
+						assertEquals(text.getBoolean(column), binary.getBoolean(column))
+					}
+					assertEquals(text.getInt("count"), binary.getInt("count"))
+					assertEquals(text.getReal("ratio"), binary.getReal("ratio"))
+					assertEquals(text.getReal("count"), binary.getReal("count"))
+				}
+				assertFalse(binary.next())
+			}
+		}
+		assertTrue(SdbBinaryCache.getCacheFile(source, cache).isFile)
+	}
+	
+	@Test
+	fun invalidNumberStillFails() {
+		val source = writeSdb("name\tcount\ntypes\nalpha\t1\nbeta\tmany\n")
+		SdbBinaryCache.open(source, File(directory, "cache"))!!.use { binary ->
+			assertTrue(binary.next())
+			assertEquals(1, binary.getInt(1))
+			assertTrue(binary.next())
+			assertThrows(NumberFormatException::class.java) { binary.getInt(1) }
+		}
+	}
+	
+	@Test
+	fun recompilesWhenSourceChanges() {
+		val source = writeSdb("name\ntypes\nalpha\n")
+		val cache = File(directory, "cache")
+		SdbBinaryCache.open(source, cache)!!.use { it.next(); assertEquals("alpha", it.getText(0)) }
+		
+		source.writeText("name\ntypes\nomega\nbeta\n")
+		source.setLastModified(source.lastModified() + 2000)
+		SdbBinaryCache.open(source, cache)!!.use { it.next(); assertEquals("omega", it.getText(0)) }
+	}
+	
+	@Test
+	fun parallelStream() {
+		val source = writeSdb("name\tvalue\ntypes\n" + (0 until 1000).joinToString("") { "row$it\t$it\n" })
+		SdbBinaryCache.open(source, File(directory, "cache"))!!.use { binary ->
+			val sum = binary.parallelStream(Function { it.getInt("value") }).collect(Collectors.summingLong { it })
+			assertEquals(999L * 1000 / 2, sum)
+		}
+	}
+	
+	private fun writeSdb(contents: String): File {
+		val file = File(directory, "test.sdb")
+		file.writeText(contents)
+		return file
+	}
+	
+}
@@ -0,0 +1,73 @@
+/***********************************************************************************
+ * Copyright (c) 2025 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is an emulation project for Star Wars Galaxies founded on            *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create one or more emulators which will provide servers for      *
+ * players to continue playing a game similar to the one they used to play.        *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.server_info
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+import java.util.function.Function
+import java.util.stream.Collectors
+
+class SdbLoaderTest {
+	
+	@TempDir
+	lateinit var directory: File
+	
+	@Test
+	fun parallelStreamMatchesSequentialRead() {
+		val contents = StringBuilder("name\tvalue\r\ntypes\r\n")
+		for (i in 0 until 5000) {
+			contents.append("row").append(i).append("\tvalué").append(i).append(if (i % 2 == 0) "\r\n" else "\n")
+			if (i % 100 == 0)
+				contents.append("\n")
+		}
+		val file = File(directory, "test.sdb")
+		file.writeText(contents.toString())
+		
+		val expected = ArrayList<String>()
+		SdbLoader.loadText(file).use { set ->
+			while (set.next())
+				expected.add(set.line.toString() + ":" + set.getText(0) + ":" + set.getText(1))
+		}
+		val actual = SdbLoader.loadText(file).use { set ->
+			set.parallelStream(Function { it.line.toString() + ":" + it.getText(0) + ":" + it.getText("value") }).collect(Collectors.toList())
+		}
+		assertEquals(5000, expected.size)
+		assertEquals(expected, actual)
+	}
+	
+	@Test
+	fun iterationEndsAfterStream() {
+		val file = File(directory, "test.sdb")
+		file.writeText("name\ntypes\nalpha\nbeta\n")
+		SdbLoader.loadText(file).use { set ->
+			assertEquals(2, set.stream(Function { it.getText(0) }).count())
+			assertFalse(set.next())
+		}
+	}
+	
+}
@@ -0,0 +1,209 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.server_info.database;
+
+import com.projectswg.common.data.encodables.mongo.MongoData;
+import com.projectswg.holocore.resources.support.objects.swg.SWGObject;
+import com.projectswg.holocore.resources.support.objects.swg.tangible.TangibleObject;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestObjectPersistenceQueue {
+	
+	@Test
+	public void testSavesCoalesced() {
+		RecordingDatabase database = new RecordingDatabase();
+		ObjectPersistenceQueue queue = new ObjectPersistenceQueue(() -> database, 10, 10);
+		TangibleObject obj = new TangibleObject(1);
+		queue.save(obj);
+		queue.save(obj);
+		queue.save(new TangibleObject(2));
+		assertEquals(2, queue.getSize());
+		assertTrue(queue.flush());
+		assertEquals(List.of(2), database.saveBatches);
+		assertFalse(obj.isDirty());
+	}
+	
+	@Test
+	public void testDeleteSupersedesSave() {
+		RecordingDatabase database = new RecordingDatabase();
+		ObjectPersistenceQueue queue = new ObjectPersistenceQueue(() -> database, 10, 10);
+		TangibleObject obj = new TangibleObject(1);
+		queue.save(obj);
+		queue.delete(obj);
+		assertEquals(0, queue.saveNow(List.of(new TangibleObject(1))));
+		assertTrue(queue.flush());
+		assertTrue(database.saveBatches.isEmpty());
+		assertEquals(List.of(1L), database.deleted);
+	}
+	
+	@Test
+	public void testDeleteBeforeDelayedBatch() {
+		RecordingDatabase database = new RecordingDatabase();
+		ObjectPersistenceQueue queue = new ObjectPersistenceQueue(() -> database, 10, 10);
+		TangibleObject obj = new TangibleObject(1);
+		TangibleObject other = new TangibleObject(2);
+		assertEquals(2, queue.saveNow(List.of(obj, other)));
+		List<SWGObject> delayedBatch = List.of(obj, other); // collected by a dirty pass, written later
+		queue.delete(obj);
+		assertTrue(queue.flush());
+		assertEquals(List.of(1L), database.deleted);
+		
+		assertEquals(1, queue.saveNow(delayedBatch));
+		queue.save(obj);
+		assertEquals(0, queue.getSize());
+		assertTrue(queue.flush());
+		assertEquals(List.of(2, 1), database.saveBatches);
+		assertTrue(obj.isDeleted());
+	}
+	
+	@Test
+	public void testDeleteSkipsUnstoredObjects() {
+		RecordingDatabase database = new RecordingDatabase();
+		ObjectPersistenceQueue queue = new ObjectPersistenceQueue(() -> database, 1, 10);
+		queue.save(new TangibleObject(1));
+		queue.delete(new TangibleObject(2)); // would block on the full queue if it were enqueued
+		assertEquals(1, queue.getSize());
+		assertTrue(queue.flush());
+		assertTrue(database.deleted.isEmpty());
+	}
+	
+	@Test
+	public void testBatchSize() {
+		RecordingDatabase database = new RecordingDatabase();
+		ObjectPersistenceQueue queue = new ObjectPersistenceQueue(() -> database, 10, 2);
+		for (int i = 1; i <= 5; i++)
+			queue.save(new TangibleObject(i));
+		assertTrue(queue.flush());
+		assertEquals(List.of(2, 2, 1), database.saveBatches);
+	}
+	
+	@Test
+	public void testFailedWriteRequeued() {
+		RecordingDatabase database = new RecordingDatabase();
+		ObjectPersistenceQueue queue = new ObjectPersistenceQueue(() -> database, 10, 10);
+		TangibleObject obj = new TangibleObject(1);
+		queue.save(obj);
+		database.fail = true;
+		assertFalse(queue.flush());
+		assertEquals(1, queue.getSize());
+		assertTrue(obj.isDirty());
+		database.fail = false;
+		assertTrue(queue.close());
+		assertEquals(0, queue.getSize());
+		assertFalse(obj.isDirty());
+	}
+	
+	@Test
+	public void testStatistics() {
+		RecordingDatabase database = new RecordingDatabase();
+		ObjectPersistenceQueue queue = new ObjectPersistenceQueue(() -> database, 10, 2);
+		TangibleObject deleted = new TangibleObject(1);
+		queue.save(deleted);
+		queue.save(new TangibleObject(2));
+		queue.save(new TangibleObject(3));
+		queue.delete(deleted);
+		assertEquals(3, queue.getStatistics().getQueueDepth());
+		assertTrue(queue.flush());
+		
+		PersistenceStatistics statistics = queue.getStatistics();
+		assertEquals(0, statistics.getQueueDepth());
+		assertEquals(3, statistics.getPeakQueueDepth());
+		assertEquals(2, statistics.getSaved());
+		assertEquals(1, statistics.getDeleted());
+		assertEquals(0, statistics.getFailed());
+		assertEquals(0, queue.getStatistics().getPeakQueueDepth());
+	}
+	
+	private static class RecordingDatabase implements PswgObjectDatabase {
+		
+		private final List<Integer> saveBatches = new ArrayList<>();
+		private final List<Long> deleted = new ArrayList<>();
+		private boolean fail = false;
+		
+		@NotNull
+		@Override
+		public List<MongoData> getObjects() {
+			return List.of();
+		}
+		
+		@Override
+		public void streamObjects(int batchSize, @NotNull Consumer<List<MongoData>> consumer) {
+			
+		}
+		
+		@Override
+		public void addObject(@NotNull SWGObject obj) {
+			addObjects(Set.of(obj));
+		}
+		
+		@Override
+		public void addObjects(@NotNull Collection<? extends SWGObject> objects) {
+			if (fail)
+				throw new IllegalStateException("database unavailable");
+			saveBatches.add(objects.size());
+		}
+		
+		@Override
+		public boolean removeObject(long id) {
+			return removeObjects(List.of(id)) > 0;
+		}
+		
+		@Override
+		public long removeObjects(@NotNull Collection<Long> ids) {
+			if (fail)
+				throw new IllegalStateException("database unavailable");
+			deleted.addAll(ids);
+			return ids.size();
+		}
+		
+		@Override
+		public int getCharacterCount(@NotNull String account) {
+			return 0;
+		}
+		
+		@Override
+		public boolean isCharacter(@NotNull String firstName) {
+			return false;
+		}
+		
+		@Override
+		public long clearObjects() {
+			return 0;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,65 @@
+/***********************************************************************************
+ * Copyright (c) 2025 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is an emulation project for Star Wars Galaxies founded on            *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create one or more emulators which will provide servers for      *
+ * players to continue playing a game similar to the one they used to play.        *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.data.server_info.loader.terrain
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.File
+
+class TerrainHeightGridTest {
+	
+	@TempDir
+	lateinit var directory: File
+	
+	@Test
+	fun interpolatesBetweenSamples() {
+		val file = File(directory, "test.thg")
+		val grid = TerrainHeightGrid.build(file, 1234, 4.0, 64.0) { x, z -> (x * 0.5 + z * 0.25 + 10).toFloat() }
+		
+		// Bilinear interpolation reproduces a plane exactly, on and between samples
+		assertEquals(10.0, grid.getHeight(0.0, 0.0), 1E-4)
+		assertEquals(10 + 1.5 * 0.5 + 2.5 * 0.25, grid.getHeight(1.5, 2.5), 1E-4)
+		assertEquals(10 + 64 * 0.5 + 64 * 0.25, grid.getHeight(64.0, 64.0), 1E-4)
+		assertEquals(10 - 63.9 * 0.5 - 10 * 0.25, grid.getHeight(-63.9, -10.0), 1E-4)
+		assertTrue(grid.getHeight(64.1, 0.0).isNaN())
+		assertTrue(grid.getHeight(0.0, -100.0).isNaN())
+	}
+	
+	@Test
+	fun reloadValidatesChecksumAndParameters() {
+		val file = File(directory, "test.thg")
+		TerrainHeightGrid.build(file, 1234, 4.0, 64.0) { x, z -> (x + z).toFloat() }
+		
+		val loaded = TerrainHeightGrid.load(file, 1234, 4.0, 64.0)
+		assertNotNull(loaded)
+		assertEquals(6.0, loaded!!.getHeight(2.0, 4.0), 1E-4)
+		assertNull(TerrainHeightGrid.load(file, 4321, 4.0, 64.0))
+		assertNull(TerrainHeightGrid.load(file, 1234, 8.0, 64.0))
+		assertNull(TerrainHeightGrid.load(File(directory, "missing.thg"), 1234, 4.0, 64.0))
+	}
+	
+}
@@ -0,0 +1,110 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.global.network;
+
+import com.projectswg.common.network.packets.swg.zone.baselines.Baseline.BaselineType;
+import com.projectswg.holocore.test.resources.GenericCreatureObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBaselineBuilder {
+	
+	@Test
+	public void testPrimitives() {
+		BaselineBuilder bb = new BaselineBuilder(new GenericCreatureObject(1), BaselineType.CREO, 3);
+		bb.addBoolean(true);
+		bb.addByte(15);
+		bb.addShort(1024);
+		bb.addInt(-1024);
+		bb.addLong(0x0102030405060708L);
+		bb.addFloat(1.25f);
+		bb.addArray(new byte[]{1, 2, 3});
+		
+		ByteBuffer expected = ByteBuffer.allocate(26).order(ByteOrder.LITTLE_ENDIAN);
+		expected.put((byte) 1);
+		expected.put((byte) 15);
+		expected.putShort((short) 1024);
+		expected.putInt(-1024);
+		expected.putLong(0x0102030405060708L);
+		expected.putFloat(1.25f);
+		expected.putShort((short) 3);
+		expected.put(new byte[]{1, 2, 3});
+		assertArrayEquals(expected.array(), bb.build());
+	}
+	
+	@Test
+	public void testStrings() {
+		testString("");
+		testString("simple ascii");
+		testString("café");
+		testString("surrogate 😀 pair");
+	}
+	
+	@Test
+	public void testGrowth() {
+		BaselineBuilder bb = new BaselineBuilder(new GenericCreatureObject(1), BaselineType.CREO, 3);
+		for (int i = 0; i < 10000; i++)
+			bb.addInt(i);
+		byte[] data = bb.build();
+		assertEquals(40000, data.length);
+		ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < 10000; i++)
+			assertEquals(i, buffer.getInt());
+	}
+	
+	@Test
+	public void testNestedBuilders() {
+		BaselineBuilder outer = new BaselineBuilder(new GenericCreatureObject(1), BaselineType.CREO, 3);
+		outer.addInt(1);
+		BaselineBuilder inner = new BaselineBuilder(new GenericCreatureObject(2), BaselineType.CREO, 6);
+		inner.addInt(2);
+		outer.addInt(3);
+		assertArrayEquals(new byte[]{2, 0, 0, 0}, inner.build());
+		assertArrayEquals(new byte[]{1, 0, 0, 0, 3, 0, 0, 0}, outer.build());
+	}
+	
+	private static void testString(String str) {
+		BaselineBuilder bb = new BaselineBuilder(new GenericCreatureObject(1), BaselineType.CREO, 3);
+		bb.addAscii(str);
+		bb.addUnicode(str);
+		
+		byte[] ascii = str.getBytes(StandardCharsets.UTF_8);
+		byte[] unicode = str.getBytes(StandardCharsets.UTF_16LE);
+		ByteBuffer expected = ByteBuffer.allocate(2 + ascii.length + 4 + unicode.length).order(ByteOrder.LITTLE_ENDIAN);
+		expected.putShort((short) str.length());
+		expected.put(ascii);
+		expected.putInt(str.length());
+		expected.put(unicode);
+		assertArrayEquals(expected.array(), bb.build());
+	}
+	
+}
@@ -0,0 +1,69 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.global.network;
+
+import com.projectswg.common.network.packets.swg.zone.baselines.Baseline;
+import com.projectswg.holocore.test.resources.GenericCreatureObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBaselineObject {
+	
+	@Test
+	public void testSharedBaselinesCached() {
+		GenericCreatureObject creature = new GenericCreatureObject(1, "Cached Creature");
+		Baseline baseline3 = creature.createBaseline3(null);
+		Baseline baseline6 = creature.createBaseline6(null);
+		assertSame(baseline3, creature.createBaseline3(null));
+		assertSame(baseline6, creature.createBaseline6(null));
+	}
+	
+	@Test
+	public void testDeltaInvalidatesOnlyItsPage() {
+		GenericCreatureObject creature = new GenericCreatureObject(1, "Cached Creature");
+		Baseline baseline3 = creature.createBaseline3(null);
+		Baseline baseline6 = creature.createBaseline6(null);
+		
+		creature.setObjectName("Renamed Creature");
+		Baseline updated = creature.createBaseline3(null);
+		assertNotSame(baseline3, updated);
+		assertFalse(Arrays.equals(baseline3.getBaselineData(), updated.getBaselineData()));
+		assertSame(updated, creature.createBaseline3(null));
+		assertSame(baseline6, creature.createBaseline6(null));
+	}
+	
+	@Test
+	public void testPrivateBaselinesNotCached() {
+		GenericCreatureObject creature = new GenericCreatureObject(1, "Cached Creature");
+		assertNotSame(creature.createBaseline1(null), creature.createBaseline1(null));
+		assertNotSame(creature.createBaseline4(null), creature.createBaseline4(null));
+	}
+	
+}
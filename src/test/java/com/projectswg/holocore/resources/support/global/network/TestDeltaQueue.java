@@ -0,0 +1,86 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.global.network;
+
+import com.projectswg.common.network.packets.swg.zone.baselines.Baseline.BaselineType;
+import com.projectswg.common.network.packets.swg.zone.deltas.DeltasMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDeltaQueue {
+	
+	@Test
+	public void testMergeableLastWriteWins() {
+		DeltaQueue queue = new DeltaQueue();
+		DeltasMessage health1 = delta(1, 6, 13);
+		DeltasMessage posture = delta(1, 3, 13);
+		DeltasMessage health2 = delta(1, 6, 13);
+		DeltasMessage otherObject = delta(2, 6, 13);
+		queue.add(health1, 6, 13, true);
+		queue.add(posture, 3, 13, true);
+		queue.add(health2, 6, 13, true);
+		queue.add(otherObject, 6, 13, true);
+		assertEquals(List.of(health2, posture, otherObject), drain(queue));
+		assertTrue(queue.isEmpty());
+	}
+	
+	@Test
+	public void testIncrementalNeverMerged() {
+		DeltaQueue queue = new DeltaQueue();
+		DeltasMessage first = delta(1, 6, 2);
+		DeltasMessage second = delta(1, 6, 2);
+		queue.add(first, 6, 2, false);
+		queue.add(second, 6, 2, false);
+		assertEquals(List.of(first, second), drain(queue));
+	}
+	
+	@Test
+	public void testClearResetsMerging() {
+		DeltaQueue queue = new DeltaQueue();
+		queue.add(delta(1, 6, 13), 6, 13, true);
+		queue.clear();
+		assertTrue(queue.isEmpty());
+		DeltasMessage after = delta(1, 6, 13);
+		queue.add(after, 6, 13, true);
+		assertEquals(List.of(after), drain(queue));
+	}
+	
+	private static DeltasMessage delta(long objectId, int num, int update) {
+		return new DeltasMessage(objectId, BaselineType.CREO, num, update, new byte[0]);
+	}
+	
+	private static List<DeltasMessage> drain(DeltaQueue queue) {
+		List<DeltasMessage> drained = new ArrayList<>();
+		queue.drain(drained::add);
+		return drained;
+	}
+	
+}
@@ -0,0 +1,104 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.global.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDirectBufferPool {
+	
+	@Test
+	public void testSizeClasses() {
+		DirectBufferPool pool = new DirectBufferPool(4096, 65536, 8);
+		ByteBuffer small = pool.acquire(1);
+		ByteBuffer exact = pool.acquire(8192);
+		ByteBuffer rounded = pool.acquire(8193);
+		ByteBuffer oversize = pool.acquire(65537);
+		assertTrue(small.isDirect());
+		assertEquals(4096, small.capacity());
+		assertEquals(8192, exact.capacity());
+		assertEquals(16384, rounded.capacity());
+		assertEquals(65537, oversize.capacity());
+		assertEquals(4, pool.getOutstandingBuffers());
+		
+		pool.release(small);
+		pool.release(exact);
+		pool.release(rounded);
+		pool.release(oversize);
+		assertEquals(0, pool.getOutstandingBuffers());
+	}
+	
+	@Test
+	public void testReuse() {
+		DirectBufferPool pool = new DirectBufferPool(4096, 65536, 8);
+		ByteBuffer buffer = pool.acquire(100);
+		buffer.putInt(5);
+		pool.release(buffer);
+		
+		ByteBuffer reused = pool.acquire(200);
+		assertSame(buffer, reused);
+		assertEquals(0, reused.position());
+		assertEquals(reused.capacity(), reused.limit());
+		assertEquals(1, pool.getTotalAllocations());
+	}
+	
+	@Test
+	public void testPoolBoundedByBytes() {
+		DirectBufferPool pool = new DirectBufferPool(4096, 65536, 8, 16384);
+		ByteBuffer first = pool.acquire(8192);
+		ByteBuffer second = pool.acquire(8192);
+		ByteBuffer third = pool.acquire(8192);
+		pool.release(first);
+		pool.release(second);
+		pool.release(third); // would exceed 16 KiB of idle buffers
+		assertEquals(16384, pool.getIdleBytes());
+		
+		pool.acquire(8192);
+		pool.acquire(8192);
+		assertEquals(0, pool.getIdleBytes());
+		pool.acquire(8192);
+		assertEquals(4, pool.getTotalAllocations());
+	}
+	
+	@Test
+	public void testLeakTracking() {
+		DirectBufferPool pool = new DirectBufferPool(4096, 65536, 8);
+		ByteBuffer buffer = pool.acquire(100);
+		pool.release(buffer);
+		pool.release(buffer); // double release must not put the buffer in the pool twice
+		pool.release(ByteBuffer.allocateDirect(4096)); // foreign buffers are ignored
+		
+		ByteBuffer first = pool.acquire(100);
+		ByteBuffer second = pool.acquire(100);
+		assertNotSame(first, second);
+		assertEquals(2, pool.getOutstandingBuffers());
+	}
+	
+}
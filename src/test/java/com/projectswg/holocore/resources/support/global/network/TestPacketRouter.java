@@ -0,0 +1,110 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.global.network;
+
+import com.projectswg.common.network.packets.PacketType;
+import com.projectswg.common.network.packets.SWGPacket;
+import com.projectswg.common.network.packets.swg.login.ClientIdMsg;
+import com.projectswg.common.network.packets.swg.zone.CmdSceneReady;
+import com.projectswg.common.network.packets.swg.zone.chat.ChatQueryRoom;
+import com.projectswg.holocore.intents.support.global.network.InboundPacketIntent;
+import com.projectswg.holocore.test.resources.GenericPlayer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPacketRouter {
+	
+	private final Object owner = new Object();
+	
+	@AfterEach
+	public void cleanup() {
+		PacketRouter.unsubscribe(owner);
+	}
+	
+	@Test
+	public void testOnlySubscribersReceive() {
+		List<SWGPacket> sceneReady = new ArrayList<>();
+		List<SWGPacket> everything = new ArrayList<>();
+		PacketRouter.subscribe(owner, CmdSceneReady.class, (player, packet) -> sceneReady.add(packet));
+		PacketRouter.subscribe(owner, (InboundPacketIntent ipi) -> everything.add(ipi.getPacket()), SWGPacket.class);
+		
+		GenericPlayer player = new GenericPlayer();
+		CmdSceneReady ready = new CmdSceneReady();
+		ClientIdMsg clientId = new ClientIdMsg();
+		PacketRouter.INSTANCE.dispatch(player, ready);
+		PacketRouter.INSTANCE.dispatch(player, clientId);
+		
+		assertEquals(List.of(ready), sceneReady);
+		assertEquals(List.of(ready, clientId), everything);
+	}
+	
+	@Test
+	public void testPacketTypeSubscription() {
+		List<SWGPacket> received = new ArrayList<>();
+		PacketRouter.subscribe(owner, (InboundPacketIntent ipi) -> received.add(ipi.getPacket()), PacketType.CHAT_QUERY_ROOM);
+		
+		GenericPlayer player = new GenericPlayer();
+		PacketRouter.INSTANCE.dispatch(player, new CmdSceneReady());
+		PacketRouter.INSTANCE.dispatch(player, new ChatQueryRoom());
+		
+		assertEquals(1, received.size());
+		assertInstanceOf(ChatQueryRoom.class, received.get(0));
+	}
+	
+	@Test
+	public void testStatistics() {
+		PacketRouter.subscribe(owner, ClientIdMsg.class, (player, packet) -> {});
+		long before = getDispatchCount("ClientIdMsg");
+		GenericPlayer player = new GenericPlayer();
+		for (int i = 0; i < 5; i++)
+			PacketRouter.INSTANCE.dispatch(player, new ClientIdMsg());
+		assertEquals(before + 5, getDispatchCount("ClientIdMsg"));
+	}
+	
+	@Test
+	public void testUnsubscribe() {
+		List<SWGPacket> received = new ArrayList<>();
+		PacketRouter.subscribe(owner, CmdSceneReady.class, (player, packet) -> received.add(packet));
+		PacketRouter.unsubscribe(owner);
+		PacketRouter.INSTANCE.dispatch(new GenericPlayer(), new CmdSceneReady());
+		assertTrue(received.isEmpty());
+	}
+	
+	private static long getDispatchCount(String packet) {
+		return PacketRouter.getStatistics().stream()
+				.filter(s -> s.getPacket().equals(packet))
+				.mapToLong(PacketStatistics::getCount)
+				.findFirst()
+				.orElse(0);
+	}
+	
+}
@@ -0,0 +1,140 @@
+/***********************************************************************************
+ * Copyright (c) 2026 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.objects.awareness;
+
+import com.projectswg.common.data.location.Location;
+import com.projectswg.common.data.location.Terrain;
+import com.projectswg.common.network.packets.SWGPacket;
+import com.projectswg.common.network.packets.swg.zone.HeartBeat;
+import com.projectswg.holocore.test.resources.GenericCreatureObject;
+import com.projectswg.holocore.test.resources.GenericPlayer;
+import com.projectswg.holocore.test.runners.TestRunnerNoIntents;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMovementInterest extends TestRunnerNoIntents {
+	
+	private MovementInterest interest;
+	private GenericCreatureObject mover;
+	private GenericCreatureObject near;
+	private GenericCreatureObject far;
+	
+	@BeforeEach
+	public void initialize() {
+		interest = new MovementInterest(64, 192, 250, 1000);
+		mover = new GenericCreatureObject(getUniqueId());
+		near = new GenericCreatureObject(getUniqueId());
+		far = new GenericCreatureObject(getUniqueId());
+		mover.systemMove(null, location(0));
+		near.systemMove(null, location(10));
+		far.systemMove(null, location(500));
+		mover.addObserver(near);
+		mover.addObserver(far);
+		getPlayer(near).clearPacketList();
+		getPlayer(far).clearPacketList();
+	}
+	
+	@Test
+	public void testNearObserversReceiveEveryUpdate() {
+		SWGPacket first = new HeartBeat();
+		SWGPacket second = new HeartBeat();
+		interest.sendUpdate(mover, first, 1000);
+		interest.sendUpdate(mover, second, 1100);
+		
+		assertEquals(List.of(first, second), drain(near));
+	}
+	
+	@Test
+	public void testFarObserversReceiveCoalescedUpdates() {
+		SWGPacket first = new HeartBeat();
+		SWGPacket second = new HeartBeat();
+		SWGPacket third = new HeartBeat();
+		interest.sendUpdate(mover, first, 1000);
+		interest.sendUpdate(mover, second, 1100);
+		interest.sendUpdate(mover, third, 1200);
+		assertEquals(List.of(first), drain(far));
+		
+		interest.flush(1500);
+		assertEquals(List.of(), drain(far));
+		
+		interest.flush(2000);
+		assertEquals(List.of(third), drain(far), "only the newest withheld update should be delivered");
+		
+		MovementTierStatistics farStatistics = interest.getStatistics().stream().filter(s -> s.getTier().equals("FAR")).findFirst().orElseThrow();
+		assertEquals(3, farStatistics.getUpdates());
+		assertEquals(2, farStatistics.getSent());
+	}
+	
+	@Test
+	public void testSendToAllSupersedesWithheldUpdates() {
+		SWGPacket first = new HeartBeat();
+		SWGPacket second = new HeartBeat();
+		SWGPacket teleport = new HeartBeat();
+		interest.sendUpdate(mover, first, 1000);
+		interest.sendUpdate(mover, second, 1100);
+		interest.sendUpdateToAll(mover, teleport);
+		interest.flush(5000);
+		
+		assertEquals(List.of(first, teleport), drain(far));
+	}
+	
+	@Test
+	public void testDiscardDropsWithheldUpdates() {
+		SWGPacket first = new HeartBeat();
+		SWGPacket second = new HeartBeat();
+		interest.sendUpdate(mover, first, 1000);
+		interest.sendUpdate(mover, second, 1100);
+		interest.discard(mover); // e.g. the mover entered a building
+		interest.flush(5000);
+		
+		assertEquals(List.of(first), drain(far), "a world transform must not be delivered after the object moved into a parent");
+		assertEquals(List.of(first, second), drain(near));
+	}
+	
+	private static List<SWGPacket> drain(GenericCreatureObject creature) {
+		GenericPlayer player = getPlayer(creature);
+		List<SWGPacket> packets = new ArrayList<>();
+		SWGPacket packet;
+		while ((packet = player.getNextPacket()) != null)
+			packets.add(packet);
+		return packets;
+	}
+	
+	private static GenericPlayer getPlayer(GenericCreatureObject creature) {
+		return (GenericPlayer) creature.getOwner();
+	}
+	
+	private static Location location(double x) {
+		return Location.builder().setTerrain(Terrain.TATOOINE).setPosition(x, 0, 0).build();
+	}
+	
+}
@@ -64,7 +64,11 @@ public class TestObjectAwareness extends TestRunnerNoIntents {
 	private SWGObject inventoryObject = null;
 	
 	private void initialize() {
-		awareness = new ObjectAwareness();
+		initialize(TerrainMap.DEFAULT_CELL_SIZE);
+	}
+	
+	private void initialize(int cellSize) {
+		awareness = new ObjectAwareness(100L, terrain -> new TerrainMap(cellSize, TerrainMap.DEFAULT_STRUCTURE_RANGE));
 		player = new GenericCreatureObject(getUniqueId(), "player");
 		testPlayer = new GenericCreatureObject(getUniqueId(), "testPlayer");
 		testNpc = new GenericCreatureObject(getUniqueId(), "testNPC");
@@ -108,10 +112,19 @@ public class TestObjectAwareness extends TestRunnerNoIntents {
 		testCombination(new ArrayList<>(), 2);
 	}
 	
+	@Test
+	public void testTourFineCells() {
+		testCombination(new ArrayList<>(), 2, 32);
+	}
+	
 	private void testCombination(List<TestLocation> tests, int depth) {
+		testCombination(tests, depth, TerrainMap.DEFAULT_CELL_SIZE);
+	}
+	
+	private void testCombination(List<TestLocation> tests, int depth, int cellSize) {
 		if (depth == 0) {
 			try {
-				initialize();
+				initialize(cellSize);
 				for (TestLocation test : tests)
 					move(test);
 			} catch (AssertionError e) {
@@ -122,7 +135,7 @@ public class TestObjectAwareness extends TestRunnerNoIntents {
 		for (TestLocation test : TestLocation.values()) {
 			List<TestLocation> recurse = new ArrayList<>(tests);
 			recurse.add(test);
-			testCombination(recurse, depth-1);
+			testCombination(recurse, depth-1, cellSize);
 		}
 	}
 	
@@ -203,6 +216,18 @@ public class TestObjectAwareness extends TestRunnerNoIntents {
 		assertAware(List.of(player, testPlayer, testTangible));
 	}
 	
+	@Test
+	public void testStructureContentsAtStructureRange() {
+		initialize();
+		// Beyond object range, but within structure range of building1
+		player.systemMove(null, buildTatooine(45, 745));
+		update(player);
+		
+		assertTrue(player.getAware().contains(testBuilding1));
+		assertTrue(player.getAware().contains(testCell1), "cells must be visible at the same range as their building");
+		assertFalse(player.getAware().contains(testTangible));
+	}
+	
 	@Test
 	public void testLoadRangeUpdate() {
 		initialize();
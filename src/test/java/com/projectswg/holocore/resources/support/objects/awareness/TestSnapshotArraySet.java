@@ -0,0 +1,101 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.objects.awareness;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSnapshotArraySet {
+	
+	@Test
+	public void testAddRemove() {
+		SnapshotArraySet<String> set = new SnapshotArraySet<>();
+		String a = "a", b = "b", c = "c";
+		assertTrue(set.isEmpty());
+		assertTrue(set.add(a));
+		assertTrue(set.add(b));
+		assertTrue(set.add(c));
+		assertFalse(set.add(b));
+		assertEquals(3, set.size());
+		
+		assertTrue(set.remove(a));
+		assertFalse(set.remove(a));
+		assertEquals(2, set.size());
+		assertFalse(set.contains(a));
+		assertTrue(set.contains(b));
+		assertTrue(set.contains(c));
+		assertEquals(List.of(c, b), toList(set));
+		
+		assertTrue(set.removeIf(c::equals));
+		assertEquals(List.of(b), toList(set));
+		assertTrue(set.remove(b));
+		assertTrue(set.isEmpty());
+	}
+	
+	@Test
+	public void testGrowth() {
+		SnapshotArraySet<Integer> set = new SnapshotArraySet<>();
+		List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Integer value = 1000 + i; // outside of the Integer cache to guarantee unique identities
+			values.add(value);
+			assertTrue(set.add(value));
+		}
+		assertEquals(100, set.size());
+		for (int i = 0; i < 100; i += 2)
+			assertTrue(set.remove(values.get(i)));
+		assertEquals(50, set.size());
+		for (int i = 0; i < 100; i++)
+			assertEquals(i % 2 == 1, set.contains(values.get(i)));
+	}
+	
+	@Test
+	public void testSnapshotIsolation() {
+		SnapshotArraySet<String> set = new SnapshotArraySet<>();
+		set.add("a");
+		set.add("b");
+		List<String> visited = new ArrayList<>();
+		set.forEach(element -> {
+			visited.add(element);
+			set.remove("b");
+			set.add("c");
+		});
+		assertEquals(List.of("a", "b"), visited);
+		assertEquals(List.of("a", "c"), toList(set));
+	}
+	
+	private static <T> List<T> toList(SnapshotArraySet<T> set) {
+		List<T> list = new ArrayList<>();
+		set.forEach(list::add);
+		return list;
+	}
+	
+}
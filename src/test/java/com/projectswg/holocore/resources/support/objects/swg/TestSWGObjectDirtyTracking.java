@@ -0,0 +1,190 @@
+/***********************************************************************************
+ * Copyright (c) 2024 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is the first NGE emulator for Star Wars Galaxies founded on          *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create an emulator which will provide a server for players to    *
+ * continue playing a game similar to the one they used to play. We are basing     *
+ * it on the final publish of the game prior to end-game events.                   *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.resources.support.objects.swg;
+
+import com.projectswg.common.data.combat.DamageType;
+import com.projectswg.common.data.encodables.oob.StringId;
+import com.projectswg.common.data.encodables.oob.waypoint.WaypointColor;
+import com.projectswg.common.data.encodables.player.Mail;
+import com.projectswg.common.data.encodables.tangible.PvpFlag;
+import com.projectswg.common.data.encodables.tangible.PvpStatus;
+import com.projectswg.common.data.encodables.tangible.Race;
+import com.projectswg.common.data.location.Terrain;
+import com.projectswg.holocore.resources.support.objects.permissions.AdminPermissions;
+import com.projectswg.holocore.resources.support.objects.swg.building.BuildingObject;
+import com.projectswg.holocore.resources.support.objects.swg.building.PlayerStructureInfo;
+import com.projectswg.holocore.resources.support.objects.swg.player.PlayerObject;
+import com.projectswg.holocore.resources.support.objects.swg.resource.ResourceContainerObject;
+import com.projectswg.holocore.resources.support.objects.swg.tangible.TangibleObject;
+import com.projectswg.holocore.resources.support.objects.swg.waypoint.WaypointObject;
+import com.projectswg.holocore.resources.support.objects.swg.weapon.WeaponObject;
+import com.projectswg.holocore.resources.support.objects.swg.weapon.WeaponType;
+import com.projectswg.holocore.test.resources.GenericCreatureObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSWGObjectDirtyTracking {
+	
+	@Test
+	public void testNewObjectIsDirty() {
+		TangibleObject obj = new TangibleObject(1);
+		assertTrue(obj.isDirty());
+		obj.markSaved(obj.getModificationCount());
+		assertFalse(obj.isDirty());
+	}
+	
+	@Test
+	public void testDeltaMarksDirty() {
+		TangibleObject obj = new TangibleObject(1);
+		obj.markSaved(obj.getModificationCount());
+		obj.setObjectName("Renamed");
+		assertTrue(obj.isDirty());
+	}
+	
+	@Test
+	public void testContainerTransferMarksDirty() {
+		GenericCreatureObject creature = new GenericCreatureObject(1);
+		TangibleObject obj = new TangibleObject(2);
+		obj.markSaved(obj.getModificationCount());
+		obj.systemMove(creature);
+		assertTrue(obj.isDirty());
+	}
+	
+	@Test
+	public void testModifiedDuringSaveStaysDirty() {
+		TangibleObject obj = new TangibleObject(1);
+		long captured = obj.getModificationCount();
+		obj.setPosition(10, 0, 10); // modified after the save captured its state
+		obj.markSaved(captured);
+		assertTrue(obj.isDirty());
+		obj.markSaved(obj.getModificationCount());
+		assertFalse(obj.isDirty());
+		obj.markSaved(captured); // a late, older save must not roll back the saved marker
+		assertFalse(obj.isDirty());
+	}
+	
+	@Test
+	public void testObjectSettersMarkDirty() {
+		TangibleObject obj = new TangibleObject(1);
+		assertMarksDirty(obj, o -> o.setStf("obj_n", "unknown_object"));
+		assertMarksDirty(obj, o -> o.setStringId(new StringId("obj_n", "unknown_object")));
+		assertMarksDirty(obj, o -> o.setDetailStf(new StringId("obj_d", "unknown_object")));
+		assertMarksDirty(obj, o -> o.setTemplate("object/tangible/shared_unknown.iff"));
+		assertMarksDirty(obj, o -> o.setVolume(5));
+		assertMarksDirty(obj, o -> o.setComplexity(2));
+		assertMarksDirty(obj, o -> o.setServerAttribute(ServerAttribute.ITEM_VALUE, 10));
+		assertMarksDirty(obj, o -> o.setNoTrade(true));
+		assertMarksDirty(obj, o -> o.setContainerPermissions(AdminPermissions.getPermissions()));
+		assertMarksDirty(obj, o -> o.setPersisted(true));
+	}
+	
+	@Test
+	public void testTangibleSettersMarkDirty() {
+		TangibleObject obj = new TangibleObject(1);
+		assertMarksDirty(obj, o -> o.setRequiredSkill("combat_marksman_novice"));
+		assertMarksDirty(obj, o -> o.setLightsaberColorCrystalElementalType(DamageType.HEAT));
+		assertMarksDirty(obj, o -> o.setLightsaberColorCrystalDamagePercent(5));
+		assertMarksDirty(obj, o -> o.setPvpFlags(PvpFlag.PLAYER));
+		assertMarksDirty(obj, o -> o.clearPvpFlags(PvpFlag.PLAYER));
+		assertMarksDirty(obj, o -> o.setPvpStatus(PvpStatus.COMBATANT));
+		assertMarksDirty(obj, o -> o.setFaction(null));
+		assertMarksDirty(obj, o -> o.setComponents(3));
+		assertMarksDirty(obj, o -> o.setVisibleGmOnly(true));
+		assertMarksDirty(obj, o -> o.setObjectEffects(new byte[]{1}));
+		assertMarksDirty(obj, o -> o.setOptionFlags(4));
+		assertMarksDirty(obj, o -> o.setRequiredCombatLevel(10));
+		assertMarksDirty(obj, o -> o.adjustSkillmod("luck", 5, 0));
+		assertMarksDirty(obj, o -> o.setArmorCategory(null));
+		assertMarksDirty(obj, o -> o.setProtection(null));
+		assertMarksDirty(obj, o -> o.setLightsaberPowerCrystalQuality(null));
+		assertMarksDirty(obj, o -> o.setLightsaberPowerCrystalMinDmg(10));
+		assertMarksDirty(obj, o -> o.setLightsaberPowerCrystalMaxDmg(20));
+		assertMarksDirty(obj, o -> o.setTicketInformation(null));
+	}
+	
+	@Test
+	public void testWeaponSettersMarkDirty() {
+		WeaponObject obj = new WeaponObject(1);
+		assertMarksDirty(obj, o -> o.setForcePowerCost(10));
+		assertMarksDirty(obj, o -> o.setAttackSpeed(2));
+		assertMarksDirty(obj, o -> o.setMaxRange(64));
+		assertMarksDirty(obj, o -> o.setAccuracy(5));
+		assertMarksDirty(obj, o -> o.setDamageType(DamageType.KINETIC));
+		assertMarksDirty(obj, o -> o.setElementalType(DamageType.HEAT));
+		assertMarksDirty(obj, o -> o.setElementalValue(15));
+		assertMarksDirty(obj, o -> o.setType(WeaponType.RIFLE));
+		assertMarksDirty(obj, o -> o.setMinDamage(10));
+		assertMarksDirty(obj, o -> o.setMaxDamage(20));
+		assertMarksDirty(obj, o -> o.setWoundChance(1));
+		assertMarksDirty(obj, o -> o.setProcEffect("proc"));
+		assertMarksDirty(obj, o -> o.setSpecialAttackCost(100));
+		assertMarksDirty(obj, o -> o.setSplashDamagePercent(10));
+		assertMarksDirty(obj, o -> o.setSplashDamageRadius(5));
+	}
+	
+	@Test
+	public void testCreatureSettersMarkDirty() {
+		assertMarksDirty(new GenericCreatureObject(1), o -> o.setRace(Race.TWILEK_FEMALE));
+	}
+	
+	@Test
+	public void testPlayerSettersMarkDirty() {
+		PlayerObject obj = new PlayerObject(1);
+		Mail mail = new Mail("sender", "subject", "message", 2);
+		assertMarksDirty(obj, o -> o.setBiography("biography"));
+		assertMarksDirty(obj, o -> o.setAccount("account"));
+		assertMarksDirty(obj, o -> o.adjustFactionPoints("rebel", 100));
+		assertMarksDirty(obj, o -> o.addMail(mail));
+		assertMarksDirty(obj, o -> o.removeMail(mail));
+	}
+	
+	@Test
+	public void testOtherObjectSettersMarkDirty() {
+		assertMarksDirty(new BuildingObject(1), o -> o.setPlayerStructureInfo(new PlayerStructureInfo(null)));
+		assertMarksDirty(new ResourceContainerObject(2), o -> o.setStats(null));
+		
+		WaypointObject waypoint = new WaypointObject(3);
+		assertMarksDirty(waypoint, o -> o.setPosition(Terrain.TATOOINE, 10, 0, 10));
+		assertMarksDirty(waypoint, o -> o.setTerrain(Terrain.NABOO));
+		assertMarksDirty(waypoint, o -> o.setPosition(20, 0, 20));
+		assertMarksDirty(waypoint, o -> o.setCellId(4));
+		assertMarksDirty(waypoint, o -> o.setName("waypoint"));
+		assertMarksDirty(waypoint, o -> o.setColor(WaypointColor.ORANGE));
+		assertMarksDirty(waypoint, o -> o.setActive(true));
+		assertMarksDirty(waypoint, o -> o.setOOB(waypoint.getOOB()));
+	}
+	
+	private static <T extends SWGObject> void assertMarksDirty(T obj, Consumer<T> mutation) {
+		obj.markSaved(obj.getModificationCount());
+		mutation.accept(obj);
+		assertTrue(obj.isDirty());
+	}
+	
+}
@@ -0,0 +1,82 @@
+/***********************************************************************************
+ * Copyright (c) 2025 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is an emulation project for Star Wars Galaxies founded on            *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create one or more emulators which will provide servers for      *
+ * players to continue playing a game similar to the one they used to play.        *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.services.gameplay.player.quest
+
+import com.projectswg.common.data.location.Location
+import com.projectswg.common.data.location.Terrain
+import com.projectswg.holocore.resources.support.data.server_info.loader.ServerData.questLoader
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+class TestQuestTriggerIndex {
+
+	private val questListInfo = questLoader.getQuestListInfo("quest/c_darndroid2") ?: throw IllegalStateException("Quest info not found")
+	private val tasks = questLoader.getTaskListInfos("quest/c_darndroid2")
+
+	@Test
+	fun testLocationTriggerInsideRadius() {
+		val index = QuestTriggerIndex()
+		index.addTask(questListInfo, tasks[0])    // go_to_location on talus at (5353, 131, 5632) with a radius of 20
+
+		val triggers = index.getLocationTriggers(location(Terrain.TALUS, 5360.0, 131.0, 5640.0))
+		assertEquals(1, triggers.size)
+		assertSame(tasks[0], triggers[0].task)
+	}
+
+	@Test
+	fun testLocationTriggerOutsideRadius() {
+		val index = QuestTriggerIndex()
+		index.addTask(questListInfo, tasks[0])
+
+		assertTrue(index.getLocationTriggers(location(Terrain.TALUS, 5400.0, 131.0, 5632.0)).isEmpty())
+		assertTrue(index.getLocationTriggers(location(Terrain.TATOOINE, 5353.0, 131.0, 5632.0)).isEmpty())
+	}
+
+	@Test
+	fun testKillTriggerByServerTemplate() {
+		val index = QuestTriggerIndex()
+		index.addTask(questListInfo, tasks[1])    // destroy_multi targeting black_sun_minion
+		index.addTask(questListInfo, tasks[2])    // destroy_multi targeting black_sun_smuggler
+
+		val triggers = index.getKillTriggers("black_sun_minion", null)
+		assertEquals(1, triggers.size)
+		assertSame(tasks[1], triggers[0].task)
+		assertTrue(index.getKillTriggers("black_sun_initiate", null).isEmpty())
+	}
+
+	@Test
+	fun testUnrelatedTasksAreNotIndexed() {
+		val index = QuestTriggerIndex()
+		index.addTask(questListInfo, tasks[4])    // wait_for_signal
+
+		assertTrue(index.isEmpty)
+	}
+
+	private fun location(terrain: Terrain, x: Double, y: Double, z: Double): Location {
+		return Location.builder().setTerrain(terrain).setPosition(x, y, z).build()
+	}
+
+}
@@ -28,7 +28,17 @@
 package com.projectswg.holocore.services.support.npc.ai
 
 import com.projectswg.common.data.location.Location
+import com.projectswg.common.data.location.Terrain
 import com.projectswg.holocore.resources.support.npc.ai.NavigationOffset
+import com.projectswg.holocore.resources.support.npc.ai.NavigationPoint
+import com.projectswg.holocore.resources.support.npc.ai.NavigationRouteType
+import com.projectswg.holocore.resources.support.npc.spawn.NPCCreator
+import com.projectswg.holocore.resources.support.npc.spawn.SimpleSpawnInfo
+import com.projectswg.holocore.resources.support.npc.spawn.Spawner
+import com.projectswg.holocore.resources.support.objects.ObjectCreator
+import com.projectswg.holocore.resources.support.objects.swg.creature.CreatureDifficulty
+import com.projectswg.holocore.resources.support.objects.swg.custom.AIObject
+import com.projectswg.holocore.test.resources.GenericCreatureObject
 import com.projectswg.holocore.test.runners.TestRunnerNoIntents
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
@@ -51,6 +61,63 @@ class TestAIMovementService: TestRunnerNoIntents() {
 		testOffset(headingTo(1.0, 1.0),   sqrt(2.0), 0.0)
 	}
 	
+	@Test
+	fun testPatrolGroupSharesSlot() {
+		val service = AIMovementService()
+		val (leader, follower) = spawnNpcs(2)
+		val (other) = spawnNpcs(1)
+		service.setRoute(leader, patrolRoute(), NavigationRouteType.LOOP)
+		service.setRoute(follower, patrolRoute(), NavigationRouteType.LOOP)
+		service.setRoute(other, patrolRoute(), NavigationRouteType.LOOP)
+		
+		assertEquals(service.getSlot(leader), service.getSlot(follower), "a patrol group must be stepped in one slot")
+		assertNotEquals(service.getSlot(leader), service.getSlot(other), "separate patrols are spread across the wheel")
+		
+		service.removeRoute(leader)
+		service.removeRoute(follower)
+		assertNull(service.getSlot(leader))
+		service.setRoute(leader, patrolRoute(), NavigationRouteType.TERMINATE)
+		assertNotNull(service.getSlot(leader))
+	}
+	
+	@Test
+	fun testPatrolGroupPausesTogether() {
+		val service = AIMovementService()
+		val (leader, follower) = spawnNpcs(2)
+		service.setRoute(leader, patrolRoute(), NavigationRouteType.LOOP)
+		service.setRoute(follower, patrolRoute(), NavigationRouteType.LOOP)
+		val slot = service.getSlot(leader)!!
+		
+		assertTrue(service.collectMoves(slot).isEmpty(), "nobody can see the patrol, so it should wait")
+		
+		follower.addObserver(GenericCreatureObject(getUniqueId()))
+		val moves = service.collectMoves(slot)
+		assertEquals(setOf(leader, follower), moves.map { it.obj }.toSet(), "the whole group moves once any member is seen")
+	}
+	
+	private fun spawnNpcs(amount: Int): List<AIObject> {
+		val location = Location.builder().setTerrain(Terrain.TATOOINE).setX(-3521.0).setY(5.0).setZ(-4807.0).build()
+		val egg = ObjectCreator.createObjectFromTemplate("object/tangible/ground_spawning/shared_patrol_spawner.iff")
+		egg.moveToContainer(null, location)
+		
+		val spawnInfo = SimpleSpawnInfo.builder()
+			.withNpcId("humanoid_mos_eisley_police_officer")
+			.withDifficulty(CreatureDifficulty.NORMAL)
+			.withMinLevel(1)
+			.withMaxLevel(1)
+			.withLocation(location)
+			.withAmount(amount)
+			.build()
+		return NPCCreator.createAllNPCs(Spawner(spawnInfo, egg)).toList()
+	}
+	
+	private fun patrolRoute(): List<NavigationPoint> {
+		return listOf(
+			NavigationPoint.at(null, Location.builder().setTerrain(Terrain.TATOOINE).setPosition(0.0, 0.0, 0.0).build(), 1.0),
+			NavigationPoint.at(null, Location.builder().setTerrain(Terrain.TATOOINE).setPosition(1.0, 0.0, 0.0).build(), 1.0)
+		)
+	}
+	
 	private fun headingTo(eX: Double, eZ: Double): Double {
 		return Location.builder().setPosition(0.0, 0.0, 0.0).build().getHeadingTo(Location.builder().setPosition(eX, 0.0, eZ).build())
 	}
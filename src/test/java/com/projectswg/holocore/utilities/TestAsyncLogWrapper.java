@@ -0,0 +1,104 @@
+package com.projectswg.holocore.utilities;
+
+import me.joshlarson.jlcommon.log.Log;
+import me.joshlarson.jlcommon.log.LogWrapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAsyncLogWrapper {
+	
+	@Test
+	public void testLinesDeliveredInOrder() {
+		List<String> lines = new CopyOnWriteArrayList<>();
+		AsyncLogWrapper wrapper = new AsyncLogWrapper(Log.LogLevel.TRACE, List.of(collector(lines)));
+		for (int i = 0; i < 100; i++)
+			wrapper.onLog(Log.LogLevel.INFO, "line " + i);
+		wrapper.close();
+		
+		assertEquals(100, lines.size());
+		for (int i = 0; i < 100; i++)
+			assertEquals("line " + i, lines.get(i));
+	}
+	
+	@Test
+	public void testLevelFiltered() {
+		List<String> lines = new CopyOnWriteArrayList<>();
+		AsyncLogWrapper wrapper = new AsyncLogWrapper(Log.LogLevel.INFO, List.of(collector(lines)));
+		wrapper.onLog(Log.LogLevel.TRACE, "trace");
+		wrapper.onLog(Log.LogLevel.DATA, "data");
+		wrapper.onLog(Log.LogLevel.WARN, "warn");
+		wrapper.close();
+		
+		assertEquals(List.of("warn"), lines);
+	}
+	
+	@Test
+	public void testOverflowIsDroppedNotBlocked() {
+		List<String> lines = new CopyOnWriteArrayList<>();
+		Object lock = new Object();
+		LogWrapper slow = (level, str) -> {
+			synchronized (lock) {
+				lines.add(str);
+			}
+		};
+		AsyncLogWrapper wrapper = new AsyncLogWrapper(Log.LogLevel.TRACE, List.of(slow), null, 4);
+		synchronized (lock) {
+			for (int i = 0; i < 100; i++)
+				wrapper.onLog(Log.LogLevel.INFO, "line " + i);
+		}
+		wrapper.close();
+		
+		assertTrue(lines.size() < 100);
+		assertTrue(lines.stream().anyMatch(line -> line.contains("dropped")));
+	}
+	
+	@Test
+	public void testWarningsNotDroppedOnOverflow() {
+		List<String> lines = new CopyOnWriteArrayList<>();
+		Object lock = new Object();
+		LogWrapper slow = (level, str) -> {
+			synchronized (lock) {
+				lines.add(str);
+			}
+		};
+		AsyncLogWrapper wrapper = new AsyncLogWrapper(Log.LogLevel.TRACE, List.of(slow), null, 8);
+		synchronized (lock) {
+			for (int i = 0; i < 100; i++)
+				wrapper.onLog(Log.LogLevel.INFO, "line " + i);
+			wrapper.onLog(Log.LogLevel.ERROR, "error");
+		}
+		wrapper.close();
+		
+		assertTrue(lines.size() < 100);
+		assertTrue(lines.contains("error"));
+	}
+	
+	@Test
+	public void testStructuredOutput(@TempDir File directory) throws IOException {
+		File output = new File(directory, "log.jsonl");
+		AsyncLogWrapper wrapper = new AsyncLogWrapper(Log.LogLevel.TRACE, List.of(), output);
+		wrapper.onLog(Log.LogLevel.DATA, "01-01-24 00:00:00.000 D: [QuestService] user/Char said \"hi\"");
+		wrapper.close();
+		
+		List<String> lines = Files.readAllLines(output.toPath());
+		assertEquals(1, lines.size());
+		String json = lines.get(0);
+		assertTrue(json.startsWith("{\"time\":\""));
+		assertTrue(json.contains("\"level\":\"DATA\""));
+		assertTrue(json.contains("\"service\":\"QuestService\""));
+		assertTrue(json.contains("\"message\":\"[QuestService] user/Char said \\\"hi\\\"\""));
+	}
+	
+	private static LogWrapper collector(List<String> lines) {
+		return (level, str) -> lines.add(str);
+	}
+	
+}
@@ -0,0 +1,84 @@
+/***********************************************************************************
+ * Copyright (c) 2025 /// Project SWG /// www.projectswg.com                       *
+ *                                                                                 *
+ * ProjectSWG is an emulation project for Star Wars Galaxies founded on            *
+ * July 7th, 2011 after SOE announced the official shutdown of Star Wars Galaxies. *
+ * Our goal is to create one or more emulators which will provide servers for      *
+ * players to continue playing a game similar to the one they used to play.        *
+ *                                                                                 *
+ * This file is part of Holocore.                                                  *
+ *                                                                                 *
+ * --------------------------------------------------------------------------------*
+ *                                                                                 *
+ * Holocore is free software: you can redistribute it and/or modify                *
+ * it under the terms of the GNU Affero General Public License as                  *
+ * published by the Free Software Foundation, either version 3 of the              *
+ * License, or (at your option) any later version.                                 *
+ *                                                                                 *
+ * Holocore is distributed in the hope that it will be useful,                     *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                  *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                   *
+ * GNU Affero General Public License for more details.                             *
+ *                                                                                 *
+ * You should have received a copy of the GNU Affero General Public License        *
+ * along with Holocore.  If not, see <http://www.gnu.org/licenses/>.               *
+ ***********************************************************************************/
+package com.projectswg.holocore.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestObjectSizeEstimator {
+	
+	@Test
+	public void testGrowsWithContents() {
+		Map<String, long[]> small = new HashMap<>();
+		Map<String, long[]> large = new HashMap<>();
+		for (int i = 0; i < 10; i++)
+			small.put("key" + i, new long[8]);
+		for (int i = 0; i < 1000; i++)
+			large.put("key" + i, new long[8]);
+		
+		long smallSize = new ObjectSizeEstimator().estimate(small);
+		long largeSize = new ObjectSizeEstimator().estimate(large);
+		assertTrue(smallSize >= 10 * (16 + 64)); // at least the arrays themselves
+		assertTrue(largeSize > smallSize * 50);
+	}
+	
+	@Test
+	public void testSharedObjectsCountedOnce() {
+		long[] shared = new long[1024];
+		List<Holder> first = new ArrayList<>(List.of(new Holder(shared)));
+		List<Holder> second = new ArrayList<>(List.of(new Holder(shared)));
+		
+		ObjectSizeEstimator estimator = new ObjectSizeEstimator();
+		long firstSize = estimator.estimate(first);
+		long secondSize = estimator.estimate(second);
+		assertTrue(firstSize > 8192);
+		assertTrue(secondSize < 8192);
+	}
+	
+	@Test
+	public void testBoundaryExcluded() {
+		Holder holder = new Holder(new long[1024]);
+		long size = new ObjectSizeEstimator(obj -> obj instanceof long[]).estimate(holder);
+		assertEquals(16, size);
+	}
+	
+	private static class Holder {
+		
+		private final Object value;
+		
+		public Holder(Object value) {
+			this.value = value;
+		}
+		
+	}
+	
+}
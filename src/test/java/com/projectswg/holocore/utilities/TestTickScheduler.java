@@ -0,0 +1,102 @@
+package com.projectswg.holocore.utilities;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTickScheduler {
+	
+	private final TickGroup group = TickScheduler.group("test-tick-scheduler");
+	
+	@AfterEach
+	public void stopGroup() {
+		group.stop();
+		assertTrue(group.awaitTermination(1000));
+	}
+	
+	@Test
+	public void testDelayedTaskRunsAfterDelay() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		long start = System.nanoTime();
+		TickTask task = group.execute(100, latch::countDown);
+		
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+		assertFalse(task.cancel());
+	}
+	
+	@Test
+	public void testDelayedTaskBeyondFirstWheel() throws InterruptedException {
+		// 64 ticks of 10ms fit in the lowest wheel, so this has to cascade down from the next level
+		CountDownLatch latch = new CountDownLatch(1);
+		long start = System.nanoTime();
+		group.execute(900, latch::countDown);
+		
+		assertTrue(latch.await(3, TimeUnit.SECONDS));
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 900);
+	}
+	
+	@Test
+	public void testCancelledTaskDoesNotRun() throws InterruptedException {
+		AtomicBoolean ran = new AtomicBoolean(false);
+		TickTask task = group.execute(50, () -> ran.set(true));
+		assertTrue(task.cancel());
+		assertTrue(task.isCancelled());
+		
+		Thread.sleep(200);
+		assertFalse(ran.get());
+	}
+	
+	@Test
+	public void testFixedRateRepeats() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(3);
+		TickTask task = group.executeWithFixedRate(0, 50, latch::countDown);
+		
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		assertTrue(task.cancel());
+	}
+	
+	@Test
+	public void testGroupRunsTasksOneAtATime() throws InterruptedException {
+		AtomicInteger running = new AtomicInteger(0);
+		AtomicBoolean overlapped = new AtomicBoolean(false);
+		CountDownLatch latch = new CountDownLatch(8);
+		for (int i = 0; i < 8; i++) {
+			group.execute(20, () -> {
+				if (running.incrementAndGet() > 1)
+					overlapped.set(true);
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+				latch.countDown();
+			});
+		}
+		
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		assertFalse(overlapped.get());
+	}
+	
+	@Test
+	public void testStatisticsRecorded() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		group.executeWithFixedRate("statistics", 0, 1000, latch::countDown);
+		assertTrue(latch.await(3, TimeUnit.SECONDS));
+		assertTrue(group.awaitTermination(1000));
+		
+		TickTaskStatistics statistics = TickScheduler.getStatistics().stream()
+				.filter(s -> s.getTask().equals("test-tick-scheduler/statistics"))
+				.findAny()
+				.orElseThrow();
+		assertTrue(statistics.getCount() >= 1);
+	}
+	
+}